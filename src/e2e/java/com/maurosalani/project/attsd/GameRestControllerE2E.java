@@ -15,6 +15,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 
 import com.maurosalani.project.attsd.dto.GameDTO;
+import com.maurosalani.project.attsd.dto.GameSummaryDTO;
 import com.maurosalani.project.attsd.model.Game;
 
 import io.restassured.RestAssured;
@@ -61,16 +62,18 @@ public class GameRestControllerE2E {
 		Game saved1 = insertGameInDatabase(new GameDTO(null, "name1", "description", new Date(1000)));
 		Game saved2 = insertGameInDatabase(new GameDTO(null, "name2", "description", new Date(1000)));
 		
-		Game[] games =  
+		GameSummaryDTO summary1 = new GameSummaryDTO(saved1.getId(), saved1.getName(), saved1.getReleaseDate());
+		GameSummaryDTO summary2 = new GameSummaryDTO(saved2.getId(), saved2.getName(), saved2.getReleaseDate());
+		GameSummaryDTO[] games =  
 				given().
 				when().
 					get("/api/games").
 				then().
 					statusCode(200).
 					extract().
-					as(Game[].class);
-		assertThat(games[0]).matches(game -> game.equals(saved1) || game.equals(saved2));
-		assertThat(games[1]).matches(game -> game.equals(saved1) || game.equals(saved2));
+					as(GameSummaryDTO[].class);
+		assertThat(games[0]).matches(game -> game.equals(summary1) || game.equals(summary2));
+		assertThat(games[1]).matches(game -> game.equals(summary1) || game.equals(summary2));
 
 	}
 	
@@ -20,6 +20,7 @@ import com.maurosalani.project.attsd.dto.UpdateAddFollowedUserFormDTO;
 import com.maurosalani.project.attsd.dto.UpdateAddGameLikedUserFormDTO;
 import com.maurosalani.project.attsd.dto.UpdatePasswordUserFormDTO;
 import com.maurosalani.project.attsd.dto.UserDTO;
+import com.maurosalani.project.attsd.dto.UserSummaryDTO;
 import com.maurosalani.project.attsd.model.Game;
 import com.maurosalani.project.attsd.model.User;
 
@@ -67,16 +68,18 @@ public class UserRestControllerE2E {
 		User saved1 = insertUserInDatabase(new UserDTO(null, "username1", "password"));
 		User saved2 = insertUserInDatabase(new UserDTO(null, "username2", "password"));
 		
-		User[] users =  
+		UserSummaryDTO summary1 = new UserSummaryDTO(saved1.getId(), saved1.getUsername());
+		UserSummaryDTO summary2 = new UserSummaryDTO(saved2.getId(), saved2.getUsername());
+		UserSummaryDTO[] users =  
 				given().
 				when().
 					get("/api/users").
 				then().
 					statusCode(200).
 					extract().
-					as(User[].class);
-		assertThat(users[0]).matches(user -> user.equals(saved1) || user.equals(saved2));
-		assertThat(users[1]).matches(user -> user.equals(saved1) || user.equals(saved2));
+					as(UserSummaryDTO[].class);
+		assertThat(users[0]).matches(user -> user.equals(summary1) || user.equals(summary2));
+		assertThat(users[1]).matches(user -> user.equals(summary1) || user.equals(summary2));
 
 	}
 	
@@ -138,7 +141,20 @@ public class UserRestControllerE2E {
 					get("/api/users/id/" + saved.getId());
 		
 		assertThat(responseFind.getStatusCode()).isEqualTo(HttpStatus.OK.value());
-		assertThat(responseFind.getBody().as(User.class).getPassword()).isEqualTo("newPassword");
+		assertThat(responseFind.jsonPath().getMap("$")).doesNotContainKey("password");
+		
+		form.setCredentials(new CredentialsDTO("username", "newPassword"));
+		form.setNewPassword("password");
+		
+		Response responseChangeBack = 
+				given().
+					contentType(MediaType.APPLICATION_JSON_VALUE).
+					body(form).
+				when().
+					patch("/api/users/update/password/" + saved.getId());
+		
+		assertThat(responseChangeBack.getStatusCode()).isEqualTo(HttpStatus.OK.value());
+		assertThat(responseChangeBack.jsonPath().getMap("$")).doesNotContainKey("password");
 	}
 	
 	@Test
@@ -17,13 +17,21 @@ import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import com.maurosalani.project.attsd.cache_config.CacheConfig;
 import com.maurosalani.project.attsd.model.Game;
 import com.maurosalani.project.attsd.repository.GameRepository;
+import com.maurosalani.project.attsd.repository.UserRelationRepository;
+import com.maurosalani.project.attsd.service.AutocompleteService;
+import com.maurosalani.project.attsd.service.GameCacheService;
 import com.maurosalani.project.attsd.service.GameService;
+import com.maurosalani.project.attsd.service.LeaderboardService;
+import com.maurosalani.project.attsd.service.SimilarGamesService;
+import com.maurosalani.project.attsd.service.TrendingService;
 
 @RunWith(SpringRunner.class)
 @DataJpaTest
-@Import(GameService.class)
+@Import({ GameService.class, AutocompleteService.class, GameCacheService.class, CacheConfig.class,
+		TrendingService.class, SimilarGamesService.class, UserRelationRepository.class, LeaderboardService.class })
 @AutoConfigureTestDatabase(replace = Replace.NONE)
 @ActiveProfiles("mysql")
 public class GameServiceRepositoryIT {
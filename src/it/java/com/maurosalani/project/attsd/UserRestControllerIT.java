@@ -16,6 +16,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import com.maurosalani.project.attsd.dto.CredentialsDTO;
+import com.maurosalani.project.attsd.dto.RelationDTO;
 import com.maurosalani.project.attsd.dto.UpdateAddFollowedUserFormDTO;
 import com.maurosalani.project.attsd.dto.UpdatePasswordUserFormDTO;
 import com.maurosalani.project.attsd.dto.UpdateUserFormDTO;
@@ -55,14 +56,14 @@ public class UserRestControllerIT {
 					post("/api/users/new");
 		User saved = response.getBody().as(User.class);
 
-		assertThat(userRepository.findById(saved.getId()).get()).isEqualTo(saved);
+		assertThat(userRepository.findById(saved.getId()).get()).isEqualToComparingOnlyGivenFields(saved, "id", "username");
 	}
 	
 	@Test
 	public void testUpdate_WithExistingUser() throws Exception {
 		User saved = userRepository.save(new User (null, "testUsername", "testPassword"));
 		CredentialsDTO credentialsDTO = new CredentialsDTO("testUsername", "testPassword");
-		User userReplacement = new User(null, "new_username", "new_password");
+		UserDTO userReplacement = new UserDTO(null, "new_username", "new_password");
 		UpdateUserFormDTO form = new UpdateUserFormDTO(credentialsDTO, userReplacement);
 		
 		Response response =
@@ -73,7 +74,7 @@ public class UserRestControllerIT {
 					put("/api/users/update/" + saved.getId());
 		User updated = response.getBody().as(User.class);
 
-		assertThat(userRepository.findById(saved.getId()).get()).isEqualTo(updated);
+		assertThat(userRepository.findById(saved.getId()).get()).isEqualToComparingOnlyGivenFields(updated, "id", "username");
 	}
 	
 	@Test
@@ -90,7 +91,7 @@ public class UserRestControllerIT {
 					patch("/api/users/update/password/" + saved.getId());
 		User updated = response.getBody().as(User.class);
 
-		assertThat(userRepository.findById(saved.getId()).get()).isEqualTo(updated);
+		assertThat(userRepository.findById(saved.getId()).get()).isEqualToComparingOnlyGivenFields(updated, "id", "username");
 	}
 	
 	@Test
@@ -106,9 +107,10 @@ public class UserRestControllerIT {
 					body(form).
 				when().
 					patch("/api/users/update/addFollowedUser/" + userToUpdate.getId());
-		User updated = response.getBody().as(User.class);
+		RelationDTO relation = response.getBody().as(RelationDTO.class);
 		
-		assertThat(userRepository.findById(userToUpdate.getId()).get()).isEqualTo(updated);
+		assertThat(relation).isEqualTo(new RelationDTO(userToUpdate.getId(), followedToAdd.getId(), true));
+		assertThat(userRepository.findFollowedIdsById(userToUpdate.getId())).containsExactly(followedToAdd.getId());
 	}
 	
 	@Test
@@ -17,15 +17,32 @@ import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import com.maurosalani.project.attsd.cache_config.CacheConfig;
 import com.maurosalani.project.attsd.model.Game;
 import com.maurosalani.project.attsd.model.User;
 import com.maurosalani.project.attsd.repository.GameRepository;
+import com.maurosalani.project.attsd.repository.UserRelationRepository;
 import com.maurosalani.project.attsd.repository.UserRepository;
+import com.maurosalani.project.attsd.service.AutocompleteService;
+import com.maurosalani.project.attsd.service.CounterService;
+import com.maurosalani.project.attsd.service.CredentialService;
+import com.maurosalani.project.attsd.service.FeedService;
+import com.maurosalani.project.attsd.service.LeaderboardService;
+import com.maurosalani.project.attsd.service.FollowGraphService;
+import com.maurosalani.project.attsd.service.FollowSuggestionService;
+import com.maurosalani.project.attsd.service.MutualsService;
+import com.maurosalani.project.attsd.service.GameCacheService;
+import com.maurosalani.project.attsd.service.SessionUserCache;
+import com.maurosalani.project.attsd.service.SimilarGamesService;
+import com.maurosalani.project.attsd.service.TrendingService;
 import com.maurosalani.project.attsd.service.UserService;
 
 @RunWith(SpringRunner.class)
 @DataJpaTest
-@Import(UserService.class)
+@Import({ UserService.class, AutocompleteService.class, SessionUserCache.class, UserRelationRepository.class,
+		CounterService.class, GameCacheService.class, CacheConfig.class, TrendingService.class,
+		FollowGraphService.class, FollowSuggestionService.class, MutualsService.class,
+		SimilarGamesService.class, FeedService.class, LeaderboardService.class, CredentialService.class })
 @AutoConfigureTestDatabase(replace = Replace.NONE)
 @ActiveProfiles("mysql")
 public class UserServiceRepositoryIT {
@@ -77,9 +94,9 @@ public class UserServiceRepositoryIT {
 		User followedToAdd = new User(null, "followed", "password");
 		userRepository.save(userToUpdate);
 		userRepository.save(followedToAdd);
-		User userResulted = userService.addFollowedUser(userToUpdate, followedToAdd);
+		userService.addFollowedUser(userToUpdate.getId(), followedToAdd.getId());
 
-		assertThat(userRepository.findById(userToUpdate.getId()).get()).isEqualTo(userResulted);
+		assertThat(userRepository.findFollowedIdsById(userToUpdate.getId())).containsExactly(followedToAdd.getId());
 	}
 
 	@Test
@@ -88,9 +105,9 @@ public class UserServiceRepositoryIT {
 		Game gameToAdd = new Game(null, "gameToAdd", "description", new Date(1));
 		userRepository.save(userToUpdate);
 		gameRepository.save(gameToAdd);
-		User userResulted = userService.addGame(userToUpdate, gameToAdd);
+		userService.addGame(userToUpdate.getId(), gameToAdd.getId());
 
-		assertThat(userRepository.findById(userToUpdate.getId()).get()).isEqualTo(userResulted);
+		assertThat(userRepository.findGameIdsById(userToUpdate.getId())).containsExactly(gameToAdd.getId());
 	}
 
 	@Test
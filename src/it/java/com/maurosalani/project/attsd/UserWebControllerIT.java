@@ -20,6 +20,8 @@ import com.maurosalani.project.attsd.model.Game;
 import com.maurosalani.project.attsd.model.User;
 import com.maurosalani.project.attsd.repository.GameRepository;
 import com.maurosalani.project.attsd.repository.UserRepository;
+import com.maurosalani.project.attsd.service.GameService;
+import com.maurosalani.project.attsd.service.UserService;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
@@ -31,6 +33,12 @@ public class UserWebControllerIT {
 	@Autowired
 	private UserRepository userRepository;
 
+	@Autowired
+	private GameService gameService;
+
+	@Autowired
+	private UserService userService;
+
 	@LocalServerPort
 	private int port;
 
@@ -52,8 +60,8 @@ public class UserWebControllerIT {
 	public void testHomePage_UserShouldSeeLoginAndLatestReleasesGames() {
 		Game gameLatestRelease1 = new Game(null, "game1", "description1", new Date(1000));
 		Game gameLatestRelease2 = new Game(null, "game2", "description2", new Date(1001));
-		gameRepository.save(gameLatestRelease1);
-		gameRepository.save(gameLatestRelease2);
+		gameService.insertNewGame(gameLatestRelease1);
+		gameService.insertNewGame(gameLatestRelease2);
 		driver.get(baseUrl);
 
 		driver.findElement(By.linkText("Log in"));
@@ -101,6 +109,8 @@ public class UserWebControllerIT {
 		gameRepository.save(game1);
 		gameRepository.save(game2);
 		gameRepository.save(gameNotComplying);
+		userService.buildUsernameIndex();
+		gameService.buildNameIndex();
 
 		driver.get(baseUrl);
 		driver.findElement(By.name("content_search")).sendKeys("Name");
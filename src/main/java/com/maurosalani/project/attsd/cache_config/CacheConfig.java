@@ -0,0 +1,29 @@
+package com.maurosalani.project.attsd.cache_config;
+
+import java.io.IOException;
+
+import javax.cache.CacheManager;
+
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+@Configuration
+public class CacheConfig {
+
+	@Bean(destroyMethod = "close")
+	public CacheManager hibernateCacheManager(@Value("${attsd.cache.config:classpath:ehcache.xml}") Resource config)
+			throws IOException {
+		return new EhcacheCachingProvider().getCacheManager(config.getURI(), getClass().getClassLoader());
+	}
+
+	@Bean
+	public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+		return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+	}
+
+}
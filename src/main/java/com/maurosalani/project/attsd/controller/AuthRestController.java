@@ -0,0 +1,31 @@
+package com.maurosalani.project.attsd.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.maurosalani.project.attsd.dto.CredentialsDTO;
+import com.maurosalani.project.attsd.dto.TokenDTO;
+import com.maurosalani.project.attsd.exception.LoginFailedException;
+import com.maurosalani.project.attsd.service.TokenService;
+import com.maurosalani.project.attsd.service.UserService;
+
+@RestController
+@RequestMapping("/api/auth")
+public class AuthRestController {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private TokenService tokenService;
+
+	@PostMapping(path = "/token", consumes = MediaType.APPLICATION_JSON_UTF8_VALUE, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+	public TokenDTO issueToken(@RequestBody CredentialsDTO credentials) throws LoginFailedException {
+		return tokenService.issue(userService.verifyLogin(credentials).getId());
+	}
+
+}
@@ -0,0 +1,28 @@
+package com.maurosalani.project.attsd.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.maurosalani.project.attsd.dto.AutocompleteDTO;
+import com.maurosalani.project.attsd.service.AutocompleteService;
+
+@RestController
+@RequestMapping("/api/autocomplete")
+public class AutocompleteRestController {
+
+	private static final String DEFAULT_LIMIT = "5";
+
+	@Autowired
+	private AutocompleteService autocompleteService;
+
+	@GetMapping(produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+	public AutocompleteDTO autocomplete(@RequestParam(value = "q") String prefix,
+			@RequestParam(value = "limit", defaultValue = DEFAULT_LIMIT) int limit) {
+		return autocompleteService.complete(prefix, limit);
+	}
+
+}
@@ -0,0 +1,37 @@
+package com.maurosalani.project.attsd.controller;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.maurosalani.project.attsd.service.ExportService;
+
+@RestController
+@RequestMapping("/api/export")
+public class ExportRestController {
+
+	static final String NDJSON_VALUE = "application/x-ndjson";
+
+	static final String NDJSON_UTF8_VALUE = NDJSON_VALUE + ";charset=UTF-8";
+
+	@Autowired
+	private ExportService exportService;
+
+	@GetMapping(path = "/games")
+	public void exportGames(HttpServletResponse response) throws IOException {
+		response.setContentType(NDJSON_UTF8_VALUE);
+		exportService.exportGames(response.getOutputStream());
+	}
+
+	@GetMapping(path = "/users")
+	public void exportUsers(HttpServletResponse response) throws IOException {
+		response.setContentType(NDJSON_UTF8_VALUE);
+		exportService.exportUsers(response.getOutputStream());
+	}
+
+}
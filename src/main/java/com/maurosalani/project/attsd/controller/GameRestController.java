@@ -1,12 +1,15 @@
 package com.maurosalani.project.attsd.controller;
 
+import java.io.IOException;
 import java.util.List;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -14,12 +17,21 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 import com.maurosalani.project.attsd.dto.GameDTO;
+import com.maurosalani.project.attsd.dto.GameImportResultDTO;
+import com.maurosalani.project.attsd.dto.GameSummaryDTO;
+import com.maurosalani.project.attsd.dto.LeaderboardEntryDTO;
+import com.maurosalani.project.attsd.exception.BadRequestException;
 import com.maurosalani.project.attsd.exception.GameNotFoundException;
 import com.maurosalani.project.attsd.model.Game;
+import com.maurosalani.project.attsd.service.GameImportService;
 import com.maurosalani.project.attsd.service.GameService;
+import com.maurosalani.project.attsd.service.LeaderboardService;
+import com.maurosalani.project.attsd.service.QueryExecutor;
 
 @RestController
 @RequestMapping("/api/games")
@@ -28,24 +40,56 @@ public class GameRestController {
 	@Autowired
 	private GameService gameService;
 
+	@Autowired
+	private GameImportService gameImportService;
+
+	@Autowired
+	private QueryExecutor queryExecutor;
+
 	@GetMapping(produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-	public List<Game> getAllGames() {
-		return gameService.getAllGames();
+	public WebAsyncTask<ResponseEntity<List<GameSummaryDTO>>> getAllGames(
+			@RequestParam(value = "after", required = false) String after,
+			@RequestParam(value = "limit", defaultValue = PageTokens.DEFAULT_LIMIT) int limit)
+			throws BadRequestException {
+		Long cursor = PageTokens.decode(after);
+		return queryExecutor.submit("games", () -> PageTokens.toResponse(gameService.getGamesPage(cursor, limit)));
 	}
 
 	@GetMapping(path = "/id/{id}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-	public Game getGameById(@PathVariable Long id) throws GameNotFoundException {
-		return gameService.getGameById(id);
+	public WebAsyncTask<Game> getGameById(@PathVariable Long id) {
+		return queryExecutor.submit("game", () -> gameService.getGameById(id));
+	}
+
+	@GetMapping(path = "/id/{id}/similar", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+	public WebAsyncTask<List<GameSummaryDTO>> getSimilarGames(@PathVariable Long id) {
+		return queryExecutor.submit("similar-games", () -> gameService.getSimilarGames(id));
+	}
+
+	@GetMapping(path = "/id/{id}/leaderboard", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+	public WebAsyncTask<List<LeaderboardEntryDTO>> getLeaderboardAround(@PathVariable Long id,
+			@RequestParam(value = "radius", defaultValue = "" + LeaderboardService.DEFAULT_RADIUS) int radius) {
+		return queryExecutor.submit("game-leaderboard", () -> gameService.getLeaderboardAround(id, radius));
 	}
 
 	@GetMapping(path = "/name/{name}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-	public Game getGameByName(@PathVariable String name) throws GameNotFoundException {
-		return gameService.getGameByName(name);
+	public WebAsyncTask<Game> getGameByName(@PathVariable String name) {
+		return queryExecutor.submit("game", () -> gameService.getGameByName(name));
 	}
 
 	@GetMapping(path = "/namelike/{name}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-	public List<Game> getGamesByNameLike(@PathVariable String name) {
-		return gameService.getGamesByNameLike(name);
+	public WebAsyncTask<List<GameSummaryDTO>> getGamesByNameLike(@PathVariable String name) {
+		return queryExecutor.submit("games-like", () -> gameService.getGamesByNameLike(name));
+	}
+
+	@GetMapping(path = "/trending", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+	public List<GameSummaryDTO> getTrendingGames() {
+		return gameService.getTrendingGames();
+	}
+
+	@GetMapping(path = "/leaderboard", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+	public WebAsyncTask<List<LeaderboardEntryDTO>> getMostLikedGames(
+			@RequestParam(value = "limit", defaultValue = "" + LeaderboardService.DEFAULT_LIMIT) int limit) {
+		return queryExecutor.submit("most-liked-games", () -> gameService.getMostLikedGames(limit));
 	}
 
 	@PostMapping(path = "/new", consumes = MediaType.APPLICATION_JSON_UTF8_VALUE, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
@@ -53,6 +97,12 @@ public class GameRestController {
 		return gameService.insertNewGame(gameDto.getGame());
 	}
 
+	@PostMapping(path = "/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE,
+			ExportRestController.NDJSON_VALUE }, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+	public List<GameImportResultDTO> importGames(HttpServletRequest request) throws IOException {
+		return gameImportService.importGames(request.getInputStream());
+	}
+
 	@PutMapping(path = "/update/{id}", consumes = MediaType.APPLICATION_JSON_UTF8_VALUE, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
 	public Game updateGameById(@PathVariable Long id, @RequestBody GameDTO gameDto) throws GameNotFoundException {
 		return gameService.updateGameById(id, gameDto.getGame());
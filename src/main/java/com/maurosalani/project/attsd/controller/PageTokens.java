@@ -0,0 +1,53 @@
+package com.maurosalani.project.attsd.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+
+import com.maurosalani.project.attsd.dto.PageDTO;
+import com.maurosalani.project.attsd.exception.BadRequestException;
+
+/**
+ * Encodes the keyset position of a page into the opaque continuation token
+ * sent back in the {@value #CONTINUATION_HEADER} header, and decodes the
+ * token received in the <code>after</code> request parameter.
+ */
+final class PageTokens {
+
+	static final String CONTINUATION_HEADER = "X-Continuation-Token";
+
+	static final String DEFAULT_LIMIT = "50";
+
+	private static final String PREFIX = "after:";
+
+	private PageTokens() {
+	}
+
+	static String encode(Long after) {
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString((PREFIX + after).getBytes(StandardCharsets.UTF_8));
+	}
+
+	static Long decode(String token) throws BadRequestException {
+		if (token == null)
+			return null;
+		try {
+			String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			if (!decoded.startsWith(PREFIX))
+				throw new BadRequestException();
+			return Long.valueOf(decoded.substring(PREFIX.length()));
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException();
+		}
+	}
+
+	static <T> ResponseEntity<List<T>> toResponse(PageDTO<T> page) {
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+		if (page.getNextAfter() != null)
+			response.header(CONTINUATION_HEADER, encode(page.getNextAfter()));
+		return response.body(page.getItems());
+	}
+
+}
@@ -7,22 +7,33 @@ import javax.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 import com.maurosalani.project.attsd.dto.CredentialsDTO;
+import com.maurosalani.project.attsd.dto.FeedEventDTO;
+import com.maurosalani.project.attsd.dto.FollowSuggestionDTO;
+import com.maurosalani.project.attsd.dto.GameSummaryDTO;
+import com.maurosalani.project.attsd.dto.LeaderboardEntryDTO;
+import com.maurosalani.project.attsd.dto.MutualsDTO;
+import com.maurosalani.project.attsd.dto.RelationDTO;
 import com.maurosalani.project.attsd.dto.UpdateAddFollowedUserFormDTO;
 import com.maurosalani.project.attsd.dto.UpdateAddGameLikedUserFormDTO;
 import com.maurosalani.project.attsd.dto.UpdatePasswordUserFormDTO;
 import com.maurosalani.project.attsd.dto.UpdateUserFormDTO;
 import com.maurosalani.project.attsd.dto.UserDTO;
+import com.maurosalani.project.attsd.dto.UserSummaryDTO;
 import com.maurosalani.project.attsd.exception.BadRequestException;
 import com.maurosalani.project.attsd.exception.GameNotFoundException;
 import com.maurosalani.project.attsd.exception.LoginFailedException;
@@ -30,6 +41,10 @@ import com.maurosalani.project.attsd.exception.PasswordRequiredException;
 import com.maurosalani.project.attsd.exception.UserNotFoundException;
 import com.maurosalani.project.attsd.exception.UsernameAlreadyExistingException;
 import com.maurosalani.project.attsd.model.User;
+import com.maurosalani.project.attsd.security_config.TokenAuthenticationFilter;
+import com.maurosalani.project.attsd.service.FollowSuggestionService;
+import com.maurosalani.project.attsd.service.LeaderboardService;
+import com.maurosalani.project.attsd.service.QueryExecutor;
 import com.maurosalani.project.attsd.service.UserService;
 
 @RestController
@@ -39,24 +54,104 @@ public class UserRestController {
 	@Autowired
 	private UserService userService;
 
+	@Autowired
+	private QueryExecutor queryExecutor;
+
 	@GetMapping(produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-	public List<User> getAllUsers() {
-		return userService.getAllUsers();
+	public WebAsyncTask<ResponseEntity<List<UserSummaryDTO>>> getAllUsers(
+			@RequestParam(value = "after", required = false) String after,
+			@RequestParam(value = "limit", defaultValue = PageTokens.DEFAULT_LIMIT) int limit)
+			throws BadRequestException {
+		Long cursor = PageTokens.decode(after);
+		return queryExecutor.submit("users", () -> PageTokens.toResponse(userService.getUsersPage(cursor, limit)));
 	}
 
 	@GetMapping(path = "/id/{id}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-	public User getUserById(@PathVariable Long id) throws UserNotFoundException {
-		return userService.getUserById(id);
+	public WebAsyncTask<User> getUserById(@PathVariable Long id) {
+		return queryExecutor.submit("user", () -> userService.getUserById(id));
+	}
+
+	@GetMapping(path = "/id/{id}/followed", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+	public WebAsyncTask<ResponseEntity<List<UserSummaryDTO>>> getFollowedUsers(@PathVariable Long id,
+			@RequestParam(value = "after", required = false) String after,
+			@RequestParam(value = "limit", defaultValue = PageTokens.DEFAULT_LIMIT) int limit)
+			throws BadRequestException {
+		Long cursor = PageTokens.decode(after);
+		return queryExecutor.submit("followed",
+				() -> PageTokens.toResponse(userService.getFollowedUsersPage(id, cursor, limit)));
+	}
+
+	@GetMapping(path = "/id/{id}/followed/{followedId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+	public WebAsyncTask<Boolean> isFollowing(@PathVariable Long id, @PathVariable Long followedId) {
+		return queryExecutor.submit("following", () -> userService.isFollowing(id, followedId));
+	}
+
+	@GetMapping(path = "/id/{id}/followers", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+	public WebAsyncTask<ResponseEntity<List<UserSummaryDTO>>> getFollowerUsers(@PathVariable Long id,
+			@RequestParam(value = "after", required = false) String after,
+			@RequestParam(value = "limit", defaultValue = PageTokens.DEFAULT_LIMIT) int limit)
+			throws BadRequestException {
+		Long cursor = PageTokens.decode(after);
+		return queryExecutor.submit("followers",
+				() -> PageTokens.toResponse(userService.getFollowerUsersPage(id, cursor, limit)));
+	}
+
+	@GetMapping(path = "/id/{id}/feed", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+	public WebAsyncTask<ResponseEntity<List<FeedEventDTO>>> getFeed(@PathVariable Long id,
+			@RequestParam(value = "after", required = false) String after,
+			@RequestParam(value = "limit", defaultValue = PageTokens.DEFAULT_LIMIT) int limit)
+			throws BadRequestException {
+		Long cursor = PageTokens.decode(after);
+		return queryExecutor.submit("feed",
+				() -> PageTokens.toResponse(userService.getFeedPage(id, cursor, limit)));
+	}
+
+	@GetMapping(path = "/id/{id}/suggestions", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+	public WebAsyncTask<List<FollowSuggestionDTO>> getFollowSuggestions(@PathVariable Long id,
+			@RequestParam(value = "limit", defaultValue = "" + FollowSuggestionService.DEFAULT_LIMIT) int limit) {
+		return queryExecutor.submit("suggestions", () -> userService.getFollowSuggestions(id, limit));
+	}
+
+	@GetMapping(path = "/id/{id}/mutuals/{otherId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+	public WebAsyncTask<MutualsDTO> getMutuals(@PathVariable Long id, @PathVariable Long otherId) {
+		return queryExecutor.submit("mutuals", () -> userService.getMutuals(id, otherId));
+	}
+
+	@GetMapping(path = "/id/{id}/leaderboard", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+	public WebAsyncTask<List<LeaderboardEntryDTO>> getLeaderboardAround(@PathVariable Long id,
+			@RequestParam(value = "radius", defaultValue = "" + LeaderboardService.DEFAULT_RADIUS) int radius) {
+		return queryExecutor.submit("user-leaderboard", () -> userService.getLeaderboardAround(id, radius));
+	}
+
+	@GetMapping(path = "/leaderboard", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+	public WebAsyncTask<List<LeaderboardEntryDTO>> getMostFollowedUsers(
+			@RequestParam(value = "limit", defaultValue = "" + LeaderboardService.DEFAULT_LIMIT) int limit) {
+		return queryExecutor.submit("most-followed-users", () -> userService.getMostFollowedUsers(limit));
+	}
+
+	@GetMapping(path = "/id/{id}/games", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+	public WebAsyncTask<ResponseEntity<List<GameSummaryDTO>>> getGames(@PathVariable Long id,
+			@RequestParam(value = "after", required = false) String after,
+			@RequestParam(value = "limit", defaultValue = PageTokens.DEFAULT_LIMIT) int limit)
+			throws BadRequestException {
+		Long cursor = PageTokens.decode(after);
+		return queryExecutor.submit("liked-games",
+				() -> PageTokens.toResponse(userService.getGamesPage(id, cursor, limit)));
+	}
+
+	@GetMapping(path = "/id/{id}/games/{gameId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+	public WebAsyncTask<Boolean> hasLiked(@PathVariable Long id, @PathVariable Long gameId) {
+		return queryExecutor.submit("liked", () -> userService.hasLiked(id, gameId));
 	}
 
 	@GetMapping(path = "/username/{username}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-	public User getUserByUsername(@PathVariable String username) throws UserNotFoundException {
-		return userService.getUserByUsername(username);
+	public WebAsyncTask<User> getUserByUsername(@PathVariable String username) {
+		return queryExecutor.submit("user", () -> userService.getUserByUsername(username));
 	}
 
 	@GetMapping(path = "/usernamelike/{username}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-	public List<User> getUsersByUsernameLike(@PathVariable String username) {
-		return userService.getUsersByUsernameLike(username);
+	public WebAsyncTask<List<UserSummaryDTO>> getUsersByUsernameLike(@PathVariable String username) {
+		return queryExecutor.submit("users-like", () -> userService.getUsersByUsernameLike(username));
 	}
 
 	@PostMapping(path = "/new", consumes = MediaType.APPLICATION_JSON_UTF8_VALUE, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
@@ -66,48 +161,62 @@ public class UserRestController {
 	}
 
 	@PutMapping(path = "/update/{id}", consumes = MediaType.APPLICATION_JSON_UTF8_VALUE, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-	public User updateUser(@PathVariable Long id, @RequestBody UpdateUserFormDTO form)
+	public User updateUser(@PathVariable Long id, @RequestBody UpdateUserFormDTO form,
+			@RequestAttribute(name = TokenAuthenticationFilter.AUTHENTICATED_USER, required = false) Long tokenUserId)
 			throws UserNotFoundException, LoginFailedException, BadRequestException, PasswordRequiredException {
-		User userLogged = userService.verifyLogin(form.getCredentials());
-		checkRequestCorrectness(id, userLogged);
-		return userService.updateUserById(id, form.getUserToUpdate());
+		checkRequestCorrectness(id, authenticate(tokenUserId, form.getCredentials()));
+		return userService.updateUserById(id, form.getUserToUpdate().getUser());
 	}
 
 	@PatchMapping(path = "/update/password/{id}", consumes = MediaType.APPLICATION_JSON_UTF8_VALUE, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-	public User updatePasswordOfUser(@PathVariable Long id, @RequestBody UpdatePasswordUserFormDTO form)
+	public User updatePasswordOfUser(@PathVariable Long id, @RequestBody UpdatePasswordUserFormDTO form,
+			@RequestAttribute(name = TokenAuthenticationFilter.AUTHENTICATED_USER, required = false) Long tokenUserId)
 			throws UserNotFoundException, LoginFailedException, BadRequestException, PasswordRequiredException {
-		User userLogged = userService.verifyLogin(form.getCredentials());
-		checkRequestCorrectness(id, userLogged);
+		checkRequestCorrectness(id, authenticate(tokenUserId, form.getCredentials()));
 		return userService.changePassword(userService.getUserById(id), form.getNewPassword());
 	}
 
 	@PatchMapping(path = "/update/addFollowedUser/{id}", consumes = MediaType.APPLICATION_JSON_UTF8_VALUE, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-	public User addFollowedUser(@PathVariable Long id, @RequestBody UpdateAddFollowedUserFormDTO form)
+	public RelationDTO addFollowedUser(@PathVariable Long id, @RequestBody UpdateAddFollowedUserFormDTO form,
+			@RequestAttribute(name = TokenAuthenticationFilter.AUTHENTICATED_USER, required = false) Long tokenUserId)
 			throws UserNotFoundException, LoginFailedException, BadRequestException {
-		User userLogged = userService.verifyLogin(form.getCredentials());
-		checkRequestCorrectness(id, userLogged);
-		return userService.addFollowedUser(userService.getUserById(id), form.getFollowedToAdd());
+		checkRequestCorrectness(id, authenticate(tokenUserId, form.getCredentials()));
+		if (form.getFollowedToAdd() == null || form.getFollowedToAdd().getId() == null)
+			throw new BadRequestException();
+		return userService.addFollowedUser(id, form.getFollowedToAdd().getId());
 	}
 
 	@PatchMapping(path = "/update/addGame/{id}", consumes = MediaType.APPLICATION_JSON_UTF8_VALUE, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-	public User addGameLiked(@PathVariable Long id, @RequestBody UpdateAddGameLikedUserFormDTO form)
+	public RelationDTO addGameLiked(@PathVariable Long id, @RequestBody UpdateAddGameLikedUserFormDTO form,
+			@RequestAttribute(name = TokenAuthenticationFilter.AUTHENTICATED_USER, required = false) Long tokenUserId)
 			throws UserNotFoundException, LoginFailedException, BadRequestException, GameNotFoundException {
-		User userLogged = userService.verifyLogin(form.getCredentials());
-		checkRequestCorrectness(id, userLogged);
-		return userService.addGame(userService.getUserById(id), form.getGameLiked());
+		checkRequestCorrectness(id, authenticate(tokenUserId, form.getCredentials()));
+		if (form.getGameLiked() == null || form.getGameLiked().getId() == null)
+			throw new BadRequestException();
+		return userService.addGame(id, form.getGameLiked().getId());
 	}
 
-	@DeleteMapping(path = "/delete/{id}", consumes = MediaType.APPLICATION_JSON_UTF8_VALUE)
-	public void deleteUser(@PathVariable Long id, @RequestBody CredentialsDTO credentialsDTO, HttpServletResponse response)
-			throws UserNotFoundException, LoginFailedException, BadRequestException {
-		User userLogged = userService.verifyLogin(credentialsDTO);
-		checkRequestCorrectness(id, userLogged);
+	@DeleteMapping(path = "/delete/{id}")
+	public void deleteUser(@PathVariable Long id, @RequestBody(required = false) CredentialsDTO credentialsDTO,
+			@RequestAttribute(name = TokenAuthenticationFilter.AUTHENTICATED_USER, required = false) Long tokenUserId,
+			HttpServletResponse response) throws UserNotFoundException, LoginFailedException, BadRequestException {
+		checkRequestCorrectness(id, authenticate(tokenUserId, credentialsDTO));
 		userService.deleteById(id);
 		response.setStatus(HttpStatus.NO_CONTENT.value());
 	}
 
-	private void checkRequestCorrectness(Long id, User userLogged) throws BadRequestException {
-		if (!userLogged.getId().equals(id))
+	/**
+	 * @return the id of the user of the bearer token, if the request had one,
+	 *         otherwise of the user the credentials belong to
+	 */
+	private Long authenticate(Long tokenUserId, CredentialsDTO credentials) throws LoginFailedException {
+		if (tokenUserId != null)
+			return tokenUserId;
+		return userService.verifyLogin(credentials).getId();
+	}
+
+	private void checkRequestCorrectness(Long id, Long userLoggedId) throws BadRequestException {
+		if (!userLoggedId.equals(id))
 			throw new BadRequestException();
 	}
 
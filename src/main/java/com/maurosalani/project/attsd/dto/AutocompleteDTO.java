@@ -0,0 +1,68 @@
+package com.maurosalani.project.attsd.dto;
+
+import java.util.List;
+
+public class AutocompleteDTO {
+
+	private List<SuggestionDTO> games;
+
+	private List<SuggestionDTO> users;
+
+	public AutocompleteDTO() {
+	}
+
+	public AutocompleteDTO(List<SuggestionDTO> games, List<SuggestionDTO> users) {
+		this.games = games;
+		this.users = users;
+	}
+
+	public List<SuggestionDTO> getGames() {
+		return games;
+	}
+
+	public void setGames(List<SuggestionDTO> games) {
+		this.games = games;
+	}
+
+	public List<SuggestionDTO> getUsers() {
+		return users;
+	}
+
+	public void setUsers(List<SuggestionDTO> users) {
+		this.users = users;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((games == null) ? 0 : games.hashCode());
+		result = prime * result + ((users == null) ? 0 : users.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		AutocompleteDTO other = (AutocompleteDTO) obj;
+		if (games == null) {
+			if (other.games != null)
+				return false;
+		}
+		else if (!games.equals(other.games))
+			return false;
+		if (users == null) {
+			if (other.users != null)
+				return false;
+		}
+		else if (!users.equals(other.users))
+			return false;
+		return true;
+	}
+
+}
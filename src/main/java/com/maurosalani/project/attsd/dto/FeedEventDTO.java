@@ -0,0 +1,159 @@
+package com.maurosalani.project.attsd.dto;
+
+import java.util.Date;
+
+public class FeedEventDTO {
+
+	public enum Activity {
+		FOLLOWED, LIKED
+	}
+
+	private Long id;
+
+	private Activity activity;
+
+	private Long actorId;
+
+	private String actorUsername;
+
+	private Long targetId;
+
+	private String targetName;
+
+	private Date createdAt;
+
+	public FeedEventDTO() {
+	}
+
+	public FeedEventDTO(Long id, Activity activity, Long actorId, String actorUsername, Long targetId,
+			String targetName, Date createdAt) {
+		this.id = id;
+		this.activity = activity;
+		this.actorId = actorId;
+		this.actorUsername = actorUsername;
+		this.targetId = targetId;
+		this.targetName = targetName;
+		this.createdAt = createdAt;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Activity getActivity() {
+		return activity;
+	}
+
+	public void setActivity(Activity activity) {
+		this.activity = activity;
+	}
+
+	public Long getActorId() {
+		return actorId;
+	}
+
+	public void setActorId(Long actorId) {
+		this.actorId = actorId;
+	}
+
+	public String getActorUsername() {
+		return actorUsername;
+	}
+
+	public void setActorUsername(String actorUsername) {
+		this.actorUsername = actorUsername;
+	}
+
+	public Long getTargetId() {
+		return targetId;
+	}
+
+	public void setTargetId(Long targetId) {
+		this.targetId = targetId;
+	}
+
+	public String getTargetName() {
+		return targetName;
+	}
+
+	public void setTargetName(String targetName) {
+		this.targetName = targetName;
+	}
+
+	public Date getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(Date createdAt) {
+		this.createdAt = createdAt;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((activity == null) ? 0 : activity.hashCode());
+		result = prime * result + ((actorId == null) ? 0 : actorId.hashCode());
+		result = prime * result + ((actorUsername == null) ? 0 : actorUsername.hashCode());
+		result = prime * result + ((createdAt == null) ? 0 : createdAt.hashCode());
+		result = prime * result + ((id == null) ? 0 : id.hashCode());
+		result = prime * result + ((targetId == null) ? 0 : targetId.hashCode());
+		result = prime * result + ((targetName == null) ? 0 : targetName.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		FeedEventDTO other = (FeedEventDTO) obj;
+		if (activity != other.activity)
+			return false;
+		if (actorId == null) {
+			if (other.actorId != null)
+				return false;
+		}
+		else if (!actorId.equals(other.actorId))
+			return false;
+		if (actorUsername == null) {
+			if (other.actorUsername != null)
+				return false;
+		}
+		else if (!actorUsername.equals(other.actorUsername))
+			return false;
+		if (createdAt == null) {
+			if (other.createdAt != null)
+				return false;
+		}
+		else if (!createdAt.equals(other.createdAt))
+			return false;
+		if (id == null) {
+			if (other.id != null)
+				return false;
+		}
+		else if (!id.equals(other.id))
+			return false;
+		if (targetId == null) {
+			if (other.targetId != null)
+				return false;
+		}
+		else if (!targetId.equals(other.targetId))
+			return false;
+		if (targetName == null) {
+			if (other.targetName != null)
+				return false;
+		}
+		else if (!targetName.equals(other.targetName))
+			return false;
+		return true;
+	}
+
+}
@@ -0,0 +1,80 @@
+package com.maurosalani.project.attsd.dto;
+
+public class FollowSuggestionDTO {
+
+	private Long id;
+
+	private String username;
+
+	private long followedByCount;
+
+	public FollowSuggestionDTO() {
+	}
+
+	public FollowSuggestionDTO(Long id, String username, long followedByCount) {
+		this.id = id;
+		this.username = username;
+		this.followedByCount = followedByCount;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	public void setUsername(String username) {
+		this.username = username;
+	}
+
+	public long getFollowedByCount() {
+		return followedByCount;
+	}
+
+	public void setFollowedByCount(long followedByCount) {
+		this.followedByCount = followedByCount;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (int) (followedByCount ^ (followedByCount >>> 32));
+		result = prime * result + ((id == null) ? 0 : id.hashCode());
+		result = prime * result + ((username == null) ? 0 : username.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		FollowSuggestionDTO other = (FollowSuggestionDTO) obj;
+		if (followedByCount != other.followedByCount)
+			return false;
+		if (id == null) {
+			if (other.id != null)
+				return false;
+		}
+		else if (!id.equals(other.id))
+			return false;
+		if (username == null) {
+			if (other.username != null)
+				return false;
+		}
+		else if (!username.equals(other.username))
+			return false;
+		return true;
+	}
+
+}
@@ -0,0 +1,86 @@
+package com.maurosalani.project.attsd.dto;
+
+import java.sql.Date;
+
+public class GameSummaryDTO {
+
+	private Long id;
+
+	private String name;
+
+	private Date releaseDate;
+
+	public GameSummaryDTO() {
+	}
+
+	public GameSummaryDTO(Long id, String name, java.util.Date releaseDate) {
+		this.id = id;
+		this.name = name;
+		this.releaseDate = releaseDate == null ? null : new Date(releaseDate.getTime());
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public Date getReleaseDate() {
+		return releaseDate;
+	}
+
+	public void setReleaseDate(Date releaseDate) {
+		this.releaseDate = releaseDate;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((id == null) ? 0 : id.hashCode());
+		result = prime * result + ((name == null) ? 0 : name.hashCode());
+		result = prime * result + ((releaseDate == null) ? 0 : releaseDate.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		GameSummaryDTO other = (GameSummaryDTO) obj;
+		if (id == null) {
+			if (other.id != null)
+				return false;
+		}
+		else if (!id.equals(other.id))
+			return false;
+		if (name == null) {
+			if (other.name != null)
+				return false;
+		}
+		else if (!name.equals(other.name))
+			return false;
+		if (releaseDate == null) {
+			if (other.releaseDate != null)
+				return false;
+		}
+		else if (!releaseDate.equals(other.releaseDate))
+			return false;
+		return true;
+	}
+
+}
@@ -0,0 +1,94 @@
+package com.maurosalani.project.attsd.dto;
+
+public class LeaderboardEntryDTO {
+
+	private int rank;
+
+	private Long id;
+
+	private String name;
+
+	private long count;
+
+	public LeaderboardEntryDTO() {
+	}
+
+	public LeaderboardEntryDTO(int rank, Long id, String name, long count) {
+		this.rank = rank;
+		this.id = id;
+		this.name = name;
+		this.count = count;
+	}
+
+	public int getRank() {
+		return rank;
+	}
+
+	public void setRank(int rank) {
+		this.rank = rank;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public void setCount(long count) {
+		this.count = count;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (int) (count ^ (count >>> 32));
+		result = prime * result + ((id == null) ? 0 : id.hashCode());
+		result = prime * result + ((name == null) ? 0 : name.hashCode());
+		result = prime * result + rank;
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		LeaderboardEntryDTO other = (LeaderboardEntryDTO) obj;
+		if (count != other.count)
+			return false;
+		if (id == null) {
+			if (other.id != null)
+				return false;
+		}
+		else if (!id.equals(other.id))
+			return false;
+		if (name == null) {
+			if (other.name != null)
+				return false;
+		}
+		else if (!name.equals(other.name))
+			return false;
+		if (rank != other.rank)
+			return false;
+		return true;
+	}
+
+}
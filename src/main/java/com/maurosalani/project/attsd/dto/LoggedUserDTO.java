@@ -0,0 +1,104 @@
+package com.maurosalani.project.attsd.dto;
+
+import java.util.Set;
+
+public class LoggedUserDTO {
+
+	private Long id;
+
+	private String username;
+
+	private Set<Long> followedUserIds;
+
+	private Set<Long> gameIds;
+
+	public LoggedUserDTO() {
+	}
+
+	public LoggedUserDTO(Long id, String username, Set<Long> followedUserIds, Set<Long> gameIds) {
+		this.id = id;
+		this.username = username;
+		this.followedUserIds = followedUserIds;
+		this.gameIds = gameIds;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	public void setUsername(String username) {
+		this.username = username;
+	}
+
+	public Set<Long> getFollowedUserIds() {
+		return followedUserIds;
+	}
+
+	public void setFollowedUserIds(Set<Long> followedUserIds) {
+		this.followedUserIds = followedUserIds;
+	}
+
+	public Set<Long> getGameIds() {
+		return gameIds;
+	}
+
+	public void setGameIds(Set<Long> gameIds) {
+		this.gameIds = gameIds;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((followedUserIds == null) ? 0 : followedUserIds.hashCode());
+		result = prime * result + ((gameIds == null) ? 0 : gameIds.hashCode());
+		result = prime * result + ((id == null) ? 0 : id.hashCode());
+		result = prime * result + ((username == null) ? 0 : username.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		LoggedUserDTO other = (LoggedUserDTO) obj;
+		if (followedUserIds == null) {
+			if (other.followedUserIds != null)
+				return false;
+		}
+		else if (!followedUserIds.equals(other.followedUserIds))
+			return false;
+		if (gameIds == null) {
+			if (other.gameIds != null)
+				return false;
+		}
+		else if (!gameIds.equals(other.gameIds))
+			return false;
+		if (id == null) {
+			if (other.id != null)
+				return false;
+		}
+		else if (!id.equals(other.id))
+			return false;
+		if (username == null) {
+			if (other.username != null)
+				return false;
+		}
+		else if (!username.equals(other.username))
+			return false;
+		return true;
+	}
+
+}
@@ -0,0 +1,64 @@
+package com.maurosalani.project.attsd.dto;
+
+import java.util.List;
+
+public class MutualsDTO {
+
+	private int count;
+
+	private List<UserSummaryDTO> sample;
+
+	public MutualsDTO() {
+	}
+
+	public MutualsDTO(int count, List<UserSummaryDTO> sample) {
+		this.count = count;
+		this.sample = sample;
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	public void setCount(int count) {
+		this.count = count;
+	}
+
+	public List<UserSummaryDTO> getSample() {
+		return sample;
+	}
+
+	public void setSample(List<UserSummaryDTO> sample) {
+		this.sample = sample;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + count;
+		result = prime * result + ((sample == null) ? 0 : sample.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		MutualsDTO other = (MutualsDTO) obj;
+		if (count != other.count)
+			return false;
+		if (sample == null) {
+			if (other.sample != null)
+				return false;
+		}
+		else if (!sample.equals(other.sample))
+			return false;
+		return true;
+	}
+
+}
@@ -0,0 +1,86 @@
+package com.maurosalani.project.attsd.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+public class PageDTO<T> {
+
+	public static final int MAX_LIMIT = 500;
+
+	private List<T> items;
+
+	private Long nextAfter;
+
+	public PageDTO() {
+	}
+
+	public PageDTO(List<T> items, Long nextAfter) {
+		this.items = items;
+		this.nextAfter = nextAfter;
+	}
+
+	/**
+	 * Builds a page from rows fetched ordered by id with one row more than the
+	 * limit: that extra row only tells whether a following page exists.
+	 */
+	public static <T> PageDTO<T> fromRows(List<T> rows, int limit, Function<T, Long> idOf) {
+		if (rows.size() <= limit)
+			return new PageDTO<>(rows, null);
+		List<T> items = rows.subList(0, limit);
+		return new PageDTO<>(items, idOf.apply(items.get(limit - 1)));
+	}
+
+	public static int boundedLimit(int limit) {
+		return Math.max(1, Math.min(limit, MAX_LIMIT));
+	}
+
+	public List<T> getItems() {
+		return items;
+	}
+
+	public void setItems(List<T> items) {
+		this.items = items;
+	}
+
+	public Long getNextAfter() {
+		return nextAfter;
+	}
+
+	public void setNextAfter(Long nextAfter) {
+		this.nextAfter = nextAfter;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((items == null) ? 0 : items.hashCode());
+		result = prime * result + ((nextAfter == null) ? 0 : nextAfter.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		PageDTO<?> other = (PageDTO<?>) obj;
+		if (items == null) {
+			if (other.items != null)
+				return false;
+		}
+		else if (!items.equals(other.items))
+			return false;
+		if (nextAfter == null) {
+			if (other.nextAfter != null)
+				return false;
+		}
+		else if (!nextAfter.equals(other.nextAfter))
+			return false;
+		return true;
+	}
+
+}
@@ -0,0 +1,80 @@
+package com.maurosalani.project.attsd.dto;
+
+public class RelationDTO {
+
+	private Long userId;
+
+	private Long targetId;
+
+	private boolean created;
+
+	public RelationDTO() {
+	}
+
+	public RelationDTO(Long userId, Long targetId, boolean created) {
+		this.userId = userId;
+		this.targetId = targetId;
+		this.created = created;
+	}
+
+	public Long getUserId() {
+		return userId;
+	}
+
+	public void setUserId(Long userId) {
+		this.userId = userId;
+	}
+
+	public Long getTargetId() {
+		return targetId;
+	}
+
+	public void setTargetId(Long targetId) {
+		this.targetId = targetId;
+	}
+
+	public boolean isCreated() {
+		return created;
+	}
+
+	public void setCreated(boolean created) {
+		this.created = created;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (created ? 1231 : 1237);
+		result = prime * result + ((targetId == null) ? 0 : targetId.hashCode());
+		result = prime * result + ((userId == null) ? 0 : userId.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		RelationDTO other = (RelationDTO) obj;
+		if (created != other.created)
+			return false;
+		if (targetId == null) {
+			if (other.targetId != null)
+				return false;
+		}
+		else if (!targetId.equals(other.targetId))
+			return false;
+		if (userId == null) {
+			if (other.userId != null)
+				return false;
+		}
+		else if (!userId.equals(other.userId))
+			return false;
+		return true;
+	}
+
+}
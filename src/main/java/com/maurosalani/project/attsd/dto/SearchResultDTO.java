@@ -0,0 +1,82 @@
+package com.maurosalani.project.attsd.dto;
+
+import java.util.List;
+
+public class SearchResultDTO {
+
+	private List<UserSummaryDTO> users;
+
+	private List<GameSummaryDTO> games;
+
+	private boolean partial;
+
+	public SearchResultDTO() {
+	}
+
+	public SearchResultDTO(List<UserSummaryDTO> users, List<GameSummaryDTO> games, boolean partial) {
+		this.users = users;
+		this.games = games;
+		this.partial = partial;
+	}
+
+	public List<UserSummaryDTO> getUsers() {
+		return users;
+	}
+
+	public void setUsers(List<UserSummaryDTO> users) {
+		this.users = users;
+	}
+
+	public List<GameSummaryDTO> getGames() {
+		return games;
+	}
+
+	public void setGames(List<GameSummaryDTO> games) {
+		this.games = games;
+	}
+
+	public boolean isPartial() {
+		return partial;
+	}
+
+	public void setPartial(boolean partial) {
+		this.partial = partial;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((games == null) ? 0 : games.hashCode());
+		result = prime * result + (partial ? 1231 : 1237);
+		result = prime * result + ((users == null) ? 0 : users.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		SearchResultDTO other = (SearchResultDTO) obj;
+		if (games == null) {
+			if (other.games != null)
+				return false;
+		}
+		else if (!games.equals(other.games))
+			return false;
+		if (partial != other.partial)
+			return false;
+		if (users == null) {
+			if (other.users != null)
+				return false;
+		}
+		else if (!users.equals(other.users))
+			return false;
+		return true;
+	}
+
+}
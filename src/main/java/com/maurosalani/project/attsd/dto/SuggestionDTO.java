@@ -0,0 +1,84 @@
+package com.maurosalani.project.attsd.dto;
+
+public class SuggestionDTO {
+
+	private Long id;
+
+	private String text;
+
+	private Long score;
+
+	public SuggestionDTO() {
+	}
+
+	public SuggestionDTO(Long id, String text, Long score) {
+		this.id = id;
+		this.text = text;
+		this.score = score;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	public void setText(String text) {
+		this.text = text;
+	}
+
+	public Long getScore() {
+		return score;
+	}
+
+	public void setScore(Long score) {
+		this.score = score;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((id == null) ? 0 : id.hashCode());
+		result = prime * result + ((score == null) ? 0 : score.hashCode());
+		result = prime * result + ((text == null) ? 0 : text.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		SuggestionDTO other = (SuggestionDTO) obj;
+		if (id == null) {
+			if (other.id != null)
+				return false;
+		}
+		else if (!id.equals(other.id))
+			return false;
+		if (score == null) {
+			if (other.score != null)
+				return false;
+		}
+		else if (!score.equals(other.score))
+			return false;
+		if (text == null) {
+			if (other.text != null)
+				return false;
+		}
+		else if (!text.equals(other.text))
+			return false;
+		return true;
+	}
+
+}
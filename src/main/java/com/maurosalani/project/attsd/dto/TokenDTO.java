@@ -0,0 +1,80 @@
+package com.maurosalani.project.attsd.dto;
+
+public class TokenDTO {
+
+	private String token;
+
+	private Long userId;
+
+	private long expiresAt;
+
+	public TokenDTO() {
+	}
+
+	public TokenDTO(String token, Long userId, long expiresAt) {
+		this.token = token;
+		this.userId = userId;
+		this.expiresAt = expiresAt;
+	}
+
+	public String getToken() {
+		return token;
+	}
+
+	public void setToken(String token) {
+		this.token = token;
+	}
+
+	public Long getUserId() {
+		return userId;
+	}
+
+	public void setUserId(Long userId) {
+		this.userId = userId;
+	}
+
+	public long getExpiresAt() {
+		return expiresAt;
+	}
+
+	public void setExpiresAt(long expiresAt) {
+		this.expiresAt = expiresAt;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (int) (expiresAt ^ (expiresAt >>> 32));
+		result = prime * result + ((token == null) ? 0 : token.hashCode());
+		result = prime * result + ((userId == null) ? 0 : userId.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		TokenDTO other = (TokenDTO) obj;
+		if (expiresAt != other.expiresAt)
+			return false;
+		if (token == null) {
+			if (other.token != null)
+				return false;
+		}
+		else if (!token.equals(other.token))
+			return false;
+		if (userId == null) {
+			if (other.userId != null)
+				return false;
+		}
+		else if (!userId.equals(other.userId))
+			return false;
+		return true;
+	}
+
+}
@@ -1,16 +1,14 @@
 package com.maurosalani.project.attsd.dto;
 
-import com.maurosalani.project.attsd.model.User;
-
 public class UpdateUserFormDTO {
 
 	private CredentialsDTO credentialsDTO;
-	private User userToUpdate;
+	private UserDTO userToUpdate;
 
 	public UpdateUserFormDTO() {
 	}
 
-	public UpdateUserFormDTO(CredentialsDTO credentialsDTO, User userToUpdate) {
+	public UpdateUserFormDTO(CredentialsDTO credentialsDTO, UserDTO userToUpdate) {
 		super();
 		this.credentialsDTO = credentialsDTO;
 		this.userToUpdate = userToUpdate;
@@ -24,11 +22,11 @@ public class UpdateUserFormDTO {
 		this.credentialsDTO = credentialsDTO;
 	}
 
-	public User getUserToUpdate() {
+	public UserDTO getUserToUpdate() {
 		return userToUpdate;
 	}
 
-	public void setUserToUpdate(User userToUpdate) {
+	public void setUserToUpdate(UserDTO userToUpdate) {
 		this.userToUpdate = userToUpdate;
 	}
 
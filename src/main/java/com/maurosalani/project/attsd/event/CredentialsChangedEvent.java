@@ -0,0 +1,45 @@
+package com.maurosalani.project.attsd.event;
+
+/**
+ * Published by {@code UserService} in the transaction that changed the
+ * username or the password of the user.
+ */
+public class CredentialsChangedEvent {
+
+	private final Long userId;
+
+	public CredentialsChangedEvent(Long userId) {
+		this.userId = userId;
+	}
+
+	public Long getUserId() {
+		return userId;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((userId == null) ? 0 : userId.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		CredentialsChangedEvent other = (CredentialsChangedEvent) obj;
+		if (userId == null) {
+			if (other.userId != null)
+				return false;
+		}
+		else if (!userId.equals(other.userId))
+			return false;
+		return true;
+	}
+
+}
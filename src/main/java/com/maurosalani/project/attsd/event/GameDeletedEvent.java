@@ -0,0 +1,44 @@
+package com.maurosalani.project.attsd.event;
+
+/**
+ * Published by {@code GameService} in the transaction that deleted the game.
+ */
+public class GameDeletedEvent {
+
+	private final Long gameId;
+
+	public GameDeletedEvent(Long gameId) {
+		this.gameId = gameId;
+	}
+
+	public Long getGameId() {
+		return gameId;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((gameId == null) ? 0 : gameId.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		GameDeletedEvent other = (GameDeletedEvent) obj;
+		if (gameId == null) {
+			if (other.gameId != null)
+				return false;
+		}
+		else if (!gameId.equals(other.gameId))
+			return false;
+		return true;
+	}
+
+}
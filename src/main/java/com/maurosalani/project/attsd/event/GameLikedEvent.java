@@ -0,0 +1,59 @@
+package com.maurosalani.project.attsd.event;
+
+/**
+ * Published by {@code UserService} in the transaction that made the user like
+ * the game, only when the like is new.
+ */
+public class GameLikedEvent {
+
+	private final Long userId;
+
+	private final Long gameId;
+
+	public GameLikedEvent(Long userId, Long gameId) {
+		this.userId = userId;
+		this.gameId = gameId;
+	}
+
+	public Long getUserId() {
+		return userId;
+	}
+
+	public Long getGameId() {
+		return gameId;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((gameId == null) ? 0 : gameId.hashCode());
+		result = prime * result + ((userId == null) ? 0 : userId.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		GameLikedEvent other = (GameLikedEvent) obj;
+		if (gameId == null) {
+			if (other.gameId != null)
+				return false;
+		}
+		else if (!gameId.equals(other.gameId))
+			return false;
+		if (userId == null) {
+			if (other.userId != null)
+				return false;
+		}
+		else if (!userId.equals(other.userId))
+			return false;
+		return true;
+	}
+
+}
@@ -0,0 +1,47 @@
+package com.maurosalani.project.attsd.event;
+
+import com.maurosalani.project.attsd.model.Game;
+
+/**
+ * Published by {@code GameService} in the transaction that inserted, updated or
+ * imported the game.
+ */
+public class GameSavedEvent {
+
+	private final Game game;
+
+	public GameSavedEvent(Game game) {
+		this.game = game;
+	}
+
+	public Game getGame() {
+		return game;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((game == null) ? 0 : game.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		GameSavedEvent other = (GameSavedEvent) obj;
+		if (game == null) {
+			if (other.game != null)
+				return false;
+		}
+		else if (!game.equals(other.game))
+			return false;
+		return true;
+	}
+
+}
@@ -0,0 +1,90 @@
+package com.maurosalani.project.attsd.event;
+
+import java.util.Set;
+
+/**
+ * Published by {@code UserService} in the transaction that deleted the user,
+ * with the users it followed, its followers and the games it liked, whose
+ * rows were deleted with it.
+ */
+public class UserDeletedEvent {
+
+	private final Long userId;
+
+	private final Set<Long> followedIds;
+
+	private final Set<Long> followerIds;
+
+	private final Set<Long> gameIds;
+
+	public UserDeletedEvent(Long userId, Set<Long> followedIds, Set<Long> followerIds, Set<Long> gameIds) {
+		this.userId = userId;
+		this.followedIds = followedIds;
+		this.followerIds = followerIds;
+		this.gameIds = gameIds;
+	}
+
+	public Long getUserId() {
+		return userId;
+	}
+
+	public Set<Long> getFollowedIds() {
+		return followedIds;
+	}
+
+	public Set<Long> getFollowerIds() {
+		return followerIds;
+	}
+
+	public Set<Long> getGameIds() {
+		return gameIds;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((followedIds == null) ? 0 : followedIds.hashCode());
+		result = prime * result + ((followerIds == null) ? 0 : followerIds.hashCode());
+		result = prime * result + ((gameIds == null) ? 0 : gameIds.hashCode());
+		result = prime * result + ((userId == null) ? 0 : userId.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		UserDeletedEvent other = (UserDeletedEvent) obj;
+		if (followedIds == null) {
+			if (other.followedIds != null)
+				return false;
+		}
+		else if (!followedIds.equals(other.followedIds))
+			return false;
+		if (followerIds == null) {
+			if (other.followerIds != null)
+				return false;
+		}
+		else if (!followerIds.equals(other.followerIds))
+			return false;
+		if (gameIds == null) {
+			if (other.gameIds != null)
+				return false;
+		}
+		else if (!gameIds.equals(other.gameIds))
+			return false;
+		if (userId == null) {
+			if (other.userId != null)
+				return false;
+		}
+		else if (!userId.equals(other.userId))
+			return false;
+		return true;
+	}
+
+}
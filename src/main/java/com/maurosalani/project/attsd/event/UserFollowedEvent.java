@@ -0,0 +1,59 @@
+package com.maurosalani.project.attsd.event;
+
+/**
+ * Published by {@code UserService} in the transaction that made the user
+ * follow another one, only when the follow is new.
+ */
+public class UserFollowedEvent {
+
+	private final Long userId;
+
+	private final Long followedId;
+
+	public UserFollowedEvent(Long userId, Long followedId) {
+		this.userId = userId;
+		this.followedId = followedId;
+	}
+
+	public Long getUserId() {
+		return userId;
+	}
+
+	public Long getFollowedId() {
+		return followedId;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((followedId == null) ? 0 : followedId.hashCode());
+		result = prime * result + ((userId == null) ? 0 : userId.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		UserFollowedEvent other = (UserFollowedEvent) obj;
+		if (followedId == null) {
+			if (other.followedId != null)
+				return false;
+		}
+		else if (!followedId.equals(other.followedId))
+			return false;
+		if (userId == null) {
+			if (other.userId != null)
+				return false;
+		}
+		else if (!userId.equals(other.userId))
+			return false;
+		return true;
+	}
+
+}
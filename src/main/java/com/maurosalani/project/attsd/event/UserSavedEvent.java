@@ -0,0 +1,47 @@
+package com.maurosalani.project.attsd.event;
+
+import com.maurosalani.project.attsd.model.User;
+
+/**
+ * Published by {@code UserService} in the transaction that inserted or
+ * updated the user.
+ */
+public class UserSavedEvent {
+
+	private final User user;
+
+	public UserSavedEvent(User user) {
+		this.user = user;
+	}
+
+	public User getUser() {
+		return user;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((user == null) ? 0 : user.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		UserSavedEvent other = (UserSavedEvent) obj;
+		if (user == null) {
+			if (other.user != null)
+				return false;
+		}
+		else if (!user.equals(other.user))
+			return false;
+		return true;
+	}
+
+}
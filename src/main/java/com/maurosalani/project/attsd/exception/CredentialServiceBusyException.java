@@ -0,0 +1,21 @@
+package com.maurosalani.project.attsd.exception;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Thrown when a password cannot be hashed or checked because the workers of
+ * {@link com.maurosalani.project.attsd.service.CredentialService} and their
+ * queue are full, or do not get to it in time.
+ */
+public class CredentialServiceBusyException extends RejectedExecutionException {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 1L;
+
+	public CredentialServiceBusyException(Throwable cause) {
+		super(cause);
+	}
+
+}
@@ -1,6 +1,7 @@
 package com.maurosalani.project.attsd.exception_handler;
 
 import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.servlet.http.HttpServletResponse;
 
@@ -39,6 +40,11 @@ public class RestControllerExceptionHandler extends ResponseEntityExceptionHandl
 		response.sendError(HttpStatus.UNAUTHORIZED.value(), "Invalid username or password");
 	}
 
+	@ExceptionHandler(RejectedExecutionException.class)
+	public void handleRejectedExecution(HttpServletResponse response) throws IOException {
+		response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many requests, retry later");
+	}
+
 	@ExceptionHandler(PasswordRequiredException.class)
 	public void handePasswordIsRequired(HttpServletResponse response) throws IOException {
 		response.sendError(HttpStatus.BAD_REQUEST.value(), "Password required");
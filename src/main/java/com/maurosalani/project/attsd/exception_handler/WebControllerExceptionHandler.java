@@ -1,5 +1,6 @@
 package com.maurosalani.project.attsd.exception_handler;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.dao.DataIntegrityViolationException;
@@ -8,9 +9,11 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
+import org.springframework.web.util.UrlPathHelper;
 
 import com.maurosalani.project.attsd.dto.CredentialsDTO;
 import com.maurosalani.project.attsd.dto.RegistrationFormDTO;
+import com.maurosalani.project.attsd.exception.CredentialServiceBusyException;
 import com.maurosalani.project.attsd.exception.GameNotFoundException;
 import com.maurosalani.project.attsd.exception.LoginFailedException;
 import com.maurosalani.project.attsd.exception.NewPasswordRequiredException;
@@ -28,6 +31,7 @@ public class WebControllerExceptionHandler extends ResponseEntityExceptionHandle
 	private static final String REGISTRATION_VIEW = "registration";
 	private static final String REGISTRATION_FORM = "registrationForm";
 	private static final String MESSAGE = "message";
+	private static final UrlPathHelper PATHS = new UrlPathHelper();
 
 	@ExceptionHandler(UsernameAlreadyExistingException.class)
 	public String handleUsernameAlreadyExisting(Model model, HttpServletResponse response) {
@@ -60,6 +64,24 @@ public class WebControllerExceptionHandler extends ResponseEntityExceptionHandle
 		return "login";
 	}
 
+	@ExceptionHandler(CredentialServiceBusyException.class)
+	public String handleCredentialServiceBusy(HttpServletRequest request, Model model, HttpServletResponse response) {
+		response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+		switch (PATHS.getPathWithinApplication(request)) {
+		case "/save":
+			model.addAttribute(MESSAGE, "Too many registrations right now, please retry.");
+			model.addAttribute(REGISTRATION_FORM, new RegistrationFormDTO());
+			return REGISTRATION_VIEW;
+		case "/changePassword":
+			model.addAttribute(MESSAGE, "Too many password changes right now, please retry.");
+			return "passwordError";
+		default:
+			model.addAttribute(MESSAGE, "Too many logins right now, please retry.");
+			model.addAttribute("credentials", new CredentialsDTO());
+			return "login";
+		}
+	}
+
 	@ExceptionHandler(GameNotFoundException.class)
 	public String handleGameNotFound(Model model, HttpServletResponse response) {
 		model.addAttribute(MESSAGE, "Game not found.");
@@ -0,0 +1,396 @@
+package com.maurosalani.project.attsd.graph;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory follow graph held as primitive adjacency arrays. Users are
+ * remapped to dense int indexes, and every user keeps the sorted indexes of
+ * the users it follows and of its followers, so neighbour lookups,
+ * intersections and degree queries never box an id nor touch the database:
+ * an edge costs four bytes in each direction. A deleted user keeps its index,
+ * without edges, until the graph is built again.
+ */
+public class FollowGraph {
+
+	private static final int[] NONE = new int[0];
+
+	private static final int GALLOP_RATIO = 16;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final IdIndex index;
+
+	private int[][] followed;
+
+	private int[] followedCounts;
+
+	private int[][] followers;
+
+	private int[] followerCounts;
+
+	public FollowGraph() {
+		this(new IdIndex(0), new int[0][], new int[0][]);
+	}
+
+	private FollowGraph(IdIndex index, int[][] followed, int[][] followers) {
+		this.index = index;
+		this.followed = followed;
+		this.followers = followers;
+		followedCounts = new int[followed.length];
+		followerCounts = new int[followers.length];
+		for (int node = 0; node < index.size(); node++) {
+			followedCounts[node] = followed[node].length;
+			followerCounts[node] = followers[node].length;
+		}
+	}
+
+	/**
+	 * Builds the graph from edges collected in parallel: ids are indexed in
+	 * ascending order, so on a freshly built graph index order is id order.
+	 */
+	public static FollowGraph of(Collection<Edges> parts) {
+		int total = parts.stream().mapToInt(Edges::size).sum();
+		long[] endpoints = new long[total * 2];
+		int filled = 0;
+		for (Edges part : parts) {
+			System.arraycopy(part.pairs, 0, endpoints, filled, part.size * 2);
+			filled += part.size * 2;
+		}
+		Arrays.parallelSort(endpoints);
+		long[] nodes = distinct(endpoints);
+		IdIndex index = new IdIndex(nodes.length);
+		for (long node : nodes)
+			index.add(node);
+
+		int[] outDegrees = new int[nodes.length];
+		int[] inDegrees = new int[nodes.length];
+		int[][] mapped = parts.parallelStream().map(part -> {
+			int[] pairs = new int[part.size * 2];
+			for (int i = 0; i < pairs.length; i++)
+				pairs[i] = Arrays.binarySearch(nodes, part.pairs[i]);
+			return pairs;
+		}).toArray(int[][]::new);
+		for (int[] pairs : mapped)
+			for (int i = 0; i < pairs.length; i += 2) {
+				outDegrees[pairs[i]]++;
+				inDegrees[pairs[i + 1]]++;
+			}
+		int[][] followed = new int[nodes.length][];
+		int[][] followers = new int[nodes.length][];
+		for (int node = 0; node < nodes.length; node++) {
+			followed[node] = new int[outDegrees[node]];
+			followers[node] = new int[inDegrees[node]];
+		}
+		Arrays.fill(outDegrees, 0);
+		Arrays.fill(inDegrees, 0);
+		for (int[] pairs : mapped)
+			for (int i = 0; i < pairs.length; i += 2) {
+				followed[pairs[i]][outDegrees[pairs[i]]++] = pairs[i + 1];
+				followers[pairs[i + 1]][inDegrees[pairs[i + 1]]++] = pairs[i];
+			}
+		IntStream.range(0, nodes.length).parallel().forEach(node -> {
+			Arrays.sort(followed[node]);
+			Arrays.sort(followers[node]);
+		});
+		return new FollowGraph(index, followed, followers);
+	}
+
+	public void addFollow(long userId, long followedId) {
+		lock.writeLock().lock();
+		try {
+			int user = index.add(userId);
+			int target = index.add(followedId);
+			ensureCapacity(index.size());
+			if (insert(followed, followedCounts, user, target))
+				insert(followers, followerCounts, target, user);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void removeUser(long userId) {
+		lock.writeLock().lock();
+		try {
+			int user = index.indexOf(userId);
+			if (user < 0)
+				return;
+			for (int i = 0; i < followedCounts[user]; i++)
+				remove(followers, followerCounts, followed[user][i], user);
+			for (int i = 0; i < followerCounts[user]; i++)
+				remove(followed, followedCounts, followers[user][i], user);
+			followed[user] = NONE;
+			followedCounts[user] = 0;
+			followers[user] = NONE;
+			followerCounts[user] = 0;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public boolean follows(long userId, long followedId) {
+		lock.readLock().lock();
+		try {
+			int user = index.indexOf(userId);
+			int target = index.indexOf(followedId);
+			return user >= 0 && target >= 0
+					&& Arrays.binarySearch(followed[user], 0, followedCounts[user], target) >= 0;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public int followedCount(long userId) {
+		lock.readLock().lock();
+		try {
+			int user = index.indexOf(userId);
+			return user < 0 ? 0 : followedCounts[user];
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public int followerCount(long userId) {
+		lock.readLock().lock();
+		try {
+			int user = index.indexOf(userId);
+			return user < 0 ? 0 : followerCounts[user];
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the ids of the users followed by the user, in ascending order
+	 */
+	public long[] followed(long userId) {
+		lock.readLock().lock();
+		try {
+			int user = index.indexOf(userId);
+			return user < 0 ? new long[0] : toIds(followed[user], followedCounts[user]);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the ids of the followers of the user, in ascending order
+	 */
+	public long[] followers(long userId) {
+		lock.readLock().lock();
+		try {
+			int user = index.indexOf(userId);
+			return user < 0 ? new long[0] : toIds(followers[user], followerCounts[user]);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the ids of the users that the user follows and that follow it
+	 *         back, in ascending order
+	 */
+	public long[] mutualFollows(long userId) {
+		lock.readLock().lock();
+		try {
+			int user = index.indexOf(userId);
+			if (user < 0)
+				return new long[0];
+			int[] common = new int[Math.min(followedCounts[user], followerCounts[user])];
+			int size = intersect(followed[user], followedCounts[user], followers[user], followerCounts[user], common);
+			return toIds(common, size);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the ids of the followers of the target that the user follows, in
+	 *         ascending order
+	 */
+	public long[] knownFollowers(long userId, long targetId) {
+		lock.readLock().lock();
+		try {
+			int user = index.indexOf(userId);
+			int target = index.indexOf(targetId);
+			if (user < 0 || target < 0)
+				return new long[0];
+			int[] common = new int[Math.min(followedCounts[user], followerCounts[target])];
+			int size = intersect(followed[user], followedCounts[user], followers[target], followerCounts[target], common);
+			return toIds(common, size);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Passes to the handler every user followed by the ones the user follows,
+	 * neither the user itself nor already followed, with how many of them
+	 * follow it. Candidates are passed in index order, which on a freshly
+	 * built graph is id order.
+	 */
+	public void forEachSecondDegree(long userId, CountHandler handler) {
+		lock.readLock().lock();
+		try {
+			int user = index.indexOf(userId);
+			if (user < 0)
+				return;
+			int[] own = followed[user];
+			int ownCount = followedCounts[user];
+			int total = 0;
+			for (int i = 0; i < ownCount; i++)
+				total += followedCounts[own[i]];
+			int[] candidates = new int[total];
+			int size = 0;
+			for (int i = 0; i < ownCount; i++)
+				for (int j = 0; j < followedCounts[own[i]]; j++) {
+					int candidate = followed[own[i]][j];
+					if (candidate != user && Arrays.binarySearch(own, 0, ownCount, candidate) < 0)
+						candidates[size++] = candidate;
+				}
+			Arrays.sort(candidates, 0, size);
+			for (int start = 0; start < size;) {
+				int end = start + 1;
+				while (end < size && candidates[end] == candidates[start])
+					end++;
+				handler.handle(index.idAt(candidates[start]), end - start);
+				start = end;
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Intersects two sorted lists into {@code out}: by a linear merge when
+	 * their sizes are close, otherwise by galloping through the longer one
+	 * for each element of the shorter.
+	 *
+	 * @return how many elements were written
+	 */
+	static int intersect(int[] a, int aSize, int[] b, int bSize, int[] out) {
+		if (aSize > bSize)
+			return intersect(b, bSize, a, aSize, out);
+		int size = 0;
+		if (aSize == 0)
+			return size;
+		if (bSize / aSize < GALLOP_RATIO) {
+			for (int i = 0, j = 0; i < aSize && j < bSize;) {
+				if (a[i] < b[j])
+					i++;
+				else if (a[i] > b[j])
+					j++;
+				else {
+					out[size++] = a[i];
+					i++;
+					j++;
+				}
+			}
+			return size;
+		}
+		int low = 0;
+		for (int i = 0; i < aSize && low < bSize; i++) {
+			int step = 1;
+			int high = low;
+			while (high < bSize && b[high] < a[i]) {
+				low = high + 1;
+				high += step;
+				step <<= 1;
+			}
+			int position = Arrays.binarySearch(b, low, Math.min(high + 1, bSize), a[i]);
+			if (position >= 0) {
+				out[size++] = a[i];
+				low = position + 1;
+			} else
+				low = -position - 1;
+		}
+		return size;
+	}
+
+	private long[] toIds(int[] nodes, int size) {
+		long[] ids = new long[size];
+		for (int i = 0; i < size; i++)
+			ids[i] = index.idAt(nodes[i]);
+		Arrays.sort(ids);
+		return ids;
+	}
+
+	private void ensureCapacity(int nodes) {
+		if (nodes <= followed.length)
+			return;
+		int capacity = Math.max(Math.max(nodes, 8), followed.length + (followed.length >> 1));
+		int previous = followed.length;
+		followed = Arrays.copyOf(followed, capacity);
+		followedCounts = Arrays.copyOf(followedCounts, capacity);
+		followers = Arrays.copyOf(followers, capacity);
+		followerCounts = Arrays.copyOf(followerCounts, capacity);
+		Arrays.fill(followed, previous, capacity, NONE);
+		Arrays.fill(followers, previous, capacity, NONE);
+	}
+
+	private static boolean insert(int[][] lists, int[] counts, int node, int value) {
+		int[] list = lists[node];
+		int count = counts[node];
+		int position = Arrays.binarySearch(list, 0, count, value);
+		if (position >= 0)
+			return false;
+		int insertion = -position - 1;
+		if (count == list.length)
+			list = Arrays.copyOf(list, Math.max(4, count + (count >> 1)));
+		System.arraycopy(list, insertion, list, insertion + 1, count - insertion);
+		list[insertion] = value;
+		lists[node] = list;
+		counts[node] = count + 1;
+		return true;
+	}
+
+	private static void remove(int[][] lists, int[] counts, int node, int value) {
+		int position = Arrays.binarySearch(lists[node], 0, counts[node], value);
+		if (position < 0)
+			return;
+		System.arraycopy(lists[node], position + 1, lists[node], position, counts[node] - position - 1);
+		counts[node]--;
+	}
+
+	private static long[] distinct(long[] sorted) {
+		int size = 0;
+		for (int i = 0; i < sorted.length; i++)
+			if (size == 0 || sorted[i] != sorted[size - 1])
+				sorted[size++] = sorted[i];
+		return Arrays.copyOf(sorted, size);
+	}
+
+	/**
+	 * The follow relations read by one loader, as consecutive pairs of ids.
+	 */
+	public static class Edges {
+
+		private long[] pairs = new long[32];
+
+		private int size;
+
+		public void add(long userId, long followedId) {
+			if (size * 2 == pairs.length)
+				pairs = Arrays.copyOf(pairs, pairs.length * 2);
+			pairs[size * 2] = userId;
+			pairs[size * 2 + 1] = followedId;
+			size++;
+		}
+
+		public int size() {
+			return size;
+		}
+
+	}
+
+	@FunctionalInterface
+	public interface CountHandler {
+
+		void handle(long id, int count);
+
+	}
+
+}
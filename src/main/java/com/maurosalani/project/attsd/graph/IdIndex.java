@@ -0,0 +1,94 @@
+package com.maurosalani.project.attsd.graph;
+
+import java.util.Arrays;
+
+/**
+ * Maps positive ids to dense indexes, in the order they are added, with an
+ * open addressing table of primitives. Indexes are never reused.
+ */
+final class IdIndex {
+
+	private static final long FREE = 0;
+
+	private long[] keys;
+
+	private int[] values;
+
+	private int shift;
+
+	private long[] ids;
+
+	private int size;
+
+	IdIndex(int expected) {
+		int capacity = Integer.highestOneBit(Math.max(expected, 8) * 2 - 1) * 2;
+		keys = new long[capacity];
+		values = new int[capacity];
+		shift = 64 - Integer.numberOfTrailingZeros(capacity);
+		ids = new long[Math.max(expected, 8)];
+	}
+
+	int size() {
+		return size;
+	}
+
+	long idAt(int index) {
+		return ids[index];
+	}
+
+	/**
+	 * @return the index of the id, or -1 if it was never added
+	 */
+	int indexOf(long id) {
+		if (id <= 0)
+			return -1;
+		for (int slot = slotOf(id);; slot = (slot + 1) & (keys.length - 1)) {
+			if (keys[slot] == id)
+				return values[slot];
+			if (keys[slot] == FREE)
+				return -1;
+		}
+	}
+
+	/**
+	 * @return the index of the id, assigning the next one if it is new
+	 */
+	int add(long id) {
+		if (id <= 0)
+			throw new IllegalArgumentException();
+		int index = indexOf(id);
+		if (index >= 0)
+			return index;
+		if (size == ids.length)
+			ids = Arrays.copyOf(ids, size + (size >> 1));
+		if ((size + 1) * 2 > keys.length)
+			rehash(keys.length * 2);
+		ids[size] = id;
+		insert(id, size);
+		return size++;
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		keys = new long[capacity];
+		values = new int[capacity];
+		shift = 64 - Integer.numberOfTrailingZeros(capacity);
+		for (int slot = 0; slot < oldKeys.length; slot++)
+			if (oldKeys[slot] != FREE)
+				insert(oldKeys[slot], oldValues[slot]);
+	}
+
+	private void insert(long id, int index) {
+		int slot = slotOf(id);
+		while (keys[slot] != FREE)
+			slot = (slot + 1) & (keys.length - 1);
+		keys[slot] = id;
+		values[slot] = index;
+	}
+
+	private int slotOf(long id) {
+		return (int) ((id * 0x9E3779B97F4A7C15L) >>> shift);
+	}
+
+}
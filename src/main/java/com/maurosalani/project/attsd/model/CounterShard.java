@@ -0,0 +1,52 @@
+package com.maurosalani.project.attsd.model;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.EmbeddedId;
+import javax.persistence.Entity;
+
+/**
+ * One of the rows a counter increment can land on. The rows of a counter
+ * hold the increments not yet folded into the counter column, see
+ * {@link com.maurosalani.project.attsd.service.CounterService}.
+ */
+@Entity
+public class CounterShard implements Serializable {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 1L;
+
+	@EmbeddedId
+	private CounterShardId id;
+
+	@Column(nullable = false)
+	private long delta;
+
+	public CounterShard() {
+	}
+
+	public CounterShard(CounterShardId id, long delta) {
+		this.id = id;
+		this.delta = delta;
+	}
+
+	public CounterShardId getId() {
+		return id;
+	}
+
+	public void setId(CounterShardId id) {
+		this.id = id;
+	}
+
+	public long getDelta() {
+		return delta;
+	}
+
+	public void setDelta(long delta) {
+		this.delta = delta;
+	}
+
+}
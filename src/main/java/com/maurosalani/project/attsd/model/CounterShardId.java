@@ -0,0 +1,92 @@
+package com.maurosalani.project.attsd.model;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+
+@Embeddable
+public class CounterShardId implements Serializable {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 1L;
+
+	@Column(length = 20)
+	private String kind;
+
+	private Long ownerId;
+
+	private int shard;
+
+	public CounterShardId() {
+	}
+
+	public CounterShardId(String kind, Long ownerId, int shard) {
+		this.kind = kind;
+		this.ownerId = ownerId;
+		this.shard = shard;
+	}
+
+	public String getKind() {
+		return kind;
+	}
+
+	public void setKind(String kind) {
+		this.kind = kind;
+	}
+
+	public Long getOwnerId() {
+		return ownerId;
+	}
+
+	public void setOwnerId(Long ownerId) {
+		this.ownerId = ownerId;
+	}
+
+	public int getShard() {
+		return shard;
+	}
+
+	public void setShard(int shard) {
+		this.shard = shard;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((kind == null) ? 0 : kind.hashCode());
+		result = prime * result + ((ownerId == null) ? 0 : ownerId.hashCode());
+		result = prime * result + shard;
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		CounterShardId other = (CounterShardId) obj;
+		if (kind == null) {
+			if (other.kind != null)
+				return false;
+		}
+		else if (!kind.equals(other.kind))
+			return false;
+		if (ownerId == null) {
+			if (other.ownerId != null)
+				return false;
+		}
+		else if (!ownerId.equals(other.ownerId))
+			return false;
+		if (shard != other.shard)
+			return false;
+		return true;
+	}
+
+}
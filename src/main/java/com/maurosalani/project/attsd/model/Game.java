@@ -6,17 +6,26 @@ import java.util.LinkedList;
 import java.util.List;
 
 import javax.persistence.Basic;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToMany;
+import javax.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.validator.constraints.Length;
 
 @Entity
+@Table(indexes = @Index(name = "idx_game_release_date", columnList = "releaseDate"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Game.CACHE_REGION)
 public class Game implements Serializable {
 
 	/**
@@ -24,6 +33,10 @@ public class Game implements Serializable {
 	 */
 	private static final long serialVersionUID = 1L;
 
+	public static final String CACHE_REGION = "game";
+
+	public static final String QUERY_CACHE_REGION = "game-queries";
+
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	private Long id;
@@ -40,6 +53,10 @@ public class Game implements Serializable {
 	@ManyToMany(mappedBy = "games", fetch = FetchType.LAZY)
 	private List<User> users;
 
+	@ColumnDefault("0")
+	@Column(nullable = false, insertable = false, updatable = false)
+	private long likeCount;
+
 	public Game() {
 	}
 
@@ -90,6 +107,14 @@ public class Game implements Serializable {
 		this.users = users;
 	}
 
+	public long getLikeCount() {
+		return likeCount;
+	}
+
+	public void setLikeCount(long likeCount) {
+		this.likeCount = likeCount;
+	}
+
 	public void addUser(User user) {
 		if (user != null) {
 			if (this.users == null)
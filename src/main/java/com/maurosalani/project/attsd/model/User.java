@@ -14,10 +14,13 @@ import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
+import javax.persistence.UniqueConstraint;
 
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.validator.constraints.Length;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 @Entity
 public class User implements Serializable {
@@ -37,10 +40,11 @@ public class User implements Serializable {
 	private String username;
 
 	@Basic(optional = false)
+	@JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
 	private String password;
 
 	@ManyToMany(fetch = FetchType.LAZY)
-	@JoinTable(name = "followers_relation", joinColumns = @JoinColumn(name = "user_id"), inverseJoinColumns = @JoinColumn(name = "followed_id"))
+	@JoinTable(name = "followers_relation", joinColumns = @JoinColumn(name = "user_id"), inverseJoinColumns = @JoinColumn(name = "followed_id"), uniqueConstraints = @UniqueConstraint(name = "uk_followers_relation_user_followed", columnNames = { "user_id", "followed_id" }))
 	@JsonIgnoreProperties({"followedUsers", "followerUsers"})
 	private List<User> followedUsers;
 
@@ -49,10 +53,18 @@ public class User implements Serializable {
 	private List<User> followerUsers;
 
 	@ManyToMany(fetch = FetchType.LAZY)
-	@JoinTable(name = "user_game_relation", joinColumns = @JoinColumn(name = "user_id"), inverseJoinColumns = @JoinColumn(name = "game_id"))
+	@JoinTable(name = "user_game_relation", joinColumns = @JoinColumn(name = "user_id"), inverseJoinColumns = @JoinColumn(name = "game_id"), uniqueConstraints = @UniqueConstraint(name = "uk_user_game_relation_user_game", columnNames = { "user_id", "game_id" }))
 	@JsonIgnoreProperties("users")
 	private List<Game> games;
 
+	@ColumnDefault("0")
+	@Column(nullable = false, insertable = false, updatable = false)
+	private long followerCount;
+
+	@ColumnDefault("0")
+	@Column(nullable = false, insertable = false, updatable = false)
+	private long followedCount;
+
 	public User() {
 
 	}
@@ -123,6 +135,22 @@ public class User implements Serializable {
 		this.games = games;
 	}
 
+	public long getFollowerCount() {
+		return followerCount;
+	}
+
+	public void setFollowerCount(long followerCount) {
+		this.followerCount = followerCount;
+	}
+
+	public long getFollowedCount() {
+		return followedCount;
+	}
+
+	public void setFollowedCount(long followedCount) {
+		this.followedCount = followedCount;
+	}
+
 	public void addFollowedUser(User followedUser) {
 		if (followedUser != null) {
 			if (this.followedUsers == null)
@@ -0,0 +1,309 @@
+package com.maurosalani.project.attsd.ranking;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * All-time ranking of ids by a count, kept as a treap ordered by decreasing
+ * count and then by increasing id, where every node knows the size of its
+ * subtree. Changing a count, the rank of an id and the id at a rank all cost
+ * O(log n), so the top entries and the entries around any id are read
+ * without sorting. Ids whose count drops to zero leave the ranking.
+ */
+public class Leaderboard {
+
+	private final Map<Long, Node> nodes = new HashMap<>();
+
+	private final Random random = new Random();
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private Node root;
+
+	public void add(long id, long delta) {
+		lock.writeLock().lock();
+		try {
+			Node node = nodes.remove(id);
+			long count = delta;
+			if (node != null) {
+				root = erase(root, node);
+				count += node.count;
+			}
+			if (count > 0)
+				insert(new Node(id, count, random.nextInt()));
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(long id) {
+		lock.writeLock().lock();
+		try {
+			Node node = nodes.remove(id);
+			if (node != null)
+				root = erase(root, node);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			nodes.clear();
+			root = null;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return nodes.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the rank of the id, starting from 1, or 0 if it is not ranked
+	 */
+	public int rankOf(long id) {
+		lock.readLock().lock();
+		try {
+			Node node = nodes.get(id);
+			return node == null ? 0 : rankOf(node);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the first entries of the ranking, at most {@code count}
+	 */
+	public List<Entry> top(int count) {
+		lock.readLock().lock();
+		try {
+			List<Entry> entries = new ArrayList<>(Math.max(0, Math.min(count, nodes.size())));
+			Deque<Node> path = new ArrayDeque<>();
+			Node current = root;
+			while (entries.size() < count && (current != null || !path.isEmpty())) {
+				while (current != null) {
+					path.push(current);
+					current = current.left;
+				}
+				current = path.pop();
+				entries.add(new Entry(entries.size() + 1, current.id, current.count));
+				current = current.right;
+			}
+			return entries;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the entries ranked at most {@code radius} places above or below
+	 *         the id, the id included, or none if it is not ranked
+	 */
+	public List<Entry> around(long id, int radius) {
+		lock.readLock().lock();
+		try {
+			Node node = nodes.get(id);
+			if (node == null)
+				return new ArrayList<>();
+			int rank = rankOf(node);
+			int first = Math.max(1, rank - radius);
+			int last = Math.min(nodes.size(), rank + radius);
+			List<Entry> entries = new ArrayList<>(last - first + 1);
+			for (int position = first; position <= last; position++) {
+				Node ranked = nodeAt(position);
+				entries.add(new Entry(position, ranked.id, ranked.count));
+			}
+			return entries;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void insert(Node node) {
+		nodes.put(node.id, node);
+		Node[] parts = split(root, node);
+		root = merge(merge(parts[0], node), parts[1]);
+	}
+
+	private int rankOf(Node node) {
+		int rank = 0;
+		Node current = root;
+		while (current != node) {
+			if (precedes(node, current))
+				current = current.left;
+			else {
+				rank += sizeOf(current.left) + 1;
+				current = current.right;
+			}
+		}
+		return rank + sizeOf(current.left) + 1;
+	}
+
+	private Node nodeAt(int rank) {
+		Node current = root;
+		int remaining = rank;
+		while (true) {
+			int leftSize = sizeOf(current.left);
+			if (remaining <= leftSize)
+				current = current.left;
+			else if (remaining == leftSize + 1)
+				return current;
+			else {
+				remaining -= leftSize + 1;
+				current = current.right;
+			}
+		}
+	}
+
+	/**
+	 * @return the nodes preceding the key and the others
+	 */
+	private static Node[] split(Node tree, Node key) {
+		if (tree == null)
+			return new Node[2];
+		Node[] parts;
+		if (precedes(tree, key)) {
+			parts = split(tree.right, key);
+			tree.right = parts[0];
+			parts[0] = tree;
+		} else {
+			parts = split(tree.left, key);
+			tree.left = parts[1];
+			parts[1] = tree;
+		}
+		tree.update();
+		return parts;
+	}
+
+	private static Node merge(Node left, Node right) {
+		if (left == null)
+			return right;
+		if (right == null)
+			return left;
+		if (left.priority > right.priority) {
+			left.right = merge(left.right, right);
+			left.update();
+			return left;
+		}
+		right.left = merge(left, right.left);
+		right.update();
+		return right;
+	}
+
+	private static Node erase(Node tree, Node node) {
+		if (tree == node)
+			return merge(tree.left, tree.right);
+		if (precedes(node, tree))
+			tree.left = erase(tree.left, node);
+		else
+			tree.right = erase(tree.right, node);
+		tree.update();
+		return tree;
+	}
+
+	private static boolean precedes(Node a, Node b) {
+		return a.count != b.count ? a.count > b.count : a.id < b.id;
+	}
+
+	private static int sizeOf(Node node) {
+		return node == null ? 0 : node.size;
+	}
+
+	private static class Node {
+
+		private final long id;
+
+		private final long count;
+
+		private final int priority;
+
+		private int size = 1;
+
+		private Node left;
+
+		private Node right;
+
+		Node(long id, long count, int priority) {
+			this.id = id;
+			this.count = count;
+			this.priority = priority;
+		}
+
+		void update() {
+			size = sizeOf(left) + sizeOf(right) + 1;
+		}
+
+	}
+
+	public static class Entry {
+
+		private final int rank;
+
+		private final long id;
+
+		private final long count;
+
+		public Entry(int rank, long id, long count) {
+			this.rank = rank;
+			this.id = id;
+			this.count = count;
+		}
+
+		public int getRank() {
+			return rank;
+		}
+
+		public long getId() {
+			return id;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + (int) (count ^ (count >>> 32));
+			result = prime * result + (int) (id ^ (id >>> 32));
+			result = prime * result + rank;
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			Entry other = (Entry) obj;
+			if (count != other.count)
+				return false;
+			if (id != other.id)
+				return false;
+			if (rank != other.rank)
+				return false;
+			return true;
+		}
+
+	}
+
+}
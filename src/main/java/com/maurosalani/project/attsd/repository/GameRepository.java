@@ -1,25 +1,56 @@
 package com.maurosalani.project.attsd.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import javax.persistence.QueryHint;
+
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import com.maurosalani.project.attsd.dto.GameSummaryDTO;
+import com.maurosalani.project.attsd.dto.SuggestionDTO;
+import com.maurosalani.project.attsd.dto.UserSummaryDTO;
 import com.maurosalani.project.attsd.model.Game;
 import com.maurosalani.project.attsd.model.User;
 
 public interface GameRepository extends JpaRepository<Game, Long> {
 
+	@QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HINT_CACHE_REGION, value = Game.QUERY_CACHE_REGION) })
 	Optional<Game> findByName(String string);
 
 	List<Game> findByNameLike(String string);
 
+	List<Game> findByNameIn(Collection<String> names);
+
 	@Query("select u.users from Game u where u.name = ?1")
 	List<User> findUsersOfGameByName(String string);
 
+	@QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HINT_CACHE_REGION, value = Game.QUERY_CACHE_REGION) })
 	@Query("select u from Game u order by u.releaseDate desc")
-	List<Game> findFirstNOrderByReleaseDate(Pageable pageable);	
+	List<Game> findFirstNOrderByReleaseDate(Pageable pageable);
+
+	@Query("select new com.maurosalani.project.attsd.dto.GameSummaryDTO(g.id, g.name, g.releaseDate) from Game g where g.id > ?1 order by g.id")
+	List<GameSummaryDTO> findPageAfter(Long after, Pageable pageable);
+
+	@Query("select new com.maurosalani.project.attsd.dto.UserSummaryDTO(u.id, u.username) from Game g join g.users u where g.id = ?1 and u.id > ?2 order by u.id")
+	List<UserSummaryDTO> findLikersPageAfter(Long gameId, Long after, Pageable pageable);
+
+	@Query("select new com.maurosalani.project.attsd.dto.GameSummaryDTO(g.id, g.name, g.releaseDate) from Game g where g.id in ?1 order by g.id")
+	List<GameSummaryDTO> findSummariesByIdIn(Collection<Long> ids);
+
+	@Query("select new com.maurosalani.project.attsd.dto.SuggestionDTO(g.id, g.name, count(u)) from Game g left join g.users u group by g.id, g.name")
+	List<SuggestionDTO> findAllNamesWithLikesCount();
+
+	@Query("select g.id, u.id from Game g join g.users u where g.id in ?1 order by u.id")
+	List<Object[]> findUserIdsOfGames(Collection<Long> ids);
 
 }
@@ -0,0 +1,123 @@
+package com.maurosalani.project.attsd.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Writes single rows of the follow and like join tables, without loading
+ * either side of the relation. Inserting a row that already exists is a
+ * no-op; a missing user or game surfaces as a foreign key violation.
+ */
+@Repository
+public class UserRelationRepository {
+
+	private static final String INSERT_FOLLOWED = "insert into followers_relation (user_id, followed_id) "
+			+ "select ?, ? from dual where not exists "
+			+ "(select 1 from followers_relation where user_id = ? and followed_id = ?)";
+
+	private static final String INSERT_GAME = "insert into user_game_relation (user_id, game_id) "
+			+ "select ?, ? from dual where not exists "
+			+ "(select 1 from user_game_relation where user_id = ? and game_id = ?)";
+
+	private static final String SELECT_FOLLOWED_RANGE = "select min(user_id), max(user_id) from followers_relation";
+
+	private static final String SELECT_FOLLOWED = "select user_id, followed_id from followers_relation "
+			+ "where user_id between ? and ? order by user_id, followed_id";
+
+	private static final String SELECT_GAME = "select user_id, game_id from user_game_relation "
+			+ "order by user_id, game_id";
+
+	private static final String COUNT_FOLLOWERS = "select followed_id, count(*) from followers_relation "
+			+ "group by followed_id";
+
+	private static final String COUNT_LIKES = "select game_id, count(*) from user_game_relation group by game_id";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	public UserRelationRepository(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * @return whether the row was inserted, false if it was already there.
+	 */
+	public boolean insertFollowed(Long userId, Long followedId) {
+		return insert(INSERT_FOLLOWED, userId, followedId);
+	}
+
+	/**
+	 * @return whether the row was inserted, false if it was already there.
+	 */
+	public boolean insertGame(Long userId, Long gameId) {
+		return insert(INSERT_GAME, userId, gameId);
+	}
+
+	/**
+	 * @return the lowest and the highest id of a user following someone, or
+	 *         null if nobody follows anyone.
+	 */
+	public long[] findFollowingUserIdRange() {
+		return jdbcTemplate.queryForObject(SELECT_FOLLOWED_RANGE,
+				(rs, rowNum) -> rs.getObject(1) == null ? null : new long[] { rs.getLong(1), rs.getLong(2) });
+	}
+
+	/**
+	 * Streams the follow relations of the users whose id is within the given
+	 * bounds, inclusive, to the handler, ordered by user and then by followed
+	 * user, without materializing the rows. Disjoint ranges can be read
+	 * concurrently.
+	 */
+	public void forEachFollowed(long fromUserId, long toUserId, RelationHandler handler) {
+		jdbcTemplate.query(SELECT_FOLLOWED,
+				(RowCallbackHandler) rs -> handler.handle(rs.getLong(1), rs.getLong(2)), fromUserId, toUserId);
+	}
+
+	/**
+	 * Streams every like relation to the handler, ordered by user and then by
+	 * game, without materializing the rows.
+	 */
+	public void forEachGame(RelationHandler handler) {
+		jdbcTemplate.query(SELECT_GAME, (RowCallbackHandler) rs -> handler.handle(rs.getLong(1), rs.getLong(2)));
+	}
+
+	/**
+	 * Streams to the handler how many followers every followed user has.
+	 */
+	public void forEachFollowerCount(CountHandler handler) {
+		jdbcTemplate.query(COUNT_FOLLOWERS, (RowCallbackHandler) rs -> handler.handle(rs.getLong(1), rs.getLong(2)));
+	}
+
+	/**
+	 * Streams to the handler how many likes every liked game has.
+	 */
+	public void forEachLikeCount(CountHandler handler) {
+		jdbcTemplate.query(COUNT_LIKES, (RowCallbackHandler) rs -> handler.handle(rs.getLong(1), rs.getLong(2)));
+	}
+
+	private boolean insert(String sql, Long userId, Long targetId) {
+		try {
+			return jdbcTemplate.update(sql, userId, targetId, userId, targetId) == 1;
+		} catch (DuplicateKeyException e) {
+			return false;
+		}
+	}
+
+	@FunctionalInterface
+	public interface RelationHandler {
+
+		void handle(long userId, long targetId);
+
+	}
+
+	@FunctionalInterface
+	public interface CountHandler {
+
+		void handle(long id, long count);
+
+	}
+
+}
@@ -1,11 +1,19 @@
 package com.maurosalani.project.attsd.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.maurosalani.project.attsd.dto.GameSummaryDTO;
+import com.maurosalani.project.attsd.dto.SuggestionDTO;
+import com.maurosalani.project.attsd.dto.UserSummaryDTO;
 import com.maurosalani.project.attsd.model.Game;
 import com.maurosalani.project.attsd.model.User;
 
@@ -15,7 +23,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
 	List<User> findByUsernameLike(String string);
 
-	Optional<User> findByUsernameAndPassword(String string, String string2);
+	@Transactional
+	@Modifying
+	@Query("update User u set u.password = ?3 where u.id = ?1 and u.password = ?2")
+	int updatePassword(Long id, String expected, String replacement);
 
 	@Query("select u.games from User u where u.username = ?1")
 	List<Game> findGamesOfUserByUsername(String username);
@@ -26,4 +37,43 @@ public interface UserRepository extends JpaRepository<User, Long> {
 	@Query("select u.followerUsers from User u where u.username = ?1")
 	List<User> findFollowerOfUserByUsername(String string);
 
+	@Query("select new com.maurosalani.project.attsd.dto.UserSummaryDTO(u.id, u.username) from User u where u.id > ?1 order by u.id")
+	List<UserSummaryDTO> findPageAfter(Long after, Pageable pageable);
+
+	@Query("select new com.maurosalani.project.attsd.dto.UserSummaryDTO(f.id, f.username) from User u join u.followedUsers f where u.id = ?1 and f.id > ?2 order by f.id")
+	List<UserSummaryDTO> findFollowedPageAfter(Long userId, Long after, Pageable pageable);
+
+	@Query("select new com.maurosalani.project.attsd.dto.UserSummaryDTO(f.id, f.username) from User u join u.followerUsers f where u.id = ?1 and f.id > ?2 order by f.id")
+	List<UserSummaryDTO> findFollowerPageAfter(Long userId, Long after, Pageable pageable);
+
+	@Query("select new com.maurosalani.project.attsd.dto.GameSummaryDTO(g.id, g.name, g.releaseDate) from User u join u.games g where u.id = ?1 and g.id > ?2 order by g.id")
+	List<GameSummaryDTO> findGamesPageAfter(Long userId, Long after, Pageable pageable);
+
+	@Query("select new com.maurosalani.project.attsd.dto.UserSummaryDTO(u.id, u.username) from User u where u.id in ?1 order by u.id")
+	List<UserSummaryDTO> findSummariesByIdIn(Collection<Long> ids);
+
+	@Query("select new com.maurosalani.project.attsd.dto.SuggestionDTO(u.id, u.username, count(f)) from User u left join u.followerUsers f group by u.id, u.username")
+	List<SuggestionDTO> findAllUsernamesWithFollowersCount();
+
+	@Query("select case when count(f) > 0 then true else false end from User u join u.followedUsers f where u.id = ?1 and f.id = ?2")
+	boolean isFollowing(Long userId, Long followedId);
+
+	@Query("select case when count(g) > 0 then true else false end from User u join u.games g where u.id = ?1 and g.id = ?2")
+	boolean hasLiked(Long userId, Long gameId);
+
+	@Query("select f.id from User u join u.followedUsers f where u.id = ?1")
+	Set<Long> findFollowedIdsById(Long id);
+
+	@Query("select u.id from User u join u.followedUsers f where f.id = ?1")
+	Set<Long> findFollowerIdsById(Long id);
+
+	@Query("select g.id from User u join u.games g where u.id = ?1")
+	Set<Long> findGameIdsById(Long id);
+
+	@Query("select u.id, f.id from User u join u.followedUsers f where u.id in ?1 order by f.id")
+	List<Object[]> findFollowedIdsOfUsers(Collection<Long> ids);
+
+	@Query("select u.id, g.id from User u join u.games g where u.id in ?1 order by g.id")
+	List<Object[]> findGameIdsOfUsers(Collection<Long> ids);
+
 }
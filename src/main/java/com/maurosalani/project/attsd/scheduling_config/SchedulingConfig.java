@@ -0,0 +1,10 @@
+package com.maurosalani.project.attsd.scheduling_config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+}
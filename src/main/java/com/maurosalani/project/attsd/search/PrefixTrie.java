@@ -0,0 +1,306 @@
+package com.maurosalani.project.attsd.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.maurosalani.project.attsd.dto.SuggestionDTO;
+
+/**
+ * Compressed (radix) trie of lower case texts, each one carrying a score. Every
+ * node remembers the best score of its subtree, so the top-k completions of a
+ * prefix are found with a best-first visit that only expands the nodes that
+ * can still beat the results already collected, whatever the size of the
+ * subtree below the prefix.
+ */
+public class PrefixTrie {
+
+	private static final long EMPTY = -1;
+
+	private static final Comparator<Candidate> RANKING = Comparator.comparingLong((Candidate c) -> -c.score)
+			.thenComparing(c -> c.key).thenComparing(c -> c.node != null).thenComparingLong(c -> c.id);
+
+	private final Node root = new Node("");
+
+	private final Map<Long, String> keys = new HashMap<>();
+
+	private final Map<Long, String> texts = new HashMap<>();
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Inserts or renames the given id, keeping its current score (0 for new ids).
+	 */
+	public void put(Long id, String text) {
+		lock.writeLock().lock();
+		try {
+			Long score = scoreOf(id);
+			putUnlocked(id, text, score == null ? 0 : score);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void put(Long id, String text, long score) {
+		lock.writeLock().lock();
+		try {
+			putUnlocked(id, text, score);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void incrementScore(Long id, long delta) {
+		lock.writeLock().lock();
+		try {
+			List<Node> path = pathTo(id);
+			if (path.isEmpty())
+				return;
+			Node terminal = path.get(path.size() - 1);
+			terminal.entries.merge(id, delta, Long::sum);
+			refresh(path);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(Long id) {
+		lock.writeLock().lock();
+		try {
+			removeUnlocked(id);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			root.children.clear();
+			root.entries.clear();
+			root.maxScore = EMPTY;
+			keys.clear();
+			texts.clear();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return keys.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return at most <code>limit</code> texts starting with the given prefix
+	 *         (case insensitive), by descending score and then alphabetically
+	 */
+	public List<SuggestionDTO> complete(String prefix, int limit) {
+		if (prefix == null)
+			throw new IllegalArgumentException();
+
+		String normalized = normalize(prefix);
+		lock.readLock().lock();
+		try {
+			Candidate start = locate(normalized);
+			if (start == null || start.score == EMPTY)
+				return Collections.emptyList();
+
+			List<SuggestionDTO> result = new ArrayList<>();
+			PriorityQueue<Candidate> queue = new PriorityQueue<>(RANKING);
+			queue.add(start);
+			while (!queue.isEmpty() && result.size() < limit) {
+				Candidate candidate = queue.poll();
+				if (candidate.node == null) {
+					result.add(new SuggestionDTO(candidate.id, texts.get(candidate.id), candidate.score));
+				} else {
+					Node node = candidate.node;
+					node.entries.forEach((id, score) -> queue.add(new Candidate(score, candidate.key, id, null)));
+					for (Node child : node.children.values())
+						queue.add(new Candidate(child.maxScore, candidate.key + child.label, 0, child));
+				}
+			}
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private Candidate locate(String prefix) {
+		Node node = root;
+		int i = 0;
+		while (i < prefix.length()) {
+			Node child = node.children.get(prefix.charAt(i));
+			if (child == null)
+				return null;
+			int common = commonPrefixLength(child.label, prefix, i);
+			if (i + common == prefix.length())
+				return new Candidate(child.maxScore, prefix.substring(0, i) + child.label, 0, child);
+			if (common < child.label.length())
+				return null;
+			node = child;
+			i += common;
+		}
+		return new Candidate(node.maxScore, prefix, 0, node);
+	}
+
+	private void putUnlocked(Long id, String text, long score) {
+		if (id == null || text == null)
+			throw new IllegalArgumentException();
+
+		removeUnlocked(id);
+		String key = normalize(text);
+		List<Node> path = new ArrayList<>();
+		Node node = root;
+		path.add(node);
+		int i = 0;
+		while (i < key.length()) {
+			Node child = node.children.get(key.charAt(i));
+			if (child == null) {
+				child = new Node(key.substring(i));
+				node.children.put(key.charAt(i), child);
+				i = key.length();
+			} else {
+				int common = commonPrefixLength(child.label, key, i);
+				if (common < child.label.length())
+					child = split(node, child, common);
+				i += common;
+			}
+			node = child;
+			path.add(node);
+		}
+		node.entries.put(id, score);
+		keys.put(id, key);
+		texts.put(id, text);
+		refresh(path);
+	}
+
+	private static Node split(Node parent, Node child, int at) {
+		Node middle = new Node(child.label.substring(0, at));
+		child.label = child.label.substring(at);
+		middle.children.put(child.label.charAt(0), child);
+		middle.maxScore = child.maxScore;
+		parent.children.put(middle.label.charAt(0), middle);
+		return middle;
+	}
+
+	private void removeUnlocked(Long id) {
+		List<Node> path = pathTo(id);
+		if (path.isEmpty())
+			return;
+		keys.remove(id);
+		texts.remove(id);
+		path.get(path.size() - 1).entries.remove(id);
+
+		for (int i = path.size() - 1; i > 0; i--) {
+			Node node = path.get(i);
+			Node parent = path.get(i - 1);
+			if (node.entries.isEmpty() && node.children.isEmpty()) {
+				parent.children.remove(node.label.charAt(0));
+			} else if (node.entries.isEmpty() && node.children.size() == 1) {
+				Node onlyChild = node.children.values().iterator().next();
+				onlyChild.label = node.label + onlyChild.label;
+				parent.children.put(onlyChild.label.charAt(0), onlyChild);
+			}
+		}
+		refresh(path);
+	}
+
+	private List<Node> pathTo(Long id) {
+		String key = keys.get(id);
+		if (key == null)
+			return Collections.emptyList();
+
+		List<Node> path = new ArrayList<>();
+		Node node = root;
+		path.add(node);
+		int i = 0;
+		while (i < key.length()) {
+			node = node.children.get(key.charAt(i));
+			path.add(node);
+			i += node.label.length();
+		}
+		return path;
+	}
+
+	private Long scoreOf(Long id) {
+		List<Node> path = pathTo(id);
+		if (path.isEmpty())
+			return null;
+		return path.get(path.size() - 1).entries.get(id);
+	}
+
+	/**
+	 * Recomputes the best subtree score bottom-up along the given root-first
+	 * path. Nodes pruned from the trie meanwhile are harmlessly refreshed too.
+	 */
+	private static void refresh(List<Node> path) {
+		for (int i = path.size() - 1; i >= 0; i--) {
+			Node node = path.get(i);
+			long max = EMPTY;
+			for (long score : node.entries.values())
+				max = Math.max(max, score);
+			for (Node child : node.children.values())
+				max = Math.max(max, child.maxScore);
+			node.maxScore = max;
+		}
+	}
+
+	private static int commonPrefixLength(String label, String key, int offset) {
+		int length = 0;
+		while (length < label.length() && offset + length < key.length()
+				&& label.charAt(length) == key.charAt(offset + length))
+			length++;
+		return length;
+	}
+
+	private static String normalize(String text) {
+		return text.toLowerCase(Locale.ROOT);
+	}
+
+	private static final class Node {
+
+		private String label;
+
+		private final TreeMap<Character, Node> children = new TreeMap<>();
+
+		private final Map<Long, Long> entries = new HashMap<>();
+
+		private long maxScore = EMPTY;
+
+		private Node(String label) {
+			this.label = label;
+		}
+	}
+
+	private static final class Candidate {
+
+		private final long score;
+
+		private final String key;
+
+		private final long id;
+
+		private final Node node;
+
+		private Candidate(long score, String key, long id, Node node) {
+			this.score = score;
+			this.key = key;
+			this.id = id;
+			this.node = node;
+		}
+	}
+
+}
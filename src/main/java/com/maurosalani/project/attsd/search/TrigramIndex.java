@@ -0,0 +1,154 @@
+package com.maurosalani.project.attsd.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory substring index over a text attribute of an entity. Every text is
+ * split into its (lower case) trigrams, and each trigram keeps the sorted set
+ * of ids containing it: a query intersects the posting lists of its own
+ * trigrams and checks the surviving candidates, so it behaves like a
+ * case-insensitive <code>LIKE '%term%'</code> without scanning every row.
+ */
+public class TrigramIndex {
+
+	private static final int GRAM_LENGTH = 3;
+
+	private final Map<Long, String> texts = new HashMap<>();
+
+	private final Map<String, TreeSet<Long>> postings = new HashMap<>();
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	public void put(Long id, String text) {
+		if (id == null || text == null)
+			throw new IllegalArgumentException();
+
+		String normalized = normalize(text);
+		lock.writeLock().lock();
+		try {
+			removeUnlocked(id);
+			texts.put(id, normalized);
+			for (String gram : gramsOf(normalized))
+				postings.computeIfAbsent(gram, g -> new TreeSet<>()).add(id);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(Long id) {
+		lock.writeLock().lock();
+		try {
+			removeUnlocked(id);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			texts.clear();
+			postings.clear();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return texts.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the ids, in ascending order, whose text contains the given term
+	 */
+	public List<Long> search(String term) {
+		if (term == null)
+			throw new IllegalArgumentException();
+
+		String normalized = normalize(term);
+		lock.readLock().lock();
+		try {
+			if (normalized.length() < GRAM_LENGTH)
+				return scan(normalized);
+			return intersect(normalized);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private List<Long> scan(String term) {
+		List<Long> result = new ArrayList<>();
+		for (Map.Entry<Long, String> entry : texts.entrySet()) {
+			if (entry.getValue().contains(term))
+				result.add(entry.getKey());
+		}
+		Collections.sort(result);
+		return result;
+	}
+
+	private List<Long> intersect(String term) {
+		List<TreeSet<Long>> lists = new ArrayList<>();
+		for (String gram : gramsOf(term)) {
+			TreeSet<Long> posting = postings.get(gram);
+			if (posting == null)
+				return Collections.emptyList();
+			lists.add(posting);
+		}
+		lists.sort(Comparator.comparingInt(Set::size));
+
+		List<Long> result = new ArrayList<>();
+		for (Long candidate : lists.get(0)) {
+			if (containedInAll(candidate, lists) && texts.get(candidate).contains(term))
+				result.add(candidate);
+		}
+		return result;
+	}
+
+	private static boolean containedInAll(Long candidate, List<TreeSet<Long>> lists) {
+		for (int i = 1; i < lists.size(); i++) {
+			if (!lists.get(i).contains(candidate))
+				return false;
+		}
+		return true;
+	}
+
+	private void removeUnlocked(Long id) {
+		String previous = texts.remove(id);
+		if (previous == null)
+			return;
+		for (String gram : gramsOf(previous)) {
+			TreeSet<Long> posting = postings.get(gram);
+			posting.remove(id);
+			if (posting.isEmpty())
+				postings.remove(gram);
+		}
+	}
+
+	private static Set<String> gramsOf(String text) {
+		Set<String> grams = new HashSet<>();
+		for (int i = 0; i + GRAM_LENGTH <= text.length(); i++)
+			grams.add(text.substring(i, i + GRAM_LENGTH));
+		return grams;
+	}
+
+	private static String normalize(String text) {
+		return text.toLowerCase(Locale.ROOT);
+	}
+
+}
@@ -0,0 +1,89 @@
+package com.maurosalani.project.attsd.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Salted PBKDF2 password hashes, stored together with their parameters as
+ * {@code pbkdf2$<iterations>$<salt>$<hash>} so the cost can be raised later
+ * without invalidating the hashes already stored. A stored value without that
+ * prefix is a password saved before hashing was introduced: it only matches
+ * itself and always needs a rehash.
+ */
+public class PasswordHasher {
+
+	private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+
+	private static final String PREFIX = "pbkdf2$";
+
+	private static final int SALT_BYTES = 16;
+
+	private static final int HASH_BITS = 256;
+
+	private final SecureRandom random = new SecureRandom();
+
+	private final int iterations;
+
+	public PasswordHasher(int iterations) {
+		if (iterations <= 0)
+			throw new IllegalArgumentException();
+		this.iterations = iterations;
+	}
+
+	public String hash(String password) {
+		if (password == null)
+			throw new IllegalArgumentException();
+		byte[] salt = new byte[SALT_BYTES];
+		random.nextBytes(salt);
+		Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+		return PREFIX + iterations + "$" + encoder.encodeToString(salt) + "$"
+				+ encoder.encodeToString(derive(password, salt, iterations, HASH_BITS));
+	}
+
+	public boolean matches(String password, String stored) {
+		if (password == null || stored == null)
+			return false;
+		if (!stored.startsWith(PREFIX))
+			return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8),
+					stored.getBytes(StandardCharsets.UTF_8));
+		String[] parts = stored.split("\\$");
+		if (parts.length != 4)
+			return false;
+		try {
+			int rounds = Integer.parseInt(parts[1]);
+			byte[] salt = Base64.getDecoder().decode(parts[2]);
+			byte[] expected = Base64.getDecoder().decode(parts[3]);
+			if (rounds <= 0 || expected.length == 0)
+				return false;
+			return MessageDigest.isEqual(expected, derive(password, salt, rounds, expected.length * 8));
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * @return whether the stored value is not a hash made with the current
+	 *         parameters, and should be replaced once the password is known
+	 */
+	public boolean needsRehash(String stored) {
+		return stored == null || !stored.startsWith(PREFIX + iterations + "$");
+	}
+
+	private static byte[] derive(String password, byte[] salt, int rounds, int bits) {
+		PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, rounds, bits);
+		try {
+			return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		} finally {
+			spec.clearPassword();
+		}
+	}
+
+}
@@ -0,0 +1,77 @@
+package com.maurosalani.project.attsd.security;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Signs and checks compact bearer tokens: the user id and the expiry, in
+ * epoch seconds, as sixteen bytes followed by their HMAC-SHA256, both encoded
+ * as unpadded URL-safe Base64 and separated by a dot. Checking a token only
+ * recomputes the HMAC, so it needs neither the database nor any shared state.
+ */
+public class TokenSigner {
+
+	public static final long INVALID = -1;
+
+	private static final String ALGORITHM = "HmacSHA256";
+
+	private static final int PAYLOAD_BYTES = 2 * Long.BYTES;
+
+	private final SecretKeySpec key;
+
+	public TokenSigner(byte[] secret) {
+		if (secret == null || secret.length == 0)
+			throw new IllegalArgumentException();
+		key = new SecretKeySpec(secret, ALGORITHM);
+	}
+
+	public String sign(long userId, long expiresAt) {
+		if (userId <= 0)
+			throw new IllegalArgumentException();
+		byte[] payload = ByteBuffer.allocate(PAYLOAD_BYTES).putLong(userId).putLong(expiresAt).array();
+		Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+		return encoder.encodeToString(payload) + "." + encoder.encodeToString(mac(payload));
+	}
+
+	/**
+	 * @return the user id of the token, or {@link #INVALID} if it is malformed,
+	 *         not signed with this key or expired at {@code now}
+	 */
+	public long verify(String token, long now) {
+		if (token == null)
+			return INVALID;
+		int dot = token.indexOf('.');
+		if (dot < 0)
+			return INVALID;
+		byte[] payload;
+		byte[] signature;
+		try {
+			payload = Base64.getUrlDecoder().decode(token.substring(0, dot));
+			signature = Base64.getUrlDecoder().decode(token.substring(dot + 1));
+		} catch (IllegalArgumentException e) {
+			return INVALID;
+		}
+		if (payload.length != PAYLOAD_BYTES || !MessageDigest.isEqual(signature, mac(payload)))
+			return INVALID;
+		ByteBuffer buffer = ByteBuffer.wrap(payload);
+		long userId = buffer.getLong();
+		long expiresAt = buffer.getLong();
+		return now < expiresAt && userId > 0 ? userId : INVALID;
+	}
+
+	private byte[] mac(byte[] payload) {
+		try {
+			Mac mac = Mac.getInstance(ALGORITHM);
+			mac.init(key);
+			return mac.doFinal(payload);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
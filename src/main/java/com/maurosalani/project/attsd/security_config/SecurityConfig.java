@@ -0,0 +1,20 @@
+package com.maurosalani.project.attsd.security_config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.maurosalani.project.attsd.service.TokenService;
+
+@Configuration
+public class SecurityConfig {
+
+	@Bean
+	public FilterRegistrationBean<TokenAuthenticationFilter> tokenAuthenticationFilter(TokenService tokenService) {
+		FilterRegistrationBean<TokenAuthenticationFilter> registration = new FilterRegistrationBean<>(
+				new TokenAuthenticationFilter(tokenService));
+		registration.addUrlPatterns("/api/*");
+		return registration;
+	}
+
+}
@@ -0,0 +1,51 @@
+package com.maurosalani.project.attsd.security_config;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.maurosalani.project.attsd.service.TokenService;
+
+/**
+ * Authenticates REST requests carrying an {@code Authorization: Bearer}
+ * token, exposing the id of its user as the {@value #AUTHENTICATED_USER}
+ * request attribute. A request with an invalid or expired token is rejected
+ * with 401; one without a token goes on unauthenticated.
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+	public static final String AUTHENTICATED_USER = "attsd.authenticatedUser";
+
+	private static final String BEARER = "Bearer ";
+
+	private final TokenService tokenService;
+
+	public TokenAuthenticationFilter(TokenService tokenService) {
+		this.tokenService = tokenService;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+		if (header == null || !header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+			chain.doFilter(request, response);
+			return;
+		}
+		Long userId = tokenService.authenticate(header.substring(BEARER.length()).trim());
+		if (userId == null) {
+			response.sendError(HttpStatus.UNAUTHORIZED.value(), "Invalid or expired token");
+			return;
+		}
+		request.setAttribute(AUTHENTICATED_USER, userId);
+		chain.doFilter(request, response);
+	}
+
+}
@@ -0,0 +1,127 @@
+package com.maurosalani.project.attsd.service;
+
+import java.util.Collections;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.maurosalani.project.attsd.dto.AutocompleteDTO;
+import com.maurosalani.project.attsd.dto.SuggestionDTO;
+import com.maurosalani.project.attsd.event.GameDeletedEvent;
+import com.maurosalani.project.attsd.event.GameLikedEvent;
+import com.maurosalani.project.attsd.event.GameSavedEvent;
+import com.maurosalani.project.attsd.event.UserDeletedEvent;
+import com.maurosalani.project.attsd.event.UserFollowedEvent;
+import com.maurosalani.project.attsd.event.UserSavedEvent;
+import com.maurosalani.project.attsd.model.Game;
+import com.maurosalani.project.attsd.model.User;
+import com.maurosalani.project.attsd.repository.GameRepository;
+import com.maurosalani.project.attsd.repository.UserRepository;
+import com.maurosalani.project.attsd.search.PrefixTrie;
+
+@Service
+public class AutocompleteService {
+
+	public static final int MAX_LIMIT = 20;
+
+	@Autowired
+	private GameRepository gameRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private final PrefixTrie gameNames = new PrefixTrie();
+
+	private final PrefixTrie usernames = new PrefixTrie();
+
+	public AutocompleteService(GameRepository gameRepository, UserRepository userRepository) {
+		this.gameRepository = gameRepository;
+		this.userRepository = userRepository;
+	}
+
+	@PostConstruct
+	public void buildIndex() {
+		gameNames.clear();
+		for (SuggestionDTO game : gameRepository.findAllNamesWithLikesCount())
+			gameNames.put(game.getId(), game.getText(), game.getScore());
+		usernames.clear();
+		for (SuggestionDTO user : userRepository.findAllUsernamesWithFollowersCount())
+			usernames.put(user.getId(), user.getText(), user.getScore());
+	}
+
+	public AutocompleteDTO complete(String prefix, int limit) {
+		if (prefix == null)
+			throw new IllegalArgumentException();
+
+		if (StringUtils.isBlank(prefix) || limit < 1)
+			return new AutocompleteDTO(Collections.emptyList(), Collections.emptyList());
+		int boundedLimit = Math.min(limit, MAX_LIMIT);
+		String trimmed = prefix.trim();
+		return new AutocompleteDTO(gameNames.complete(trimmed, boundedLimit),
+				usernames.complete(trimmed, boundedLimit));
+	}
+
+	public void gameSaved(Game game) {
+		gameNames.put(game.getId(), game.getName());
+	}
+
+	@TransactionalEventListener
+	public void gameSaved(GameSavedEvent event) {
+		gameSaved(event.getGame());
+	}
+
+	public void gameDeleted(Long id) {
+		gameNames.remove(id);
+	}
+
+	@TransactionalEventListener
+	public void gameDeleted(GameDeletedEvent event) {
+		gameDeleted(event.getGameId());
+	}
+
+	public void gameLiked(Long id) {
+		gameNames.incrementScore(id, 1);
+	}
+
+	@TransactionalEventListener
+	public void gameLiked(GameLikedEvent event) {
+		gameLiked(event.getGameId());
+	}
+
+	public void userSaved(User user) {
+		usernames.put(user.getId(), user.getUsername());
+	}
+
+	@TransactionalEventListener
+	public void userSaved(UserSavedEvent event) {
+		userSaved(event.getUser());
+	}
+
+	public void userDeleted(Long id) {
+		usernames.remove(id);
+	}
+
+	/**
+	 * Forgets the user and takes back the follows and likes deleted with it.
+	 */
+	@TransactionalEventListener
+	public void userDeleted(UserDeletedEvent event) {
+		userDeleted(event.getUserId());
+		event.getFollowedIds().forEach(id -> usernames.incrementScore(id, -1));
+		event.getGameIds().forEach(id -> gameNames.incrementScore(id, -1));
+	}
+
+	public void userFollowed(Long id) {
+		usernames.incrementScore(id, 1);
+	}
+
+	@TransactionalEventListener
+	public void userFollowed(UserFollowedEvent event) {
+		userFollowed(event.getFollowedId());
+	}
+
+}
@@ -0,0 +1,147 @@
+package com.maurosalani.project.attsd.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.maurosalani.project.attsd.event.GameLikedEvent;
+import com.maurosalani.project.attsd.event.UserDeletedEvent;
+import com.maurosalani.project.attsd.event.UserFollowedEvent;
+import com.maurosalani.project.attsd.model.CounterShard;
+import com.maurosalani.project.attsd.model.CounterShardId;
+
+/**
+ * Maintains the follower, followed and like counters of users and games.
+ * An increment adds to one of several shard rows picked at random, so that
+ * concurrent increments of the same counter do not wait on a single row
+ * lock. The shards are periodically folded into the counter columns of
+ * {@code user} and {@code game}, which the pages and the REST responses
+ * show. The columns of relations written before they existed are filled
+ * once by {@code src/main/sql/002-backfill-counters.sql}.
+ */
+@Service
+public class CounterService {
+
+	public enum Counter {
+		FOLLOWERS("user", "follower_count"),
+		FOLLOWED("user", "followed_count"),
+		LIKES("game", "like_count");
+
+		private final String addToOwner;
+
+		Counter(String table, String column) {
+			this.addToOwner = "update " + table + " set " + column + " = " + column + " + ? where id = ?";
+		}
+	}
+
+	private static final int DEFAULT_SHARDS = 16;
+	private static final String ADD_TO_SHARD = "update counter_shard set delta = delta + ? where kind = ? and owner_id = ? and shard = ?";
+	private static final String INSERT_SHARD = "insert into counter_shard (kind, owner_id, shard, delta) values (?, ?, ?, ?)";
+	private static final String SELECT_SHARDS = "select kind, owner_id, shard, delta from counter_shard where delta <> 0 "
+			+ "order by kind, owner_id, shard for update";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private GameCacheService gameCacheService;
+
+	private final TransactionTemplate transactionTemplate;
+
+	@Value("${attsd.counters.shards:" + DEFAULT_SHARDS + "}")
+	private int shards = DEFAULT_SHARDS;
+
+	public CounterService(JdbcTemplate jdbcTemplate, GameCacheService gameCacheService,
+			PlatformTransactionManager transactionManager) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.gameCacheService = gameCacheService;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	public void increment(Counter counter, Long ownerId) {
+		add(counter, ownerId, 1);
+	}
+
+	public void decrement(Counter counter, Long ownerId) {
+		add(counter, ownerId, -1);
+	}
+
+	/**
+	 * Counts the new follow in the transaction that inserted it, as the event
+	 * is handled when published.
+	 */
+	@EventListener
+	public void userFollowed(UserFollowedEvent event) {
+		increment(Counter.FOLLOWED, event.getUserId());
+		increment(Counter.FOLLOWERS, event.getFollowedId());
+	}
+
+	@EventListener
+	public void gameLiked(GameLikedEvent event) {
+		increment(Counter.LIKES, event.getGameId());
+	}
+
+	/**
+	 * Takes back, in the transaction that deleted the user, the follows and
+	 * likes deleted with it.
+	 */
+	@EventListener
+	public void userDeleted(UserDeletedEvent event) {
+		event.getFollowedIds().forEach(followedId -> decrement(Counter.FOLLOWERS, followedId));
+		event.getFollowerIds().forEach(followerId -> decrement(Counter.FOLLOWED, followerId));
+		event.getGameIds().forEach(gameId -> decrement(Counter.LIKES, gameId));
+	}
+
+	private void add(Counter counter, Long ownerId, long delta) {
+		int shard = ThreadLocalRandom.current().nextInt(shards);
+		if (jdbcTemplate.update(ADD_TO_SHARD, delta, counter.name(), ownerId, shard) > 0)
+			return;
+		try {
+			jdbcTemplate.update(INSERT_SHARD, counter.name(), ownerId, shard, delta);
+		} catch (DuplicateKeyException e) {
+			jdbcTemplate.update(ADD_TO_SHARD, delta, counter.name(), ownerId, shard);
+		}
+	}
+
+	/**
+	 * Moves the increments collected by the shards into the counter columns.
+	 * Each shard is decreased by the amount that was read from it, so the
+	 * increments made in the meantime are kept for the next run. Emptied shards
+	 * are kept rather than deleted, so an increment never races with a delete.
+	 */
+	@Scheduled(fixedDelayString = "${attsd.counters.reconcile-delay:5000}")
+	public void reconcile() {
+		List<Long> likedGames = transactionTemplate.execute(status -> {
+			List<CounterShard> rows = jdbcTemplate.query(SELECT_SHARDS,
+					(rs, rowNum) -> new CounterShard(
+							new CounterShardId(rs.getString("kind"), rs.getLong("owner_id"), rs.getInt("shard")),
+							rs.getLong("delta")));
+			Map<Counter, Map<Long, Long>> totals = new EnumMap<>(Counter.class);
+			for (CounterShard row : rows) {
+				CounterShardId id = row.getId();
+				jdbcTemplate.update(ADD_TO_SHARD, -row.getDelta(), id.getKind(), id.getOwnerId(), id.getShard());
+				totals.computeIfAbsent(Counter.valueOf(id.getKind()), counter -> new LinkedHashMap<>())
+						.merge(id.getOwnerId(), row.getDelta(), Long::sum);
+			}
+			totals.forEach((counter, deltas) -> deltas
+					.forEach((ownerId, delta) -> jdbcTemplate.update(counter.addToOwner, delta, ownerId)));
+			return new ArrayList<>(totals.getOrDefault(Counter.LIKES, Collections.emptyMap()).keySet());
+		});
+		likedGames.forEach(gameCacheService::gameCountersChanged);
+	}
+
+}
@@ -0,0 +1,242 @@
+package com.maurosalani.project.attsd.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.maurosalani.project.attsd.event.CredentialsChangedEvent;
+import com.maurosalani.project.attsd.event.UserDeletedEvent;
+import com.maurosalani.project.attsd.exception.CredentialServiceBusyException;
+import com.maurosalani.project.attsd.model.User;
+import com.maurosalani.project.attsd.security.PasswordHasher;
+
+/**
+ * Hashes and checks passwords on a pool of {@code attsd.credentials.workers}
+ * threads with room for {@code attsd.credentials.queue} waiting tasks, so a
+ * burst of logins queues behind a bounded amount of hashing, or is rejected
+ * with a {@link CredentialServiceBusyException}, instead of
+ * keeping every request thread busy; a task not done within
+ * {@code attsd.credentials.timeout-millis} is cancelled and rejected the same
+ * way. Successful verifications are remembered
+ * for {@code attsd.credentials.ttl-seconds}, keyed by an HMAC of the
+ * credentials under a key that never leaves the node; the entries of a user
+ * are dropped whenever the user changes, and a verification that was running
+ * meanwhile is not stored, as in {@link SessionUserCache}.
+ */
+@Service
+public class CredentialService {
+
+	private static final int DEFAULT_ITERATIONS = 310_000;
+
+	private static final int DEFAULT_WORKERS = 2;
+
+	private static final int DEFAULT_QUEUE = 64;
+
+	private static final long DEFAULT_TIMEOUT_MILLIS = 10_000;
+
+	private static final long DEFAULT_TTL_SECONDS = 60;
+
+	private static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+	private static final String KEY_ALGORITHM = "HmacSHA256";
+
+	@Value("${attsd.credentials.iterations:" + DEFAULT_ITERATIONS + "}")
+	private int iterations = DEFAULT_ITERATIONS;
+
+	@Value("${attsd.credentials.workers:" + DEFAULT_WORKERS + "}")
+	private int workers = DEFAULT_WORKERS;
+
+	@Value("${attsd.credentials.queue:" + DEFAULT_QUEUE + "}")
+	private int queue = DEFAULT_QUEUE;
+
+	@Value("${attsd.credentials.timeout-millis:" + DEFAULT_TIMEOUT_MILLIS + "}")
+	private long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+
+	@Value("${attsd.credentials.ttl-seconds:" + DEFAULT_TTL_SECONDS + "}")
+	private long ttlSeconds = DEFAULT_TTL_SECONDS;
+
+	@Value("${attsd.credentials.max-entries:" + DEFAULT_MAX_ENTRIES + "}")
+	private int maxEntries = DEFAULT_MAX_ENTRIES;
+
+	private final Map<String, Verified> verified = new ConcurrentHashMap<>();
+
+	private final AtomicLong generation = new AtomicLong();
+
+	private final SecretKeySpec key;
+
+	private Clock clock = Clock.systemUTC();
+
+	private PasswordHasher hasher;
+
+	private ThreadPoolExecutor executor;
+
+	public CredentialService() {
+		byte[] secret = new byte[32];
+		new SecureRandom().nextBytes(secret);
+		key = new SecretKeySpec(secret, KEY_ALGORITHM);
+	}
+
+	@PostConstruct
+	public void start() {
+		hasher = new PasswordHasher(iterations);
+		executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queue), new CustomizableThreadFactory("credentials-"));
+	}
+
+	@PreDestroy
+	public void stop() {
+		executor.shutdownNow();
+	}
+
+	public String hash(String password) {
+		return await(() -> hasher.hash(password));
+	}
+
+	public boolean matches(String password, String stored) {
+		if (password == null || stored == null)
+			return false;
+		return await(() -> hasher.matches(password, stored));
+	}
+
+	public boolean needsRehash(String stored) {
+		return hasher.needsRehash(stored);
+	}
+
+	/**
+	 * @return a copy of the user last verified with these credentials, or null
+	 *         if they were not verified in the last
+	 *         {@code attsd.credentials.ttl-seconds}
+	 */
+	public User getVerified(String username, String password) {
+		String entryKey = keyOf(username, password);
+		Verified entry = verified.get(entryKey);
+		if (entry == null)
+			return null;
+		if (entry.expiresAt <= clock.millis()) {
+			verified.remove(entryKey, entry);
+			return null;
+		}
+		return new User(entry.id, entry.username, entry.password);
+	}
+
+	/**
+	 * @return the stamp to hand to {@link #verified} once the password matched.
+	 */
+	public long beginVerification() {
+		return generation.get();
+	}
+
+	public void verified(String username, String password, User user, long stamp) {
+		if (verified.size() >= maxEntries)
+			evict();
+		String entryKey = keyOf(username, password);
+		Verified entry = new Verified(user.getId(), user.getUsername(), user.getPassword(),
+				clock.millis() + TimeUnit.SECONDS.toMillis(ttlSeconds));
+		verified.put(entryKey, entry);
+		if (generation.get() != stamp)
+			verified.remove(entryKey, entry);
+	}
+
+	public void userChanged(Long id) {
+		generation.incrementAndGet();
+		verified.values().removeIf(entry -> entry.id.equals(id));
+	}
+
+	@TransactionalEventListener
+	public void userDeleted(UserDeletedEvent event) {
+		userChanged(event.getUserId());
+	}
+
+	@TransactionalEventListener
+	public void credentialsChanged(CredentialsChangedEvent event) {
+		userChanged(event.getUserId());
+	}
+
+	private void evict() {
+		long now = clock.millis();
+		verified.values().removeIf(entry -> entry.expiresAt <= now);
+		Iterator<Verified> entries = verified.values().iterator();
+		while (verified.size() >= maxEntries && entries.hasNext()) {
+			entries.next();
+			entries.remove();
+		}
+	}
+
+	private String keyOf(String username, String password) {
+		try {
+			Mac mac = Mac.getInstance(KEY_ALGORITHM);
+			mac.init(key);
+			mac.update(username.getBytes(StandardCharsets.UTF_8));
+			mac.update((byte) 0);
+			return Base64.getEncoder().encodeToString(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private <T> T await(Callable<T> task) {
+		Future<T> result;
+		try {
+			result = executor.submit(task);
+		} catch (RejectedExecutionException e) {
+			throw new CredentialServiceBusyException(e);
+		}
+		try {
+			return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			result.cancel(true);
+			executor.purge();
+			throw new CredentialServiceBusyException(e);
+		} catch (InterruptedException e) {
+			result.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	private static class Verified {
+
+		private final Long id;
+
+		private final String username;
+
+		private final String password;
+
+		private final long expiresAt;
+
+		private Verified(Long id, String username, String password, long expiresAt) {
+			this.id = id;
+			this.username = username;
+			this.password = password;
+			this.expiresAt = expiresAt;
+		}
+
+	}
+
+}
@@ -0,0 +1,150 @@
+package com.maurosalani.project.attsd.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maurosalani.project.attsd.repository.GameRepository;
+import com.maurosalani.project.attsd.repository.UserRepository;
+
+/**
+ * Writes the whole catalogue as newline-delimited JSON, one object per line.
+ * Rows are read through a forward-only cursor and written in batches of
+ * {@value #BATCH_SIZE}; the ids of the related entities are loaded with one
+ * query per batch, so memory use does not grow with the size of the tables.
+ */
+@Service
+public class ExportService {
+
+	static final int BATCH_SIZE = 500;
+
+	private static final String GAMES_QUERY = "select g.id, g.name, g.description, g.releaseDate from Game g order by g.id";
+
+	private static final String USERS_QUERY = "select u.id, u.username from User u order by u.id";
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private GameRepository gameRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	public ExportService(EntityManager entityManager, GameRepository gameRepository, UserRepository userRepository,
+			ObjectMapper objectMapper) {
+		this.entityManager = entityManager;
+		this.gameRepository = gameRepository;
+		this.userRepository = userRepository;
+		this.objectMapper = objectMapper;
+	}
+
+	@Transactional(readOnly = true)
+	public void exportGames(OutputStream out) throws IOException {
+		export(out, GAMES_QUERY, this::writeGames);
+	}
+
+	@Transactional(readOnly = true)
+	public void exportUsers(OutputStream out) throws IOException {
+		export(out, USERS_QUERY, this::writeUsers);
+	}
+
+	private void export(OutputStream out, String query, BatchWriter writer) throws IOException {
+		try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+				ScrollableResults rows = entityManager.unwrap(Session.class).createQuery(query)
+						.setFetchSize(BATCH_SIZE).setReadOnly(true).scroll(ScrollMode.FORWARD_ONLY)) {
+			generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			generator.setRootValueSeparator(null);
+			List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+			while (rows.next()) {
+				batch.add(rows.get());
+				if (batch.size() == BATCH_SIZE) {
+					writer.write(generator, batch);
+					batch.clear();
+				}
+			}
+			if (!batch.isEmpty())
+				writer.write(generator, batch);
+		}
+	}
+
+	private void writeGames(JsonGenerator generator, List<Object[]> batch) throws IOException {
+		Map<Long, List<Long>> userIds = groupIds(gameRepository.findUserIdsOfGames(idsOf(batch)));
+		for (Object[] row : batch) {
+			Long id = (Long) row[0];
+			generator.writeStartObject();
+			generator.writeNumberField("id", id);
+			generator.writeStringField("name", (String) row[1]);
+			generator.writeStringField("description", (String) row[2]);
+			generator.writeObjectField("releaseDate", row[3]);
+			writeIds(generator, "users", userIds.get(id));
+			endLine(generator);
+		}
+		generator.flush();
+	}
+
+	private void writeUsers(JsonGenerator generator, List<Object[]> batch) throws IOException {
+		List<Long> ids = idsOf(batch);
+		Map<Long, List<Long>> followedIds = groupIds(userRepository.findFollowedIdsOfUsers(ids));
+		Map<Long, List<Long>> gameIds = groupIds(userRepository.findGameIdsOfUsers(ids));
+		for (Object[] row : batch) {
+			Long id = (Long) row[0];
+			generator.writeStartObject();
+			generator.writeNumberField("id", id);
+			generator.writeStringField("username", (String) row[1]);
+			writeIds(generator, "followedUsers", followedIds.get(id));
+			writeIds(generator, "games", gameIds.get(id));
+			endLine(generator);
+		}
+		generator.flush();
+	}
+
+	private static List<Long> idsOf(List<Object[]> batch) {
+		List<Long> ids = new ArrayList<>(batch.size());
+		batch.forEach(row -> ids.add((Long) row[0]));
+		return ids;
+	}
+
+	private static Map<Long, List<Long>> groupIds(List<Object[]> pairs) {
+		Map<Long, List<Long>> grouped = new HashMap<>();
+		for (Object[] pair : pairs)
+			grouped.computeIfAbsent((Long) pair[0], id -> new ArrayList<>()).add((Long) pair[1]);
+		return grouped;
+	}
+
+	private static void writeIds(JsonGenerator generator, String field, List<Long> ids) throws IOException {
+		generator.writeArrayFieldStart(field);
+		for (Long id : ids == null ? Collections.<Long>emptyList() : ids)
+			generator.writeNumber(id);
+		generator.writeEndArray();
+	}
+
+	private static void endLine(JsonGenerator generator) throws IOException {
+		generator.writeEndObject();
+		generator.writeRaw('\n');
+	}
+
+	@FunctionalInterface
+	private interface BatchWriter {
+		void write(JsonGenerator generator, List<Object[]> batch) throws IOException;
+	}
+
+}
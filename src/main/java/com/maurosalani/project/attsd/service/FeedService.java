@@ -0,0 +1,275 @@
+package com.maurosalani.project.attsd.service;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.maurosalani.project.attsd.dto.FeedEventDTO;
+import com.maurosalani.project.attsd.dto.FeedEventDTO.Activity;
+import com.maurosalani.project.attsd.dto.GameSummaryDTO;
+import com.maurosalani.project.attsd.dto.PageDTO;
+import com.maurosalani.project.attsd.dto.UserSummaryDTO;
+import com.maurosalani.project.attsd.event.GameLikedEvent;
+import com.maurosalani.project.attsd.event.UserDeletedEvent;
+import com.maurosalani.project.attsd.event.UserFollowedEvent;
+import com.maurosalani.project.attsd.graph.FollowGraph;
+import com.maurosalani.project.attsd.repository.GameRepository;
+import com.maurosalani.project.attsd.repository.UserRepository;
+
+/**
+ * Builds the activity feed of every user from the follows and likes of the
+ * users they follow. An event is pushed to the bounded timeline of each
+ * follower of its actor, read from the {@link FollowGraph}, when it happens;
+ * the events of actors with more than {@code attsd.feed.fan-out-limit}
+ * followers are kept in the actor's own outbox instead and merged in when a
+ * follower reads. A page therefore costs
+ * a merge of a few bounded lists and two lookups by id for the names, whatever
+ * the size of the graph. Events are kept in memory only and the timelines
+ * start empty after a restart.
+ */
+@Service
+public class FeedService {
+
+	static final int TIMELINE_SIZE = 200;
+
+	private static final int DEFAULT_FAN_OUT_LIMIT = 1000;
+
+	@Autowired
+	private FollowGraphService followGraphService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private GameRepository gameRepository;
+
+	@Value("${attsd.feed.fan-out-limit:" + DEFAULT_FAN_OUT_LIMIT + "}")
+	private int fanOutLimit = DEFAULT_FAN_OUT_LIMIT;
+
+	private final AtomicLong sequence = new AtomicLong();
+
+	private final Map<Long, Timeline> timelines = new ConcurrentHashMap<>();
+
+	private final Map<Long, Timeline> outboxes = new ConcurrentHashMap<>();
+
+	private Clock clock = Clock.systemUTC();
+
+	public FeedService(FollowGraphService followGraphService, UserRepository userRepository,
+			GameRepository gameRepository) {
+		this.followGraphService = followGraphService;
+		this.userRepository = userRepository;
+		this.gameRepository = gameRepository;
+	}
+
+	public void userFollowed(Long userId, Long followedId) {
+		publish(userId, Activity.FOLLOWED, followedId);
+	}
+
+	@TransactionalEventListener
+	public void userFollowed(UserFollowedEvent event) {
+		userFollowed(event.getUserId(), event.getFollowedId());
+	}
+
+	public void gameLiked(Long userId, Long gameId) {
+		publish(userId, Activity.LIKED, gameId);
+	}
+
+	@TransactionalEventListener
+	public void gameLiked(GameLikedEvent event) {
+		gameLiked(event.getUserId(), event.getGameId());
+	}
+
+	public void userDeleted(Long id) {
+		timelines.remove(id);
+		outboxes.remove(id);
+	}
+
+	@TransactionalEventListener
+	public void userDeleted(UserDeletedEvent event) {
+		userDeleted(event.getUserId());
+	}
+
+	/**
+	 * Returns the events older than {@code before}, newest first. Events whose
+	 * actor or target no longer exists are left out of the page. The outboxes
+	 * merged in are found by walking the smaller of the users followed and the
+	 * outbox owners, so a read does not cost one lookup per outbox.
+	 */
+	public PageDTO<FeedEventDTO> getFeed(Long userId, Long before, int limit) {
+		if (userId == null)
+			throw new IllegalArgumentException();
+
+		int boundedLimit = PageDTO.boundedLimit(limit);
+		long start = before == null ? Long.MAX_VALUE : before;
+		FollowGraph graph = followGraphService.getGraph();
+		List<List<FeedEvent>> sources = new ArrayList<>();
+		Timeline timeline = timelines.get(userId);
+		if (timeline != null)
+			sources.add(timeline.before(start, boundedLimit + 1));
+		if (graph.followedCount(userId) <= outboxes.size()) {
+			for (long followedId : graph.followed(userId)) {
+				Timeline outbox = outboxes.get(followedId);
+				if (outbox != null)
+					sources.add(outbox.before(start, boundedLimit + 1));
+			}
+		} else
+			outboxes.forEach((actorId, outbox) -> {
+				if (graph.follows(userId, actorId))
+					sources.add(outbox.before(start, boundedLimit + 1));
+			});
+		List<FeedEvent> rows = merge(sources, boundedLimit + 1);
+		PageDTO<FeedEvent> page = PageDTO.fromRows(rows, boundedLimit, FeedEvent::getSequence);
+		return new PageDTO<>(resolve(page.getItems()), page.getNextAfter());
+	}
+
+	private void publish(long actorId, Activity activity, long targetId) {
+		FeedEvent event = new FeedEvent(sequence.incrementAndGet(), activity, actorId, targetId, clock.millis());
+		FollowGraph graph = followGraphService.getGraph();
+		if (graph.followerCount(actorId) > fanOutLimit) {
+			outboxes.computeIfAbsent(actorId, id -> new Timeline()).add(event);
+			return;
+		}
+		for (long fan : graph.followers(actorId))
+			timelines.computeIfAbsent(fan, id -> new Timeline()).add(event);
+	}
+
+	private static List<FeedEvent> merge(List<List<FeedEvent>> sources, int count) {
+		if (sources.size() == 1)
+			return sources.get(0);
+		int[] positions = new int[sources.size()];
+		List<FeedEvent> merged = new ArrayList<>(count);
+		while (merged.size() < count) {
+			int newest = -1;
+			for (int i = 0; i < sources.size(); i++)
+				if (positions[i] < sources.get(i).size() && (newest < 0 || sources.get(i).get(positions[i])
+						.getSequence() > sources.get(newest).get(positions[newest]).getSequence()))
+					newest = i;
+			if (newest < 0)
+				break;
+			merged.add(sources.get(newest).get(positions[newest]++));
+		}
+		return merged;
+	}
+
+	private List<FeedEventDTO> resolve(List<FeedEvent> events) {
+		if (events.isEmpty())
+			return new ArrayList<>();
+		Set<Long> userIds = new HashSet<>();
+		Set<Long> gameIds = new HashSet<>();
+		for (FeedEvent event : events) {
+			userIds.add(event.getActorId());
+			(event.getActivity() == Activity.FOLLOWED ? userIds : gameIds).add(event.getTargetId());
+		}
+		Map<Long, String> usernames = userRepository.findSummariesByIdIn(userIds).stream()
+				.collect(Collectors.toMap(UserSummaryDTO::getId, UserSummaryDTO::getUsername));
+		Map<Long, String> gameNames = gameIds.isEmpty() ? new HashMap<>()
+				: gameRepository.findSummariesByIdIn(gameIds).stream()
+						.collect(Collectors.toMap(GameSummaryDTO::getId, GameSummaryDTO::getName));
+		List<FeedEventDTO> resolved = new ArrayList<>(events.size());
+		for (FeedEvent event : events) {
+			String actor = usernames.get(event.getActorId());
+			String target = (event.getActivity() == Activity.FOLLOWED ? usernames : gameNames)
+					.get(event.getTargetId());
+			if (actor != null && target != null)
+				resolved.add(new FeedEventDTO(event.getSequence(), event.getActivity(), event.getActorId(), actor,
+						event.getTargetId(), target, new Date(event.getTimestamp())));
+		}
+		return resolved;
+	}
+
+	/**
+	 * The last {@value FeedService#TIMELINE_SIZE} events delivered to a user,
+	 * kept ordered by sequence in a ring buffer.
+	 */
+	private static class Timeline {
+
+		private final FeedEvent[] events = new FeedEvent[TIMELINE_SIZE];
+
+		private int first;
+
+		private int size;
+
+		synchronized void add(FeedEvent event) {
+			if (size == events.length) {
+				first = (first + 1) % events.length;
+				size--;
+			}
+			int position = size;
+			while (position > 0 && at(position - 1).getSequence() > event.getSequence()) {
+				events[(first + position) % events.length] = at(position - 1);
+				position--;
+			}
+			events[(first + position) % events.length] = event;
+			size++;
+		}
+
+		synchronized List<FeedEvent> before(long before, int count) {
+			List<FeedEvent> result = new ArrayList<>(Math.min(count, size));
+			for (int position = size - 1; position >= 0 && result.size() < count; position--)
+				if (at(position).getSequence() < before)
+					result.add(at(position));
+			return result;
+		}
+
+		private FeedEvent at(int position) {
+			return events[(first + position) % events.length];
+		}
+
+	}
+
+	private static class FeedEvent {
+
+		private final long sequence;
+
+		private final Activity activity;
+
+		private final long actorId;
+
+		private final long targetId;
+
+		private final long timestamp;
+
+		FeedEvent(long sequence, Activity activity, long actorId, long targetId, long timestamp) {
+			this.sequence = sequence;
+			this.activity = activity;
+			this.actorId = actorId;
+			this.targetId = targetId;
+			this.timestamp = timestamp;
+		}
+
+		long getSequence() {
+			return sequence;
+		}
+
+		Activity getActivity() {
+			return activity;
+		}
+
+		long getActorId() {
+			return actorId;
+		}
+
+		long getTargetId() {
+			return targetId;
+		}
+
+		long getTimestamp() {
+			return timestamp;
+		}
+
+	}
+
+}
@@ -0,0 +1,94 @@
+package com.maurosalani.project.attsd.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.maurosalani.project.attsd.event.UserDeletedEvent;
+import com.maurosalani.project.attsd.event.UserFollowedEvent;
+import com.maurosalani.project.attsd.graph.FollowGraph;
+import com.maurosalani.project.attsd.repository.UserRelationRepository;
+
+/**
+ * Owns the in-memory {@link FollowGraph} the social features read from. It is
+ * built at startup by {@code attsd.graph.loaders} threads, each streaming the
+ * follow relations of one range of user ids, and kept in sync with
+ * {@code followers_relation} by the user service after every committed
+ * follow or deletion.
+ */
+@Service
+public class FollowGraphService {
+
+	private static final int DEFAULT_LOADERS = 4;
+
+	@Autowired
+	private UserRelationRepository userRelationRepository;
+
+	@Value("${attsd.graph.loaders:" + DEFAULT_LOADERS + "}")
+	private int loaders = DEFAULT_LOADERS;
+
+	private volatile FollowGraph graph = new FollowGraph();
+
+	public FollowGraphService(UserRelationRepository userRelationRepository) {
+		this.userRelationRepository = userRelationRepository;
+	}
+
+	@PostConstruct
+	public void buildGraph() {
+		long[] range = userRelationRepository.findFollowingUserIdRange();
+		if (range == null) {
+			graph = new FollowGraph();
+			return;
+		}
+		long span = (range[1] - range[0]) / loaders + 1;
+		ExecutorService executor = Executors.newFixedThreadPool(loaders);
+		try {
+			List<CompletableFuture<FollowGraph.Edges>> parts = new ArrayList<>(loaders);
+			for (long from = range[0]; from <= range[1]; from += span) {
+				long start = from;
+				long end = Math.min(from + span - 1, range[1]);
+				parts.add(CompletableFuture.supplyAsync(() -> {
+					FollowGraph.Edges edges = new FollowGraph.Edges();
+					userRelationRepository.forEachFollowed(start, end, edges::add);
+					return edges;
+				}, executor));
+			}
+			graph = FollowGraph.of(parts.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	public FollowGraph getGraph() {
+		return graph;
+	}
+
+	public void userFollowed(Long userId, Long followedId) {
+		graph.addFollow(userId, followedId);
+	}
+
+	@TransactionalEventListener
+	public void userFollowed(UserFollowedEvent event) {
+		userFollowed(event.getUserId(), event.getFollowedId());
+	}
+
+	public void userDeleted(Long id) {
+		graph.removeUser(id);
+	}
+
+	@TransactionalEventListener
+	public void userDeleted(UserDeletedEvent event) {
+		userDeleted(event.getUserId());
+	}
+
+}
@@ -0,0 +1,101 @@
+package com.maurosalani.project.attsd.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.maurosalani.project.attsd.dto.FollowSuggestionDTO;
+import com.maurosalani.project.attsd.dto.UserSummaryDTO;
+import com.maurosalani.project.attsd.graph.FollowGraph;
+import com.maurosalani.project.attsd.repository.UserRepository;
+
+/**
+ * Suggests the users followed by the ones a user follows, ranked by how many
+ * of them follow each candidate. Candidates are counted on the in-memory
+ * {@link FollowGraph}, without touching the database until the winners are
+ * resolved to usernames.
+ */
+@Service
+public class FollowSuggestionService {
+
+	public static final int DEFAULT_LIMIT = 10;
+	public static final int MAX_LIMIT = 20;
+
+	@Autowired
+	private FollowGraphService followGraphService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	public FollowSuggestionService(FollowGraphService followGraphService, UserRepository userRepository) {
+		this.followGraphService = followGraphService;
+		this.userRepository = userRepository;
+	}
+
+	public List<FollowSuggestionDTO> getSuggestions(Long userId, int limit) {
+		if (userId == null)
+			throw new IllegalArgumentException();
+		if (limit < 1)
+			return new ArrayList<>();
+
+		Ranking ranking = new Ranking(Math.min(limit, MAX_LIMIT));
+		followGraphService.getGraph().forEachSecondDegree(userId, ranking::offer);
+		return resolve(ranking.ids, ranking.counts, ranking.size);
+	}
+
+	private List<FollowSuggestionDTO> resolve(long[] topIds, int[] topCounts, int topSize) {
+		if (topSize == 0)
+			return new ArrayList<>();
+		List<Long> ids = new ArrayList<>(topSize);
+		for (int i = 0; i < topSize; i++)
+			ids.add(topIds[i]);
+		Map<Long, UserSummaryDTO> summaries = userRepository.findSummariesByIdIn(ids).stream()
+				.collect(Collectors.toMap(UserSummaryDTO::getId, Function.identity()));
+		List<FollowSuggestionDTO> suggestions = new ArrayList<>(topSize);
+		for (int i = 0; i < topSize; i++) {
+			UserSummaryDTO summary = summaries.get(topIds[i]);
+			if (summary != null)
+				suggestions.add(new FollowSuggestionDTO(summary.getId(), summary.getUsername(), topCounts[i]));
+		}
+		return suggestions;
+	}
+
+	/**
+	 * Keeps the best candidates ordered by count; on equal counts the
+	 * candidate offered first stays ahead.
+	 */
+	private static class Ranking {
+
+		private final long[] ids;
+
+		private final int[] counts;
+
+		private int size;
+
+		Ranking(int limit) {
+			ids = new long[limit];
+			counts = new int[limit];
+		}
+
+		void offer(long id, int count) {
+			if (size == ids.length && counts[size - 1] >= count)
+				return;
+			int position = size == ids.length ? size - 1 : size;
+			while (position > 0 && counts[position - 1] < count) {
+				ids[position] = ids[position - 1];
+				counts[position] = counts[position - 1];
+				position--;
+			}
+			ids[position] = id;
+			counts[position] = count;
+			size = Math.min(size + 1, ids.length);
+		}
+
+	}
+
+}
@@ -0,0 +1,63 @@
+package com.maurosalani.project.attsd.service;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.maurosalani.project.attsd.model.Game;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+
+/**
+ * Evicts the second-level cache regions of the game catalogue and publishes
+ * their hit, miss, put and eviction counts as {@code cache.*} meters.
+ */
+@Service
+public class GameCacheService implements MeterBinder {
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private CacheManager hibernateCacheManager;
+
+	public GameCacheService(EntityManagerFactory entityManagerFactory, CacheManager hibernateCacheManager) {
+		this.entityManagerFactory = entityManagerFactory;
+		this.hibernateCacheManager = hibernateCacheManager;
+	}
+
+	public void gameChanged(Long id) {
+		org.hibernate.Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+		cache.evictEntityData(Game.class, id);
+		cache.evictQueryRegion(Game.QUERY_CACHE_REGION);
+	}
+
+	public void gameCountersChanged(Long id) {
+		entityManagerFactory.unwrap(SessionFactory.class).getCache().evictEntityData(Game.class, id);
+	}
+
+	public void gamesInserted() {
+		entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegion(Game.QUERY_CACHE_REGION);
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		for (String region : Arrays.asList(Game.CACHE_REGION, Game.QUERY_CACHE_REGION)) {
+			Cache<Object, Object> cache = hibernateCacheManager.getCache(region);
+			if (cache != null) {
+				hibernateCacheManager.enableStatistics(region, true);
+				new JCacheMetrics(cache, Collections.emptyList()).bindTo(registry);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,193 @@
+package com.maurosalani.project.attsd.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maurosalani.project.attsd.dto.GameDTO;
+import com.maurosalani.project.attsd.dto.GameImportResultDTO;
+import com.maurosalani.project.attsd.model.Game;
+import com.maurosalani.project.attsd.repository.GameRepository;
+
+/**
+ * Imports games read one at a time from a JSON array or from newline-delimited
+ * JSON. Valid games are inserted with JDBC batch statements, each batch in its
+ * own transaction; when a batch fails its games are retried one by one so that
+ * every input row gets its own result.
+ */
+@Service
+public class GameImportService {
+
+	static final String GAME_REQUIRED = "Game required";
+	static final String NAME_REQUIRED = "Name required";
+	static final String NAME_TOO_LONG = "Name too long";
+	static final String DESCRIPTION_TOO_LONG = "Description too long";
+	static final String DUPLICATE_NAME = "Duplicate name";
+	static final String INSERT_FAILED = "Insert failed";
+	static final String MALFORMED_INPUT = "Malformed input";
+
+	private static final int DEFAULT_BATCH_SIZE = 1000;
+	private static final int MAX_NAME_LENGTH = 40;
+	private static final int MAX_DESCRIPTION_LENGTH = 255;
+	private static final String INSERT_GAME = "insert into game (name, description, release_date) values (?, ?, ?)";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private GameRepository gameRepository;
+
+	@Autowired
+	private GameService gameService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private final TransactionTemplate transactionTemplate;
+
+	@Value("${attsd.import.batch-size:" + DEFAULT_BATCH_SIZE + "}")
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	public GameImportService(JdbcTemplate jdbcTemplate, GameRepository gameRepository, GameService gameService,
+			ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.gameRepository = gameRepository;
+		this.gameService = gameService;
+		this.objectMapper = objectMapper;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	/**
+	 * Refuses to start with a batch size that would never flush a batch.
+	 */
+	@PostConstruct
+	public void checkBatchSize() {
+		if (batchSize <= 0)
+			throw new IllegalStateException("attsd.import.batch-size must be positive, was " + batchSize);
+	}
+
+	public List<GameImportResultDTO> importGames(InputStream in) throws IOException {
+		List<GameImportResultDTO> results = new ArrayList<>();
+		Set<String> names = new HashSet<>();
+		Map<Integer, Game> batch = new LinkedHashMap<>();
+		int index = 0;
+		try (MappingIterator<JsonNode> rows = objectMapper.readerFor(JsonNode.class).readValues(in)) {
+			while (rows.hasNextValue()) {
+				JsonNode row = rows.nextValue();
+				Game game = row.isObject() ? objectMapper.treeToValue(row, GameDTO.class).getGame() : null;
+				String error = validate(game);
+				if (error == null && !names.add(game.getName()))
+					error = DUPLICATE_NAME;
+				if (error == null)
+					batch.put(index, game);
+				else
+					results.add(new GameImportResultDTO(index, game == null ? null : game.getName(), null, error));
+				if (batch.size() == batchSize) {
+					results.addAll(insertBatch(batch));
+					batch.clear();
+				}
+				index++;
+			}
+		} catch (JsonProcessingException e) {
+			results.add(new GameImportResultDTO(index, null, null, MALFORMED_INPUT));
+		}
+		results.addAll(insertBatch(batch));
+		results.sort(Comparator.comparingInt(GameImportResultDTO::getIndex));
+		return results;
+	}
+
+	private static String validate(Game game) {
+		if (game == null)
+			return GAME_REQUIRED;
+		if (StringUtils.isBlank(game.getName()))
+			return NAME_REQUIRED;
+		if (game.getName().length() > MAX_NAME_LENGTH)
+			return NAME_TOO_LONG;
+		if (game.getDescription() != null && game.getDescription().length() > MAX_DESCRIPTION_LENGTH)
+			return DESCRIPTION_TOO_LONG;
+		return null;
+	}
+
+	private List<GameImportResultDTO> insertBatch(Map<Integer, Game> batch) {
+		List<GameImportResultDTO> results = new ArrayList<>(batch.size());
+		if (batch.isEmpty())
+			return results;
+
+		Set<String> existing = gameRepository.findByNameIn(namesOf(batch.values())).stream().map(Game::getName)
+				.collect(Collectors.toSet());
+		Map<Integer, Game> toInsert = new LinkedHashMap<>();
+		batch.forEach((index, game) -> {
+			if (existing.contains(game.getName()))
+				results.add(new GameImportResultDTO(index, game.getName(), null, DUPLICATE_NAME));
+			else
+				toInsert.put(index, game);
+		});
+		if (toInsert.isEmpty())
+			return results;
+
+		Set<Integer> failed = new HashSet<>();
+		try {
+			transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(INSERT_GAME,
+					toInsert.values().stream().map(GameImportService::argsOf).collect(Collectors.toList())));
+		} catch (DataAccessException e) {
+			toInsert.forEach((index, game) -> {
+				try {
+					jdbcTemplate.update(INSERT_GAME, argsOf(game));
+				} catch (DataAccessException rowException) {
+					failed.add(index);
+				}
+			});
+		}
+
+		transactionTemplate.execute(status -> {
+			Map<String, Game> inserted = gameRepository.findByNameIn(namesOf(toInsert.values())).stream()
+					.collect(Collectors.toMap(Game::getName, game -> game));
+			List<Game> imported = new ArrayList<>(toInsert.size());
+			toInsert.forEach((index, game) -> {
+				Game saved = inserted.get(game.getName());
+				if (failed.contains(index) || saved == null) {
+					results.add(new GameImportResultDTO(index, game.getName(), null, INSERT_FAILED));
+				} else {
+					results.add(new GameImportResultDTO(index, game.getName(), saved.getId(), null));
+					imported.add(saved);
+				}
+			});
+			gameService.gamesImported(imported);
+			return null;
+		});
+		return results;
+	}
+
+	private static List<String> namesOf(Iterable<Game> games) {
+		List<String> names = new ArrayList<>();
+		games.forEach(game -> names.add(game.getName()));
+		return names;
+	}
+
+	private static Object[] argsOf(Game game) {
+		return new Object[] { game.getName(), game.getDescription(), game.getReleaseDate() };
+	}
+
+}
@@ -1,31 +1,89 @@
 package com.maurosalani.project.attsd.service;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import javax.annotation.PostConstruct;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.maurosalani.project.attsd.dto.GameSummaryDTO;
+import com.maurosalani.project.attsd.dto.LeaderboardEntryDTO;
+import com.maurosalani.project.attsd.dto.PageDTO;
+import com.maurosalani.project.attsd.dto.UserSummaryDTO;
+import com.maurosalani.project.attsd.event.GameDeletedEvent;
+import com.maurosalani.project.attsd.event.GameSavedEvent;
 import com.maurosalani.project.attsd.exception.GameNotFoundException;
 import com.maurosalani.project.attsd.model.Game;
 import com.maurosalani.project.attsd.repository.GameRepository;
+import com.maurosalani.project.attsd.search.TrigramIndex;
 
 @Service
 public class GameService {
 
+	public static final int LATEST_RELEASES_COUNT = 4;
+
 	private static final String GAME_NOT_FOUND = "Game not found";
 	
 	@Autowired
 	private GameRepository gameRepository;
 
-	public GameService(GameRepository gameRepository) {
+	@Autowired
+	private GameCacheService gameCacheService;
+
+	@Autowired
+	private TrendingService trendingService;
+
+	@Autowired
+	private SimilarGamesService similarGamesService;
+
+	@Autowired
+	private LeaderboardService leaderboardService;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final TrigramIndex nameIndex = new TrigramIndex();
+
+	private volatile List<Game> latestReleases;
+
+	public GameService(GameRepository gameRepository, GameCacheService gameCacheService,
+			TrendingService trendingService, SimilarGamesService similarGamesService,
+			LeaderboardService leaderboardService, ApplicationEventPublisher eventPublisher,
+			PlatformTransactionManager transactionManager) {
 		this.gameRepository = gameRepository;
+		this.gameCacheService = gameCacheService;
+		this.trendingService = trendingService;
+		this.similarGamesService = similarGamesService;
+		this.leaderboardService = leaderboardService;
+		this.eventPublisher = eventPublisher;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	@PostConstruct
+	public void buildNameIndex() {
+		nameIndex.clear();
+		gameRepository.findAll().forEach(game -> nameIndex.put(game.getId(), game.getName()));
 	}
 
 	public List<Game> getAllGames() {
 		return gameRepository.findAll();
 	}
 
+	public PageDTO<GameSummaryDTO> getGamesPage(Long after, int limit) {
+		int boundedLimit = PageDTO.boundedLimit(limit);
+		List<GameSummaryDTO> rows = gameRepository.findPageAfter(Paging.startOf(after), Paging.rowsFor(boundedLimit));
+		return PageDTO.fromRows(rows, boundedLimit, GameSummaryDTO::getId);
+	}
+
 	public Game getGameById(Long id) throws GameNotFoundException {
 		if (id == null)
 			throw new IllegalArgumentException();
@@ -40,11 +98,29 @@ public class GameService {
 		return gameRepository.findByName(name).orElseThrow(() -> new GameNotFoundException(GAME_NOT_FOUND));
 	}
 
-	public List<Game> getGamesByNameLike(String name) {
-		if (name == null)
+	public PageDTO<UserSummaryDTO> getLikersPage(Long id, Long after, int limit) throws GameNotFoundException {
+		checkExistanceOfGame(id);
+		int boundedLimit = PageDTO.boundedLimit(limit);
+		List<UserSummaryDTO> rows = gameRepository.findLikersPageAfter(id, Paging.startOf(after), Paging.rowsFor(boundedLimit));
+		return PageDTO.fromRows(rows, boundedLimit, UserSummaryDTO::getId);
+	}
+
+	public List<GameSummaryDTO> getGamesByNameLike(String name) {
+		return getGamesByNameLike(name, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @return the first {@code limit} matching games, by id
+	 */
+	public List<GameSummaryDTO> getGamesByNameLike(String name, int limit) {
+		if (name == null || limit <= 0)
 			throw new IllegalArgumentException();
-		String nameValid = '%' + name.trim() + '%';
-		return gameRepository.findByNameLike(nameValid);
+		List<Long> ids = nameIndex.search(name.trim());
+		if (ids.isEmpty())
+			return new ArrayList<>();
+		if (ids.size() > limit)
+			ids = ids.subList(0, limit);
+		return gameRepository.findSummariesByIdIn(ids);
 	}
 
 	public Game insertNewGame(Game game) {
@@ -52,7 +128,11 @@ public class GameService {
 			throw new IllegalArgumentException();
 
 		game.setId(null);
-		return gameRepository.save(game);
+		Game saved = save(game);
+		gameCacheService.gamesInserted();
+		refreshLatestReleases();
+		nameIndex.put(saved.getId(), saved.getName());
+		return saved;
 	}
 
 	public Game updateGameById(Long id, Game game) throws GameNotFoundException {
@@ -62,18 +142,89 @@ public class GameService {
 		checkExistanceOfGame(id);
 		
 		game.setId(id);
-		return gameRepository.save(game);
+		Game saved = save(game);
+		gameCacheService.gameChanged(id);
+		refreshLatestReleases();
+		nameIndex.put(saved.getId(), saved.getName());
+		return saved;
+	}
+
+	private Game save(Game game) {
+		return transactionTemplate.execute(status -> {
+			Game saved = gameRepository.save(game);
+			eventPublisher.publishEvent(new GameSavedEvent(saved));
+			return saved;
+		});
+	}
+
+	/**
+	 * Publishes a {@link GameSavedEvent} for each of the games inserted by an
+	 * import, in the transaction that read them back, or in one of its own.
+	 */
+	public void gamesImported(List<Game> games) {
+		transactionTemplate.execute(status -> {
+			games.forEach(game -> eventPublisher.publishEvent(new GameSavedEvent(game)));
+			return null;
+		});
+		gameCacheService.gamesInserted();
+		refreshLatestReleases();
+		games.forEach(game -> nameIndex.put(game.getId(), game.getName()));
 	}
 
 	public void deleteById(Long id) throws GameNotFoundException {
 		checkExistanceOfGame(id);
-		gameRepository.deleteById(id);
+		transactionTemplate.execute(status -> {
+			gameRepository.deleteById(id);
+			eventPublisher.publishEvent(new GameDeletedEvent(id));
+			return null;
+		});
+		gameCacheService.gameChanged(id);
+		refreshLatestReleases();
+		nameIndex.remove(id);
 	}
 	
 	public List<Game> getLatestReleasesGames(int count) {
 		return gameRepository.findFirstNOrderByReleaseDate(PageRequest.of(0, count));
 	}
 
+	/**
+	 * Returns the {@value #LATEST_RELEASES_COUNT} most recent releases. The
+	 * returned list is replaced, never modified, when games are written, so
+	 * callers can use its identity to detect a change.
+	 */
+	public List<Game> getLatestReleases() {
+		List<Game> latest = latestReleases;
+		return latest != null ? latest : refreshLatestReleases();
+	}
+
+	public List<GameSummaryDTO> getTrendingGames() {
+		return trendingService.getTrendingGames();
+	}
+
+	public List<GameSummaryDTO> getSimilarGames(Long id) throws GameNotFoundException {
+		checkExistanceOfGame(id);
+		return similarGamesService.getSimilarGames(id);
+	}
+
+	public List<LeaderboardEntryDTO> getMostLikedGames(int limit) {
+		return leaderboardService.getMostLikedGames(limit);
+	}
+
+	/**
+	 * @return the games ranked near the given one by likes, empty if it has
+	 *         none
+	 */
+	public List<LeaderboardEntryDTO> getLeaderboardAround(Long id, int radius) throws GameNotFoundException {
+		checkExistanceOfGame(id);
+		return leaderboardService.getGamesAround(id, radius);
+	}
+
+	private synchronized List<Game> refreshLatestReleases() {
+		latestReleases = Collections.unmodifiableList(
+				new ArrayList<>(getLatestReleasesGames(LATEST_RELEASES_COUNT)));
+		return latestReleases;
+	}
+
 	private void checkExistanceOfGame(Long id) throws GameNotFoundException {
 		getGameById(id);
 	}
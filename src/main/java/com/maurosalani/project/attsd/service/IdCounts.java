@@ -0,0 +1,63 @@
+package com.maurosalani.project.attsd.service;
+
+/**
+ * Counts occurrences of ids in an open-addressing table of primitive arrays,
+ * so counting the co-likes of a game costs a slot per distinct game rather
+ * than an entry per like. A slot is free while its count is zero.
+ */
+final class IdCounts {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private long[] ids = new long[INITIAL_CAPACITY];
+
+	private int[] counts = new int[INITIAL_CAPACITY];
+
+	private int size;
+
+	void increment(long id) {
+		if (2 * (size + 1) > ids.length)
+			grow();
+		int slot = slotOf(ids, counts, id);
+		if (counts[slot] == 0) {
+			ids[slot] = id;
+			size++;
+		}
+		counts[slot]++;
+	}
+
+	void forEach(Consumer consumer) {
+		for (int slot = 0; slot < ids.length; slot++)
+			if (counts[slot] > 0)
+				consumer.accept(ids[slot], counts[slot]);
+	}
+
+	private void grow() {
+		long[] oldIds = ids;
+		int[] oldCounts = counts;
+		ids = new long[oldIds.length * 2];
+		counts = new int[oldCounts.length * 2];
+		for (int slot = 0; slot < oldIds.length; slot++)
+			if (oldCounts[slot] > 0) {
+				int target = slotOf(ids, counts, oldIds[slot]);
+				ids[target] = oldIds[slot];
+				counts[target] = oldCounts[slot];
+			}
+	}
+
+	private static int slotOf(long[] ids, int[] counts, long id) {
+		int mask = ids.length - 1;
+		int slot = Long.hashCode(id * 0x9E3779B97F4A7C15L) & mask;
+		while (counts[slot] > 0 && ids[slot] != id)
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	@FunctionalInterface
+	interface Consumer {
+
+		void accept(long id, int count);
+
+	}
+
+}
@@ -0,0 +1,173 @@
+package com.maurosalani.project.attsd.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.maurosalani.project.attsd.dto.GameSummaryDTO;
+import com.maurosalani.project.attsd.dto.LeaderboardEntryDTO;
+import com.maurosalani.project.attsd.dto.UserSummaryDTO;
+import com.maurosalani.project.attsd.event.GameDeletedEvent;
+import com.maurosalani.project.attsd.event.GameLikedEvent;
+import com.maurosalani.project.attsd.event.UserDeletedEvent;
+import com.maurosalani.project.attsd.event.UserFollowedEvent;
+import com.maurosalani.project.attsd.ranking.Leaderboard;
+import com.maurosalani.project.attsd.ranking.Leaderboard.Entry;
+import com.maurosalani.project.attsd.repository.GameRepository;
+import com.maurosalani.project.attsd.repository.UserRelationRepository;
+import com.maurosalani.project.attsd.repository.UserRepository;
+
+/**
+ * Keeps the all-time most liked games and most followed users in two
+ * {@link Leaderboard}s, seeded at startup from the counts of the join tables
+ * and moved by one on every new like or follow. Only the entries of a page
+ * are resolved to names.
+ */
+@Service
+public class LeaderboardService {
+
+	public static final int DEFAULT_LIMIT = 10;
+	public static final int MAX_LIMIT = 100;
+	public static final int DEFAULT_RADIUS = 5;
+	public static final int MAX_RADIUS = 25;
+
+	@Autowired
+	private UserRelationRepository userRelationRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private GameRepository gameRepository;
+
+	private final Leaderboard games = new Leaderboard();
+
+	private final Leaderboard users = new Leaderboard();
+
+	public LeaderboardService(UserRelationRepository userRelationRepository, UserRepository userRepository,
+			GameRepository gameRepository) {
+		this.userRelationRepository = userRelationRepository;
+		this.userRepository = userRepository;
+		this.gameRepository = gameRepository;
+	}
+
+	@PostConstruct
+	public void seed() {
+		games.clear();
+		userRelationRepository.forEachLikeCount(games::add);
+		users.clear();
+		userRelationRepository.forEachFollowerCount(users::add);
+	}
+
+	public void gameLiked(Long gameId) {
+		games.add(gameId, 1);
+	}
+
+	@TransactionalEventListener
+	public void gameLiked(GameLikedEvent event) {
+		gameLiked(event.getGameId());
+	}
+
+	public void userFollowed(Long followedId) {
+		users.add(followedId, 1);
+	}
+
+	@TransactionalEventListener
+	public void userFollowed(UserFollowedEvent event) {
+		userFollowed(event.getFollowedId());
+	}
+
+	public void gameDeleted(Long gameId) {
+		games.remove(gameId);
+	}
+
+	@TransactionalEventListener
+	public void gameDeleted(GameDeletedEvent event) {
+		gameDeleted(event.getGameId());
+	}
+
+	/**
+	 * Drops the user and takes back the follows and likes it gave, which are
+	 * deleted with it.
+	 */
+	public void userDeleted(Long userId, Collection<Long> followedIds, Collection<Long> gameIds) {
+		users.remove(userId);
+		followedIds.forEach(id -> users.add(id, -1));
+		gameIds.forEach(id -> games.add(id, -1));
+	}
+
+	@TransactionalEventListener
+	public void userDeleted(UserDeletedEvent event) {
+		userDeleted(event.getUserId(), event.getFollowedIds(), event.getGameIds());
+	}
+
+	public List<LeaderboardEntryDTO> getMostLikedGames(int limit) {
+		return resolveGames(games.top(boundedLimit(limit)));
+	}
+
+	public List<LeaderboardEntryDTO> getGamesAround(Long gameId, int radius) {
+		if (gameId == null)
+			throw new IllegalArgumentException();
+
+		return resolveGames(games.around(gameId, boundedRadius(radius)));
+	}
+
+	public List<LeaderboardEntryDTO> getMostFollowedUsers(int limit) {
+		return resolveUsers(users.top(boundedLimit(limit)));
+	}
+
+	public List<LeaderboardEntryDTO> getUsersAround(Long userId, int radius) {
+		if (userId == null)
+			throw new IllegalArgumentException();
+
+		return resolveUsers(users.around(userId, boundedRadius(radius)));
+	}
+
+	private List<LeaderboardEntryDTO> resolveGames(List<Entry> entries) {
+		if (entries.isEmpty())
+			return new ArrayList<>();
+		Map<Long, String> names = gameRepository.findSummariesByIdIn(idsOf(entries)).stream()
+				.collect(Collectors.toMap(GameSummaryDTO::getId, GameSummaryDTO::getName));
+		return resolve(entries, names::get);
+	}
+
+	private List<LeaderboardEntryDTO> resolveUsers(List<Entry> entries) {
+		if (entries.isEmpty())
+			return new ArrayList<>();
+		Map<Long, String> names = userRepository.findSummariesByIdIn(idsOf(entries)).stream()
+				.collect(Collectors.toMap(UserSummaryDTO::getId, UserSummaryDTO::getUsername));
+		return resolve(entries, names::get);
+	}
+
+	private static List<Long> idsOf(List<Entry> entries) {
+		return entries.stream().map(Entry::getId).collect(Collectors.toList());
+	}
+
+	private static List<LeaderboardEntryDTO> resolve(List<Entry> entries, Function<Long, String> names) {
+		List<LeaderboardEntryDTO> resolved = new ArrayList<>(entries.size());
+		for (Entry entry : entries) {
+			String name = names.apply(entry.getId());
+			if (name != null)
+				resolved.add(new LeaderboardEntryDTO(entry.getRank(), entry.getId(), name, entry.getCount()));
+		}
+		return resolved;
+	}
+
+	private static int boundedLimit(int limit) {
+		return Math.max(1, Math.min(limit, MAX_LIMIT));
+	}
+
+	private static int boundedRadius(int radius) {
+		return Math.max(0, Math.min(radius, MAX_RADIUS));
+	}
+
+}
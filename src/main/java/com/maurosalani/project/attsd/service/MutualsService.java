@@ -0,0 +1,55 @@
+package com.maurosalani.project.attsd.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.maurosalani.project.attsd.dto.MutualsDTO;
+import com.maurosalani.project.attsd.dto.UserSummaryDTO;
+import com.maurosalani.project.attsd.repository.UserRepository;
+
+/**
+ * Tells a user which of the users they follow also follow someone else, by
+ * intersecting the two sorted neighbour lists of the in-memory follow graph.
+ * Only the first {@value #SAMPLE_SIZE} of them are resolved to usernames, so
+ * the cost stays bounded by the smaller list whatever the size of the other.
+ */
+@Service
+public class MutualsService {
+
+	static final int SAMPLE_SIZE = 3;
+
+	@Autowired
+	private FollowGraphService followGraphService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	public MutualsService(FollowGraphService followGraphService, UserRepository userRepository) {
+		this.followGraphService = followGraphService;
+		this.userRepository = userRepository;
+	}
+
+	public MutualsDTO getMutuals(Long userId, Long otherId) {
+		if (userId == null || otherId == null)
+			throw new IllegalArgumentException();
+
+		long[] known = followGraphService.getGraph().knownFollowers(userId, otherId);
+		if (known.length == 0)
+			return new MutualsDTO(0, new ArrayList<>());
+		List<Long> ids = new ArrayList<>(SAMPLE_SIZE);
+		for (int i = 0; i < known.length && i < SAMPLE_SIZE; i++)
+			ids.add(known[i]);
+		Map<Long, UserSummaryDTO> summaries = userRepository.findSummariesByIdIn(ids).stream()
+				.collect(Collectors.toMap(UserSummaryDTO::getId, Function.identity()));
+		List<UserSummaryDTO> sample = ids.stream().map(summaries::get).filter(summary -> summary != null)
+				.collect(Collectors.toList());
+		return new MutualsDTO(known.length, sample);
+	}
+
+}
@@ -0,0 +1,23 @@
+package com.maurosalani.project.attsd.service;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * The arguments of the keyset page queries, which fetch one row more than
+ * the limit to tell whether a following page exists.
+ */
+final class Paging {
+
+	private Paging() {
+	}
+
+	static long startOf(Long after) {
+		return after == null ? 0L : after;
+	}
+
+	static Pageable rowsFor(int boundedLimit) {
+		return PageRequest.of(0, boundedLimit + 1);
+	}
+
+}
@@ -0,0 +1,169 @@
+package com.maurosalani.project.attsd.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+/**
+ * Runs the queries of the REST read endpoints on a pool of
+ * {@code attsd.query.workers} threads, by default as many as the connections
+ * of the pool, with room for {@code attsd.query.queue} waiting queries, so a
+ * slow database holds these threads instead of the ones of the connector. A
+ * query that does not fit is rejected with a
+ * {@link java.util.concurrent.RejectedExecutionException} before the request
+ * goes asynchronous. Each query runs in a read-only transaction whose timeout,
+ * applied by Spring as the statement timeout of its queries, is
+ * {@code attsd.query.timeout-millis}, or
+ * {@code attsd.query.timeout-millis.<name>} for the queries of that name; a
+ * request not answered by then gets 503. The tasks are handed to Spring as
+ * {@link WebAsyncTask}s, so its interceptors hand the entity manager opened for
+ * the request over to the worker and back, and lazy associations can still be
+ * loaded while writing the response.
+ */
+@Service
+public class QueryExecutor {
+
+	private static final int DEFAULT_QUEUE = 100;
+
+	private static final long DEFAULT_TIMEOUT_MILLIS = 5000;
+
+	private static final String TIMEOUT_PROPERTY = "attsd.query.timeout-millis";
+
+	private static final int QUEUED = 0;
+
+	private static final int RUNNING = 1;
+
+	private static final int DONE = 2;
+
+	@Value("${attsd.query.workers:${spring.datasource.hikari.maximum-pool-size:10}}")
+	private int workers = 10;
+
+	@Value("${attsd.query.queue:" + DEFAULT_QUEUE + "}")
+	private int queue = DEFAULT_QUEUE;
+
+	@Value("${" + TIMEOUT_PROPERTY + ":" + DEFAULT_TIMEOUT_MILLIS + "}")
+	private long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+
+	@Autowired(required = false)
+	private Environment environment;
+
+	@Autowired(required = false)
+	private PlatformTransactionManager transactionManager;
+
+	private final Map<String, Long> timeouts = new ConcurrentHashMap<>();
+
+	private ThreadPoolExecutor executor;
+
+	private AsyncTaskExecutor taskExecutor;
+
+	/**
+	 * Admits at most as many queries as the workers can run and queue. Spring
+	 * submits a task only once the request went asynchronous, so the bound is
+	 * enforced here rather than by the queue of the executor.
+	 */
+	private Semaphore admitted;
+
+	@PostConstruct
+	public void start() {
+		executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+				new CustomizableThreadFactory("queries-"));
+		taskExecutor = new ConcurrentTaskExecutor(executor);
+		admitted = new Semaphore(workers + queue);
+	}
+
+	@PreDestroy
+	public void stop() {
+		executor.shutdownNow();
+	}
+
+	public <T> WebAsyncTask<T> submit(String name, Query<T> query) {
+		if (!admitted.tryAcquire())
+			throw new RejectedExecutionException("Too many queries waiting for a worker");
+		long timeout = timeoutOf(name);
+		AtomicInteger state = new AtomicInteger(QUEUED);
+		WebAsyncTask<T> task = new WebAsyncTask<>(timeout, taskExecutor, () -> {
+			if (!state.compareAndSet(QUEUED, RUNNING))
+				return null;
+			try {
+				return run(query, timeout);
+			} finally {
+				state.set(DONE);
+				admitted.release();
+			}
+		});
+		task.onCompletion(() -> {
+			if (state.compareAndSet(QUEUED, DONE))
+				admitted.release();
+		});
+		return task;
+	}
+
+	private <T> T run(Query<T> query, long timeout) throws Exception {
+		if (transactionManager == null)
+			return query.run();
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		transaction.setReadOnly(true);
+		transaction.setTimeout((int) TimeUnit.MILLISECONDS.toSeconds(timeout + 999));
+		try {
+			return transaction.execute(status -> {
+				try {
+					return query.run();
+				} catch (RuntimeException e) {
+					throw e;
+				} catch (Exception e) {
+					throw new QueryFailedException(e);
+				}
+			});
+		} catch (QueryFailedException e) {
+			throw (Exception) e.getCause();
+		}
+	}
+
+	private long timeoutOf(String name) {
+		if (environment == null)
+			return timeoutMillis;
+		return timeouts.computeIfAbsent(name,
+				key -> environment.getProperty(TIMEOUT_PROPERTY + "." + key, Long.class, timeoutMillis));
+	}
+
+	@FunctionalInterface
+	public interface Query<T> {
+
+		T run() throws Exception;
+
+	}
+
+	/**
+	 * Carries a checked exception of a query out of its transaction, which is
+	 * rolled back as for any other failure.
+	 */
+	private static class QueryFailedException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		QueryFailedException(Exception cause) {
+			super(cause);
+		}
+
+	}
+
+}
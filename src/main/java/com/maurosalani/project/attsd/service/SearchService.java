@@ -0,0 +1,168 @@
+package com.maurosalani.project.attsd.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.maurosalani.project.attsd.dto.GameSummaryDTO;
+import com.maurosalani.project.attsd.dto.SearchResultDTO;
+import com.maurosalani.project.attsd.dto.UserSummaryDTO;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Looks up users and games at the same time on a pool of
+ * {@code attsd.search.workers} threads with room for
+ * {@code attsd.search.queue} waiting lookups, each returning at most
+ * {@code attsd.search.max-results} results. Both share a deadline of
+ * {@code attsd.search.deadline-millis}: a lookup that misses it, or that does
+ * not fit in the pool, is left out and the result marked as partial. The
+ * duration of every lookup is published as the {@code attsd.search.lookup}
+ * timer and every lookup left out counted as {@code attsd.search.skipped},
+ * both tagged with their source.
+ */
+@Service
+public class SearchService implements MeterBinder {
+
+	private static final int DEFAULT_WORKERS = 4;
+
+	private static final int DEFAULT_QUEUE = 64;
+
+	private static final long DEFAULT_DEADLINE_MILLIS = 500;
+
+	private static final int DEFAULT_MAX_RESULTS = 20;
+
+	static final String USERS = "users";
+
+	static final String GAMES = "games";
+
+	@Value("${attsd.search.workers:" + DEFAULT_WORKERS + "}")
+	private int workers = DEFAULT_WORKERS;
+
+	@Value("${attsd.search.queue:" + DEFAULT_QUEUE + "}")
+	private int queue = DEFAULT_QUEUE;
+
+	@Value("${attsd.search.deadline-millis:" + DEFAULT_DEADLINE_MILLIS + "}")
+	private long deadlineMillis = DEFAULT_DEADLINE_MILLIS;
+
+	@Value("${attsd.search.max-results:" + DEFAULT_MAX_RESULTS + "}")
+	private int maxResults = DEFAULT_MAX_RESULTS;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private GameService gameService;
+
+	private volatile MeterRegistry registry;
+
+	private ThreadPoolExecutor executor;
+
+	public SearchService(UserService userService, GameService gameService) {
+		this.userService = userService;
+		this.gameService = gameService;
+	}
+
+	@PostConstruct
+	public void start() {
+		executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queue), new CustomizableThreadFactory("search-"));
+	}
+
+	@PreDestroy
+	public void stop() {
+		executor.shutdownNow();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	public SearchResultDTO search(String content) {
+		if (content == null)
+			throw new IllegalArgumentException();
+
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+		Future<List<UserSummaryDTO>> users = submit(USERS,
+				() -> userService.getUsersByUsernameLike(content, maxResults));
+		Future<List<GameSummaryDTO>> games = submit(GAMES,
+				() -> gameService.getGamesByNameLike(content, maxResults));
+		try {
+			List<UserSummaryDTO> usersFound = await(USERS, users, deadline);
+			List<GameSummaryDTO> gamesFound = await(GAMES, games, deadline);
+			return new SearchResultDTO(usersFound == null ? new ArrayList<>() : usersFound,
+					gamesFound == null ? new ArrayList<>() : gamesFound, usersFound == null || gamesFound == null);
+		} finally {
+			cancel(users);
+			cancel(games);
+		}
+	}
+
+	private <T> Future<T> submit(String source, Callable<T> lookup) {
+		try {
+			return executor.submit(() -> {
+				long start = System.nanoTime();
+				String outcome = "error";
+				try {
+					T found = lookup.call();
+					outcome = "success";
+					return found;
+				} finally {
+					if (registry != null)
+						registry.timer("attsd.search.lookup", "source", source, "outcome", outcome)
+								.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			skipped(source, "rejected");
+			return null;
+		}
+	}
+
+	/**
+	 * @return the result of the lookup, or null if it was left out
+	 */
+	private <T> T await(String source, Future<T> lookup, long deadline) {
+		if (lookup == null)
+			return null;
+		try {
+			return lookup.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+		} catch (TimeoutException e) {
+			skipped(source, "timeout");
+			return null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	private void skipped(String source, String reason) {
+		if (registry != null)
+			registry.counter("attsd.search.skipped", "source", source, "reason", reason).increment();
+	}
+
+	private static void cancel(Future<?> lookup) {
+		if (lookup != null)
+			lookup.cancel(true);
+	}
+
+}
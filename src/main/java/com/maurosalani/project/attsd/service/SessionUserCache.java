@@ -0,0 +1,95 @@
+package com.maurosalani.project.attsd.service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.maurosalani.project.attsd.dto.LoggedUserDTO;
+import com.maurosalani.project.attsd.event.CredentialsChangedEvent;
+import com.maurosalani.project.attsd.event.GameLikedEvent;
+import com.maurosalani.project.attsd.event.UserDeletedEvent;
+import com.maurosalani.project.attsd.event.UserFollowedEvent;
+
+/**
+ * Per-node cache of the logged users, keyed by HTTP session id. An entry is
+ * dropped when its session ends and whenever its user changes, found through
+ * an index of the sessions of every user; a value loaded while a change was
+ * in progress is not stored, so a stale read can never outlive the change
+ * that made it stale.
+ */
+@Service
+public class SessionUserCache {
+
+	private final Map<String, LoggedUserDTO> users = new ConcurrentHashMap<>();
+
+	private final Map<Long, Set<String>> sessionsByUser = new ConcurrentHashMap<>();
+
+	private final AtomicLong generation = new AtomicLong();
+
+	public LoggedUserDTO get(String sessionId) {
+		return users.get(sessionId);
+	}
+
+	/**
+	 * @return the stamp to hand to {@link #put} once the value is loaded.
+	 */
+	public long beginLoad() {
+		return generation.get();
+	}
+
+	public void put(String sessionId, LoggedUserDTO user, long stamp) {
+		sessionsByUser.computeIfAbsent(user.getId(), id -> ConcurrentHashMap.newKeySet()).add(sessionId);
+		LoggedUserDTO previous = users.put(sessionId, user);
+		if (previous != null && !previous.getId().equals(user.getId()))
+			unindex(previous.getId(), sessionId);
+		if (generation.get() != stamp)
+			users.remove(sessionId, user);
+	}
+
+	public void userChanged(Long id) {
+		generation.incrementAndGet();
+		Set<String> sessions = sessionsByUser.remove(id);
+		if (sessions == null)
+			return;
+		for (String sessionId : sessions)
+			users.computeIfPresent(sessionId, (key, user) -> user.getId().equals(id) ? null : user);
+	}
+
+	@TransactionalEventListener
+	public void userFollowed(UserFollowedEvent event) {
+		userChanged(event.getUserId());
+	}
+
+	@TransactionalEventListener
+	public void gameLiked(GameLikedEvent event) {
+		userChanged(event.getUserId());
+	}
+
+	@TransactionalEventListener
+	public void userDeleted(UserDeletedEvent event) {
+		userChanged(event.getUserId());
+	}
+
+	@TransactionalEventListener
+	public void credentialsChanged(CredentialsChangedEvent event) {
+		userChanged(event.getUserId());
+	}
+
+	public void sessionEnded(String sessionId) {
+		LoggedUserDTO user = users.remove(sessionId);
+		if (user != null)
+			unindex(user.getId(), sessionId);
+	}
+
+	private void unindex(Long id, String sessionId) {
+		sessionsByUser.computeIfPresent(id, (key, sessions) -> {
+			sessions.remove(sessionId);
+			return sessions.isEmpty() ? null : sessions;
+		});
+	}
+
+}
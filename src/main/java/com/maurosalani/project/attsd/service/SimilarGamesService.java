@@ -0,0 +1,300 @@
+package com.maurosalani.project.attsd.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.maurosalani.project.attsd.dto.GameSummaryDTO;
+import com.maurosalani.project.attsd.event.GameDeletedEvent;
+import com.maurosalani.project.attsd.event.GameLikedEvent;
+import com.maurosalani.project.attsd.event.UserDeletedEvent;
+import com.maurosalani.project.attsd.repository.GameRepository;
+import com.maurosalani.project.attsd.repository.UserRelationRepository;
+
+/**
+ * Keeps, for every liked game, the {@value #TOP_K} games most often liked by
+ * the same users, scored by the cosine similarity of their sets of fans. The
+ * like graph is held in memory in both directions; a like marks the games
+ * whose neighbours may have changed, and only those are recomputed by the
+ * periodic refresh, on {@code attsd.similar.workers} threads of its own. The
+ * co-likes of a game are counted over at most {@code attsd.similar.max-fans}
+ * of its fans.
+ */
+@Service
+public class SimilarGamesService {
+
+	static final int TOP_K = 10;
+
+	private static final int DEFAULT_WORKERS = 2;
+
+	private static final int DEFAULT_MAX_FANS = 1000;
+
+	@Value("${attsd.similar.workers:" + DEFAULT_WORKERS + "}")
+	private int workers = DEFAULT_WORKERS;
+
+	@Value("${attsd.similar.max-fans:" + DEFAULT_MAX_FANS + "}")
+	private int maxFans = DEFAULT_MAX_FANS;
+
+	@Autowired
+	private UserRelationRepository userRelationRepository;
+
+	@Autowired
+	private GameRepository gameRepository;
+
+	private final Map<Long, long[]> gamesByUser = new ConcurrentHashMap<>();
+
+	private final Map<Long, long[]> usersByGame = new ConcurrentHashMap<>();
+
+	private final Map<Long, long[]> similar = new ConcurrentHashMap<>();
+
+	/**
+	 * For every game, the games whose neighbours include it, which a change to
+	 * its fans reorders.
+	 */
+	private final Map<Long, Set<Long>> listedBy = new ConcurrentHashMap<>();
+
+	private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+	private ThreadPoolExecutor executor;
+
+	public SimilarGamesService(UserRelationRepository userRelationRepository, GameRepository gameRepository) {
+		this.userRelationRepository = userRelationRepository;
+		this.gameRepository = gameRepository;
+	}
+
+	@PostConstruct
+	public void start() {
+		executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(workers), new CustomizableThreadFactory("similar-"));
+		buildGraph();
+	}
+
+	@PreDestroy
+	public void stop() {
+		executor.shutdownNow();
+	}
+
+	public void buildGraph() {
+		SortedIds.Builder builder = new SortedIds.Builder();
+		userRelationRepository.forEachGame(builder);
+		Map<Long, long[]> likes = builder.finish();
+		gamesByUser.clear();
+		gamesByUser.putAll(likes);
+		usersByGame.clear();
+		usersByGame.putAll(SortedIds.invert(likes));
+		similar.clear();
+		listedBy.clear();
+		dirty.addAll(usersByGame.keySet());
+	}
+
+	public void gameLiked(Long userId, Long gameId) {
+		long[] games = gamesByUser.merge(userId, new long[] { gameId },
+				(current, added) -> SortedIds.with(current, gameId));
+		usersByGame.merge(gameId, new long[] { userId }, (current, added) -> SortedIds.with(current, userId));
+		for (long game : games)
+			dirty.add(game);
+		fansChanged(gameId);
+	}
+
+	@TransactionalEventListener
+	public void gameLiked(GameLikedEvent event) {
+		gameLiked(event.getUserId(), event.getGameId());
+	}
+
+	public void gameDeleted(Long gameId) {
+		unlist(gameId, similar.remove(gameId), SortedIds.NONE);
+		dirty.addAll(listedBy.getOrDefault(gameId, Collections.emptySet()));
+		dirty.remove(gameId);
+		long[] users = usersByGame.remove(gameId);
+		if (users == null)
+			return;
+		for (long user : users) {
+			long[] games = gamesByUser.computeIfPresent(user, (id, current) -> SortedIds.without(current, gameId));
+			if (games != null)
+				for (long game : games)
+					dirty.add(game);
+		}
+	}
+
+	@TransactionalEventListener
+	public void gameDeleted(GameDeletedEvent event) {
+		gameDeleted(event.getGameId());
+	}
+
+	public void userDeleted(Long userId) {
+		long[] games = gamesByUser.remove(userId);
+		if (games == null)
+			return;
+		for (long game : games) {
+			usersByGame.computeIfPresent(game, (id, current) -> {
+				long[] users = SortedIds.without(current, userId);
+				return users.length == 0 ? null : users;
+			});
+			fansChanged(game);
+		}
+	}
+
+	@TransactionalEventListener
+	public void userDeleted(UserDeletedEvent event) {
+		userDeleted(event.getUserId());
+	}
+
+	public List<GameSummaryDTO> getSimilarGames(Long gameId) {
+		if (gameId == null)
+			throw new IllegalArgumentException();
+
+		long[] ids = similar.get(gameId);
+		if (ids == null)
+			return new ArrayList<>();
+		List<Long> ranked = Arrays.stream(ids).boxed().collect(Collectors.toList());
+		Map<Long, GameSummaryDTO> summaries = gameRepository.findSummariesByIdIn(ranked).stream()
+				.collect(Collectors.toMap(GameSummaryDTO::getId, Function.identity()));
+		return ranked.stream().map(summaries::get).filter(summary -> summary != null).collect(Collectors.toList());
+	}
+
+	/**
+	 * Marks the game and the games listing it, whose scores for it depend on
+	 * how many fans it has.
+	 */
+	private void fansChanged(long gameId) {
+		dirty.add(gameId);
+		dirty.addAll(listedBy.getOrDefault(gameId, Collections.emptySet()));
+	}
+
+	@Scheduled(fixedDelayString = "${attsd.similar.refresh-delay:10000}")
+	public void refresh() {
+		List<Long> changed = new ArrayList<>(dirty.size());
+		for (Iterator<Long> iterator = dirty.iterator(); iterator.hasNext();) {
+			changed.add(iterator.next());
+			iterator.remove();
+		}
+		if (changed.isEmpty())
+			return;
+		int chunk = (changed.size() + workers - 1) / workers;
+		List<Future<?>> results = new ArrayList<>(workers);
+		for (int start = 0; start < changed.size(); start += chunk) {
+			List<Long> games = changed.subList(start, Math.min(start + chunk, changed.size()));
+			results.add(executor.submit(() -> games.forEach(this::recompute)));
+		}
+		try {
+			for (Future<?> result : results)
+				result.get();
+		} catch (InterruptedException e) {
+			results.forEach(result -> result.cancel(true));
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	private void recompute(long gameId) {
+		long[] neighbours = neighboursOf(gameId);
+		long[] previous;
+		if (neighbours.length > 0 && usersByGame.containsKey(gameId))
+			previous = similar.put(gameId, neighbours);
+		else {
+			previous = similar.remove(gameId);
+			neighbours = SortedIds.NONE;
+		}
+		unlist(gameId, previous, neighbours);
+		for (long neighbour : neighbours)
+			listedBy.compute(neighbour, (id, listers) -> {
+				Set<Long> result = listers != null ? listers : ConcurrentHashMap.newKeySet();
+				result.add(gameId);
+				return result;
+			});
+	}
+
+	private void unlist(long gameId, long[] previous, long[] neighbours) {
+		if (previous == null)
+			return;
+		for (long neighbour : previous)
+			if (!contains(neighbours, neighbour))
+				listedBy.computeIfPresent(neighbour, (id, listers) -> {
+					listers.remove(gameId);
+					return listers.isEmpty() ? null : listers;
+				});
+	}
+
+	private static boolean contains(long[] ids, long id) {
+		for (long candidate : ids)
+			if (candidate == id)
+				return true;
+		return false;
+	}
+
+	/**
+	 * Counts how many fans of the game liked each other game and keeps the best
+	 * scores. A game with more than {@code attsd.similar.max-fans} fans is
+	 * scored on an evenly spaced sample of them: every count shrinks by about
+	 * the same factor, so the ranking is roughly the same.
+	 */
+	private long[] neighboursOf(long gameId) {
+		long[] fans = usersByGame.getOrDefault(gameId, SortedIds.NONE);
+		int sampled = Math.min(fans.length, maxFans);
+		IdCounts coLiked = new IdCounts();
+		for (int i = 0; i < sampled; i++) {
+			long fan = fans[(int) ((long) i * fans.length / sampled)];
+			for (long id : gamesByUser.getOrDefault(fan, SortedIds.NONE))
+				if (id != gameId)
+					coLiked.increment(id);
+		}
+
+		long[] topIds = new long[TOP_K];
+		double[] topScores = new double[TOP_K];
+		int[] topSize = new int[1];
+		coLiked.forEach((id, count) -> {
+			int otherFans = usersByGame.getOrDefault(id, SortedIds.NONE).length;
+			if (otherFans > 0) {
+				double score = count / Math.sqrt((double) sampled * otherFans);
+				topSize[0] = offer(topIds, topScores, topSize[0], id, score);
+			}
+		});
+		return Arrays.copyOf(topIds, topSize[0]);
+	}
+
+	/**
+	 * Inserts the game into the ranking when it beats the last entry; a tie
+	 * ranks the lower id first.
+	 */
+	private static int offer(long[] topIds, double[] topScores, int topSize, long id, double score) {
+		if (topSize == topIds.length && !ranksBefore(score, id, topScores[topSize - 1], topIds[topSize - 1]))
+			return topSize;
+		int position = topSize == topIds.length ? topSize - 1 : topSize;
+		while (position > 0 && ranksBefore(score, id, topScores[position - 1], topIds[position - 1])) {
+			topIds[position] = topIds[position - 1];
+			topScores[position] = topScores[position - 1];
+			position--;
+		}
+		topIds[position] = id;
+		topScores[position] = score;
+		return Math.min(topSize + 1, topIds.length);
+	}
+
+	private static boolean ranksBefore(double score, long id, double otherScore, long otherId) {
+		return score > otherScore || (score == otherScore && id < otherId);
+	}
+
+}
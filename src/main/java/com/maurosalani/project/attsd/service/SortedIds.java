@@ -0,0 +1,101 @@
+package com.maurosalani.project.attsd.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.maurosalani.project.attsd.repository.UserRelationRepository.RelationHandler;
+
+/**
+ * Copy-on-write operations on sorted arrays of ids, the adjacency lists the
+ * in-memory relation indexes are made of. The arrays are never modified once
+ * published, so readers need no locking.
+ */
+final class SortedIds {
+
+	static final long[] NONE = new long[0];
+
+	private SortedIds() {
+	}
+
+	static long[] with(long[] ids, long id) {
+		int position = Arrays.binarySearch(ids, id);
+		if (position >= 0)
+			return ids;
+		int insertion = -position - 1;
+		long[] result = new long[ids.length + 1];
+		System.arraycopy(ids, 0, result, 0, insertion);
+		result[insertion] = id;
+		System.arraycopy(ids, insertion, result, insertion + 1, ids.length - insertion);
+		return result;
+	}
+
+	static long[] without(long[] ids, long id) {
+		int position = Arrays.binarySearch(ids, id);
+		if (position < 0)
+			return ids;
+		long[] result = new long[ids.length - 1];
+		System.arraycopy(ids, 0, result, 0, position);
+		System.arraycopy(ids, position + 1, result, position, ids.length - position - 1);
+		return result;
+	}
+
+	/**
+	 * @return for every target, the sorted array of the sources pointing to it.
+	 */
+	static Map<Long, long[]> invert(Map<Long, long[]> adjacency) {
+		Map<Long, Integer> sizes = new HashMap<>();
+		adjacency.values().forEach(targets -> {
+			for (long target : targets)
+				sizes.merge(target, 1, Integer::sum);
+		});
+		Map<Long, long[]> inverted = new HashMap<>();
+		Map<Long, Integer> filled = new HashMap<>();
+		adjacency.forEach((source, targets) -> {
+			for (long target : targets) {
+				long[] sources = inverted.computeIfAbsent(target, id -> new long[sizes.get(id)]);
+				sources[filled.merge(target, 1, Integer::sum) - 1] = source;
+			}
+		});
+		inverted.values().forEach(Arrays::sort);
+		return inverted;
+	}
+
+	/**
+	 * Groups relations streamed in order of source and then of target into one
+	 * sorted array of targets per source.
+	 */
+	static class Builder implements RelationHandler {
+
+		private final Map<Long, long[]> adjacency = new HashMap<>();
+
+		private long sourceId;
+
+		private long[] ids = new long[16];
+
+		private int size;
+
+		@Override
+		public void handle(long sourceId, long targetId) {
+			if (size > 0 && sourceId != this.sourceId)
+				flush();
+			this.sourceId = sourceId;
+			if (size == ids.length)
+				ids = Arrays.copyOf(ids, size * 2);
+			ids[size++] = targetId;
+		}
+
+		Map<Long, long[]> finish() {
+			if (size > 0)
+				flush();
+			return adjacency;
+		}
+
+		private void flush() {
+			adjacency.put(sourceId, Arrays.copyOf(ids, size));
+			size = 0;
+		}
+
+	}
+
+}
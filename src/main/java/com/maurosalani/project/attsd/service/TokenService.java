@@ -0,0 +1,66 @@
+package com.maurosalani.project.attsd.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Clock;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.maurosalani.project.attsd.dto.TokenDTO;
+import com.maurosalani.project.attsd.security.TokenSigner;
+
+/**
+ * Issues the bearer tokens of the REST API, valid for
+ * {@code attsd.auth.token-ttl-seconds}. They are signed with
+ * {@code attsd.auth.token-secret}, which every node must share; without it
+ * each node signs with a random key, and its tokens are only accepted by
+ * that node until it restarts. Tokens are not stored anywhere, so one stays
+ * valid until it expires even if its user changes password.
+ */
+@Service
+public class TokenService {
+
+	private static final long DEFAULT_TTL_SECONDS = 3600;
+
+	@Value("${attsd.auth.token-secret:}")
+	private String secret = "";
+
+	@Value("${attsd.auth.token-ttl-seconds:" + DEFAULT_TTL_SECONDS + "}")
+	private long ttlSeconds = DEFAULT_TTL_SECONDS;
+
+	private Clock clock = Clock.systemUTC();
+
+	private TokenSigner signer;
+
+	@PostConstruct
+	public void start() {
+		byte[] key;
+		if (StringUtils.isBlank(secret)) {
+			key = new byte[32];
+			new SecureRandom().nextBytes(key);
+		} else
+			key = secret.getBytes(StandardCharsets.UTF_8);
+		signer = new TokenSigner(key);
+	}
+
+	public TokenDTO issue(Long userId) {
+		if (userId == null)
+			throw new IllegalArgumentException();
+		long expiresAt = clock.instant().getEpochSecond() + ttlSeconds;
+		return new TokenDTO(signer.sign(userId, expiresAt), userId, expiresAt);
+	}
+
+	/**
+	 * @return the id of the user the token was issued to, or null if it is not
+	 *         valid
+	 */
+	public Long authenticate(String token) {
+		long userId = signer.verify(token, clock.instant().getEpochSecond());
+		return userId == TokenSigner.INVALID ? null : userId;
+	}
+
+}
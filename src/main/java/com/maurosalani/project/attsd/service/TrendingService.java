@@ -0,0 +1,189 @@
+package com.maurosalani.project.attsd.service;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.maurosalani.project.attsd.dto.GameSummaryDTO;
+import com.maurosalani.project.attsd.event.GameDeletedEvent;
+import com.maurosalani.project.attsd.event.GameLikedEvent;
+import com.maurosalani.project.attsd.repository.GameRepository;
+
+/**
+ * Ranks the games by the likes received in the last {@value #BUCKETS} hours.
+ * Each game has a fixed ring of hourly buckets, incremented lock-free; a
+ * bucket weighs half as much every {@value #HALF_LIFE_HOURS} hours of age.
+ * The top {@value #TOP_K} games are extracted periodically, so reading the
+ * ranking costs nothing.
+ */
+@Service
+public class TrendingService {
+
+	static final int BUCKETS = 24;
+	static final int HALF_LIFE_HOURS = 2;
+	static final int TOP_K = 10;
+
+	private static final long BUCKET_MILLIS = TimeUnit.HOURS.toMillis(1);
+	private static final int COUNT_BITS = 24;
+	private static final long MAX_COUNT = (1L << COUNT_BITS) - 1;
+	private static final double[] WEIGHTS = new double[BUCKETS];
+
+	static {
+		for (int age = 0; age < BUCKETS; age++)
+			WEIGHTS[age] = Math.pow(0.5, (double) age / HALF_LIFE_HOURS);
+	}
+
+	@Autowired
+	private GameRepository gameRepository;
+
+	/**
+	 * Each slot packs the hour it counts for in the high bits and the likes of
+	 * that hour in the low {@value #COUNT_BITS} bits.
+	 */
+	private final Map<Long, AtomicLongArray> likes = new ConcurrentHashMap<>();
+
+	private volatile List<GameSummaryDTO> trendingGames = Collections.emptyList();
+
+	private Clock clock = Clock.systemUTC();
+
+	public TrendingService(GameRepository gameRepository) {
+		this.gameRepository = gameRepository;
+	}
+
+	/**
+	 * Counts the like on the buckets of the game, again on new ones if
+	 * {@link #refresh()} dropped them meanwhile: it only drops buckets whose
+	 * score is still zero while it holds their entry, so a like counted before
+	 * is never lost.
+	 */
+	public void gameLiked(Long gameId) {
+		long hour = currentHour();
+		AtomicLongArray buckets;
+		do {
+			buckets = likes.computeIfAbsent(gameId, id -> new AtomicLongArray(BUCKETS));
+			increment(buckets, hour);
+		} while (likes.get(gameId) != buckets);
+	}
+
+	@TransactionalEventListener
+	public void gameLiked(GameLikedEvent event) {
+		gameLiked(event.getGameId());
+	}
+
+	private static void increment(AtomicLongArray buckets, long hour) {
+		int slot = (int) (hour % BUCKETS);
+		long current;
+		long next;
+		do {
+			current = buckets.get(slot);
+			if (hourOf(current) != hour)
+				next = (hour << COUNT_BITS) | 1;
+			else if (countOf(current) < MAX_COUNT)
+				next = current + 1;
+			else
+				return;
+		} while (!buckets.compareAndSet(slot, current, next));
+	}
+
+	public void gameDeleted(Long gameId) {
+		likes.remove(gameId);
+	}
+
+	@TransactionalEventListener
+	public void gameDeleted(GameDeletedEvent event) {
+		gameDeleted(event.getGameId());
+	}
+
+	public List<GameSummaryDTO> getTrendingGames() {
+		return trendingGames;
+	}
+
+	@Scheduled(fixedDelayString = "${attsd.trending.refresh-delay:60000}")
+	public void refresh() {
+		long hour = currentHour();
+		PriorityQueue<Scored> top = new PriorityQueue<>(
+				Comparator.comparingDouble(Scored::getScore).thenComparing(Scored::getId, Comparator.reverseOrder()));
+		likes.forEach((gameId, buckets) -> {
+			double score = score(buckets, hour);
+			if (score == 0) {
+				likes.computeIfPresent(gameId,
+						(id, current) -> current == buckets && score(current, hour) == 0 ? null : current);
+				return;
+			}
+			top.add(new Scored(gameId, score));
+			if (top.size() > TOP_K)
+				top.poll();
+		});
+
+		List<Long> ranked = new ArrayList<>(top.size());
+		while (!top.isEmpty())
+			ranked.add(0, top.poll().getId());
+		if (ranked.isEmpty()) {
+			trendingGames = Collections.emptyList();
+			return;
+		}
+		Map<Long, GameSummaryDTO> summaries = gameRepository.findSummariesByIdIn(ranked).stream()
+				.collect(Collectors.toMap(GameSummaryDTO::getId, Function.identity()));
+		trendingGames = Collections.unmodifiableList(ranked.stream().map(summaries::get).filter(summary -> summary != null)
+				.collect(Collectors.toList()));
+	}
+
+	private static double score(AtomicLongArray buckets, long hour) {
+		double score = 0;
+		for (int slot = 0; slot < BUCKETS; slot++) {
+			long value = buckets.get(slot);
+			long age = hour - hourOf(value);
+			if (age >= 0 && age < BUCKETS)
+				score += countOf(value) * WEIGHTS[(int) age];
+		}
+		return score;
+	}
+
+	private long currentHour() {
+		return clock.millis() / BUCKET_MILLIS;
+	}
+
+	private static long hourOf(long value) {
+		return value >>> COUNT_BITS;
+	}
+
+	private static long countOf(long value) {
+		return value & MAX_COUNT;
+	}
+
+	private static class Scored {
+
+		private final Long id;
+
+		private final double score;
+
+		Scored(Long id, double score) {
+			this.id = id;
+			this.score = score;
+		}
+
+		Long getId() {
+			return id;
+		}
+
+		double getScore() {
+			return score;
+		}
+
+	}
+
+}
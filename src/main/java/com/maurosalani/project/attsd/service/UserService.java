@@ -1,23 +1,51 @@
 package com.maurosalani.project.attsd.service;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+
+import javax.annotation.PostConstruct;
 
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.maurosalani.project.attsd.dto.CredentialsDTO;
+import com.maurosalani.project.attsd.dto.FeedEventDTO;
+import com.maurosalani.project.attsd.dto.FollowSuggestionDTO;
+import com.maurosalani.project.attsd.dto.GameSummaryDTO;
+import com.maurosalani.project.attsd.dto.LeaderboardEntryDTO;
+import com.maurosalani.project.attsd.dto.LoggedUserDTO;
+import com.maurosalani.project.attsd.dto.MutualsDTO;
+import com.maurosalani.project.attsd.dto.PageDTO;
+import com.maurosalani.project.attsd.dto.RelationDTO;
+import com.maurosalani.project.attsd.dto.UserSummaryDTO;
+import com.maurosalani.project.attsd.event.CredentialsChangedEvent;
+import com.maurosalani.project.attsd.event.GameLikedEvent;
+import com.maurosalani.project.attsd.event.UserDeletedEvent;
+import com.maurosalani.project.attsd.event.UserFollowedEvent;
+import com.maurosalani.project.attsd.event.UserSavedEvent;
 import com.maurosalani.project.attsd.exception.GameNotFoundException;
 import com.maurosalani.project.attsd.exception.LoginFailedException;
 import com.maurosalani.project.attsd.exception.PasswordRequiredException;
 import com.maurosalani.project.attsd.exception.UserNotFoundException;
 import com.maurosalani.project.attsd.exception.UsernameAlreadyExistingException;
-import com.maurosalani.project.attsd.model.Game;
 import com.maurosalani.project.attsd.model.User;
-import com.maurosalani.project.attsd.repository.GameRepository;
+import com.maurosalani.project.attsd.repository.UserRelationRepository;
 import com.maurosalani.project.attsd.repository.UserRepository;
+import com.maurosalani.project.attsd.search.TrigramIndex;
 
+/**
+ * Manages the users and their relations. Every write publishes an event in
+ * its transaction, handled there by the counters and after it commits by the
+ * caches and the in-memory indexes.
+ */
 @Service
 public class UserService {
 
@@ -29,17 +57,135 @@ public class UserService {
 	private UserRepository userRepository;
 
 	@Autowired
-	private GameRepository gameRepository;
+	private SessionUserCache sessionUserCache;
+
+	@Autowired
+	private UserRelationRepository userRelationRepository;
+
+	@Autowired
+	private FollowSuggestionService followSuggestionService;
+
+	@Autowired
+	private MutualsService mutualsService;
+
+	@Autowired
+	private FeedService feedService;
+
+	@Autowired
+	private LeaderboardService leaderboardService;
+
+	@Autowired
+	private CredentialService credentialService;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
 
-	public UserService(UserRepository userRepository, GameRepository gameRepository) {
+	private final TransactionTemplate transactionTemplate;
+
+	private final TrigramIndex usernameIndex = new TrigramIndex();
+
+	public UserService(UserRepository userRepository, SessionUserCache sessionUserCache,
+			UserRelationRepository userRelationRepository, FollowSuggestionService followSuggestionService,
+			MutualsService mutualsService, FeedService feedService, LeaderboardService leaderboardService,
+			CredentialService credentialService, ApplicationEventPublisher eventPublisher,
+			PlatformTransactionManager transactionManager) {
 		this.userRepository = userRepository;
-		this.gameRepository = gameRepository;
+		this.sessionUserCache = sessionUserCache;
+		this.userRelationRepository = userRelationRepository;
+		this.followSuggestionService = followSuggestionService;
+		this.mutualsService = mutualsService;
+		this.feedService = feedService;
+		this.leaderboardService = leaderboardService;
+		this.credentialService = credentialService;
+		this.eventPublisher = eventPublisher;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	@PostConstruct
+	public void buildUsernameIndex() {
+		usernameIndex.clear();
+		userRepository.findAll().forEach(user -> usernameIndex.put(user.getId(), user.getUsername()));
 	}
 
 	public List<User> getAllUsers() {
 		return userRepository.findAll();
 	}
 
+	public PageDTO<UserSummaryDTO> getUsersPage(Long after, int limit) {
+		int boundedLimit = PageDTO.boundedLimit(limit);
+		List<UserSummaryDTO> rows = userRepository.findPageAfter(Paging.startOf(after), Paging.rowsFor(boundedLimit));
+		return PageDTO.fromRows(rows, boundedLimit, UserSummaryDTO::getId);
+	}
+
+	public PageDTO<UserSummaryDTO> getFollowedUsersPage(Long id, Long after, int limit) throws UserNotFoundException {
+		checkUserIdExists(id);
+		int boundedLimit = PageDTO.boundedLimit(limit);
+		List<UserSummaryDTO> rows = userRepository.findFollowedPageAfter(id, Paging.startOf(after), Paging.rowsFor(boundedLimit));
+		return PageDTO.fromRows(rows, boundedLimit, UserSummaryDTO::getId);
+	}
+
+	public PageDTO<UserSummaryDTO> getFollowerUsersPage(Long id, Long after, int limit) throws UserNotFoundException {
+		checkUserIdExists(id);
+		int boundedLimit = PageDTO.boundedLimit(limit);
+		List<UserSummaryDTO> rows = userRepository.findFollowerPageAfter(id, Paging.startOf(after), Paging.rowsFor(boundedLimit));
+		return PageDTO.fromRows(rows, boundedLimit, UserSummaryDTO::getId);
+	}
+
+	public PageDTO<GameSummaryDTO> getGamesPage(Long id, Long after, int limit) throws UserNotFoundException {
+		checkUserIdExists(id);
+		int boundedLimit = PageDTO.boundedLimit(limit);
+		List<GameSummaryDTO> rows = userRepository.findGamesPageAfter(id, Paging.startOf(after), Paging.rowsFor(boundedLimit));
+		return PageDTO.fromRows(rows, boundedLimit, GameSummaryDTO::getId);
+	}
+
+	public PageDTO<FeedEventDTO> getFeedPage(Long id, Long before, int limit) throws UserNotFoundException {
+		checkUserIdExists(id);
+		return feedService.getFeed(id, before, limit);
+	}
+
+	/**
+	 * Returns the newest events of the feed of a user already known to exist,
+	 * such as the logged one.
+	 */
+	public List<FeedEventDTO> getRecentFeed(Long id, int limit) {
+		return feedService.getFeed(id, null, limit).getItems();
+	}
+
+	public List<FollowSuggestionDTO> getFollowSuggestions(Long id, int limit) throws UserNotFoundException {
+		checkUserIdExists(id);
+		return followSuggestionService.getSuggestions(id, limit);
+	}
+
+	/**
+	 * @return how many of the users followed by the user follow the other one,
+	 *         with a few of them
+	 */
+	public MutualsDTO getMutuals(Long id, Long otherId) throws UserNotFoundException {
+		checkUserIdExists(id);
+		checkUserIdExists(otherId);
+		return mutualsService.getMutuals(id, otherId);
+	}
+
+	public List<LeaderboardEntryDTO> getMostFollowedUsers(int limit) {
+		return leaderboardService.getMostFollowedUsers(limit);
+	}
+
+	/**
+	 * @return the users ranked near the given one by followers, empty if it
+	 *         has none
+	 */
+	public List<LeaderboardEntryDTO> getLeaderboardAround(Long id, int radius) throws UserNotFoundException {
+		checkUserIdExists(id);
+		return leaderboardService.getUsersAround(id, radius);
+	}
+
+	private void checkUserIdExists(Long id) throws UserNotFoundException {
+		if (id == null)
+			throw new IllegalArgumentException();
+		if (!userRepository.existsById(id))
+			throw new UserNotFoundException(USER_NOT_FOUND);
+	}
+
 	public User getUserById(Long id) throws UserNotFoundException {
 		if (id == null)
 			throw new IllegalArgumentException();
@@ -54,11 +200,63 @@ public class UserService {
 		return userRepository.findByUsername(username).orElseThrow(() -> new UserNotFoundException(USER_NOT_FOUND));
 	}
 
-	public List<User> getUsersByUsernameLike(String username) {
-		if (username == null)
+	public boolean isFollowing(Long userId, Long followedId) {
+		if (userId == null || followedId == null)
+			throw new IllegalArgumentException();
+
+		return userRepository.isFollowing(userId, followedId);
+	}
+
+	public boolean hasLiked(Long userId, Long gameId) {
+		if (userId == null || gameId == null)
+			throw new IllegalArgumentException();
+
+		return userRepository.hasLiked(userId, gameId);
+	}
+
+	/**
+	 * Returns the id, username, followed user ids and liked game ids of the user
+	 * logged in the given session, from the session cache when possible.
+	 */
+	public LoggedUserDTO getLoggedUser(String sessionId, String username) throws UserNotFoundException {
+		if (sessionId == null || username == null)
+			throw new IllegalArgumentException();
+
+		LoggedUserDTO cached = sessionUserCache.get(sessionId);
+		if (cached != null && cached.getUsername().equals(username))
+			return cached;
+
+		long stamp = sessionUserCache.beginLoad();
+		User user = getUserByUsername(username);
+		LoggedUserDTO loaded = new LoggedUserDTO(user.getId(), user.getUsername(),
+				Collections.unmodifiableSet(userRepository.findFollowedIdsById(user.getId())),
+				Collections.unmodifiableSet(userRepository.findGameIdsById(user.getId())));
+		sessionUserCache.put(sessionId, loaded, stamp);
+		return loaded;
+	}
+
+	/**
+	 * Loads the user with the followed users and the liked games the profile
+	 * page shows. The two collections are fetched by two separate joins,
+	 * because fetching both bags in one query is a cartesian product.
+	 */
+	@Transactional(readOnly = true)
+	public List<UserSummaryDTO> getUsersByUsernameLike(String username) {
+		return getUsersByUsernameLike(username, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @return the first {@code limit} matching users, by id
+	 */
+	public List<UserSummaryDTO> getUsersByUsernameLike(String username, int limit) {
+		if (username == null || limit <= 0)
 			throw new IllegalArgumentException();
-		String usernameValid = '%' + username.trim() + '%';
-		return userRepository.findByUsernameLike(usernameValid);
+		List<Long> ids = usernameIndex.search(username.trim());
+		if (ids.isEmpty())
+			return new ArrayList<>();
+		if (ids.size() > limit)
+			ids = ids.subList(0, limit);
+		return userRepository.findSummariesByIdIn(ids);
 	}
 
 	public User insertNewUser(User user) throws UsernameAlreadyExistingException, PasswordRequiredException {
@@ -69,8 +267,15 @@ public class UserService {
 		checkPasswordIsCorrect(user.getPassword());
 
 		user.setId(null);
+		user.setPassword(credentialService.hash(user.getPassword()));
 		try {
-			return userRepository.save(user);
+			User saved = transactionTemplate.execute(status -> {
+				User inserted = userRepository.save(user);
+				eventPublisher.publishEvent(new UserSavedEvent(inserted));
+				return inserted;
+			});
+			usernameIndex.put(saved.getId(), saved.getUsername());
+			return saved;
 		} catch (DataIntegrityViolationException e) {
 			throw new DataIntegrityViolationException("Username or password are invalid.");
 		}
@@ -89,42 +294,87 @@ public class UserService {
 		checkPasswordIsCorrect(user.getPassword());
 
 		user.setId(id);
-		return userRepository.save(user);
+		user.setPassword(credentialService.hash(user.getPassword()));
+		User saved = transactionTemplate.execute(status -> {
+			User updated = userRepository.save(user);
+			eventPublisher.publishEvent(new UserSavedEvent(updated));
+			eventPublisher.publishEvent(new CredentialsChangedEvent(id));
+			return updated;
+		});
+		usernameIndex.put(saved.getId(), saved.getUsername());
+		return saved;
 	}
 
+	/**
+	 * Deletes the user, publishing in the same transaction a
+	 * {@link UserDeletedEvent} with the users it followed, its followers and
+	 * the games it liked, read in that transaction too so that a relation
+	 * committed meanwhile is not left out.
+	 */
 	public void deleteById(Long id) throws UserNotFoundException {
 		if (id == null)
 			throw new IllegalArgumentException();
 
 		checkExistanceOfUser(id);
 
-		userRepository.deleteById(id);
+		transactionTemplate.execute(status -> {
+			Set<Long> followedIds = userRepository.findFollowedIdsById(id);
+			Set<Long> followerIds = userRepository.findFollowerIdsById(id);
+			Set<Long> gameIds = userRepository.findGameIdsById(id);
+			userRepository.deleteById(id);
+			eventPublisher.publishEvent(new UserDeletedEvent(id, followedIds, followerIds, gameIds));
+			return null;
+		});
+		usernameIndex.remove(id);
 	}
 
-	public User addFollowedUser(User user, User followedToAdd) throws UserNotFoundException {
-		if (user == null || followedToAdd == null)
+	/**
+	 * Makes the user follow another one by inserting the single join table row,
+	 * so the cost does not depend on how many users are already followed.
+	 * Following twice is a no-op reported with {@code created} false. A new
+	 * follow publishes a {@link UserFollowedEvent} in the same transaction as
+	 * the insert.
+	 */
+	public RelationDTO addFollowedUser(Long userId, Long followedId) throws UserNotFoundException {
+		if (userId == null || followedId == null)
 			throw new IllegalArgumentException();
 
-		checkExistanceOfUser(user.getId());
-		checkExistanceOfUser(followedToAdd.getId());
-
-		user.addFollowedUser(followedToAdd);
-		followedToAdd.addFollowerUser(user);
-
-		return userRepository.save(user);
+		boolean created;
+		try {
+			created = transactionTemplate.execute(status -> {
+				boolean inserted = userRelationRepository.insertFollowed(userId, followedId);
+				if (inserted)
+					eventPublisher.publishEvent(new UserFollowedEvent(userId, followedId));
+				return inserted;
+			});
+		} catch (DataIntegrityViolationException e) {
+			throw new UserNotFoundException(USER_NOT_FOUND);
+		}
+		return new RelationDTO(userId, followedId, created);
 	}
 
-	public User addGame(User user, Game gameToAdd) throws UserNotFoundException, GameNotFoundException {
-		if (user == null || gameToAdd == null)
+	/**
+	 * Adds the game to the ones liked by the user, the same way as
+	 * {@link #addFollowedUser(Long, Long)}.
+	 */
+	public RelationDTO addGame(Long userId, Long gameId) throws UserNotFoundException, GameNotFoundException {
+		if (userId == null || gameId == null)
 			throw new IllegalArgumentException();
 
-		checkExistanceOfUser(user.getId());
-		checkExistanceOfGame(gameToAdd.getId());
-
-		user.addGame(gameToAdd);
-		gameToAdd.addUser(user);
-
-		return userRepository.save(user);
+		boolean created;
+		try {
+			created = transactionTemplate.execute(status -> {
+				boolean inserted = userRelationRepository.insertGame(userId, gameId);
+				if (inserted)
+					eventPublisher.publishEvent(new GameLikedEvent(userId, gameId));
+				return inserted;
+			});
+		} catch (DataIntegrityViolationException e) {
+			if (!userRepository.existsById(userId))
+				throw new UserNotFoundException(USER_NOT_FOUND);
+			throw new GameNotFoundException(GAME_NOT_FOUND);
+		}
+		return new RelationDTO(userId, gameId, created);
 	}
 
 	public User changePassword(User user, String newPassword) throws UserNotFoundException, PasswordRequiredException {
@@ -133,8 +383,12 @@ public class UserService {
 
 		checkPasswordIsCorrect(newPassword);
 		checkExistanceOfUser(user.getId());
-		user.setPassword(newPassword);
-		return userRepository.save(user);
+		user.setPassword(credentialService.hash(newPassword));
+		return transactionTemplate.execute(status -> {
+			User saved = userRepository.save(user);
+			eventPublisher.publishEvent(new CredentialsChangedEvent(user.getId()));
+			return saved;
+		});
 	}
 
 	private void checkPasswordIsCorrect(String password) throws PasswordRequiredException {
@@ -145,20 +399,47 @@ public class UserService {
 	public User getUserByUsernameAndPassword(String username, String password) throws UserNotFoundException {
 		if (username == null || password == null)
 			throw new IllegalArgumentException();
-		return userRepository.findByUsernameAndPassword(username, password)
+		return userRepository.findByUsername(username)
+				.filter(user -> credentialService.matches(password, user.getPassword()))
 				.orElseThrow(() -> new UserNotFoundException(USER_NOT_FOUND));
 	}
 
-	private void checkExistanceOfUser(Long id) throws UserNotFoundException {
-		userRepository.findById(id).orElseThrow(() -> new UserNotFoundException(USER_NOT_FOUND));
+	public boolean passwordMatches(User user, String password) {
+		if (user == null)
+			throw new IllegalArgumentException();
+		return credentialService.matches(password, user.getPassword());
 	}
 
-	private void checkExistanceOfGame(Long id) throws GameNotFoundException {
-		gameRepository.findById(id).orElseThrow(() -> new GameNotFoundException(GAME_NOT_FOUND));
+	private void checkExistanceOfUser(Long id) throws UserNotFoundException {
+		userRepository.findById(id).orElseThrow(() -> new UserNotFoundException(USER_NOT_FOUND));
 	}
 
+	/**
+	 * Checks the credentials against the stored password hash, unless they were
+	 * verified recently: then neither the database nor the hashing is
+	 * involved, and the user returned is a detached copy holding only its id,
+	 * username and password hash. A password stored in clear or with older
+	 * parameters is rehashed, unless it changed in the meantime.
+	 */
 	public User verifyLogin(CredentialsDTO credentialsDTO) throws LoginFailedException {
-		return userRepository.findByUsernameAndPassword(credentialsDTO.getUsername(), credentialsDTO.getPassword())
-				.orElseThrow(LoginFailedException::new);
+		if (credentialsDTO == null || credentialsDTO.getUsername() == null || credentialsDTO.getPassword() == null)
+			throw new LoginFailedException();
+		String username = credentialsDTO.getUsername();
+		String password = credentialsDTO.getPassword();
+		User verified = credentialService.getVerified(username, password);
+		if (verified != null)
+			return verified;
+
+		long stamp = credentialService.beginVerification();
+		User user = userRepository.findByUsername(username).orElseThrow(LoginFailedException::new);
+		if (!credentialService.matches(password, user.getPassword()))
+			throw new LoginFailedException();
+		if (credentialService.needsRehash(user.getPassword())) {
+			String rehashed = credentialService.hash(password);
+			if (userRepository.updatePassword(user.getId(), user.getPassword(), rehashed) == 1)
+				user.setPassword(rehashed);
+		}
+		credentialService.verified(username, password, user, stamp);
+		return user;
 	}
 }
@@ -0,0 +1,202 @@
+package com.maurosalani.project.attsd.session;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Keeps the sessions of a single node in a memory-mapped file of fixed size
+ * slots, one session each, so they survive a restart of the node. The file
+ * is only scanned for the slot of every session id on first use, and a
+ * record is decoded when its session is requested. Changes are buffered and
+ * written behind every {@code flushDelay} milliseconds by a background
+ * thread, and on {@link #close()}; a crash loses at most the changes of that
+ * interval.
+ */
+public class MappedFileSessionRepository implements SessionRepository, Closeable {
+
+	static final int SLOT_BYTES = 512;
+
+	private static final int INITIAL_SLOTS = 256;
+
+	private static final byte[] DELETED = new byte[0];
+
+	private final FileChannel channel;
+
+	private final Map<String, byte[]> pending = new LinkedHashMap<>();
+
+	private final Map<String, Integer> slots = new HashMap<>();
+
+	private final Deque<Integer> freeSlots = new ArrayDeque<>();
+
+	private final ScheduledExecutorService flusher;
+
+	private MappedByteBuffer mapping;
+
+	private boolean indexed;
+
+	public MappedFileSessionRepository(Path file, long flushDelay) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		long capacity = Math.max(channel.size() / SLOT_BYTES, INITIAL_SLOTS);
+		mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity * SLOT_BYTES);
+		if (flushDelay > 0) {
+			CustomizableThreadFactory threads = new CustomizableThreadFactory("session-flusher-");
+			threads.setDaemon(true);
+			flusher = Executors.newSingleThreadScheduledExecutor(threads);
+			flusher.scheduleWithFixedDelay(this::flush, flushDelay, flushDelay, TimeUnit.MILLISECONDS);
+		} else
+			flusher = null;
+	}
+
+	@Override
+	public synchronized SessionRecord find(String id) {
+		byte[] buffered = pending.get(id);
+		if (buffered != null)
+			return buffered == DELETED ? null : SessionCodec.decode(buffered);
+		index();
+		Integer slot = slots.get(id);
+		return slot == null ? null : SessionCodec.decode(read(slot));
+	}
+
+	@Override
+	public synchronized void save(SessionRecord session) {
+		byte[] data = SessionCodec.encode(session);
+		if (data.length > SLOT_BYTES - Integer.BYTES)
+			throw new IllegalArgumentException("Session too large: " + data.length + " bytes");
+		pending.put(session.getId(), data);
+	}
+
+	@Override
+	public synchronized void delete(String id) {
+		pending.put(id, DELETED);
+	}
+
+	@Override
+	public synchronized List<SessionRecord> deleteExpired(long now) {
+		index();
+		List<SessionRecord> expired = new ArrayList<>();
+		for (String id : slots.keySet())
+			if (!pending.containsKey(id))
+				collectExpired(SessionCodec.decode(read(slots.get(id))), now, expired);
+		for (byte[] buffered : pending.values())
+			if (buffered != DELETED)
+				collectExpired(SessionCodec.decode(buffered), now, expired);
+		for (SessionRecord session : expired)
+			pending.put(session.getId(), DELETED);
+		return expired;
+	}
+
+	/**
+	 * Writes the buffered changes to the file.
+	 */
+	public void flush() {
+		MappedByteBuffer written;
+		synchronized (this) {
+			if (pending.isEmpty())
+				return;
+			index();
+			for (Map.Entry<String, byte[]> change : pending.entrySet()) {
+				if (change.getValue() == DELETED) {
+					Integer slot = slots.remove(change.getKey());
+					if (slot != null) {
+						mapping.putInt(slot * SLOT_BYTES, 0);
+						freeSlots.push(slot);
+					}
+				} else
+					write(slots.computeIfAbsent(change.getKey(), id -> allocate()), change.getValue());
+			}
+			pending.clear();
+			written = mapping;
+		}
+		written.force();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (flusher != null)
+			flusher.shutdown();
+		flush();
+		channel.close();
+	}
+
+	private static void collectExpired(SessionRecord session, long now, List<SessionRecord> expired) {
+		if (session.isExpired(now))
+			expired.add(session);
+	}
+
+	private void index() {
+		if (indexed)
+			return;
+		int capacity = mapping.capacity() / SLOT_BYTES;
+		for (int slot = 0; slot < capacity; slot++) {
+			String id = idAt(slot);
+			if (id == null)
+				freeSlots.add(slot);
+			else
+				slots.put(id, slot);
+		}
+		indexed = true;
+	}
+
+	private String idAt(int slot) {
+		int length = mapping.getInt(slot * SLOT_BYTES);
+		if (length <= 0 || length > SLOT_BYTES - Integer.BYTES)
+			return null;
+		try {
+			return SessionCodec.decode(read(slot)).getId();
+		} catch (UncheckedIOException e) {
+			return null;
+		}
+	}
+
+	private byte[] read(int slot) {
+		ByteBuffer view = mapping.duplicate();
+		view.position(slot * SLOT_BYTES);
+		byte[] data = new byte[view.getInt()];
+		view.get(data);
+		return data;
+	}
+
+	private void write(int slot, byte[] data) {
+		ByteBuffer view = mapping.duplicate();
+		view.position(slot * SLOT_BYTES);
+		view.putInt(data.length);
+		view.put(data);
+	}
+
+	private int allocate() {
+		if (freeSlots.isEmpty())
+			grow();
+		return freeSlots.pop();
+	}
+
+	private void grow() {
+		int capacity = mapping.capacity() / SLOT_BYTES;
+		try {
+			mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * 2 * SLOT_BYTES);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		for (int slot = capacity; slot < capacity * 2; slot++)
+			freeSlots.add(slot);
+	}
+
+}
@@ -0,0 +1,103 @@
+package com.maurosalani.project.attsd.session;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Binary form of a {@link SessionRecord}: the id, the times and every
+ * attribute as its name, a one byte type tag and the value. Only strings,
+ * longs, integers and booleans can be stored, which is all the web layer
+ * keeps in a session.
+ */
+final class SessionCodec {
+
+	private static final byte STRING = 'S';
+
+	private static final byte LONG = 'L';
+
+	private static final byte INTEGER = 'I';
+
+	private static final byte BOOLEAN = 'B';
+
+	private SessionCodec() {
+	}
+
+	static boolean isSupported(Object value) {
+		return value instanceof String || value instanceof Long || value instanceof Integer
+				|| value instanceof Boolean;
+	}
+
+	static byte[] encode(SessionRecord session) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeUTF(session.getId());
+			out.writeLong(session.getCreationTime());
+			out.writeLong(session.getLastAccessedTime());
+			out.writeInt(session.getMaxInactiveInterval());
+			out.writeShort(session.getAttributes().size());
+			for (Map.Entry<String, Object> attribute : session.getAttributes().entrySet()) {
+				out.writeUTF(attribute.getKey());
+				writeValue(out, attribute.getValue());
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	static SessionRecord decode(byte[] data) {
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+			String id = in.readUTF();
+			long creationTime = in.readLong();
+			long lastAccessedTime = in.readLong();
+			int maxInactiveInterval = in.readInt();
+			int count = in.readUnsignedShort();
+			Map<String, Object> attributes = new LinkedHashMap<>();
+			for (int i = 0; i < count; i++)
+				attributes.put(in.readUTF(), readValue(in));
+			return new SessionRecord(id, creationTime, lastAccessedTime, maxInactiveInterval, attributes);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void writeValue(DataOutputStream out, Object value) throws IOException {
+		if (value instanceof String) {
+			out.writeByte(STRING);
+			out.writeUTF((String) value);
+		} else if (value instanceof Long) {
+			out.writeByte(LONG);
+			out.writeLong((Long) value);
+		} else if (value instanceof Integer) {
+			out.writeByte(INTEGER);
+			out.writeInt((Integer) value);
+		} else if (value instanceof Boolean) {
+			out.writeByte(BOOLEAN);
+			out.writeBoolean((Boolean) value);
+		} else
+			throw new IllegalArgumentException("Unsupported session attribute: " + value);
+	}
+
+	private static Object readValue(DataInputStream in) throws IOException {
+		byte type = in.readByte();
+		switch (type) {
+		case STRING:
+			return in.readUTF();
+		case LONG:
+			return in.readLong();
+		case INTEGER:
+			return in.readInt();
+		case BOOLEAN:
+			return in.readBoolean();
+		default:
+			throw new IOException("Unknown session attribute type " + type);
+		}
+	}
+
+}
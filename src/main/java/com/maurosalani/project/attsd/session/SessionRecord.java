@@ -0,0 +1,73 @@
+package com.maurosalani.project.attsd.session;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The state of an HTTP session as kept by a {@link SessionRepository}: times
+ * are epoch milliseconds and the maximum inactive interval is in seconds, as
+ * in the servlet API, with zero or less meaning that the session never
+ * expires.
+ */
+public class SessionRecord {
+
+	private String id;
+
+	private final long creationTime;
+
+	private long lastAccessedTime;
+
+	private int maxInactiveInterval;
+
+	private final Map<String, Object> attributes;
+
+	public SessionRecord(String id, long creationTime, int maxInactiveInterval) {
+		this(id, creationTime, creationTime, maxInactiveInterval, new LinkedHashMap<>());
+	}
+
+	SessionRecord(String id, long creationTime, long lastAccessedTime, int maxInactiveInterval,
+			Map<String, Object> attributes) {
+		this.id = id;
+		this.creationTime = creationTime;
+		this.lastAccessedTime = lastAccessedTime;
+		this.maxInactiveInterval = maxInactiveInterval;
+		this.attributes = attributes;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public long getCreationTime() {
+		return creationTime;
+	}
+
+	public long getLastAccessedTime() {
+		return lastAccessedTime;
+	}
+
+	public void setLastAccessedTime(long lastAccessedTime) {
+		this.lastAccessedTime = lastAccessedTime;
+	}
+
+	public int getMaxInactiveInterval() {
+		return maxInactiveInterval;
+	}
+
+	public void setMaxInactiveInterval(int maxInactiveInterval) {
+		this.maxInactiveInterval = maxInactiveInterval;
+	}
+
+	public Map<String, Object> getAttributes() {
+		return attributes;
+	}
+
+	public boolean isExpired(long now) {
+		return maxInactiveInterval > 0 && now - lastAccessedTime >= maxInactiveInterval * 1000L;
+	}
+
+}
@@ -0,0 +1,28 @@
+package com.maurosalani.project.attsd.session;
+
+import java.util.List;
+
+/**
+ * Where the HTTP sessions live, so that they can outlive a node and be shared
+ * by several ones. Records are handed over by value: changing a record found
+ * here has no effect until it is saved back.
+ */
+public interface SessionRepository {
+
+	/**
+	 * @return the session with this id, or null if there is none
+	 */
+	SessionRecord find(String id);
+
+	void save(SessionRecord session);
+
+	void delete(String id);
+
+	/**
+	 * Deletes the sessions that expired at {@code now}.
+	 * 
+	 * @return the sessions deleted
+	 */
+	List<SessionRecord> deleteExpired(long now);
+
+}
@@ -0,0 +1,177 @@
+package com.maurosalani.project.attsd.session;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpSession;
+
+/**
+ * The {@link HttpSession} seen by the application for a {@link SessionRecord},
+ * tracking whether it changed since it was loaded.
+ */
+@SuppressWarnings("deprecation")
+class StoredSession implements HttpSession {
+
+	private final SessionRecord record;
+
+	private final ServletContext servletContext;
+
+	private final boolean isNew;
+
+	private final Events events;
+
+	private boolean changed;
+
+	private boolean invalid;
+
+	StoredSession(SessionRecord record, ServletContext servletContext, boolean isNew, Events events) {
+		this.record = record;
+		this.servletContext = servletContext;
+		this.isNew = isNew;
+		this.events = events;
+	}
+
+	SessionRecord getRecord() {
+		return record;
+	}
+
+	boolean isChanged() {
+		return changed;
+	}
+
+	boolean isInvalid() {
+		return invalid;
+	}
+
+	void changeId(String id) {
+		record.setId(id);
+		markChanged();
+	}
+
+	@Override
+	public String getId() {
+		return record.getId();
+	}
+
+	@Override
+	public long getCreationTime() {
+		checkValid();
+		return record.getCreationTime();
+	}
+
+	@Override
+	public long getLastAccessedTime() {
+		checkValid();
+		return record.getLastAccessedTime();
+	}
+
+	@Override
+	public ServletContext getServletContext() {
+		return servletContext;
+	}
+
+	@Override
+	public void setMaxInactiveInterval(int interval) {
+		record.setMaxInactiveInterval(interval);
+		markChanged();
+	}
+
+	@Override
+	public int getMaxInactiveInterval() {
+		return record.getMaxInactiveInterval();
+	}
+
+	@Override
+	public javax.servlet.http.HttpSessionContext getSessionContext() {
+		return null;
+	}
+
+	@Override
+	public Object getAttribute(String name) {
+		checkValid();
+		return record.getAttributes().get(name);
+	}
+
+	@Override
+	public Object getValue(String name) {
+		return getAttribute(name);
+	}
+
+	@Override
+	public Enumeration<String> getAttributeNames() {
+		checkValid();
+		return Collections.enumeration(new ArrayList<>(record.getAttributes().keySet()));
+	}
+
+	@Override
+	public String[] getValueNames() {
+		checkValid();
+		return record.getAttributes().keySet().toArray(new String[0]);
+	}
+
+	@Override
+	public void setAttribute(String name, Object value) {
+		checkValid();
+		if (value == null) {
+			removeAttribute(name);
+			return;
+		}
+		if (!SessionCodec.isSupported(value))
+			throw new IllegalArgumentException("Unsupported session attribute: " + name);
+		record.getAttributes().put(name, value);
+		markChanged();
+	}
+
+	@Override
+	public void putValue(String name, Object value) {
+		setAttribute(name, value);
+	}
+
+	@Override
+	public void removeAttribute(String name) {
+		checkValid();
+		if (record.getAttributes().remove(name) != null)
+			markChanged();
+	}
+
+	@Override
+	public void removeValue(String name) {
+		removeAttribute(name);
+	}
+
+	@Override
+	public void invalidate() {
+		checkValid();
+		invalid = true;
+		events.invalidated(this);
+	}
+
+	@Override
+	public boolean isNew() {
+		checkValid();
+		return isNew;
+	}
+
+	private void markChanged() {
+		if (!changed) {
+			changed = true;
+			events.changed(this);
+		}
+	}
+
+	private void checkValid() {
+		if (invalid)
+			throw new IllegalStateException("Session already invalidated");
+	}
+
+	interface Events {
+
+		void changed(StoredSession session);
+
+		void invalidated(StoredSession session);
+
+	}
+
+}
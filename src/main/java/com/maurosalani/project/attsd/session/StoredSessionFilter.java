@@ -0,0 +1,235 @@
+package com.maurosalani.project.attsd.session;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.List;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpSessionEvent;
+import javax.servlet.http.HttpSessionListener;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Replaces the sessions of the servlet container with sessions kept by a
+ * {@link SessionRepository} and identified by the {@value #COOKIE} cookie. A
+ * new session is only stored, and its cookie only sent, once it is given an
+ * attribute, so anonymous requests cost nothing. A session that is only read
+ * is stored again at most every {@value #TOUCH_INTERVAL_MILLIS} milliseconds
+ * to keep it from expiring.
+ */
+public class StoredSessionFilter extends OncePerRequestFilter {
+
+	public static final String COOKIE = "ATTSD_SESSION";
+
+	static final long TOUCH_INTERVAL_MILLIS = 30_000;
+
+	private static final int ID_BYTES = 32;
+
+	private final SessionRepository repository;
+
+	private final List<HttpSessionListener> listeners;
+
+	private final int maxInactiveInterval;
+
+	private final SecureRandom random = new SecureRandom();
+
+	private Clock clock = Clock.systemUTC();
+
+	public StoredSessionFilter(SessionRepository repository, List<HttpSessionListener> listeners,
+			int maxInactiveInterval) {
+		this.repository = repository;
+		this.listeners = listeners;
+		this.maxInactiveInterval = maxInactiveInterval;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		SessionRequest wrapped = new SessionRequest(request, response);
+		try {
+			chain.doFilter(wrapped, response);
+		} finally {
+			wrapped.commit();
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${attsd.session.purge-delay:60000}")
+	public void purgeExpired() {
+		for (SessionRecord expired : repository.deleteExpired(clock.millis()))
+			sessionDestroyed(new StoredSession(expired, null, false, null));
+	}
+
+	private void sessionDestroyed(HttpSession session) {
+		HttpSessionEvent event = new HttpSessionEvent(session);
+		for (HttpSessionListener listener : listeners)
+			listener.sessionDestroyed(event);
+	}
+
+	private String newId() {
+		byte[] bytes = new byte[ID_BYTES];
+		random.nextBytes(bytes);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+	}
+
+	private class SessionRequest extends HttpServletRequestWrapper implements StoredSession.Events {
+
+		private final HttpServletResponse response;
+
+		private final String requestedId;
+
+		private StoredSession session;
+
+		private boolean loaded;
+
+		private boolean stored;
+
+		private long previousAccess;
+
+		private String cookieValue;
+
+		SessionRequest(HttpServletRequest request, HttpServletResponse response) {
+			super(request);
+			this.response = response;
+			this.requestedId = requestedId(request);
+		}
+
+		@Override
+		public HttpSession getSession(boolean create) {
+			if (session != null && !session.isInvalid())
+				return session;
+			if (!loaded) {
+				loaded = true;
+				session = load();
+				if (session != null)
+					return session;
+			}
+			if (!create)
+				return null;
+			long now = clock.millis();
+			session = new StoredSession(new SessionRecord(newId(), now, maxInactiveInterval), getServletContext(),
+					true, this);
+			stored = false;
+			return session;
+		}
+
+		@Override
+		public HttpSession getSession() {
+			return getSession(true);
+		}
+
+		@Override
+		public String getRequestedSessionId() {
+			return requestedId;
+		}
+
+		@Override
+		public boolean isRequestedSessionIdValid() {
+			HttpSession current = getSession(false);
+			return current != null && current.getId().equals(requestedId);
+		}
+
+		@Override
+		public boolean isRequestedSessionIdFromCookie() {
+			return requestedId != null;
+		}
+
+		@Override
+		public boolean isRequestedSessionIdFromURL() {
+			return false;
+		}
+
+		@Override
+		@SuppressWarnings("deprecation")
+		public boolean isRequestedSessionIdFromUrl() {
+			return false;
+		}
+
+		@Override
+		public String changeSessionId() {
+			HttpSession current = getSession(false);
+			if (current == null)
+				throw new IllegalStateException("No session to change the id of");
+			String oldId = session.getId();
+			session.changeId(newId());
+			if (stored)
+				repository.delete(oldId);
+			sendCookie(session.getId(), -1);
+			return session.getId();
+		}
+
+		@Override
+		public void changed(StoredSession changed) {
+			if (!stored)
+				sendCookie(changed.getId(), -1);
+		}
+
+		@Override
+		public void invalidated(StoredSession invalidated) {
+			if (stored) {
+				repository.delete(invalidated.getId());
+				sendCookie("", 0);
+			}
+			stored = false;
+			sessionDestroyed(invalidated);
+		}
+
+		void commit() {
+			if (session == null || session.isInvalid())
+				return;
+			SessionRecord record = session.getRecord();
+			if (session.isChanged()
+					|| stored && record.getLastAccessedTime() - previousAccess >= TOUCH_INTERVAL_MILLIS) {
+				repository.save(record);
+				stored = true;
+			}
+		}
+
+		private StoredSession load() {
+			if (requestedId == null)
+				return null;
+			SessionRecord record = repository.find(requestedId);
+			long now = clock.millis();
+			if (record == null || record.isExpired(now))
+				return null;
+			previousAccess = record.getLastAccessedTime();
+			record.setLastAccessedTime(now);
+			stored = true;
+			return new StoredSession(record, getServletContext(), false, this);
+		}
+
+		private void sendCookie(String value, int maxAge) {
+			if (response.isCommitted() || value.equals(cookieValue))
+				return;
+			cookieValue = value;
+			Cookie cookie = new Cookie(COOKIE, value);
+			String contextPath = getContextPath();
+			cookie.setPath(contextPath == null || contextPath.isEmpty() ? "/" : contextPath);
+			cookie.setHttpOnly(true);
+			cookie.setSecure(isSecure());
+			cookie.setMaxAge(maxAge);
+			response.addCookie(cookie);
+		}
+
+		private String requestedId(HttpServletRequest request) {
+			Cookie[] cookies = request.getCookies();
+			if (cookies == null)
+				return null;
+			for (Cookie cookie : cookies)
+				if (COOKIE.equals(cookie.getName()) && !cookie.getValue().isEmpty())
+					return cookie.getValue();
+			return null;
+		}
+
+	}
+
+}
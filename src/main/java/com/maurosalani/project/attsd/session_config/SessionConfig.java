@@ -0,0 +1,47 @@
+package com.maurosalani.project.attsd.session_config;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+
+import javax.servlet.http.HttpSessionListener;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import com.maurosalani.project.attsd.session.MappedFileSessionRepository;
+import com.maurosalani.project.attsd.session.SessionRepository;
+import com.maurosalani.project.attsd.session.StoredSessionFilter;
+
+@Configuration
+@ConditionalOnProperty(name = "attsd.session.store", havingValue = "file")
+public class SessionConfig {
+
+	@Bean(destroyMethod = "close")
+	public MappedFileSessionRepository sessionRepository(
+			@Value("${attsd.session.file:attsd-sessions.bin}") String file,
+			@Value("${attsd.session.flush-delay:1000}") long flushDelay) throws IOException {
+		return new MappedFileSessionRepository(Paths.get(file), flushDelay);
+	}
+
+	@Bean
+	public StoredSessionFilter storedSessionFilter(SessionRepository sessionRepository,
+			List<HttpSessionListener> listeners,
+			@Value("${attsd.session.max-inactive-seconds:1800}") int maxInactiveInterval) {
+		return new StoredSessionFilter(sessionRepository, listeners, maxInactiveInterval);
+	}
+
+	@Bean
+	public FilterRegistrationBean<StoredSessionFilter> storedSessionFilterRegistration(
+			StoredSessionFilter storedSessionFilter) {
+		FilterRegistrationBean<StoredSessionFilter> registration = new FilterRegistrationBean<>(storedSessionFilter);
+		registration.addUrlPatterns("/*");
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+		return registration;
+	}
+
+}
@@ -0,0 +1,22 @@
+package com.maurosalani.project.attsd.web;
+
+import javax.servlet.http.HttpSessionEvent;
+import javax.servlet.http.HttpSessionListener;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.maurosalani.project.attsd.service.SessionUserCache;
+
+@Component
+public class SessionUserCacheListener implements HttpSessionListener {
+
+	@Autowired
+	private SessionUserCache sessionUserCache;
+
+	@Override
+	public void sessionDestroyed(HttpSessionEvent event) {
+		sessionUserCache.sessionEnded(event.getSession().getId());
+	}
+
+}
@@ -3,6 +3,7 @@ package com.maurosalani.project.attsd.web;
 import java.util.List;
 import java.util.Optional;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
 
 import org.apache.commons.lang3.StringUtils;
@@ -13,10 +14,14 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
 
 import com.maurosalani.project.attsd.dto.ChangePasswordFormDTO;
 import com.maurosalani.project.attsd.dto.CredentialsDTO;
+import com.maurosalani.project.attsd.dto.LoggedUserDTO;
 import com.maurosalani.project.attsd.dto.RegistrationFormDTO;
+import com.maurosalani.project.attsd.dto.SearchResultDTO;
 import com.maurosalani.project.attsd.exception.GameNotFoundException;
 import com.maurosalani.project.attsd.exception.LoginFailedException;
 import com.maurosalani.project.attsd.exception.NewPasswordRequiredException;
@@ -30,6 +35,8 @@ import com.maurosalani.project.attsd.exception.UsernameRequiredException;
 import com.maurosalani.project.attsd.model.Game;
 import com.maurosalani.project.attsd.model.User;
 import com.maurosalani.project.attsd.service.GameService;
+import com.maurosalani.project.attsd.service.LeaderboardService;
+import com.maurosalani.project.attsd.service.SearchService;
 import com.maurosalani.project.attsd.service.UserService;
 
 @Controller
@@ -51,9 +58,45 @@ public class WebController {
 
 	private static final String MESSAGE = "message";
 
+	private static final String PARTIAL_RESULTS_FLAG = "partialResults";
+
 	private static final String DISABLE_INPUT_FLAG = "disableInput";
 
-	private static final int COUNT_LATEST_RELEASES = 4;
+	private static final String LATEST_RELEASES_FRAGMENT = "latestReleasesFragment";
+
+	private static final String LATEST_RELEASES_TEMPLATE = "fragments/latest_releases";
+
+	private static final String TRENDING_GAMES = "trendingGames";
+
+	private static final String FOLLOW_SUGGESTIONS = "followSuggestions";
+
+	private static final int FOLLOW_SUGGESTIONS_LIMIT = 5;
+
+	private static final String MUTUALS = "mutuals";
+
+	private static final String SIMILAR_GAMES = "similarGames";
+
+	private static final String LIKERS = "likers";
+
+	private static final int LIKERS_LIMIT = 20;
+
+	private static final String FOLLOWED_USERS = "followedUsers";
+
+	private static final String LIKED_GAMES = "likedGames";
+
+	private static final int PROFILE_LIST_LIMIT = 20;
+
+	private static final String MOST_LIKED_GAMES = "mostLikedGames";
+
+	private static final String MOST_FOLLOWED_USERS = "mostFollowedUsers";
+
+	private static final String USERS_AROUND_ME = "usersAroundMe";
+
+	private static final int LEADERBOARD_RADIUS = 2;
+
+	private static final String FEED = "feed";
+
+	private static final int FEED_LIMIT = 10;
 
 	@Autowired
 	private UserService userService;
@@ -61,16 +104,38 @@ public class WebController {
 	@Autowired
 	private GameService gameService;
 
+	@Autowired
+	private SearchService searchService;
+
+	@Autowired
+	private ITemplateEngine templateEngine;
+
+	private volatile RenderedLatestReleases renderedLatestReleases;
+
 	@GetMapping("/")
-	public String index(Model model, HttpSession session) throws UserNotFoundException {
+	public String index(Model model, HttpSession session, HttpServletRequest request) throws UserNotFoundException {
 		if (isAlreadyLogged(session)) {
-			User user = getLoggedUser(session);
+			LoggedUserDTO user = getLoggedUser(session);
 			model.addAttribute(USERNAME, user.getUsername());
+			model.addAttribute(FEED, userService.getRecentFeed(user.getId(), FEED_LIMIT));
 		}
-		model.addAttribute("latestReleases", gameService.getLatestReleasesGames(COUNT_LATEST_RELEASES));
+		model.addAttribute(LATEST_RELEASES_FRAGMENT, renderLatestReleases(request.getContextPath()));
+		model.addAttribute(TRENDING_GAMES, gameService.getTrendingGames());
 		return "index";
 	}
 
+	@GetMapping("/leaderboard")
+	public String leaderboard(Model model, HttpSession session) throws UserNotFoundException {
+		model.addAttribute(MOST_LIKED_GAMES, gameService.getMostLikedGames(LeaderboardService.DEFAULT_LIMIT));
+		model.addAttribute(MOST_FOLLOWED_USERS, userService.getMostFollowedUsers(LeaderboardService.DEFAULT_LIMIT));
+		if (isAlreadyLogged(session)) {
+			LoggedUserDTO user = getLoggedUser(session);
+			model.addAttribute(USERNAME, user.getUsername());
+			model.addAttribute(USERS_AROUND_ME, userService.getLeaderboardAround(user.getId(), LEADERBOARD_RADIUS));
+		}
+		return "leaderboard";
+	}
+
 	@GetMapping("/login")
 	public String login(Model model, HttpSession session) {
 		if (isAlreadyLogged(session)) {
@@ -130,10 +195,10 @@ public class WebController {
 			model.addAttribute(MESSAGE, "Error: search field was empty.");
 		} else {
 			model.addAttribute(MESSAGE, "");
-			List<User> usersFound = userService.getUsersByUsernameLike(content);
-			List<Game> gamesFound = gameService.getGamesByNameLike(content);
-			model.addAttribute(USERS_LIST, usersFound);
-			model.addAttribute(GAMES_LIST, gamesFound);
+			SearchResultDTO result = searchService.search(content);
+			model.addAttribute(USERS_LIST, result.getUsers());
+			model.addAttribute(GAMES_LIST, result.getGames());
+			model.addAttribute(PARTIAL_RESULTS_FLAG, result.isPartial());
 		}
 		return "search";
 	}
@@ -147,21 +212,25 @@ public class WebController {
 			throws UserNotFoundException {
 		User user = userService.getUserByUsername(username);
 		model.addAttribute("user", user);
+		model.addAttribute(FOLLOWED_USERS, userService.getFollowedUsersPage(user.getId(), null, PROFILE_LIST_LIMIT));
+		model.addAttribute(LIKED_GAMES, userService.getGamesPage(user.getId(), null, PROFILE_LIST_LIMIT));
 		if (!isAlreadyLogged(session)) {
 			model.addAttribute(IS_LOGGED_FLAG, false);
 			model.addAttribute(IS_MY_PROFILE_FLAG, false);
 			model.addAttribute(IS_ALREADY_FOLLOWED_FLAG, false);
 		} else {
-			User loggedUser = getLoggedUser(session);
+			LoggedUserDTO loggedUser = getLoggedUser(session);
 			boolean isMyProfile = loggedUser.getUsername().equals(user.getUsername());
-			boolean isAlreadyFollowed = false;
-			if (loggedUser.getFollowedUsers() != null)
-				isAlreadyFollowed = loggedUser.getFollowedUsers().contains(user);
+			boolean isAlreadyFollowed = loggedUser.getFollowedUserIds().contains(user.getId());
 			model.addAttribute(IS_LOGGED_FLAG, true);
 			model.addAttribute(IS_MY_PROFILE_FLAG, isMyProfile);
 			model.addAttribute(IS_ALREADY_FOLLOWED_FLAG, isAlreadyFollowed);
-			if (isMyProfile)
+			if (isMyProfile) {
 				model.addAttribute("changePasswordForm", new ChangePasswordFormDTO());
+				model.addAttribute(FOLLOW_SUGGESTIONS,
+						userService.getFollowSuggestions(loggedUser.getId(), FOLLOW_SUGGESTIONS_LIMIT));
+			} else
+				model.addAttribute(MUTUALS, userService.getMutuals(loggedUser.getId(), user.getId()));
 		}
 		return "profile";
 	}
@@ -171,14 +240,14 @@ public class WebController {
 			throws GameNotFoundException, UserNotFoundException {
 		Game game = gameService.getGameByName(name);
 		model.addAttribute("game", game);
+		model.addAttribute(LIKERS, gameService.getLikersPage(game.getId(), null, LIKERS_LIMIT));
+		model.addAttribute(SIMILAR_GAMES, gameService.getSimilarGames(game.getId()));
 		if (!isAlreadyLogged(session)) {
 			model.addAttribute(IS_LOGGED_FLAG, false);
 			model.addAttribute(IS_ALREADY_LIKED_FLAG, false);
 		} else {
-			User loggedUser = getLoggedUser(session);
-			boolean isAlreadyLiked = false;
-			if (game.getUsers() != null)
-				isAlreadyLiked = game.getUsers().contains(loggedUser);
+			LoggedUserDTO loggedUser = getLoggedUser(session);
+			boolean isAlreadyLiked = loggedUser.getGameIds().contains(game.getId());
 			model.addAttribute(IS_LOGGED_FLAG, true);
 			model.addAttribute(IS_ALREADY_LIKED_FLAG, isAlreadyLiked);
 		}
@@ -191,10 +260,9 @@ public class WebController {
 		if (!isAlreadyLogged(session)) {
 			throw new UnauthorizedOperationException();
 		}
-		User loggedUser = getLoggedUser(session);
+		LoggedUserDTO loggedUser = getLoggedUser(session);
 		User followed = userService.getUserByUsername(followedToAdd);
-		User result = userService.addFollowedUser(loggedUser, followed);
-		session.setAttribute(USERNAME, result.getUsername());
+		userService.addFollowedUser(loggedUser.getId(), followed.getId());
 		return "redirect:/profile/" + followed.getUsername();
 	}
 
@@ -204,10 +272,9 @@ public class WebController {
 		if (!isAlreadyLogged(session)) {
 			throw new UnauthorizedOperationException();
 		}
-		User loggedUser = getLoggedUser(session);
+		LoggedUserDTO loggedUser = getLoggedUser(session);
 		Game toAdd = gameService.getGameByName(gameToAdd);
-		User result = userService.addGame(loggedUser, toAdd);
-		session.setAttribute(USERNAME, result.getUsername());
+		userService.addGame(loggedUser.getId(), toAdd.getId());
 		return "redirect:/game/" + toAdd.getName();
 	}
 
@@ -218,8 +285,8 @@ public class WebController {
 		if (!isAlreadyLogged(session)) {
 			throw new UnauthorizedOperationException();
 		}
-		User loggedUser = getLoggedUser(session);
-		if (!loggedUser.getPassword().equals(form.getOldPassword())) {
+		User loggedUser = loadLoggedUser(session);
+		if (!userService.passwordMatches(loggedUser, form.getOldPassword())) {
 			throw new OldPasswordErrorException();
 		}
 		if (StringUtils.isWhitespace(form.getNewPassword())) {
@@ -235,9 +302,40 @@ public class WebController {
 		return opt.isPresent();
 	}
 
-	private User getLoggedUser(HttpSession session) throws UserNotFoundException {
+	private LoggedUserDTO getLoggedUser(HttpSession session) throws UserNotFoundException {
+		return userService.getLoggedUser(session.getId(), (String) session.getAttribute(USERNAME));
+	}
+
+	private User loadLoggedUser(HttpSession session) throws UserNotFoundException {
 		String loggedUser = (String) session.getAttribute(USERNAME);
 		return userService.getUserByUsername(loggedUser);
 	}
 
+	private String renderLatestReleases(String contextPath) {
+		List<Game> latestReleases = gameService.getLatestReleases();
+		RenderedLatestReleases rendered = renderedLatestReleases;
+		if (rendered == null || rendered.games != latestReleases) {
+			Context context = new Context();
+			context.setVariable("latestReleases", latestReleases);
+			context.setVariable("contextPath", contextPath);
+			rendered = new RenderedLatestReleases(latestReleases,
+					templateEngine.process(LATEST_RELEASES_TEMPLATE, context));
+			renderedLatestReleases = rendered;
+		}
+		return rendered.html;
+	}
+
+	private static class RenderedLatestReleases {
+
+		private final List<Game> games;
+
+		private final String html;
+
+		RenderedLatestReleases(List<Game> games, String html) {
+			this.games = games;
+			this.html = html;
+		}
+
+	}
+
 }
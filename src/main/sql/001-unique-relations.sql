@@ -0,0 +1,18 @@
+-- Removes the duplicate rows of the follow and like join tables of a database
+-- created before they had unique constraints, on which the schema update of
+-- Hibernate fails to add them, then adds the constraints.
+--
+-- Run once, with the application stopped, on such a database only: a schema
+-- created by this version already has the constraints.
+
+create table followers_relation_unique as select distinct user_id, followed_id from followers_relation;
+delete from followers_relation;
+insert into followers_relation (user_id, followed_id) select user_id, followed_id from followers_relation_unique;
+drop table followers_relation_unique;
+alter table followers_relation add constraint uk_followers_relation_user_followed unique (user_id, followed_id);
+
+create table user_game_relation_unique as select distinct user_id, game_id from user_game_relation;
+delete from user_game_relation;
+insert into user_game_relation (user_id, game_id) select user_id, game_id from user_game_relation_unique;
+drop table user_game_relation_unique;
+alter table user_game_relation add constraint uk_user_game_relation_user_game unique (user_id, game_id);
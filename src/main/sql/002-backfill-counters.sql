@@ -0,0 +1,18 @@
+-- Computes the follower, followed and like counter columns from the join
+-- tables, for a database holding relations written before the columns
+-- existed, and drops the increments not yet folded into them, which the new
+-- values already include.
+--
+-- Run once, with every node of the application stopped, after the first start
+-- of this version has added the columns and after 001-unique-relations.sql.
+
+update counter_shard set delta = 0 where delta <> 0;
+
+update user o set follower_count = (select count(*) from followers_relation r where r.followed_id = o.id)
+	where follower_count <> (select count(*) from followers_relation r where r.followed_id = o.id);
+
+update user o set followed_count = (select count(*) from followers_relation r where r.user_id = o.id)
+	where followed_count <> (select count(*) from followers_relation r where r.user_id = o.id);
+
+update game o set like_count = (select count(*) from user_game_relation r where r.game_id = o.id)
+	where like_count <> (select count(*) from user_game_relation r where r.game_id = o.id);
@@ -0,0 +1,88 @@
+package com.maurosalani.project.attsd.controller;
+
+import static io.restassured.module.mockmvc.RestAssuredMockMvc.given;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurationSupport;
+
+import com.maurosalani.project.attsd.dto.CredentialsDTO;
+import com.maurosalani.project.attsd.dto.TokenDTO;
+import com.maurosalani.project.attsd.exception.LoginFailedException;
+import com.maurosalani.project.attsd.exception_handler.RestControllerExceptionHandler;
+import com.maurosalani.project.attsd.model.User;
+import com.maurosalani.project.attsd.service.TokenService;
+import com.maurosalani.project.attsd.service.UserService;
+
+import io.restassured.module.mockmvc.RestAssuredMockMvc;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AuthRestControllerTest {
+
+	@InjectMocks
+	private AuthRestController authRestController;
+
+	@Mock
+	private UserService userService;
+
+	@Mock
+	private TokenService tokenService;
+
+	@Before
+	public void setup() {
+		StaticApplicationContext applicationContext = new StaticApplicationContext();
+		applicationContext.registerSingleton("exceptionHandler", RestControllerExceptionHandler.class);
+		WebMvcConfigurationSupport webMvcConfigurationSupport = new WebMvcConfigurationSupport();
+		webMvcConfigurationSupport.setApplicationContext(applicationContext);
+		HandlerExceptionResolver handlerExceptionResolver = webMvcConfigurationSupport.handlerExceptionResolver();
+
+		RestAssuredMockMvc.standaloneSetup(MockMvcBuilders.standaloneSetup(authRestController)
+				.setHandlerExceptionResolvers(handlerExceptionResolver));
+	}
+
+	@Test
+	public void testIssueToken_ValidCredentials_ShouldReturnToken() throws Exception {
+		CredentialsDTO credentials = new CredentialsDTO("username", "pwd");
+		when(userService.verifyLogin(credentials)).thenReturn(new User(1L, "username", "hash"));
+		when(tokenService.issue(1L)).thenReturn(new TokenDTO("signed", 1L, 5000));
+
+		given().
+			contentType(MediaType.APPLICATION_JSON_VALUE).
+			body(credentials).
+		when().
+			post("/api/auth/token").
+		then().
+			statusCode(200).
+			body("token", equalTo("signed"),
+				"userId", equalTo(1),
+				"expiresAt", equalTo(5000));
+	}
+
+	@Test
+	public void testIssueToken_WrongCredentials_ShouldBeUnauthorized() throws Exception {
+		CredentialsDTO credentials = new CredentialsDTO("username", "wrong");
+		when(userService.verifyLogin(credentials)).thenThrow(LoginFailedException.class);
+
+		given().
+			contentType(MediaType.APPLICATION_JSON_VALUE).
+			body(credentials).
+		when().
+			post("/api/auth/token").
+		then().
+			statusCode(401);
+
+		verifyZeroInteractions(tokenService);
+	}
+
+}
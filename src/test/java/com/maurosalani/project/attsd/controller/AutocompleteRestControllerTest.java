@@ -0,0 +1,85 @@
+package com.maurosalani.project.attsd.controller;
+
+import static io.restassured.module.mockmvc.RestAssuredMockMvc.given;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.http.MediaType;
+
+import com.maurosalani.project.attsd.dto.AutocompleteDTO;
+import com.maurosalani.project.attsd.dto.SuggestionDTO;
+import com.maurosalani.project.attsd.service.AutocompleteService;
+
+import io.restassured.module.mockmvc.RestAssuredMockMvc;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AutocompleteRestControllerTest {
+
+	@InjectMocks
+	private AutocompleteRestController autocompleteRestController;
+
+	@Mock
+	private AutocompleteService autocompleteService;
+
+	@Before
+	public void setup() {
+		RestAssuredMockMvc.standaloneSetup(autocompleteRestController);
+	}
+
+	@Test
+	public void testAutocomplete_ShouldReturnGamesAndUsers() {
+		when(autocompleteService.complete("mar", 5)).thenReturn(new AutocompleteDTO(
+				asList(new SuggestionDTO(1L, "Mario Kart", 3L)), asList(new SuggestionDTO(2L, "mario_fan", 1L))));
+
+		given().
+			param("q", "mar").
+		when().
+			get("/api/autocomplete").
+		then().
+			statusCode(200).
+			contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).
+			assertThat().
+			body("games.id[0]", equalTo(1),
+				"games.text[0]", equalTo("Mario Kart"),
+				"games.score[0]", equalTo(3),
+				"users.id[0]", equalTo(2),
+				"users.text[0]", equalTo("mario_fan"),
+				"users.score[0]", equalTo(1));
+	}
+
+	@Test
+	public void testAutocomplete_WithLimit_ShouldPassLimitToService() {
+		when(autocompleteService.complete("mar", 10))
+				.thenReturn(new AutocompleteDTO(Collections.emptyList(), Collections.emptyList()));
+
+		given().
+			param("q", "mar").
+			param("limit", 10).
+		when().
+			get("/api/autocomplete").
+		then().
+			statusCode(200);
+
+		verify(autocompleteService).complete("mar", 10);
+	}
+
+	@Test
+	public void testAutocomplete_WithoutQuery_ShouldBeBadRequest() {
+		given().
+		when().
+			get("/api/autocomplete").
+		then().
+			statusCode(400);
+	}
+
+}
@@ -0,0 +1,70 @@
+package com.maurosalani.project.attsd.controller;
+
+import static io.restassured.module.mockmvc.RestAssuredMockMvc.given;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.maurosalani.project.attsd.service.ExportService;
+
+import io.restassured.module.mockmvc.RestAssuredMockMvc;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ExportRestControllerTest {
+
+	@InjectMocks
+	private ExportRestController exportRestController;
+
+	@Mock
+	private ExportService exportService;
+
+	@Before
+	public void setup() {
+		RestAssuredMockMvc.standaloneSetup(exportRestController);
+	}
+
+	@Test
+	public void testExportGames_ShouldStreamServiceOutputAsNdjson() throws Exception {
+		doAnswer(invocation -> {
+			OutputStream out = invocation.getArgument(0);
+			out.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+			return null;
+		}).when(exportService).exportGames(any(OutputStream.class));
+
+		given().
+		when().
+			get("/api/export/games").
+		then().
+			statusCode(200).
+			contentType(ExportRestController.NDJSON_UTF8_VALUE).
+			body(equalTo("{\"id\":1}\n{\"id\":2}\n"));
+	}
+
+	@Test
+	public void testExportUsers_ShouldStreamServiceOutputAsNdjson() throws Exception {
+		doAnswer(invocation -> {
+			OutputStream out = invocation.getArgument(0);
+			out.write("{\"id\":1,\"username\":\"user\"}\n".getBytes(StandardCharsets.UTF_8));
+			return null;
+		}).when(exportService).exportUsers(any(OutputStream.class));
+
+		given().
+		when().
+			get("/api/export/users").
+		then().
+			statusCode(200).
+			contentType(ExportRestController.NDJSON_UTF8_VALUE).
+			body(equalTo("{\"id\":1,\"username\":\"user\"}\n"));
+	}
+
+}
@@ -5,16 +5,23 @@ import static java.util.Arrays.asList;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.Matchers.hasKey;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import java.io.InputStream;
 import java.util.Collections;
 import java.sql.Date;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -23,35 +30,59 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.context.support.StaticApplicationContext;
 import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.servlet.HandlerExceptionResolver;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurationSupport;
 
 import com.maurosalani.project.attsd.dto.GameDTO;
+import com.maurosalani.project.attsd.dto.GameImportResultDTO;
+import com.maurosalani.project.attsd.dto.GameSummaryDTO;
+import com.maurosalani.project.attsd.dto.LeaderboardEntryDTO;
+import com.maurosalani.project.attsd.dto.PageDTO;
 import com.maurosalani.project.attsd.exception.GameNotFoundException;
 import com.maurosalani.project.attsd.exception_handler.RestControllerExceptionHandler;
 import com.maurosalani.project.attsd.model.Game;
+import com.maurosalani.project.attsd.service.GameImportService;
 import com.maurosalani.project.attsd.service.GameService;
+import com.maurosalani.project.attsd.service.QueryExecutor;
 
 import io.restassured.module.mockmvc.RestAssuredMockMvc;
 
 @RunWith(MockitoJUnitRunner.class)
 public class GameRestControllerTest {
 
+	private static final String CONTINUATION_HEADER = "X-Continuation-Token";
+
 	@InjectMocks
 	private GameRestController gameRestController;
 
 	@Mock
 	private GameService gameService;
 
+	@Mock
+	private GameImportService gameImportService;
+
+	private QueryExecutor queryExecutor;
+
 	@Before
 	public void setup() {
+		queryExecutor = new QueryExecutor();
+		ReflectionTestUtils.setField(queryExecutor, "workers", 1);
+		ReflectionTestUtils.setField(queryExecutor, "queue", 1);
+		queryExecutor.start();
+		ReflectionTestUtils.setField(gameRestController, "queryExecutor", queryExecutor);
 		HandlerExceptionResolver handlerExceptionResolver = initGlobalExceptionHandlerResolvers();
 
 		RestAssuredMockMvc.standaloneSetup(MockMvcBuilders.standaloneSetup(gameRestController)
 				.setHandlerExceptionResolvers(handlerExceptionResolver));
 	}
 
+	@After
+	public void tearDown() {
+		queryExecutor.stop();
+	}
+
 	/**
 	 * Necessary to register the exception handler for these unit tests
 	 * 
@@ -69,10 +100,11 @@ public class GameRestControllerTest {
 
 	@Test
 	public void testFindAllGamesWithEmptyDatabase() {
-		when(gameService.getAllGames()).thenReturn(Collections.emptyList());
+		when(gameService.getGamesPage(null, 50)).thenReturn(new PageDTO<>(Collections.emptyList(), null));
 
 		given().
 		when().
+			async().
 			get("/api/games").
 		then().
 			statusCode(200).
@@ -82,12 +114,13 @@ public class GameRestControllerTest {
 
 	@Test
 	public void testFindAllGamesWithExistingGames() {
-		Game game1 = new Game(1L, "game1", "description1", new Date(1000));
-		Game game2 = new Game(2L, "game2", "description2", new Date(1000));
-		when(gameService.getAllGames()).thenReturn(asList(game1, game2));
+		GameSummaryDTO game1 = new GameSummaryDTO(1L, "game1", new Date(1000));
+		GameSummaryDTO game2 = new GameSummaryDTO(2L, "game2", new Date(1000));
+		when(gameService.getGamesPage(null, 50)).thenReturn(new PageDTO<>(asList(game1, game2), null));
 
 		given().
 		when().
+			async().
 			get("/api/games").
 		then().
 			statusCode(200).
@@ -95,14 +128,63 @@ public class GameRestControllerTest {
 			assertThat().
 			body("id[0]", equalTo(1), 
 				"name[0]", equalTo("game1"), 
-				"description[0]", equalTo("description1"),
+				"[0]", not(hasKey("description")),
 				"releaseDate[0]", equalTo(1000),
 				"id[1]", equalTo(2), 
 				"name[1]", equalTo("game2"), 
-				"description[1]", equalTo("description2"),
 				"releaseDate[1]", equalTo(1000));
 
 	}
+
+	@Test
+	public void testFindAllGames_WhenMoreGamesExist_ShouldReturnContinuationToken() {
+		GameSummaryDTO game1 = new GameSummaryDTO(1L, "game1", new Date(1000));
+		GameSummaryDTO game2 = new GameSummaryDTO(2L, "game2", new Date(1000));
+		when(gameService.getGamesPage(null, 1)).thenReturn(new PageDTO<>(asList(game1), 1L));
+		when(gameService.getGamesPage(1L, 1)).thenReturn(new PageDTO<>(asList(game2), null));
+
+		String token =
+				given().
+					param("limit", 1).
+				when().
+					async().
+					get("/api/games").
+				then().
+					statusCode(200).
+					body("id", equalTo(asList(1))).
+					extract().
+					header(CONTINUATION_HEADER);
+
+		given().
+			param("after", token).
+			param("limit", 1).
+		when().
+			async().
+			get("/api/games").
+		then().
+			statusCode(200).
+			header(CONTINUATION_HEADER, nullValue()).
+			body("id", equalTo(asList(2)));
+	}
+
+	@Test
+	public void testFindAllGames_WithInvalidToken_ShouldBeBadRequest() {
+		given().
+			param("after", "YWZ0ZXI6eA").
+		when().
+			get("/api/games").
+		then().
+			statusCode(400).
+			statusLine(containsString("Bad Request"));
+
+		given().
+			param("after", "MTI").
+		when().
+			get("/api/games").
+		then().
+			statusCode(400);
+		verifyNoMoreInteractions(gameService);
+	}
 	
 	@Test
 	public void testFindGameByIdWhenNotFound() throws GameNotFoundException {
@@ -110,6 +192,7 @@ public class GameRestControllerTest {
 
 		given().
 		when().
+			async().
 			get("/api/games/id/1").
 		then().	
 			statusCode(404).
@@ -122,6 +205,7 @@ public class GameRestControllerTest {
 		
 		given().
 		when().
+			async().
 			get("/api/games/id/1").
 		then().	
 			statusCode(200).
@@ -131,12 +215,26 @@ public class GameRestControllerTest {
 				"releaseDate", equalTo(1000));
 	}
 	
+	@Test
+	public void testFindGameById_WhenQueriesAreSaturated_ShouldBeServiceUnavailable() throws Exception {
+		queryExecutor.submit("running", () -> null);
+		queryExecutor.submit("queued", () -> null);
+
+		given().
+		when().
+			get("/api/games/id/1").
+		then().
+			statusCode(503);
+		verifyNoMoreInteractions(gameService);
+	}
+
 	@Test
 	public void testFindGameByNameWhenNotFound() throws GameNotFoundException {
 		when(gameService.getGameByName(anyString())).thenThrow(GameNotFoundException.class);
 		
 		given().
 		when().
+			async().
 			get("/api/games/name/testName").
 		then().	
 			statusCode(404).
@@ -149,6 +247,7 @@ public class GameRestControllerTest {
 		
 		given().
 		when().
+			async().
 			get("/api/games/name/testName").
 		then().	
 			statusCode(200).
@@ -164,6 +263,7 @@ public class GameRestControllerTest {
 		
 		given().
 		when().
+			async().
 			get("/api/games/namelike/testName").
 		then().
 			statusCode(200).
@@ -172,15 +272,104 @@ public class GameRestControllerTest {
 			body(is(equalTo("[]")));
 	}
 	
+	@Test
+	public void testGetMostLikedGames_ShouldReturnRankedEntries() {
+		when(gameService.getMostLikedGames(3)).thenReturn(
+				asList(new LeaderboardEntryDTO(1, 2L, "game2", 9), new LeaderboardEntryDTO(2, 1L, "game1", 4)));
+
+		given().
+			param("limit", 3).
+		when().
+			async().
+			get("/api/games/leaderboard").
+		then().
+			statusCode(200).
+		assertThat().
+			body("rank", equalTo(asList(1, 2)),
+				"id", equalTo(asList(2, 1)),
+				"name", equalTo(asList("game2", "game1")),
+				"count", equalTo(asList(9, 4)));
+	}
+
+	@Test
+	public void testGetLeaderboardAround_ShouldUseDefaultRadius() throws Exception {
+		when(gameService.getLeaderboardAround(1L, 5)).thenReturn(asList(new LeaderboardEntryDTO(4, 1L, "game1", 2)));
+
+		given().
+		when().
+			async().
+			get("/api/games/id/1/leaderboard").
+		then().
+			statusCode(200).
+		assertThat().
+			body("rank", equalTo(asList(4)));
+	}
+
+	@Test
+	public void testGetLeaderboardAround_GameNotFound() throws Exception {
+		when(gameService.getLeaderboardAround(1L, 2)).thenThrow(GameNotFoundException.class);
+
+		given().
+			param("radius", 2).
+		when().
+			async().
+			get("/api/games/id/1/leaderboard").
+		then().
+			statusCode(404);
+	}
+
+	@Test
+	public void testGetTrendingGames_ShouldReturnRankedSummaries() {
+		when(gameService.getTrendingGames()).thenReturn(
+				asList(new GameSummaryDTO(2L, "trending2", new Date(1000)), new GameSummaryDTO(1L, "trending1", new Date(1000))));
+
+		given().
+		when().
+			get("/api/games/trending").
+		then().
+			statusCode(200).
+			contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).
+		assertThat().
+			body("id", equalTo(asList(2, 1)),
+				"name", equalTo(asList("trending2", "trending1")));
+	}
+
+	@Test
+	public void testGetSimilarGames_ShouldReturnNeighbours() throws Exception {
+		when(gameService.getSimilarGames(1L)).thenReturn(asList(new GameSummaryDTO(3L, "similar", new Date(1000))));
+
+		given().
+		when().
+			async().
+			get("/api/games/id/1/similar").
+		then().
+			statusCode(200).
+			body("id", equalTo(asList(3)),
+				"name", equalTo(asList("similar")));
+	}
+
+	@Test
+	public void testGetSimilarGames_GameNotFound() throws Exception {
+		when(gameService.getSimilarGames(1L)).thenThrow(GameNotFoundException.class);
+
+		given().
+		when().
+			async().
+			get("/api/games/id/1/similar").
+		then().
+			statusCode(404);
+	}
+
 	@Test
 	public void testGetGamesByNameLikeWithExistingGames()  {
-		Game game1 = new Game(1L, "testName1", "description1", new Date(1000));
-		Game game2 = new Game(2L, "testName2", "description2", new Date(1000));
+		GameSummaryDTO game1 = new GameSummaryDTO(1L, "testName1", new Date(1000));
+		GameSummaryDTO game2 = new GameSummaryDTO(2L, "testName2", new Date(1000));
 	    
 	    when(gameService.getGamesByNameLike("testName")).thenReturn(asList(game1,game2));
 	    
 	    given().
 	    when().
+	      	async().
 	      	get("/api/games/namelike/testName").
 	    then().
 	      	statusCode(200).
@@ -188,11 +377,10 @@ public class GameRestControllerTest {
 	    assertThat().
 	    	body("id[0]", equalTo(1), 
 				"name[0]", equalTo("testName1"), 
-				"description[0]", equalTo("description1"),
+				"[0]", not(hasKey("description")),
 				"releaseDate[0]", equalTo(1000),
 				"id[1]", equalTo(2), 
 				"name[1]", equalTo("testName2"), 
-				"description[1]", equalTo("description2"),
 				"releaseDate[1]", equalTo(1000));
 	}
 
@@ -215,6 +403,35 @@ public class GameRestControllerTest {
 				"releaseDate", equalTo(1000));
 	}
 	
+	@Test
+	public void testPost_BulkImport_ShouldReturnResultPerRow() throws Exception {
+		when(gameImportService.importGames(any(InputStream.class))).thenReturn(asList(
+				new GameImportResultDTO(0, "game1", 1L, null), new GameImportResultDTO(1, "", null, "Name required")));
+
+		given().
+			contentType(ExportRestController.NDJSON_VALUE).
+			body("{\"name\":\"game1\"}\n{\"name\":\"\"}\n").
+		when().
+			post("/api/games/bulk").
+		then().
+			statusCode(200).
+			body("index", equalTo(asList(0, 1)),
+				"id[0]", equalTo(1),
+				"error[0]", nullValue(),
+				"error[1]", equalTo("Name required"));
+	}
+
+	@Test
+	public void testPost_BulkImport_UnsupportedContentType() {
+		given().
+			contentType(MediaType.TEXT_PLAIN_VALUE).
+			body("game1").
+		when().
+			post("/api/games/bulk").
+		then().
+			statusCode(415);
+	}
+
 	@Test
 	public void testPut_UpdateDescriptionOfGame() throws GameNotFoundException  {
 		Game requestBodyGame = new Game(null, "name", "new_description", new Date(1000));
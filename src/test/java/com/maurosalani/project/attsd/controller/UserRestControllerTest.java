@@ -6,17 +6,24 @@ import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.Matchers.hasKey;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.ignoreStubs;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.Collections;
 import java.sql.Date;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -25,16 +32,27 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.context.support.StaticApplicationContext;
 import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.servlet.HandlerExceptionResolver;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurationSupport;
 
 import com.maurosalani.project.attsd.dto.CredentialsDTO;
+import com.maurosalani.project.attsd.dto.FeedEventDTO;
+import com.maurosalani.project.attsd.dto.FeedEventDTO.Activity;
+import com.maurosalani.project.attsd.dto.FollowSuggestionDTO;
+import com.maurosalani.project.attsd.dto.MutualsDTO;
+import com.maurosalani.project.attsd.dto.GameSummaryDTO;
+import com.maurosalani.project.attsd.dto.LeaderboardEntryDTO;
+import com.maurosalani.project.attsd.dto.PageDTO;
+import com.maurosalani.project.attsd.dto.RelationDTO;
 import com.maurosalani.project.attsd.dto.UpdateAddFollowedUserFormDTO;
 import com.maurosalani.project.attsd.dto.UpdateAddGameLikedUserFormDTO;
 import com.maurosalani.project.attsd.dto.UpdatePasswordUserFormDTO;
 import com.maurosalani.project.attsd.dto.UpdateUserFormDTO;
 import com.maurosalani.project.attsd.dto.UserDTO;
+import com.maurosalani.project.attsd.dto.UserSummaryDTO;
+import com.maurosalani.project.attsd.exception.GameNotFoundException;
 import com.maurosalani.project.attsd.exception.LoginFailedException;
 import com.maurosalani.project.attsd.exception.PasswordRequiredException;
 import com.maurosalani.project.attsd.exception.UserNotFoundException;
@@ -42,6 +60,9 @@ import com.maurosalani.project.attsd.exception.UsernameAlreadyExistingException;
 import com.maurosalani.project.attsd.exception_handler.RestControllerExceptionHandler;
 import com.maurosalani.project.attsd.model.Game;
 import com.maurosalani.project.attsd.model.User;
+import com.maurosalani.project.attsd.security_config.TokenAuthenticationFilter;
+import com.maurosalani.project.attsd.service.QueryExecutor;
+import com.maurosalani.project.attsd.service.TokenService;
 import com.maurosalani.project.attsd.service.UserService;
 
 import io.restassured.module.mockmvc.RestAssuredMockMvc;
@@ -49,18 +70,36 @@ import io.restassured.module.mockmvc.RestAssuredMockMvc;
 @RunWith(MockitoJUnitRunner.class)
 public class UserRestControllerTest {
 
+	private static final String CONTINUATION_HEADER = "X-Continuation-Token";
+
 	@InjectMocks
 	private UserRestController userRestController;
 
 	@Mock
 	private UserService userService;
 
+	@Mock
+	private TokenService tokenService;
+
+	private QueryExecutor queryExecutor;
+
 	@Before
 	public void setup() {
+		queryExecutor = new QueryExecutor();
+		ReflectionTestUtils.setField(queryExecutor, "workers", 1);
+		ReflectionTestUtils.setField(queryExecutor, "queue", 1);
+		queryExecutor.start();
+		ReflectionTestUtils.setField(userRestController, "queryExecutor", queryExecutor);
 		HandlerExceptionResolver handlerExceptionResolver = initGlobalExceptionHandlerResolvers();
 
 		RestAssuredMockMvc.standaloneSetup(MockMvcBuilders.standaloneSetup(userRestController)
-				.setHandlerExceptionResolvers(handlerExceptionResolver));
+				.setHandlerExceptionResolvers(handlerExceptionResolver)
+				.addFilters(new TokenAuthenticationFilter(tokenService)));
+	}
+
+	@After
+	public void tearDown() {
+		queryExecutor.stop();
 	}
 
 	/**
@@ -80,25 +119,28 @@ public class UserRestControllerTest {
 
 	@Test
 	public void testFindAllUsersWithEmptyDatabase() {
-		when(userService.getAllUsers()).thenReturn(Collections.emptyList());
+		when(userService.getUsersPage(null, 50)).thenReturn(new PageDTO<>(Collections.emptyList(), null));
 
 		given().
 		when().
+			async().
 			get("/api/users").
 		then().
 			statusCode(200).
+			header(CONTINUATION_HEADER, nullValue()).
 			assertThat().
 				body(is(equalTo("[]")));
 	}
 
 	@Test
 	public void testFindAllUsersWithExistingUsers() {
-		User user1 = new User(1L, "user1", "pwd1");
-		User user2 = new User(2L, "user2", "pwd2");
-		when(userService.getAllUsers()).thenReturn(asList(user1, user2));
+		UserSummaryDTO user1 = new UserSummaryDTO(1L, "user1");
+		UserSummaryDTO user2 = new UserSummaryDTO(2L, "user2");
+		when(userService.getUsersPage(null, 50)).thenReturn(new PageDTO<>(asList(user1, user2), null));
 
 		given().
 		when().
+			async().
 			get("/api/users").
 		then().
 			statusCode(200).
@@ -106,11 +148,264 @@ public class UserRestControllerTest {
 			assertThat().
 			body("id[0]", equalTo(1), 
 				"username[0]", equalTo("user1"), 
-				"password[0]", equalTo("pwd1"),
+				"[0]", not(hasKey("password")),
 				"id[1]", equalTo(2), 
-				"username[1]", equalTo("user2"), 
-				"password[1]", equalTo("pwd2"));
+				"username[1]", equalTo("user2"));
+
+	}
+
+	@Test
+	public void testFindAllUsers_WhenMoreUsersExist_ShouldReturnContinuationToken() {
+		UserSummaryDTO user1 = new UserSummaryDTO(1L, "user1");
+		when(userService.getUsersPage(null, 1)).thenReturn(new PageDTO<>(asList(user1), 1L));
+		when(userService.getUsersPage(1L, 1)).thenReturn(new PageDTO<>(Collections.emptyList(), null));
+
+		String token =
+				given().
+					param("limit", 1).
+				when().
+					async().
+					get("/api/users").
+				then().
+					statusCode(200).
+					body("id", equalTo(asList(1))).
+					extract().
+					header(CONTINUATION_HEADER);
+
+		given().
+			param("after", token).
+			param("limit", 1).
+		when().
+			async().
+			get("/api/users").
+		then().
+			statusCode(200).
+			body(is(equalTo("[]")));
+	}
+
+	@Test
+	public void testFindAllUsers_WithInvalidToken_ShouldBeBadRequest() {
+		given().
+			param("after", "not a token").
+		when().
+			get("/api/users").
+		then().
+			statusCode(400);
+		verifyNoMoreInteractions(userService);
+	}
+
+	@Test
+	public void testFindFollowedUsers_ShouldReturnPage() throws Exception {
+		UserSummaryDTO followed = new UserSummaryDTO(2L, "followed");
+		when(userService.getFollowedUsersPage(1L, null, 50)).thenReturn(new PageDTO<>(asList(followed), 2L));
+
+		given().
+		when().
+			async().
+			get("/api/users/id/1/followed").
+		then().
+			statusCode(200).
+			header(CONTINUATION_HEADER, not(nullValue())).
+			body("username", equalTo(asList("followed")));
+	}
+
+	@Test
+	public void testIsFollowing_ShouldReturnMembership() {
+		when(userService.isFollowing(1L, 2L)).thenReturn(true);
+
+		given().
+		when().
+			async().
+			get("/api/users/id/1/followed/2").
+		then().
+			statusCode(200).
+			body(is(equalTo("true")));
+	}
+
+	@Test
+	public void testGetFeed_ShouldReturnPageWithContinuationToken() throws Exception {
+		FeedEventDTO event = new FeedEventDTO(7L, Activity.FOLLOWED, 2L, "friend", 3L, "other", new Date(1000));
+		when(userService.getFeedPage(1L, 9L, 1)).thenReturn(new PageDTO<>(asList(event), 7L));
+
+		given().
+			param("after", PageTokens.encode(9L)).
+			param("limit", 1).
+		when().
+			async().
+			get("/api/users/id/1/feed").
+		then().
+			statusCode(200).
+			header(PageTokens.CONTINUATION_HEADER, PageTokens.encode(7L)).
+			body("id", equalTo(asList(7)),
+				"activity", equalTo(asList("FOLLOWED")),
+				"actorUsername", equalTo(asList("friend")),
+				"targetName", equalTo(asList("other")));
+	}
+
+	@Test
+	public void testGetFeed_UserNotFound() throws Exception {
+		when(userService.getFeedPage(1L, null, 50)).thenThrow(UserNotFoundException.class);
+
+		given().
+		when().
+			async().
+			get("/api/users/id/1/feed").
+		then().
+			statusCode(404);
+	}
+
+	@Test
+	public void testGetFollowSuggestions_ShouldReturnRankedUsers() throws Exception {
+		when(userService.getFollowSuggestions(1L, 10))
+				.thenReturn(asList(new FollowSuggestionDTO(3L, "suggested", 2), new FollowSuggestionDTO(4L, "other", 1)));
+
+		given().
+		when().
+			async().
+			get("/api/users/id/1/suggestions").
+		then().
+			statusCode(200).
+			body("id", equalTo(asList(3, 4)),
+				"username", equalTo(asList("suggested", "other")),
+				"followedByCount", equalTo(asList(2, 1)));
+	}
+
+	@Test
+	public void testGetFollowSuggestions_UserNotFound() throws Exception {
+		when(userService.getFollowSuggestions(1L, 3)).thenThrow(UserNotFoundException.class);
+
+		given().
+			param("limit", 3).
+		when().
+			async().
+			get("/api/users/id/1/suggestions").
+		then().
+			statusCode(404);
+	}
+
+	@Test
+	public void testGetMutuals_ShouldReturnCountAndSample() throws Exception {
+		when(userService.getMutuals(1L, 2L))
+				.thenReturn(new MutualsDTO(5, asList(new UserSummaryDTO(3L, "first"), new UserSummaryDTO(4L, "second"))));
+
+		given().
+		when().
+			async().
+			get("/api/users/id/1/mutuals/2").
+		then().
+			statusCode(200).
+			body("count", equalTo(5),
+				"sample.id", equalTo(asList(3, 4)),
+				"sample.username", equalTo(asList("first", "second")));
+	}
+
+	@Test
+	public void testGetMutuals_UserNotFound() throws Exception {
+		when(userService.getMutuals(1L, 2L)).thenThrow(UserNotFoundException.class);
+
+		given().
+		when().
+			async().
+			get("/api/users/id/1/mutuals/2").
+		then().
+			statusCode(404);
+	}
+
+	@Test
+	public void testGetMostFollowedUsers_ShouldReturnRankedEntries() {
+		when(userService.getMostFollowedUsers(10)).thenReturn(asList(new LeaderboardEntryDTO(1, 2L, "user2", 9)));
+
+		given().
+		when().
+			async().
+			get("/api/users/leaderboard").
+		then().
+			statusCode(200).
+			body("rank", equalTo(asList(1)),
+				"name", equalTo(asList("user2")),
+				"count", equalTo(asList(9)));
+	}
+
+	@Test
+	public void testGetLeaderboardAround_UserNotFound() throws Exception {
+		when(userService.getLeaderboardAround(1L, 3)).thenThrow(UserNotFoundException.class);
+
+		given().
+			param("radius", 3).
+		when().
+			async().
+			get("/api/users/id/1/leaderboard").
+		then().
+			statusCode(404);
+	}
+
+	@Test
+	public void testHasLiked_ShouldReturnMembership() {
+		when(userService.hasLiked(1L, 3L)).thenReturn(false);
+
+		given().
+		when().
+			async().
+			get("/api/users/id/1/games/3").
+		then().
+			statusCode(200).
+			body(is(equalTo("false")));
+	}
+
+	@Test
+	public void testFindFollowerUsers_ShouldReturnPage() throws Exception {
+		UserSummaryDTO follower = new UserSummaryDTO(3L, "follower");
+		when(userService.getFollowerUsersPage(1L, null, 10)).thenReturn(new PageDTO<>(asList(follower), null));
+
+		given().
+			param("limit", 10).
+		when().
+			async().
+			get("/api/users/id/1/followers").
+		then().
+			statusCode(200).
+			header(CONTINUATION_HEADER, nullValue()).
+			body("username", equalTo(asList("follower")));
+	}
 
+	@Test
+	public void testFindGamesOfUser_ShouldReturnPage() throws Exception {
+		GameSummaryDTO game = new GameSummaryDTO(4L, "game", new Date(1000));
+		when(userService.getGamesPage(1L, null, 50)).thenReturn(new PageDTO<>(asList(game), null));
+
+		given().
+		when().
+			async().
+			get("/api/users/id/1/games").
+		then().
+			statusCode(200).
+			body("name", equalTo(asList("game")));
+	}
+
+	@Test
+	public void testFindFollowedUsers_WhenQueriesAreSaturated_ShouldBeServiceUnavailable() throws Exception {
+		queryExecutor.submit("running", () -> null);
+		queryExecutor.submit("queued", () -> null);
+
+		given().
+		when().
+			get("/api/users/id/1/followed").
+		then().
+			statusCode(503);
+		verifyNoMoreInteractions(userService);
+	}
+
+	@Test
+	public void testFindFollowedUsers_UserNotFound() throws Exception {
+		when(userService.getFollowedUsersPage(1L, null, 50)).thenThrow(UserNotFoundException.class);
+
+		given().
+		when().
+			async().
+			get("/api/users/id/1/followed").
+		then().
+			statusCode(404).
+			statusLine(containsString("User Not Found"));
 	}
 
 	@Test
@@ -119,6 +414,7 @@ public class UserRestControllerTest {
 
 		given().
 		when().
+			async().
 			get("/api/users/id/1").
 		then().	
 			statusCode(404).
@@ -131,12 +427,13 @@ public class UserRestControllerTest {
 		
 		given().
 		when().
+			async().
 			get("/api/users/id/1").
 		then().	
 			statusCode(200).
 			body("id", equalTo(1), 
 				"username", equalTo("username"), 
-				"password", equalTo("pwd"));
+				"$", not(hasKey("password")));
 	}
 	
 	@Test
@@ -145,6 +442,7 @@ public class UserRestControllerTest {
 		
 		given().
 		when().
+			async().
 			get("/api/users/username/testName").
 		then().	
 			statusCode(404).
@@ -157,12 +455,13 @@ public class UserRestControllerTest {
 		
 		given().
 		when().
+			async().
 			get("/api/users/username/testName").
 		then().	
 			statusCode(200).
 			body("id", equalTo(1), 
 				"username", equalTo("testName"), 
-				"password", equalTo("pwd"));
+				"$", not(hasKey("password")));
 	}
 	
 	@Test
@@ -171,6 +470,7 @@ public class UserRestControllerTest {
 		
 		given().
 		when().
+			async().
 			get("/api/users/usernamelike/testUsername").
 		then().
 			statusCode(200).
@@ -181,13 +481,14 @@ public class UserRestControllerTest {
 	
 	@Test
 	public void testGetUsersByUsernameLikeWithExistingUsers()  {
-	    User user1 = new User(1L, "testUsername1", "pwd1");
-	    User user2 = new User(2L, "testUsername2", "pwd2");
+	    UserSummaryDTO user1 = new UserSummaryDTO(1L, "testUsername1");
+	    UserSummaryDTO user2 = new UserSummaryDTO(2L, "testUsername2");
 	    
 	    when(userService.getUsersByUsernameLike("testUsername")).thenReturn(asList(user1,user2));
 	    
 	    given().
 	    when().
+	      	async().
 	      	get("/api/users/usernamelike/testUsername").
 	    then().
 	      	statusCode(200).
@@ -196,10 +497,9 @@ public class UserRestControllerTest {
 	      	body(
 		        "id[0]", equalTo(1),
 		        "username[0]", equalTo("testUsername1"),
-		        "password[0]", equalTo("pwd1"),
+		        "[0]", not(hasKey("password")),
 		        "id[1]", equalTo(2),
-		        "username[1]", equalTo("testUsername2"),
-		        "password[1]", equalTo("pwd2"));
+		        "username[1]", equalTo("testUsername2"));
 	}
 	
 	@Test
@@ -218,7 +518,7 @@ public class UserRestControllerTest {
 			body(
 				"id", equalTo(1),
 				"username", equalTo("testUsername"),
-				"password", equalTo("pwd"));
+				"$", not(hasKey("password")));
 	}
 	
 	@Test
@@ -253,14 +553,14 @@ public class UserRestControllerTest {
 	
 	@Test
 	public void testPut_UpdateUser_UserSuccessLogin() throws Exception {
-		User userReplacement = new User(null, "testUsername", "new_password");
+		UserDTO userReplacement = new UserDTO(null, "testUsername", "new_password");
 		CredentialsDTO credentialsDTO = new CredentialsDTO("testUsername", "password");
 		User userToUpdate = new User(1L, "testUsername", "password");
 		UpdateUserFormDTO form = new UpdateUserFormDTO(credentialsDTO, userReplacement);
 		
 		when(userService.verifyLogin(form.getCredentials())).
 			thenReturn(userToUpdate);
-		when(userService.updateUserById(1L, userReplacement)).
+		when(userService.updateUserById(1L, userReplacement.getUser())).
 			thenReturn(new User(1L, "testUsername", "new_password"));
 
 		given().
@@ -273,12 +573,28 @@ public class UserRestControllerTest {
 			body(
 				"id", equalTo(1),
 				"username", equalTo("testUsername"),
-				"password", equalTo("new_password"));
+				"$", not(hasKey("password")));
 	}
 	
+	@Test
+	public void testDelete_VerificationSaturated_ShouldBeUnavailable() throws Exception {
+		CredentialsDTO credentials = new CredentialsDTO("username", "password");
+		when(userService.verifyLogin(credentials)).thenThrow(RejectedExecutionException.class);
+
+		given().
+			contentType(MediaType.APPLICATION_JSON_VALUE).
+			body(credentials).
+		when().
+			delete("/api/users/delete/1").
+		then().
+			statusCode(503);
+
+		verifyNoMoreInteractions(ignoreStubs(userService));
+	}
+
 	@Test
 	public void testPut_UpdateOfUser_UserDoesNotProvideLogin_ShouldGetError() throws Exception {
-		User userReplacement = new User(null, "testUsername", "new_password");
+		UserDTO userReplacement = new UserDTO(null, "testUsername", "new_password");
 		UpdateUserFormDTO form = new UpdateUserFormDTO(null, userReplacement);
 		when(userService.verifyLogin(null)).thenThrow(LoginFailedException.class);
 		
@@ -295,7 +611,7 @@ public class UserRestControllerTest {
 	
 	@Test
 	public void testPut_UpdateAnotherUser_ShouldGetBadRequestError() throws Exception{
-		User userReplacement = new User(null, "myUsername", "new_password");
+		UserDTO userReplacement = new UserDTO(null, "myUsername", "new_password");
 		CredentialsDTO credentialsDTO = new CredentialsDTO("myUsername", "myPassword");
 		User userToUpdate = new User(1L, "myUsername", "myPassword");
 		UpdateUserFormDTO form = new UpdateUserFormDTO(credentialsDTO, userReplacement);
@@ -339,7 +655,7 @@ public class UserRestControllerTest {
 			body(
 				"id", equalTo(1),
 				"username", equalTo("testUsername"),
-				"password", equalTo("newPassword"));
+				"$", not(hasKey("password")));
 	}
 	
 	@Test
@@ -383,17 +699,15 @@ public class UserRestControllerTest {
 
 	@Test
 	public void testPatch_AddFollowedUser_UserSuccessLogin() throws Exception {
-		User followedToAdd = new User(null, "followed", "pwd");
+		User followedToAdd = new User(2L, "followed", "pwd");
 		CredentialsDTO credentialsDTO = new CredentialsDTO("testUsername", "pwd");
 		User userToUpdate = new User(1L, "testUsername", "pwd");
 		UpdateAddFollowedUserFormDTO form = new UpdateAddFollowedUserFormDTO(credentialsDTO, followedToAdd);
 		
 		when(userService.verifyLogin(credentialsDTO)).
 			thenReturn(userToUpdate);
-		when(userService.getUserById(1L)).
-			thenReturn(userToUpdate);
-		when(userService.addFollowedUser(userToUpdate, form.getFollowedToAdd())).
-			thenReturn(new User(1L, "testUsername", "pwd", asList(followedToAdd), null, null));
+		when(userService.addFollowedUser(1L, 2L)).
+			thenReturn(new RelationDTO(1L, 2L, true));
 		
 		given().
 			contentType(MediaType.APPLICATION_JSON_VALUE).
@@ -403,10 +717,98 @@ public class UserRestControllerTest {
 		then().
 			statusCode(200).
 			body(
-					"id", equalTo(1),
-					"username", equalTo("testUsername"),
-					"password", equalTo("pwd"),
-					"followedUsers", not(equalTo(null)));
+					"userId", equalTo(1),
+					"targetId", equalTo(2),
+					"created", equalTo(true));
+	}
+	
+	@Test
+	public void testPatch_AddFollowedUser_WithToken_ShouldNotVerifyCredentials() throws Exception {
+		UpdateAddFollowedUserFormDTO form = new UpdateAddFollowedUserFormDTO(null, new User(2L, "followed", "pwd"));
+		when(tokenService.authenticate("token")).thenReturn(1L);
+		when(userService.addFollowedUser(1L, 2L)).thenReturn(new RelationDTO(1L, 2L, true));
+
+		given().
+			header("Authorization", "Bearer token").
+			contentType(MediaType.APPLICATION_JSON_VALUE).
+			body(form).
+		when().
+			patch("/api/users/update/addFollowedUser/1").
+		then().
+			statusCode(200).
+			body("created", equalTo(true));
+
+		verify(userService, never()).verifyLogin(any());
+	}
+
+	@Test
+	public void testPatch_AddFollowedUser_WithTokenOfAnotherUser_ShouldGetBadRequest() throws Exception {
+		UpdateAddFollowedUserFormDTO form = new UpdateAddFollowedUserFormDTO(null, new User(2L, "followed", "pwd"));
+		when(tokenService.authenticate("token")).thenReturn(3L);
+
+		given().
+			header("Authorization", "Bearer token").
+			contentType(MediaType.APPLICATION_JSON_VALUE).
+			body(form).
+		when().
+			patch("/api/users/update/addFollowedUser/1").
+		then().
+			statusCode(400);
+
+		verifyZeroInteractions(userService);
+	}
+
+	@Test
+	public void testPatch_AddGameLiked_WithInvalidToken_ShouldBeUnauthorized() throws Exception {
+		UpdateAddGameLikedUserFormDTO form = new UpdateAddGameLikedUserFormDTO(
+				new CredentialsDTO("testUsername", "pwd"), new Game(3L, "game", "description", new Date(1)));
+		when(tokenService.authenticate("expired")).thenReturn(null);
+
+		given().
+			header("Authorization", "Bearer expired").
+			contentType(MediaType.APPLICATION_JSON_VALUE).
+			body(form).
+		when().
+			patch("/api/users/update/addGame/1").
+		then().
+			statusCode(401);
+
+		verifyZeroInteractions(userService);
+	}
+
+	@Test
+	public void testDelete_WithToken_ShouldNotNeedCredentials() throws Exception {
+		when(tokenService.authenticate("token")).thenReturn(1L);
+
+		given().
+			header("Authorization", "Bearer token").
+		when().
+			delete("/api/users/delete/1").
+		then().
+			statusCode(204);
+
+		verify(userService).deleteById(1L);
+		verifyNoMoreInteractions(userService);
+	}
+
+	@Test
+	public void testPatch_AddFollowedUser_FollowedWithoutId_ShouldGetBadRequest() throws Exception {
+		CredentialsDTO credentialsDTO = new CredentialsDTO("testUsername", "pwd");
+		UpdateAddFollowedUserFormDTO form = new UpdateAddFollowedUserFormDTO(credentialsDTO,
+				new User(null, "followed", "pwd"));
+		
+		when(userService.verifyLogin(credentialsDTO)).
+			thenReturn(new User(1L, "testUsername", "pwd"));
+		
+		given().
+			contentType(MediaType.APPLICATION_JSON_VALUE).
+			body(form).
+		when().
+			patch("/api/users/update/addFollowedUser/1").
+		then().
+			statusCode(400);
+		
+		verifyNoMoreInteractions(ignoreStubs(userService));
 	}
 	
 	@Test
@@ -451,18 +853,15 @@ public class UserRestControllerTest {
 	
 	@Test
 	public void testPatch_AddGameLiked_UserSuccessLogin() throws Exception {
-		Game gameLiked = new Game(null, "gameLiked", "description", new Date(1));
+		Game gameLiked = new Game(3L, "gameLiked", "description", new Date(1));
 		CredentialsDTO credentialsDTO = new CredentialsDTO("testUsername", "pwd");
 		User userToUpdate = new User(1L, "testUsername", "pwd");
 		UpdateAddGameLikedUserFormDTO form = new UpdateAddGameLikedUserFormDTO(credentialsDTO, gameLiked);
 		
-		
 		when(userService.verifyLogin(credentialsDTO)).
 			thenReturn(userToUpdate);
-		when(userService.getUserById(1L)).
-			thenReturn(userToUpdate);
-		when(userService.addGame(userToUpdate, form.getGameLiked())).
-			thenReturn(new User(1L, "testUsername", "pwd", null, null, asList(gameLiked)));
+		when(userService.addGame(1L, 3L)).
+			thenReturn(new RelationDTO(1L, 3L, false));
 
 		given().
 			contentType(MediaType.APPLICATION_JSON_VALUE).
@@ -472,10 +871,30 @@ public class UserRestControllerTest {
 		then().
 			statusCode(200).
 			body(
-				"id", equalTo(1),
-				"username", equalTo("testUsername"),
-				"password", equalTo("pwd"),
-				"games", not(equalTo(null)));
+				"userId", equalTo(1),
+				"targetId", equalTo(3),
+				"created", equalTo(false));
+	}
+	
+	@Test
+	public void testPatch_AddGameLiked_GameNotFound_ShouldGetNotFound() throws Exception {
+		CredentialsDTO credentialsDTO = new CredentialsDTO("testUsername", "pwd");
+		UpdateAddGameLikedUserFormDTO form = new UpdateAddGameLikedUserFormDTO(credentialsDTO,
+				new Game(3L, "gameLiked", "description", new Date(1)));
+		
+		when(userService.verifyLogin(credentialsDTO)).
+			thenReturn(new User(1L, "testUsername", "pwd"));
+		when(userService.addGame(1L, 3L)).
+			thenThrow(GameNotFoundException.class);
+
+		given().
+			contentType(MediaType.APPLICATION_JSON_VALUE).
+			body(form).
+		when().
+			patch("/api/users/update/addGame/1").
+		then().
+			statusCode(404).
+			statusLine(containsString("Game Not Found"));
 	}
 	
 	@Test
@@ -0,0 +1,138 @@
+package com.maurosalani.project.attsd.graph;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class FollowGraphTest {
+
+	private FollowGraph graph;
+
+	@Before
+	public void setup() {
+		FollowGraph.Edges first = new FollowGraph.Edges();
+		first.add(1, 2);
+		first.add(1, 3);
+		first.add(2, 1);
+		FollowGraph.Edges second = new FollowGraph.Edges();
+		second.add(3, 4);
+		second.add(4, 1);
+		second.add(3, 1);
+		graph = FollowGraph.of(asList(first, second));
+	}
+
+	@Test
+	public void testOf_ShouldIndexBothDirections() {
+		assertThat(graph.followed(1)).containsExactly(2, 3);
+		assertThat(graph.followers(1)).containsExactly(2, 3, 4);
+		assertThat(graph.followedCount(3)).isEqualTo(2);
+		assertThat(graph.followerCount(4)).isEqualTo(1);
+		assertThat(graph.follows(3, 4)).isTrue();
+		assertThat(graph.follows(4, 3)).isFalse();
+	}
+
+	@Test
+	public void testUnknownUser_ShouldHaveNoEdges() {
+		assertThat(graph.followed(99)).isEmpty();
+		assertThat(graph.followers(99)).isEmpty();
+		assertThat(graph.followedCount(99)).isZero();
+		assertThat(graph.follows(99, 1)).isFalse();
+		assertThat(graph.mutualFollows(99)).isEmpty();
+	}
+
+	@Test
+	public void testMutualFollows_ShouldIntersectFollowedAndFollowers() {
+		assertThat(graph.mutualFollows(1)).containsExactly(2, 3);
+		assertThat(graph.mutualFollows(4)).isEmpty();
+	}
+
+	@Test
+	public void testKnownFollowers_ShouldIntersectFollowedWithFollowersOfTarget() {
+		assertThat(graph.knownFollowers(1, 4)).containsExactly(3);
+		assertThat(graph.knownFollowers(4, 3)).containsExactly(1);
+		assertThat(graph.knownFollowers(2, 4)).isEmpty();
+		assertThat(graph.knownFollowers(1, 99)).isEmpty();
+	}
+
+	@Test
+	public void testAddFollow_ShouldKeepListsSortedAndIgnoreDuplicates() {
+		graph.addFollow(10, 1);
+		graph.addFollow(1, 10);
+		graph.addFollow(1, 10);
+		graph.addFollow(1, 4);
+
+		assertThat(graph.followed(1)).containsExactly(2, 3, 4, 10);
+		assertThat(graph.followers(1)).containsExactly(2, 3, 4, 10);
+		assertThat(graph.followers(10)).containsExactly(1);
+		assertThat(graph.followerCount(10)).isEqualTo(1);
+	}
+
+	@Test
+	public void testAddFollow_OnEmptyGraph_ShouldGrow() {
+		FollowGraph empty = new FollowGraph();
+
+		for (long user = 1; user <= 100; user++)
+			empty.addFollow(user, user % 7 + 1);
+
+		assertThat(empty.followerCount(1)).isEqualTo(14);
+		assertThat(empty.followed(100)).containsExactly(3);
+	}
+
+	@Test
+	public void testAddFollow_NotPositiveId_ShouldThrowException() {
+		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> graph.addFollow(0, 1));
+	}
+
+	@Test
+	public void testRemoveUser_ShouldDropEdgesInBothDirections() {
+		graph.removeUser(1);
+
+		assertThat(graph.followed(1)).isEmpty();
+		assertThat(graph.followers(1)).isEmpty();
+		assertThat(graph.followers(2)).isEmpty();
+		assertThat(graph.followed(3)).containsExactly(4);
+
+		graph.addFollow(1, 4);
+		assertThat(graph.followers(4)).containsExactly(1, 3);
+	}
+
+	@Test
+	public void testForEachSecondDegree_ShouldCountFollowersAmongFollowed() {
+		List<long[]> counted = new ArrayList<>();
+		graph.addFollow(2, 4);
+		graph.addFollow(2, 5);
+
+		graph.forEachSecondDegree(1, (id, count) -> counted.add(new long[] { id, count }));
+
+		assertThat(counted).containsExactly(new long[] { 4, 2 }, new long[] { 5, 1 });
+	}
+
+	@Test
+	public void testIntersect_ShouldMatchNaiveIntersection() {
+		Random random = new Random(42);
+		for (int[] sizes : new int[][] { { 0, 5 }, { 50, 60 }, { 3, 1000 }, { 1000, 20 } }) {
+			int[] a = sortedSample(random, sizes[0]);
+			int[] b = sortedSample(random, sizes[1]);
+			int[] out = new int[Math.min(a.length, b.length)];
+
+			int size = FollowGraph.intersect(a, a.length, b, b.length, out);
+
+			assertThat(Arrays.copyOf(out, size))
+					.containsExactly(Arrays.stream(a).filter(value -> Arrays.binarySearch(b, value) >= 0).toArray());
+		}
+	}
+
+	private static int[] sortedSample(Random random, int size) {
+		return IntStream.generate(() -> random.nextInt(2000)).distinct().limit(size).sorted().toArray();
+	}
+
+}
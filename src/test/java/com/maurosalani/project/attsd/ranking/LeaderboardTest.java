@@ -0,0 +1,108 @@
+package com.maurosalani.project.attsd.ranking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.maurosalani.project.attsd.ranking.Leaderboard.Entry;
+
+public class LeaderboardTest {
+
+	private Leaderboard leaderboard;
+
+	@Before
+	public void setup() {
+		leaderboard = new Leaderboard();
+		leaderboard.add(1, 5);
+		leaderboard.add(2, 9);
+		leaderboard.add(3, 5);
+		leaderboard.add(4, 1);
+	}
+
+	@Test
+	public void testTop_ShouldOrderByCountThenById() {
+		assertThat(leaderboard.top(3)).containsExactly(new Entry(1, 2, 9), new Entry(2, 1, 5), new Entry(3, 3, 5));
+		assertThat(leaderboard.top(10)).hasSize(4);
+		assertThat(leaderboard.top(0)).isEmpty();
+	}
+
+	@Test
+	public void testRankOf() {
+		assertThat(leaderboard.rankOf(2)).isEqualTo(1);
+		assertThat(leaderboard.rankOf(3)).isEqualTo(3);
+		assertThat(leaderboard.rankOf(99)).isZero();
+	}
+
+	@Test
+	public void testAdd_ShouldMoveExistingId() {
+		leaderboard.add(4, 10);
+
+		assertThat(leaderboard.rankOf(4)).isEqualTo(1);
+		assertThat(leaderboard.top(2)).containsExactly(new Entry(1, 4, 11), new Entry(2, 2, 9));
+		assertThat(leaderboard.size()).isEqualTo(4);
+	}
+
+	@Test
+	public void testAdd_CountDroppingToZero_ShouldLeaveRanking() {
+		leaderboard.add(4, -1);
+		leaderboard.add(5, -1);
+
+		assertThat(leaderboard.rankOf(4)).isZero();
+		assertThat(leaderboard.size()).isEqualTo(3);
+	}
+
+	@Test
+	public void testRemove() {
+		leaderboard.remove(2);
+		leaderboard.remove(99);
+
+		assertThat(leaderboard.top(1)).containsExactly(new Entry(1, 1, 5));
+		assertThat(leaderboard.size()).isEqualTo(3);
+	}
+
+	@Test
+	public void testAround_ShouldReturnNeighboursClippedToRanking() {
+		assertThat(leaderboard.around(1, 1)).containsExactly(new Entry(1, 2, 9), new Entry(2, 1, 5),
+				new Entry(3, 3, 5));
+		assertThat(leaderboard.around(4, 1)).containsExactly(new Entry(3, 3, 5), new Entry(4, 4, 1));
+		assertThat(leaderboard.around(2, 0)).containsExactly(new Entry(1, 2, 9));
+		assertThat(leaderboard.around(99, 1)).isEmpty();
+	}
+
+	@Test
+	public void testRandomUpdates_ShouldMatchSortedCounts() {
+		Random random = new Random(7);
+		Map<Long, Long> counts = new HashMap<>();
+		leaderboard.clear();
+		for (int i = 0; i < 5000; i++) {
+			long id = 1 + random.nextInt(300);
+			long delta = random.nextInt(10) < 8 ? 1 : -1;
+			leaderboard.add(id, delta);
+			long count = counts.getOrDefault(id, 0L) + delta;
+			if (count > 0)
+				counts.put(id, count);
+			else
+				counts.remove(id);
+		}
+		List<Long> expected = counts.entrySet().stream()
+				.sorted(Comparator.<Map.Entry<Long, Long>>comparingLong(Map.Entry::getValue).reversed()
+						.thenComparing(Map.Entry::getKey))
+				.map(Map.Entry::getKey).collect(Collectors.toList());
+
+		List<Long> actual = new ArrayList<>();
+		leaderboard.top(counts.size()).forEach(entry -> actual.add(entry.getId()));
+		assertThat(actual).isEqualTo(expected);
+		for (int rank = 1; rank <= expected.size(); rank += 17)
+			assertThat(leaderboard.rankOf(expected.get(rank - 1))).isEqualTo(rank);
+	}
+
+}
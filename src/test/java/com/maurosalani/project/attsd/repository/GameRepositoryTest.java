@@ -3,12 +3,14 @@ package com.maurosalani.project.attsd.repository;
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.tuple;
 
 import java.sql.Date;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.Hibernate;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -21,6 +23,9 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import com.maurosalani.project.attsd.dto.GameSummaryDTO;
+import com.maurosalani.project.attsd.dto.SuggestionDTO;
+import com.maurosalani.project.attsd.dto.UserSummaryDTO;
 import com.maurosalani.project.attsd.model.Game;
 import com.maurosalani.project.attsd.model.User;
 
@@ -204,4 +209,84 @@ public class GameRepositoryTest {
                     .doesNotContain(game1Saved, game2Saved);
 	}
 
+	@Test
+	public void testFindAllNamesWithLikesCount() {
+		Game liked = entityManager.persistFlushFind(new Game(null, "liked", "description", new Date(0)));
+		Game notLiked = entityManager.persistFlushFind(new Game(null, "not liked", "description", new Date(0)));
+		User user1 = new User(null, "one", "pwd");
+		User user2 = new User(null, "two", "pwd");
+		user1.addGame(liked);
+		user2.addGame(liked);
+		entityManager.persistAndFlush(user1);
+		entityManager.persistAndFlush(user2);
+
+		List<SuggestionDTO> names = repository.findAllNamesWithLikesCount();
+
+		assertThat(names).containsExactlyInAnyOrder(new SuggestionDTO(liked.getId(), "liked", 2L),
+				new SuggestionDTO(notLiked.getId(), "not liked", 0L));
+	}
+
+	@Test
+	public void testFindPageAfter_ShouldSeekOnIdInAscendingOrder() {
+		Game game1 = entityManager.persistFlushFind(new Game(null, "game1", "description", new Date(0)));
+		Game game2 = entityManager.persistFlushFind(new Game(null, "game2", "description", new Date(0)));
+		Game game3 = entityManager.persistFlushFind(new Game(null, "game3", "description", new Date(0)));
+
+		assertThat(repository.findPageAfter(0L, PageRequest.of(0, 2))).extracting(GameSummaryDTO::getId,
+				GameSummaryDTO::getName).containsExactly(tuple(game1.getId(), "game1"), tuple(game2.getId(), "game2"));
+		assertThat(repository.findPageAfter(game2.getId(), PageRequest.of(0, 2))).extracting(GameSummaryDTO::getId)
+				.containsExactly(game3.getId());
+		assertThat(repository.findPageAfter(game3.getId(), PageRequest.of(0, 2))).isEmpty();
+	}
+
+	@Test
+	public void testFindUserIdsOfGames_ShouldPairGameIdWithUserId() {
+		Game game1 = entityManager.persistFlushFind(new Game(null, "game1", "description", new Date(0)));
+		Game game2 = entityManager.persistFlushFind(new Game(null, "game2", "description", new Date(0)));
+		User user = new User(null, "user", "pwd");
+		user.addGame(game1);
+		user.addGame(game2);
+		user = entityManager.persistFlushFind(user);
+
+		assertThat(repository.findUserIdsOfGames(asList(game1.getId())))
+				.containsExactly(new Object[] { game1.getId(), user.getId() });
+	}
+
+	@Test
+	public void testFindByNameIn() {
+		Game game1 = entityManager.persistFlushFind(new Game(null, "game1", "description", new Date(0)));
+		entityManager.persistFlushFind(new Game(null, "game2", "description", new Date(0)));
+
+		assertThat(repository.findByNameIn(asList("game1", "missing"))).containsExactly(game1);
+	}
+
+	@Test
+	public void testFindLikersPageAfter_ShouldSeekOnUserIdInAscendingOrder() {
+		Game game = entityManager.persistFlushFind(new Game(null, "game", "description", new Date(0)));
+		Game other = entityManager.persistFlushFind(new Game(null, "other", "description", new Date(0)));
+		User user1 = new User(null, "user1", "pwd");
+		User user2 = new User(null, "user2", "pwd");
+		user1.addGame(game);
+		user2.addGame(game);
+		user1 = entityManager.persistFlushFind(user1);
+		user2 = entityManager.persistFlushFind(user2);
+
+		assertThat(repository.findLikersPageAfter(game.getId(), 0L, PageRequest.of(0, 1)))
+				.containsExactly(new UserSummaryDTO(user1.getId(), "user1"));
+		assertThat(repository.findLikersPageAfter(game.getId(), user1.getId(), PageRequest.of(0, 5)))
+				.containsExactly(new UserSummaryDTO(user2.getId(), "user2"));
+		assertThat(repository.findLikersPageAfter(other.getId(), 0L, PageRequest.of(0, 5))).isEmpty();
+	}
+
+	@Test
+	public void testFindSummariesByIdIn_ShouldSelectIdNameAndReleaseDateOrderedById() {
+		Game game1 = entityManager.persistFlushFind(new Game(null, "game1", "description", Date.valueOf("2019-01-31")));
+		Game game2 = entityManager.persistFlushFind(new Game(null, "game2", "description", Date.valueOf("2019-02-01")));
+		entityManager.persistFlushFind(new Game(null, "game3", "description", new Date(0)));
+
+		assertThat(repository.findSummariesByIdIn(asList(game2.getId(), game1.getId()))).containsExactly(
+				new GameSummaryDTO(game1.getId(), "game1", Date.valueOf("2019-01-31")),
+				new GameSummaryDTO(game2.getId(), "game2", Date.valueOf("2019-02-01")));
+	}
+
 }
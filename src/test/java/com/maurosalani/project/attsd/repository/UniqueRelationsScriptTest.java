@@ -0,0 +1,102 @@
+package com.maurosalani.project.attsd.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.sql.Date;
+
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.maurosalani.project.attsd.model.Game;
+import com.maurosalani.project.attsd.model.User;
+
+/**
+ * Runs the migration script that deduplicates the join tables. It drops and
+ * adds constraints, which commits, so the tests do not run in a transaction
+ * and delete what they wrote.
+ */
+@DataJpaTest
+@RunWith(SpringRunner.class)
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class UniqueRelationsScriptTest {
+
+	private static final String SCRIPT = "src/main/sql/001-unique-relations.sql";
+
+	private static final String INSERT_FOLLOWED = "insert into followers_relation (user_id, followed_id) values (?, ?)";
+
+	private static final String INSERT_GAME = "insert into user_game_relation (user_id, game_id) values (?, ?)";
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private GameRepository gameRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private User user;
+
+	private User other;
+
+	private Game game;
+
+	@Before
+	public void setup() {
+		user = userRepository.save(new User(null, "user", "pwd"));
+		other = userRepository.save(new User(null, "other", "pwd"));
+		game = gameRepository.save(new Game(null, "game", "description", new Date(0)));
+	}
+
+	@After
+	public void cleanup() {
+		jdbcTemplate.update("delete from followers_relation");
+		jdbcTemplate.update("delete from user_game_relation");
+		userRepository.deleteAllInBatch();
+		gameRepository.deleteAllInBatch();
+	}
+
+	@Test
+	public void testScript_ShouldRemoveDuplicatesAndAddConstraints() {
+		jdbcTemplate.execute("alter table followers_relation drop constraint uk_followers_relation_user_followed");
+		jdbcTemplate.execute("alter table user_game_relation drop constraint uk_user_game_relation_user_game");
+		for (int i = 0; i < 3; i++) {
+			jdbcTemplate.update(INSERT_FOLLOWED, user.getId(), other.getId());
+			jdbcTemplate.update(INSERT_GAME, user.getId(), game.getId());
+		}
+		jdbcTemplate.update(INSERT_FOLLOWED, other.getId(), user.getId());
+
+		new ResourceDatabasePopulator(new FileSystemResource(SCRIPT)).execute(dataSource);
+
+		assertThat(userRepository.findFollowedIdsById(user.getId())).containsExactly(other.getId());
+		assertThat(userRepository.findFollowedIdsById(other.getId())).containsExactly(user.getId());
+		assertThat(jdbcTemplate.queryForObject("select count(*) from followers_relation", Long.class)).isEqualTo(2);
+		assertThat(jdbcTemplate.queryForObject("select count(*) from user_game_relation", Long.class)).isEqualTo(1);
+		assertThatExceptionOfType(DataIntegrityViolationException.class)
+				.isThrownBy(() -> jdbcTemplate.update(INSERT_FOLLOWED, user.getId(), other.getId()));
+		assertThatExceptionOfType(DataIntegrityViolationException.class)
+				.isThrownBy(() -> jdbcTemplate.update(INSERT_GAME, user.getId(), game.getId()));
+	}
+
+}
@@ -0,0 +1,145 @@
+package com.maurosalani.project.attsd.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.maurosalani.project.attsd.model.Game;
+import com.maurosalani.project.attsd.model.User;
+
+@DataJpaTest
+@RunWith(SpringRunner.class)
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(UserRelationRepository.class)
+public class UserRelationRepositoryTest {
+
+	@Autowired
+	private UserRelationRepository repository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	private User user;
+
+	private User other;
+
+	private Game game;
+
+	@Before
+	public void setup() {
+		user = entityManager.persistFlushFind(new User(null, "user", "pwd"));
+		other = entityManager.persistFlushFind(new User(null, "other", "pwd"));
+		game = entityManager.persistFlushFind(new Game(null, "game", "description", new Date(0)));
+	}
+
+	@Test
+	public void testInsertFollowed_ShouldInsertOnce() {
+		assertThat(repository.insertFollowed(user.getId(), other.getId())).isTrue();
+		assertThat(repository.insertFollowed(user.getId(), other.getId())).isFalse();
+
+		assertThat(userRepository.findFollowedIdsById(user.getId())).containsExactly(other.getId());
+		assertThat(userRepository.findFollowedIdsById(other.getId())).isEmpty();
+	}
+
+	@Test
+	public void testInsertFollowed_MissingUser_ShouldViolateForeignKey() {
+		assertThatExceptionOfType(DataIntegrityViolationException.class)
+				.isThrownBy(() -> repository.insertFollowed(user.getId(), other.getId() + 100));
+	}
+
+	@Test
+	public void testInsertGame_ShouldInsertOnce() {
+		assertThat(repository.insertGame(user.getId(), game.getId())).isTrue();
+		assertThat(repository.insertGame(user.getId(), game.getId())).isFalse();
+
+		assertThat(userRepository.findGameIdsById(user.getId())).containsExactly(game.getId());
+	}
+
+	@Test
+	public void testInsertGame_MissingGame_ShouldViolateForeignKey() {
+		assertThatExceptionOfType(DataIntegrityViolationException.class)
+				.isThrownBy(() -> repository.insertGame(user.getId(), game.getId() + 100));
+	}
+
+	@Test
+	public void testForEachGame_ShouldStreamRelationsInOrder() {
+		Game second = entityManager.persistFlushFind(new Game(null, "second", "description", new Date(0)));
+		repository.insertGame(other.getId(), game.getId());
+		repository.insertGame(user.getId(), second.getId());
+		repository.insertGame(user.getId(), game.getId());
+		List<long[]> relations = new ArrayList<>();
+
+		repository.forEachGame((userId, gameId) -> relations.add(new long[] { userId, gameId }));
+
+		assertThat(relations).containsExactly(new long[] { user.getId(), game.getId() },
+				new long[] { user.getId(), second.getId() }, new long[] { other.getId(), game.getId() });
+	}
+
+	@Test
+	public void testForEachFollowed_ShouldStreamRelationsInRangeInOrder() {
+		User third = entityManager.persistFlushFind(new User(null, "third", "pwd"));
+		repository.insertFollowed(other.getId(), user.getId());
+		repository.insertFollowed(third.getId(), user.getId());
+		repository.insertFollowed(user.getId(), third.getId());
+		repository.insertFollowed(user.getId(), other.getId());
+		List<long[]> relations = new ArrayList<>();
+
+		repository.forEachFollowed(user.getId(), other.getId(),
+				(userId, targetId) -> relations.add(new long[] { userId, targetId }));
+
+		assertThat(relations).containsExactly(new long[] { user.getId(), other.getId() },
+				new long[] { user.getId(), third.getId() }, new long[] { other.getId(), user.getId() });
+	}
+
+	@Test
+	public void testFindFollowingUserIdRange() {
+		User third = entityManager.persistFlushFind(new User(null, "third", "pwd"));
+		assertThat(repository.findFollowingUserIdRange()).isNull();
+
+		repository.insertFollowed(third.getId(), user.getId());
+		repository.insertFollowed(other.getId(), user.getId());
+
+		assertThat(repository.findFollowingUserIdRange()).containsExactly(other.getId(), third.getId());
+	}
+
+	@Test
+	public void testForEachCount_ShouldGroupRelationsByTarget() {
+		User third = entityManager.persistFlushFind(new User(null, "third", "pwd"));
+		repository.insertFollowed(user.getId(), third.getId());
+		repository.insertFollowed(other.getId(), third.getId());
+		repository.insertFollowed(third.getId(), user.getId());
+		repository.insertGame(user.getId(), game.getId());
+		repository.insertGame(other.getId(), game.getId());
+		Map<Long, Long> followers = new HashMap<>();
+		Map<Long, Long> likes = new HashMap<>();
+
+		repository.forEachFollowerCount(followers::put);
+		repository.forEachLikeCount(likes::put);
+
+		assertThat(followers).containsOnly(entry(third.getId(), 2L), entry(user.getId(), 1L));
+		assertThat(likes).containsOnly(entry(game.getId(), 2L));
+	}
+
+}
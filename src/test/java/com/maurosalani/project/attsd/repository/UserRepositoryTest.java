@@ -9,6 +9,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.Hibernate;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -17,9 +18,13 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import com.maurosalani.project.attsd.dto.GameSummaryDTO;
+import com.maurosalani.project.attsd.dto.SuggestionDTO;
+import com.maurosalani.project.attsd.dto.UserSummaryDTO;
 import com.maurosalani.project.attsd.model.Game;
 import com.maurosalani.project.attsd.model.User;
 
@@ -66,12 +71,14 @@ public class UserRepositoryTest {
 	}
 
 	@Test
-	public void testFindByUsernameAndPassword() {
-		User user = new User(null, "test", "pwd");
-		User saved = entityManager.persistFlushFind(user);
-		Optional<User> userFound = repository.findByUsernameAndPassword("test", "pwd");
+	public void testUpdatePassword_ShouldReplaceOnlyExpectedPassword() {
+		User saved = entityManager.persistFlushFind(new User(null, "test", "pwd"));
 
-		assertThat(userFound.get()).isEqualTo(saved);
+		assertThat(repository.updatePassword(saved.getId(), "other", "hash")).isZero();
+		assertThat(repository.updatePassword(saved.getId(), "pwd", "hash")).isEqualTo(1);
+
+		entityManager.clear();
+		assertThat(repository.findById(saved.getId()).get().getPassword()).isEqualTo("hash");
 	}
 
 	@Test
@@ -255,4 +262,124 @@ public class UserRepositoryTest {
 
 		assertThat(found).isEqualTo(saved.getFollowerUsers());
 	}
+
+	@Test
+	public void testFindAllUsernamesWithFollowersCount() {
+		User followed = entityManager.persistFlushFind(new User(null, "followed", "pwd"));
+		User follower1 = new User(null, "follower1", "pwd");
+		User follower2 = new User(null, "follower2", "pwd");
+		follower1.addFollowedUser(followed);
+		follower2.addFollowedUser(followed);
+		follower1 = entityManager.persistFlushFind(follower1);
+		follower2 = entityManager.persistFlushFind(follower2);
+
+		List<SuggestionDTO> usernames = repository.findAllUsernamesWithFollowersCount();
+
+		assertThat(usernames).containsExactlyInAnyOrder(new SuggestionDTO(followed.getId(), "followed", 2L),
+				new SuggestionDTO(follower1.getId(), "follower1", 0L),
+				new SuggestionDTO(follower2.getId(), "follower2", 0L));
+	}
+
+	@Test
+	public void testFindPageAfter_ShouldSeekOnIdInAscendingOrder() {
+		User user1 = entityManager.persistFlushFind(new User(null, "user1", "pwd"));
+		User user2 = entityManager.persistFlushFind(new User(null, "user2", "pwd"));
+
+		assertThat(repository.findPageAfter(0L, PageRequest.of(0, 1))).containsExactly(summaryOf(user1));
+		assertThat(repository.findPageAfter(user1.getId(), PageRequest.of(0, 5))).containsExactly(summaryOf(user2));
+	}
+
+	@Test
+	public void testFindFollowedAndFollowerPageAfter() {
+		User followed1 = entityManager.persistFlushFind(new User(null, "followed1", "pwd"));
+		User followed2 = entityManager.persistFlushFind(new User(null, "followed2", "pwd"));
+		User follower = new User(null, "follower", "pwd");
+		follower.addFollowedUser(followed1);
+		follower.addFollowedUser(followed2);
+		follower = entityManager.persistFlushFind(follower);
+
+		assertThat(repository.findFollowedPageAfter(follower.getId(), 0L, PageRequest.of(0, 1)))
+				.containsExactly(summaryOf(followed1));
+		assertThat(repository.findFollowedPageAfter(follower.getId(), followed1.getId(), PageRequest.of(0, 5)))
+				.containsExactly(summaryOf(followed2));
+		assertThat(repository.findFollowerPageAfter(followed2.getId(), 0L, PageRequest.of(0, 5)))
+				.containsExactly(summaryOf(follower));
+		assertThat(repository.findFollowerPageAfter(follower.getId(), 0L, PageRequest.of(0, 5))).isEmpty();
+	}
+
+	@Test
+	public void testFindGamesPageAfter() {
+		Game game1 = entityManager.persistFlushFind(new Game(null, "game1", "description", new Date(0)));
+		Game game2 = entityManager.persistFlushFind(new Game(null, "game2", "description", new Date(0)));
+		User user = new User(null, "user", "pwd");
+		user.addGame(game2);
+		user.addGame(game1);
+		user = entityManager.persistFlushFind(user);
+
+		assertThat(repository.findGamesPageAfter(user.getId(), 0L, PageRequest.of(0, 5))).extracting(GameSummaryDTO::getId)
+				.containsExactly(game1.getId(), game2.getId());
+		assertThat(repository.findGamesPageAfter(user.getId(), game1.getId(), PageRequest.of(0, 5)))
+				.extracting(GameSummaryDTO::getName).containsExactly("game2");
+	}
+
+	@Test
+	public void testFindFollowedAndGameIdsOfUsers_ShouldPairUserIdWithRelatedId() {
+		Game game = entityManager.persistFlushFind(new Game(null, "game", "description", new Date(0)));
+		User followed = entityManager.persistFlushFind(new User(null, "followed", "pwd"));
+		User follower = new User(null, "follower", "pwd");
+		follower.addFollowedUser(followed);
+		follower.addGame(game);
+		follower = entityManager.persistFlushFind(follower);
+
+		assertThat(repository.findFollowedIdsOfUsers(asList(follower.getId(), followed.getId())))
+				.containsExactly(new Object[] { follower.getId(), followed.getId() });
+		assertThat(repository.findGameIdsOfUsers(asList(follower.getId())))
+				.containsExactly(new Object[] { follower.getId(), game.getId() });
+	}
+
+	@Test
+	public void testIsFollowingAndHasLiked() {
+		Game game = entityManager.persistFlushFind(new Game(null, "game", "description", new Date(0)));
+		User followed = entityManager.persistFlushFind(new User(null, "followed", "pwd"));
+		User user = new User(null, "user", "pwd");
+		user.addFollowedUser(followed);
+		user.addGame(game);
+		user = entityManager.persistFlushFind(user);
+
+		assertThat(repository.isFollowing(user.getId(), followed.getId())).isTrue();
+		assertThat(repository.isFollowing(followed.getId(), user.getId())).isFalse();
+		assertThat(repository.hasLiked(user.getId(), game.getId())).isTrue();
+		assertThat(repository.hasLiked(followed.getId(), game.getId())).isFalse();
+	}
+
+	@Test
+	public void testFindFollowedFollowerAndGameIdsById() {
+		Game game = entityManager.persistFlushFind(new Game(null, "game", "description", new Date(0)));
+		User followed = entityManager.persistFlushFind(new User(null, "followed", "pwd"));
+		User user = new User(null, "user", "pwd");
+		user.addFollowedUser(followed);
+		user.addGame(game);
+		user = entityManager.persistFlushFind(user);
+
+		assertThat(repository.findFollowedIdsById(user.getId())).containsExactly(followed.getId());
+		assertThat(repository.findGameIdsById(user.getId())).containsExactly(game.getId());
+		assertThat(repository.findFollowedIdsById(followed.getId())).isEmpty();
+		assertThat(repository.findFollowerIdsById(followed.getId())).containsExactly(user.getId());
+		assertThat(repository.findFollowerIdsById(user.getId())).isEmpty();
+	}
+
+	@Test
+	public void testFindSummariesByIdIn_ShouldSelectIdAndUsernameOrderedById() {
+		User user1 = entityManager.persistFlushFind(new User(null, "user1", "pwd"));
+		User user2 = entityManager.persistFlushFind(new User(null, "user2", "pwd"));
+		entityManager.persistFlushFind(new User(null, "user3", "pwd"));
+
+		assertThat(repository.findSummariesByIdIn(asList(user2.getId(), user1.getId())))
+				.containsExactly(summaryOf(user1), summaryOf(user2));
+	}
+
+	private static UserSummaryDTO summaryOf(User user) {
+		return new UserSummaryDTO(user.getId(), user.getUsername());
+	}
+
 }
@@ -0,0 +1,137 @@
+package com.maurosalani.project.attsd.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.maurosalani.project.attsd.dto.SuggestionDTO;
+
+public class PrefixTrieTest {
+
+	private PrefixTrie trie;
+
+	@Before
+	public void setup() {
+		trie = new PrefixTrie();
+		trie.put(1L, "Mario Kart", 10);
+		trie.put(2L, "Mario Party", 30);
+		trie.put(3L, "Mario", 20);
+		trie.put(4L, "Metroid", 50);
+		trie.put(5L, "Zelda", 40);
+	}
+
+	@Test
+	public void testComplete_ShouldRankByScore() {
+		assertThat(trie.complete("mario", 5)).containsExactly(new SuggestionDTO(2L, "Mario Party", 30L),
+				new SuggestionDTO(3L, "Mario", 20L), new SuggestionDTO(1L, "Mario Kart", 10L));
+	}
+
+	@Test
+	public void testComplete_ShouldRespectLimit() {
+		assertThat(trie.complete("m", 2)).containsExactly(new SuggestionDTO(4L, "Metroid", 50L),
+				new SuggestionDTO(2L, "Mario Party", 30L));
+	}
+
+	@Test
+	public void testComplete_PrefixEndingInsideEdge_ShouldComplete() {
+		assertThat(trie.complete("Metr", 5)).containsExactly(new SuggestionDTO(4L, "Metroid", 50L));
+		assertThat(trie.complete("Mario P", 5)).containsExactly(new SuggestionDTO(2L, "Mario Party", 30L));
+	}
+
+	@Test
+	public void testComplete_EqualScores_ShouldBeAlphabetical() {
+		trie.put(6L, "Mario Tennis", 30);
+		trie.put(7L, "Mario Golf", 30);
+
+		assertThat(trie.complete("mario ", 5)).extracting(SuggestionDTO::getText).containsExactly("Mario Golf",
+				"Mario Party", "Mario Tennis", "Mario Kart");
+	}
+
+	@Test
+	public void testComplete_EmptyPrefix_ShouldReturnBestOfAll() {
+		assertThat(trie.complete("", 2)).extracting(SuggestionDTO::getId).containsExactly(4L, 5L);
+	}
+
+	@Test
+	public void testComplete_UnknownPrefix_ShouldReturnEmpty() {
+		assertThat(trie.complete("Sonic", 5)).isEmpty();
+		assertThat(trie.complete("Mab", 5)).isEmpty();
+		assertThat(trie.complete("Mario Kart 8", 5)).isEmpty();
+	}
+
+	@Test
+	public void testComplete_EmptyTrie_ShouldReturnEmpty() {
+		trie.clear();
+		assertThat(trie.complete("", 5)).isEmpty();
+		assertThat(trie.size()).isZero();
+	}
+
+	@Test
+	public void testComplete_NullPrefix_ShouldThrowException() {
+		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> trie.complete(null, 5));
+	}
+
+	@Test
+	public void testPut_NullArguments_ShouldThrowException() {
+		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> trie.put(null, "text", 0));
+		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> trie.put(9L, null, 0));
+	}
+
+	@Test
+	public void testPut_WithoutScore_ShouldKeepCurrentScoreOrStartFromZero() {
+		trie.put(4L, "Metroid Prime");
+		trie.put(6L, "Metal Gear");
+
+		assertThat(trie.complete("met", 5)).containsExactly(new SuggestionDTO(4L, "Metroid Prime", 50L),
+				new SuggestionDTO(6L, "Metal Gear", 0L));
+		assertThat(trie.complete("metroid", 5)).containsExactly(new SuggestionDTO(4L, "Metroid Prime", 50L));
+		assertThat(trie.size()).isEqualTo(6);
+	}
+
+	@Test
+	public void testPut_SameNormalizedText_ShouldKeepBothIds() {
+		trie.put(6L, "zelda", 40);
+
+		assertThat(trie.complete("ZEL", 5)).containsExactly(new SuggestionDTO(5L, "Zelda", 40L),
+				new SuggestionDTO(6L, "zelda", 40L));
+	}
+
+	@Test
+	public void testIncrementScore_ShouldChangeRanking() {
+		trie.incrementScore(1L, 25);
+
+		assertThat(trie.complete("mario", 1)).containsExactly(new SuggestionDTO(1L, "Mario Kart", 35L));
+	}
+
+	@Test
+	public void testIncrementScore_UnknownId_ShouldDoNothing() {
+		trie.incrementScore(99L, 1);
+		assertThat(trie.size()).isEqualTo(5);
+	}
+
+	@Test
+	public void testRemove_ShouldForgetIdAndKeepSiblings() {
+		trie.remove(3L);
+		trie.remove(2L);
+
+		assertThat(trie.complete("mario", 5)).containsExactly(new SuggestionDTO(1L, "Mario Kart", 10L));
+		assertThat(trie.complete("m", 5)).extracting(SuggestionDTO::getId).containsExactly(4L, 1L);
+		assertThat(trie.size()).isEqualTo(3);
+	}
+
+	@Test
+	public void testRemove_BestScore_ShouldUpdateSubtreeRanking() {
+		trie.remove(4L);
+
+		assertThat(trie.complete("", 1)).containsExactly(new SuggestionDTO(5L, "Zelda", 40L));
+	}
+
+	@Test
+	public void testRemove_UnknownId_ShouldDoNothing() {
+		trie.remove(99L);
+		assertThat(trie.size()).isEqualTo(5);
+	}
+
+}
@@ -0,0 +1,96 @@
+package com.maurosalani.project.attsd.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TrigramIndexTest {
+
+	private TrigramIndex index;
+
+	@Before
+	public void setup() {
+		index = new TrigramIndex();
+		index.put(3L, "Super Mario Bros");
+		index.put(1L, "Mario Kart");
+		index.put(2L, "Zelda");
+	}
+
+	@Test
+	public void testSearch_ShouldReturnIdsContainingTermInAscendingOrder() {
+		assertThat(index.search("Mario")).containsExactly(1L, 3L);
+	}
+
+	@Test
+	public void testSearch_ShouldBeCaseInsensitive() {
+		assertThat(index.search("mARIO")).containsExactly(1L, 3L);
+	}
+
+	@Test
+	public void testSearch_WhenTrigramsMatchButTermIsNotContained_ShouldNotReturnId() {
+		index.put(4L, "abcxbcd");
+		assertThat(index.search("abcd")).isEmpty();
+	}
+
+	@Test
+	public void testSearch_WhenTermHasUnknownTrigram_ShouldReturnEmpty() {
+		assertThat(index.search("Metroid")).isEmpty();
+	}
+
+	@Test
+	public void testSearch_ShortTerm_ShouldScanTexts() {
+		assertThat(index.search("z")).containsExactly(2L);
+		assertThat(index.search("ar")).containsExactly(1L, 3L);
+	}
+
+	@Test
+	public void testSearch_EmptyTerm_ShouldReturnEveryId() {
+		assertThat(index.search("")).containsExactly(1L, 2L, 3L);
+	}
+
+	@Test
+	public void testSearch_NullTerm_ShouldThrowException() {
+		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> index.search(null));
+	}
+
+	@Test
+	public void testPut_NullArguments_ShouldThrowException() {
+		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> index.put(null, "text"));
+		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> index.put(1L, null));
+	}
+
+	@Test
+	public void testPut_ExistingId_ShouldReplaceText() {
+		index.put(2L, "Metroid");
+
+		assertThat(index.search("Zelda")).isEmpty();
+		assertThat(index.search("Metroid")).containsExactly(2L);
+		assertThat(index.size()).isEqualTo(3);
+	}
+
+	@Test
+	public void testRemove_ShouldForgetId() {
+		index.remove(1L);
+
+		assertThat(index.search("Mario")).containsExactly(3L);
+		assertThat(index.search("Kart")).isEmpty();
+		assertThat(index.size()).isEqualTo(2);
+	}
+
+	@Test
+	public void testRemove_NotIndexedId_ShouldDoNothing() {
+		index.remove(99L);
+		assertThat(index.size()).isEqualTo(3);
+	}
+
+	@Test
+	public void testClear_ShouldEmptyIndex() {
+		index.clear();
+
+		assertThat(index.size()).isZero();
+		assertThat(index.search("")).isEmpty();
+	}
+
+}
@@ -0,0 +1,54 @@
+package com.maurosalani.project.attsd.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import org.junit.Test;
+
+public class PasswordHasherTest {
+
+	private PasswordHasher hasher = new PasswordHasher(1000);
+
+	@Test
+	public void testHash_ShouldBeSaltedAndMatchOnlyThePassword() {
+		String first = hasher.hash("password");
+		String second = hasher.hash("password");
+
+		assertThat(first).startsWith("pbkdf2$1000$").doesNotContain("password").isNotEqualTo(second);
+		assertThat(hasher.matches("password", first)).isTrue();
+		assertThat(hasher.matches("password", second)).isTrue();
+		assertThat(hasher.matches("Password", first)).isFalse();
+		assertThat(hasher.matches(null, first)).isFalse();
+	}
+
+	@Test
+	public void testMatches_HashWithOtherIterations_ShouldUseItsOwnParameters() {
+		String stored = new PasswordHasher(500).hash("password");
+
+		assertThat(hasher.matches("password", stored)).isTrue();
+		assertThat(hasher.needsRehash(stored)).isTrue();
+		assertThat(hasher.needsRehash(hasher.hash("password"))).isFalse();
+	}
+
+	@Test
+	public void testMatches_LegacyPassword_ShouldCompareInClear() {
+		assertThat(hasher.matches("password", "password")).isTrue();
+		assertThat(hasher.matches("password", "other")).isFalse();
+		assertThat(hasher.needsRehash("password")).isTrue();
+	}
+
+	@Test
+	public void testMatches_MalformedHash_ShouldNotMatch() {
+		assertThat(hasher.matches("password", "pbkdf2$1000$salt")).isFalse();
+		assertThat(hasher.matches("password", "pbkdf2$many$c2FsdA$aGFzaA")).isFalse();
+		assertThat(hasher.matches("password", "pbkdf2$1000$!!$aGFzaA")).isFalse();
+		assertThat(hasher.matches("password", null)).isFalse();
+	}
+
+	@Test
+	public void testInvalidArguments_ShouldThrowException() {
+		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> new PasswordHasher(0));
+		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> hasher.hash(null));
+	}
+
+}
@@ -0,0 +1,53 @@
+package com.maurosalani.project.attsd.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class TokenSignerTest {
+
+	private TokenSigner signer = new TokenSigner("secret".getBytes(StandardCharsets.UTF_8));
+
+	@Test
+	public void testVerify_ShouldReturnUserIdUntilExpired() {
+		String token = signer.sign(42, 1000);
+
+		assertThat(token).matches("[A-Za-z0-9_-]+\\.[A-Za-z0-9_-]+");
+		assertThat(signer.verify(token, 999)).isEqualTo(42);
+		assertThat(signer.verify(token, 1000)).isEqualTo(TokenSigner.INVALID);
+	}
+
+	@Test
+	public void testVerify_OtherKey_ShouldBeInvalid() {
+		String token = new TokenSigner("other".getBytes(StandardCharsets.UTF_8)).sign(42, 1000);
+
+		assertThat(signer.verify(token, 0)).isEqualTo(TokenSigner.INVALID);
+	}
+
+	@Test
+	public void testVerify_TamperedPayload_ShouldBeInvalid() {
+		String token = signer.sign(42, 1000);
+		String forged = signer.sign(43, 1000);
+
+		assertThat(signer.verify(forged.substring(0, forged.indexOf('.')) + token.substring(token.indexOf('.')), 0))
+				.isEqualTo(TokenSigner.INVALID);
+	}
+
+	@Test
+	public void testVerify_MalformedToken_ShouldBeInvalid() {
+		assertThat(signer.verify(null, 0)).isEqualTo(TokenSigner.INVALID);
+		assertThat(signer.verify("nodot", 0)).isEqualTo(TokenSigner.INVALID);
+		assertThat(signer.verify("!!.!!", 0)).isEqualTo(TokenSigner.INVALID);
+		assertThat(signer.verify("AAAA.AAAA", 0)).isEqualTo(TokenSigner.INVALID);
+	}
+
+	@Test
+	public void testInvalidArguments_ShouldThrowException() {
+		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> new TokenSigner(new byte[0]));
+		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> signer.sign(0, 1000));
+	}
+
+}
@@ -0,0 +1,116 @@
+package com.maurosalani.project.attsd.service;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.when;
+
+import java.sql.Date;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.maurosalani.project.attsd.dto.AutocompleteDTO;
+import com.maurosalani.project.attsd.dto.SuggestionDTO;
+import com.maurosalani.project.attsd.event.UserDeletedEvent;
+import com.maurosalani.project.attsd.model.Game;
+import com.maurosalani.project.attsd.model.User;
+import com.maurosalani.project.attsd.repository.GameRepository;
+import com.maurosalani.project.attsd.repository.UserRepository;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AutocompleteServiceTest {
+
+	@Mock
+	private GameRepository gameRepository;
+
+	@Mock
+	private UserRepository userRepository;
+
+	@InjectMocks
+	private AutocompleteService autocompleteService;
+
+	@Before
+	public void setup() {
+		when(gameRepository.findAllNamesWithLikesCount()).thenReturn(
+				asList(new SuggestionDTO(1L, "Mario Kart", 3L), new SuggestionDTO(2L, "Mario Party", 7L)));
+		when(userRepository.findAllUsernamesWithFollowersCount()).thenReturn(
+				asList(new SuggestionDTO(1L, "mario_fan", 1L), new SuggestionDTO(2L, "luigi", 9L)));
+		autocompleteService.buildIndex();
+	}
+
+	@Test
+	public void testComplete_ShouldReturnRankedGamesAndUsers() {
+		AutocompleteDTO result = autocompleteService.complete(" mar", 5);
+
+		assertThat(result.getGames()).containsExactly(new SuggestionDTO(2L, "Mario Party", 7L),
+				new SuggestionDTO(1L, "Mario Kart", 3L));
+		assertThat(result.getUsers()).containsExactly(new SuggestionDTO(1L, "mario_fan", 1L));
+	}
+
+	@Test
+	public void testComplete_LimitAboveMaximum_ShouldBeBounded() {
+		for (long id = 10; id < 10 + AutocompleteService.MAX_LIMIT + 5; id++)
+			autocompleteService.gameSaved(new Game(id, "Mario " + id, "description", new Date(0)));
+
+		assertThat(autocompleteService.complete("mario", 1000).getGames()).hasSize(AutocompleteService.MAX_LIMIT);
+	}
+
+	@Test
+	public void testComplete_BlankPrefixOrNoLimit_ShouldReturnEmptyLists() {
+		AutocompleteDTO empty = new AutocompleteDTO(Collections.emptyList(), Collections.emptyList());
+
+		assertThat(autocompleteService.complete("  ", 5)).isEqualTo(empty);
+		assertThat(autocompleteService.complete("mar", 0)).isEqualTo(empty);
+	}
+
+	@Test
+	public void testComplete_NullPrefix_ShouldThrowException() {
+		assertThatExceptionOfType(IllegalArgumentException.class)
+				.isThrownBy(() -> autocompleteService.complete(null, 5));
+	}
+
+	@Test
+	public void testGameEvents_ShouldUpdateGameCompletions() {
+		autocompleteService.gameSaved(new Game(3L, "Mario Tennis", "description", new Date(0)));
+		autocompleteService.gameLiked(3L);
+		autocompleteService.gameSaved(new Game(2L, "Paper Mario", "description", new Date(0)));
+		autocompleteService.gameDeleted(1L);
+
+		assertThat(autocompleteService.complete("mario", 5).getGames())
+				.containsExactly(new SuggestionDTO(3L, "Mario Tennis", 1L));
+		assertThat(autocompleteService.complete("paper", 5).getGames())
+				.containsExactly(new SuggestionDTO(2L, "Paper Mario", 7L));
+	}
+
+	@Test
+	public void testUserEvents_ShouldUpdateUserCompletions() {
+		autocompleteService.userSaved(new User(3L, "mario_pro", "pwd"));
+		autocompleteService.userFollowed(3L);
+		autocompleteService.userFollowed(3L);
+		autocompleteService.userDeleted(2L);
+
+		assertThat(autocompleteService.complete("mario", 5).getUsers()).containsExactly(
+				new SuggestionDTO(3L, "mario_pro", 2L), new SuggestionDTO(1L, "mario_fan", 1L));
+		assertThat(autocompleteService.complete("luigi", 5).getUsers()).isEmpty();
+	}
+
+	@Test
+	public void testUserDeletedEvent_ShouldTakeBackItsFollowsAndLikes() {
+		autocompleteService.userDeleted(new UserDeletedEvent(1L, singleton(2L), singleton(2L), new HashSet<>(asList(1L, 2L))));
+
+		assertThat(autocompleteService.complete("mario", 5).getUsers()).isEmpty();
+		assertThat(autocompleteService.complete("luigi", 5).getUsers())
+				.containsExactly(new SuggestionDTO(2L, "luigi", 8L));
+		assertThat(autocompleteService.complete("mario", 5).getGames()).containsExactly(
+				new SuggestionDTO(2L, "Mario Party", 6L), new SuggestionDTO(1L, "Mario Kart", 2L));
+	}
+
+}
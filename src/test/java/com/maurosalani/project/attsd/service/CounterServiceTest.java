@@ -0,0 +1,205 @@
+package com.maurosalani.project.attsd.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Date;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.maurosalani.project.attsd.cache_config.CacheConfig;
+import com.maurosalani.project.attsd.event.GameLikedEvent;
+import com.maurosalani.project.attsd.event.UserDeletedEvent;
+import com.maurosalani.project.attsd.event.UserFollowedEvent;
+import com.maurosalani.project.attsd.model.Game;
+import com.maurosalani.project.attsd.model.User;
+import com.maurosalani.project.attsd.repository.GameRepository;
+import com.maurosalani.project.attsd.repository.UserRepository;
+import com.maurosalani.project.attsd.service.CounterService.Counter;
+
+@DataJpaTest
+@RunWith(SpringRunner.class)
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ CounterService.class, GameCacheService.class, CacheConfig.class })
+public class CounterServiceTest {
+
+	@Autowired
+	private CounterService counterService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private GameRepository gameRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private User user;
+
+	private Game game;
+
+	@Before
+	public void setup() {
+		jdbcTemplate.update("delete from counter_shard");
+		jdbcTemplate.update("delete from followers_relation");
+		jdbcTemplate.update("delete from user_game_relation");
+		userRepository.deleteAll();
+		gameRepository.deleteAll();
+		user = userRepository.save(new User(null, "user", "pwd"));
+		game = gameRepository.save(new Game(null, "game", "description", new Date(0)));
+	}
+
+	@Test
+	public void testReconcile_ShouldFoldShardsIntoCounterColumns() {
+		counterService.increment(Counter.FOLLOWERS, user.getId());
+		counterService.increment(Counter.FOLLOWERS, user.getId());
+		counterService.increment(Counter.FOLLOWED, user.getId());
+		counterService.increment(Counter.LIKES, game.getId());
+		assertThat(userRepository.findById(user.getId()).get().getFollowerCount()).isZero();
+
+		counterService.reconcile();
+
+		User reconciled = userRepository.findById(user.getId()).get();
+		assertThat(reconciled.getFollowerCount()).isEqualTo(2);
+		assertThat(reconciled.getFollowedCount()).isEqualTo(1);
+		assertThat(gameRepository.findById(game.getId()).get().getLikeCount()).isEqualTo(1);
+		assertThat(jdbcTemplate.queryForObject("select sum(delta) from counter_shard", Long.class)).isZero();
+	}
+
+	@Test
+	public void testReconcile_ShouldEvictCachedGame() {
+		gameRepository.findById(game.getId());
+		counterService.increment(Counter.LIKES, game.getId());
+
+		counterService.reconcile();
+
+		assertThat(entityManagerFactory.getCache().contains(Game.class, game.getId())).isFalse();
+	}
+
+	@Test
+	public void testDecrement_ShouldBeFoldedAsWell() {
+		counterService.increment(Counter.FOLLOWED, user.getId());
+		counterService.increment(Counter.FOLLOWED, user.getId());
+		counterService.decrement(Counter.FOLLOWED, user.getId());
+
+		counterService.reconcile();
+
+		assertThat(userRepository.findById(user.getId()).get().getFollowedCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void testBackfillScript_ShouldRecomputeCounterColumnsFromRelationsAndDropPendingIncrements() {
+		User other = userRepository.save(new User(null, "other", "pwd"));
+		jdbcTemplate.update("insert into followers_relation (user_id, followed_id) values (?, ?)", other.getId(),
+				user.getId());
+		jdbcTemplate.update("insert into user_game_relation (user_id, game_id) values (?, ?)", other.getId(),
+				game.getId());
+		jdbcTemplate.update("update user set followed_count = 5 where id = ?", user.getId());
+		counterService.increment(Counter.FOLLOWERS, user.getId());
+		counterService.increment(Counter.LIKES, game.getId());
+
+		new ResourceDatabasePopulator(new FileSystemResource("src/main/sql/002-backfill-counters.sql"))
+				.execute(dataSource);
+		counterService.reconcile();
+
+		User recounted = userRepository.findById(user.getId()).get();
+		assertThat(recounted.getFollowerCount()).isEqualTo(1);
+		assertThat(recounted.getFollowedCount()).isZero();
+		assertThat(userRepository.findById(other.getId()).get().getFollowedCount()).isEqualTo(1);
+		assertThat(gameRepository.findById(game.getId()).get().getLikeCount()).isEqualTo(1);
+		assertThat(jdbcTemplate.queryForObject("select sum(delta) from counter_shard", Long.class)).isZero();
+	}
+
+	@Test
+	public void testRelationEvents_ShouldBeCountedInThePublishingTransaction() {
+		User other = userRepository.save(new User(null, "other", "pwd"));
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		transaction.execute(status -> {
+			eventPublisher.publishEvent(new UserFollowedEvent(other.getId(), user.getId()));
+			eventPublisher.publishEvent(new GameLikedEvent(other.getId(), game.getId()));
+			return null;
+		});
+		transaction.execute(status -> {
+			eventPublisher.publishEvent(new GameLikedEvent(user.getId(), game.getId()));
+			status.setRollbackOnly();
+			return null;
+		});
+
+		counterService.reconcile();
+
+		assertThat(userRepository.findById(user.getId()).get().getFollowerCount()).isEqualTo(1);
+		assertThat(userRepository.findById(other.getId()).get().getFollowedCount()).isEqualTo(1);
+		assertThat(gameRepository.findById(game.getId()).get().getLikeCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void testUserDeletedEvent_ShouldTakeBackTheRelationsOfTheUser() {
+		User other = userRepository.save(new User(null, "other", "pwd"));
+		counterService.increment(Counter.FOLLOWERS, user.getId());
+		counterService.increment(Counter.FOLLOWED, user.getId());
+		counterService.increment(Counter.LIKES, game.getId());
+
+		eventPublisher.publishEvent(new UserDeletedEvent(other.getId(), Collections.singleton(user.getId()),
+				Collections.singleton(user.getId()), Collections.singleton(game.getId())));
+		counterService.reconcile();
+
+		User reconciled = userRepository.findById(user.getId()).get();
+		assertThat(reconciled.getFollowerCount()).isZero();
+		assertThat(reconciled.getFollowedCount()).isZero();
+		assertThat(gameRepository.findById(game.getId()).get().getLikeCount()).isZero();
+	}
+
+	@Test
+	public void testConcurrentIncrements_ShouldNotLoseAny() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		for (int i = 0; i < 400; i++) {
+			executor.execute(() -> counterService.increment(Counter.FOLLOWERS, user.getId()));
+			if (i % 100 == 0)
+				executor.execute(counterService::reconcile);
+		}
+		executor.shutdown();
+		assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+		counterService.reconcile();
+
+		assertThat(userRepository.findById(user.getId()).get().getFollowerCount()).isEqualTo(400);
+	}
+
+}
@@ -0,0 +1,150 @@
+package com.maurosalani.project.attsd.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.maurosalani.project.attsd.exception.CredentialServiceBusyException;
+import com.maurosalani.project.attsd.model.User;
+
+public class CredentialServiceTest {
+
+	private CredentialService credentialService;
+
+	@Before
+	public void setup() {
+		credentialService = new CredentialService();
+		ReflectionTestUtils.setField(credentialService, "iterations", 1000);
+		ReflectionTestUtils.setField(credentialService, "workers", 1);
+		ReflectionTestUtils.setField(credentialService, "queue", 1);
+		ReflectionTestUtils.setField(credentialService, "maxEntries", 2);
+		setTime(0);
+		credentialService.start();
+	}
+
+	@After
+	public void tearDown() {
+		credentialService.stop();
+	}
+
+	@Test
+	public void testHash_ShouldMatchOnlyThePassword() {
+		String stored = credentialService.hash("password");
+
+		assertThat(credentialService.matches("password", stored)).isTrue();
+		assertThat(credentialService.matches("wrong", stored)).isFalse();
+		assertThat(credentialService.matches(null, stored)).isFalse();
+		assertThat(credentialService.needsRehash(stored)).isFalse();
+		assertThat(credentialService.needsRehash("password")).isTrue();
+	}
+
+	@Test
+	public void testVerified_ShouldBeReturnedForTheSameCredentialsUntilExpired() {
+		credentialService.verified("username", "password", new User(1L, "username", "hash"),
+				credentialService.beginVerification());
+
+		assertThat(credentialService.getVerified("username", "password")).isEqualTo(new User(1L, "username", "hash"));
+		assertThat(credentialService.getVerified("username", "wrong")).isNull();
+		assertThat(credentialService.getVerified("usernamepassword", "")).isNull();
+
+		setTime(59_999);
+		assertThat(credentialService.getVerified("username", "password")).isNotNull();
+		setTime(60_000);
+		assertThat(credentialService.getVerified("username", "password")).isNull();
+	}
+
+	@Test
+	public void testUserChanged_ShouldDropEntriesAndDiscardRunningVerifications() {
+		long stamp = credentialService.beginVerification();
+		credentialService.verified("username", "password", new User(1L, "username", "hash"), stamp);
+		credentialService.verified("other", "password", new User(2L, "other", "hash"), stamp);
+
+		credentialService.userChanged(1L);
+		credentialService.verified("username", "old", new User(1L, "username", "hash"), stamp);
+
+		assertThat(credentialService.getVerified("username", "password")).isNull();
+		assertThat(credentialService.getVerified("username", "old")).isNull();
+		assertThat(credentialService.getVerified("other", "password")).isNotNull();
+	}
+
+	@Test
+	public void testVerified_WhenFull_ShouldEvictExpiredEntriesFirst() {
+		long stamp = credentialService.beginVerification();
+		credentialService.verified("first", "password", new User(1L, "first", "hash"), stamp);
+		setTime(30_000);
+		credentialService.verified("second", "password", new User(2L, "second", "hash"), stamp);
+		setTime(61_000);
+
+		credentialService.verified("third", "password", new User(3L, "third", "hash"), stamp);
+
+		assertThat(credentialService.getVerified("first", "password")).isNull();
+		assertThat(credentialService.getVerified("second", "password")).isNotNull();
+		assertThat(credentialService.getVerified("third", "password")).isNotNull();
+
+		credentialService.verified("fourth", "password", new User(4L, "fourth", "hash"), stamp);
+
+		assertThat(credentialService.getVerified("fourth", "password")).isNotNull();
+		assertThat(credentialService.getVerified("second", "password") == null
+				|| credentialService.getVerified("third", "password") == null).isTrue();
+	}
+
+	@Test
+	public void testHash_WhenWorkersAreSaturated_ShouldBeRejected() throws Exception {
+		ExecutorService executor = (ExecutorService) ReflectionTestUtils.getField(credentialService, "executor");
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(1);
+		executor.submit(() -> {
+			started.countDown();
+			release.await();
+			return null;
+		});
+		started.await();
+		executor.submit(() -> null);
+
+		try {
+			assertThatExceptionOfType(CredentialServiceBusyException.class)
+					.isThrownBy(() -> credentialService.hash("password"));
+		} finally {
+			release.countDown();
+		}
+	}
+
+	@Test
+	public void testHash_WhenWorkersDoNotGetToItInTime_ShouldBeCancelledAndRejected() throws Exception {
+		ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(credentialService, "executor");
+		ReflectionTestUtils.setField(credentialService, "timeoutMillis", 50L);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(1);
+		executor.submit(() -> {
+			started.countDown();
+			release.await();
+			return null;
+		});
+		started.await();
+
+		try {
+			assertThatExceptionOfType(CredentialServiceBusyException.class)
+					.isThrownBy(() -> credentialService.hash("password"));
+			assertThat(executor.getQueue()).isEmpty();
+		} finally {
+			release.countDown();
+		}
+	}
+
+	private void setTime(long millis) {
+		ReflectionTestUtils.setField(credentialService, "clock",
+				Clock.fixed(Instant.ofEpochMilli(millis), ZoneOffset.UTC));
+	}
+
+}
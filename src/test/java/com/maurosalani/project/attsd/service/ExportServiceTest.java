@@ -0,0 +1,118 @@
+package com.maurosalani.project.attsd.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.json.AutoConfigureJson;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.maurosalani.project.attsd.model.Game;
+import com.maurosalani.project.attsd.model.User;
+import com.maurosalani.project.attsd.repository.GameRepository;
+import com.maurosalani.project.attsd.repository.UserRepository;
+
+@DataJpaTest
+@AutoConfigureJson
+@RunWith(SpringRunner.class)
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ExportService.class)
+public class ExportServiceTest {
+
+	@Autowired
+	private ExportService exportService;
+
+	@Autowired
+	private GameRepository gameRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Before
+	public void clearDatabase() {
+		userRepository.deleteAll();
+		userRepository.flush();
+		gameRepository.deleteAll();
+		gameRepository.flush();
+	}
+
+	@Test
+	public void testExportGames_EmptyDatabase_ShouldWriteNothing() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		exportService.exportGames(out);
+		assertThat(out.size()).isZero();
+	}
+
+	@Test
+	public void testExportGames_ShouldWriteOneLinePerGameWithLikingUserIds() throws Exception {
+		Game game1 = entityManager.persistFlushFind(new Game(null, "game1", "description1", Date.valueOf("2019-01-31")));
+		Game game2 = entityManager.persistFlushFind(new Game(null, "game2", "description2", Date.valueOf("2019-02-01")));
+		User user1 = new User(null, "user1", "pwd");
+		User user2 = new User(null, "user2", "pwd");
+		user1.addGame(game1);
+		user2.addGame(game1);
+		user1 = entityManager.persistFlushFind(user1);
+		user2 = entityManager.persistFlushFind(user2);
+		entityManager.clear();
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		exportService.exportGames(out);
+
+		assertThat(out.toString(StandardCharsets.UTF_8.name())).isEqualTo(
+				"{\"id\":" + game1.getId() + ",\"name\":\"game1\",\"description\":\"description1\","
+						+ "\"releaseDate\":\"2019-01-31\",\"users\":[" + user1.getId() + "," + user2.getId() + "]}\n"
+						+ "{\"id\":" + game2.getId() + ",\"name\":\"game2\",\"description\":\"description2\","
+						+ "\"releaseDate\":\"2019-02-01\",\"users\":[]}\n");
+	}
+
+	@Test
+	public void testExportUsers_ShouldWriteFollowedAndGameIdsWithoutPassword() throws Exception {
+		Game game = entityManager.persistFlushFind(new Game(null, "game", "description", new Date(0)));
+		User followed = entityManager.persistFlushFind(new User(null, "followed", "pwd"));
+		User follower = new User(null, "follower", "secret");
+		follower.addFollowedUser(followed);
+		follower.addGame(game);
+		follower = entityManager.persistFlushFind(follower);
+		entityManager.clear();
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		exportService.exportUsers(out);
+
+		assertThat(out.toString(StandardCharsets.UTF_8.name())).isEqualTo(
+				"{\"id\":" + followed.getId() + ",\"username\":\"followed\",\"followedUsers\":[],\"games\":[]}\n"
+						+ "{\"id\":" + follower.getId() + ",\"username\":\"follower\",\"followedUsers\":["
+						+ followed.getId() + "],\"games\":[" + game.getId() + "]}\n");
+	}
+
+	@Test
+	public void testExportGames_MoreRowsThanBatch_ShouldWriteEveryRowInOrder() throws Exception {
+		for (int i = 0; i <= ExportService.BATCH_SIZE; i++)
+			entityManager.persist(new Game(null, "game" + i, "description", new Date(0)));
+		entityManager.flush();
+		entityManager.clear();
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		exportService.exportGames(out);
+
+		String[] lines = out.toString(StandardCharsets.UTF_8.name()).split("\n");
+		assertThat(lines).hasSize(ExportService.BATCH_SIZE + 1);
+		assertThat(lines[0]).contains("\"name\":\"game0\"");
+		assertThat(lines[ExportService.BATCH_SIZE]).contains("\"name\":\"game" + ExportService.BATCH_SIZE + "\"");
+	}
+
+}
@@ -0,0 +1,195 @@
+package com.maurosalani.project.attsd.service;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.sql.Date;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.maurosalani.project.attsd.dto.FeedEventDTO;
+import com.maurosalani.project.attsd.dto.FeedEventDTO.Activity;
+import com.maurosalani.project.attsd.dto.GameSummaryDTO;
+import com.maurosalani.project.attsd.dto.PageDTO;
+import com.maurosalani.project.attsd.dto.UserSummaryDTO;
+import com.maurosalani.project.attsd.repository.GameRepository;
+import com.maurosalani.project.attsd.repository.UserRelationRepository;
+import com.maurosalani.project.attsd.repository.UserRepository;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FeedServiceTest {
+
+	private static final long NOW = 1000;
+
+	@Mock
+	private UserRelationRepository userRelationRepository;
+
+	@Mock
+	private UserRepository userRepository;
+
+	@Mock
+	private GameRepository gameRepository;
+
+	private FollowGraphService followGraphService;
+
+	private FeedService feedService;
+
+	@Before
+	public void setup() {
+		followGraphService = new FollowGraphService(userRelationRepository);
+		feedService = new FeedService(followGraphService, userRepository, gameRepository);
+		ReflectionTestUtils.setField(feedService, "clock", Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC));
+		followGraphService.userFollowed(2L, 1L);
+		followGraphService.userFollowed(3L, 1L);
+		followGraphService.userFollowed(3L, 2L);
+	}
+
+	@Test
+	public void testGetFeed_NullId_ShouldThrowException() {
+		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> feedService.getFeed(null, null, 10));
+	}
+
+	@Test
+	public void testGetFeed_WithoutEvents_ShouldNotQuery() {
+		assertThat(feedService.getFeed(2L, null, 10)).isEqualTo(new PageDTO<>(asList(), null));
+		verifyZeroInteractions(userRepository, gameRepository);
+	}
+
+	@Test
+	public void testEvents_ShouldBeDeliveredToFollowersNewestFirst() {
+		stubSummaries();
+
+		feedService.gameLiked(1L, 10L);
+		feedService.userFollowed(1L, 4L);
+
+		assertThat(feedService.getFeed(2L, null, 10).getItems()).containsExactly(
+				new FeedEventDTO(2L, Activity.FOLLOWED, 1L, "user1", 4L, "user4", new Date(NOW)),
+				new FeedEventDTO(1L, Activity.LIKED, 1L, "user1", 10L, "game10", new Date(NOW)));
+		assertThat(idsOf(feedService.getFeed(3L, null, 10))).containsExactly(2L, 1L);
+		assertThat(feedService.getFeed(1L, null, 10).getItems()).isEmpty();
+	}
+
+	@Test
+	public void testGetFeed_ShouldPageWithCursor() {
+		stubSummaries();
+		feedService.gameLiked(1L, 10L);
+		feedService.gameLiked(1L, 11L);
+		feedService.gameLiked(1L, 12L);
+
+		PageDTO<FeedEventDTO> first = feedService.getFeed(2L, null, 2);
+		PageDTO<FeedEventDTO> second = feedService.getFeed(2L, first.getNextAfter(), 2);
+
+		assertThat(idsOf(first)).containsExactly(3L, 2L);
+		assertThat(first.getNextAfter()).isEqualTo(2L);
+		assertThat(idsOf(second)).containsExactly(1L);
+		assertThat(second.getNextAfter()).isNull();
+	}
+
+	@Test
+	public void testUserFollowed_ShouldDeliverLaterEventsToNewFollower() {
+		stubSummaries();
+
+		followGraphService.userFollowed(4L, 1L);
+		feedService.userFollowed(4L, 1L);
+		feedService.gameLiked(1L, 10L);
+
+		assertThat(idsOf(feedService.getFeed(4L, null, 10))).containsExactly(2L);
+	}
+
+	@Test
+	public void testPopularActor_ShouldBeReadFromOutboxAndMerged() {
+		stubSummaries();
+		ReflectionTestUtils.setField(feedService, "fanOutLimit", 1);
+
+		feedService.gameLiked(2L, 20L);
+		feedService.gameLiked(1L, 10L);
+		feedService.gameLiked(2L, 21L);
+
+		assertThat(idsOf(feedService.getFeed(3L, null, 10))).containsExactly(3L, 2L, 1L);
+		assertThat(idsOf(feedService.getFeed(2L, null, 10))).containsExactly(2L);
+
+		followGraphService.userFollowed(4L, 1L);
+		assertThat(idsOf(feedService.getFeed(4L, null, 10))).containsExactly(2L);
+	}
+
+	@Test
+	public void testPopularActors_ShouldMergeOnlyOutboxesOfFollowedUsers() {
+		stubSummaries();
+		ReflectionTestUtils.setField(feedService, "fanOutLimit", 1);
+		followGraphService.userFollowed(4L, 5L);
+		followGraphService.userFollowed(2L, 5L);
+
+		feedService.gameLiked(1L, 10L);
+		feedService.gameLiked(5L, 50L);
+
+		assertThat(idsOf(feedService.getFeed(3L, null, 10))).containsExactly(1L);
+		assertThat(idsOf(feedService.getFeed(4L, null, 10))).containsExactly(2L);
+		assertThat(idsOf(feedService.getFeed(2L, null, 10))).containsExactly(2L, 1L);
+	}
+
+	@Test
+	public void testTimeline_ShouldKeepOnlyLatestEvents() {
+		stubSummaries();
+
+		for (long game = 0; game < FeedService.TIMELINE_SIZE + 5; game++)
+			feedService.gameLiked(1L, game);
+
+		List<Long> ids = idsOf(feedService.getFeed(2L, null, PageDTO.MAX_LIMIT));
+		assertThat(ids).hasSize(FeedService.TIMELINE_SIZE);
+		assertThat(ids.get(0)).isEqualTo(FeedService.TIMELINE_SIZE + 5L);
+	}
+
+	@Test
+	public void testGetFeed_DeletedTargets_ShouldBeSkipped() {
+		feedService.gameLiked(1L, 10L);
+		feedService.userFollowed(1L, 4L);
+		when(userRepository.findSummariesByIdIn(anyCollection())).thenReturn(asList(new UserSummaryDTO(1L, "user1")));
+		when(gameRepository.findSummariesByIdIn(anyCollection()))
+				.thenReturn(asList(new GameSummaryDTO(10L, "game10", new Date(0))));
+
+		assertThat(idsOf(feedService.getFeed(2L, null, 10))).containsExactly(1L);
+	}
+
+	@Test
+	public void testUserDeleted_ShouldDropTimelineAndStopDelivering() {
+		feedService.gameLiked(1L, 10L);
+
+		followGraphService.userDeleted(2L);
+		feedService.userDeleted(2L);
+		feedService.gameLiked(1L, 11L);
+
+		assertThat(feedService.getFeed(2L, null, 10).getItems()).isEmpty();
+	}
+
+	private void stubSummaries() {
+		when(userRepository.findSummariesByIdIn(anyCollection())).thenAnswer(invocation -> {
+			Collection<Long> ids = invocation.getArgument(0);
+			return ids.stream().map(id -> new UserSummaryDTO(id, "user" + id)).collect(Collectors.toList());
+		});
+		when(gameRepository.findSummariesByIdIn(anyCollection())).thenAnswer(invocation -> {
+			Collection<Long> ids = invocation.getArgument(0);
+			return ids.stream().map(id -> new GameSummaryDTO(id, "game" + id, new Date(0)))
+					.collect(Collectors.toList());
+		});
+	}
+
+	private static List<Long> idsOf(PageDTO<FeedEventDTO> page) {
+		return page.getItems().stream().map(FeedEventDTO::getId).collect(Collectors.toList());
+	}
+
+}
@@ -0,0 +1,76 @@
+package com.maurosalani.project.attsd.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.maurosalani.project.attsd.repository.UserRelationRepository;
+import com.maurosalani.project.attsd.repository.UserRelationRepository.RelationHandler;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FollowGraphServiceTest {
+
+	@Mock
+	private UserRelationRepository userRelationRepository;
+
+	private FollowGraphService followGraphService;
+
+	@Before
+	public void setup() {
+		followGraphService = new FollowGraphService(userRelationRepository);
+		ReflectionTestUtils.setField(followGraphService, "loaders", 2);
+	}
+
+	@Test
+	public void testBuildGraph_WithoutRelations_ShouldBeEmpty() {
+		when(userRelationRepository.findFollowingUserIdRange()).thenReturn(null);
+
+		followGraphService.buildGraph();
+
+		assertThat(followGraphService.getGraph().followedCount(1)).isZero();
+		verify(userRelationRepository, never()).forEachFollowed(anyLong(), anyLong(), any());
+	}
+
+	@Test
+	public void testBuildGraph_ShouldLoadEveryRangeInParallel() {
+		when(userRelationRepository.findFollowingUserIdRange()).thenReturn(new long[] { 1, 4 });
+		doAnswer(invocation -> {
+			RelationHandler handler = invocation.getArgument(2);
+			handler.handle(1, 3);
+			handler.handle(2, 1);
+			return null;
+		}).when(userRelationRepository).forEachFollowed(eq(1L), eq(2L), any());
+		doAnswer(invocation -> {
+			RelationHandler handler = invocation.getArgument(2);
+			handler.handle(4, 1);
+			return null;
+		}).when(userRelationRepository).forEachFollowed(eq(3L), eq(4L), any());
+
+		followGraphService.buildGraph();
+
+		assertThat(followGraphService.getGraph().followers(1)).containsExactly(2, 4);
+		assertThat(followGraphService.getGraph().followed(1)).containsExactly(3);
+	}
+
+	@Test
+	public void testEvents_ShouldUpdateGraph() {
+		followGraphService.userFollowed(1L, 2L);
+		followGraphService.userFollowed(3L, 2L);
+		followGraphService.userDeleted(1L);
+
+		assertThat(followGraphService.getGraph().followers(2)).containsExactly(3);
+	}
+
+}
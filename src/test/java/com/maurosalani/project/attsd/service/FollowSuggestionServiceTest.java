@@ -0,0 +1,128 @@
+package com.maurosalani.project.attsd.service;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.maurosalani.project.attsd.dto.FollowSuggestionDTO;
+import com.maurosalani.project.attsd.dto.UserSummaryDTO;
+import com.maurosalani.project.attsd.graph.FollowGraph;
+import com.maurosalani.project.attsd.repository.UserRepository;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FollowSuggestionServiceTest {
+
+	@Mock
+	private FollowGraphService followGraphService;
+
+	@Mock
+	private UserRepository userRepository;
+
+	private FollowSuggestionService followSuggestionService;
+
+	@Before
+	public void setup() {
+		followSuggestionService = new FollowSuggestionService(followGraphService, userRepository);
+	}
+
+	@Test
+	public void testGetSuggestions_NullId_ShouldThrowException() {
+		assertThatExceptionOfType(IllegalArgumentException.class)
+				.isThrownBy(() -> followSuggestionService.getSuggestions(null, 5));
+	}
+
+	@Test
+	public void testGetSuggestions_WithoutFollowed_ShouldNotQuery() {
+		graph(new long[0][]);
+
+		assertThat(followSuggestionService.getSuggestions(1L, 5)).isEmpty();
+		verifyZeroInteractions(userRepository);
+	}
+
+	@Test
+	public void testBuildGraph_ShouldRankByFollowersAmongFollowed() {
+		graph(new long[][] { { 1, 2 }, { 1, 3 }, { 1, 4 }, { 2, 5 }, { 2, 6 }, { 3, 1 }, { 3, 4 }, { 3, 6 }, { 4, 6 },
+				{ 4, 7 } });
+		stubSummaries();
+
+		List<FollowSuggestionDTO> suggestions = followSuggestionService.getSuggestions(1L, 5);
+
+		assertThat(suggestions).containsExactly(new FollowSuggestionDTO(6L, "user6", 3),
+				new FollowSuggestionDTO(5L, "user5", 1), new FollowSuggestionDTO(7L, "user7", 1));
+	}
+
+	@Test
+	public void testGetSuggestions_ShouldKeepOnlyTheBestUpToLimit() {
+		graph(new long[][] { { 1, 2 }, { 1, 3 }, { 2, 9 }, { 2, 8 }, { 3, 8 }, { 3, 7 } });
+		stubSummaries();
+
+		assertThat(idsOf(followSuggestionService.getSuggestions(1L, 2))).containsExactly(8L, 7L);
+		assertThat(followSuggestionService.getSuggestions(1L, 0)).isEmpty();
+	}
+
+	@Test
+	public void testGraphChanges_ShouldUpdateSuggestions() {
+		FollowGraph graph = graph(new long[][] { { 2, 3 } });
+		stubSummaries();
+
+		graph.addFollow(1L, 2L);
+		assertThat(idsOf(followSuggestionService.getSuggestions(1L, 5))).containsExactly(3L);
+
+		graph.addFollow(1L, 3L);
+		assertThat(followSuggestionService.getSuggestions(1L, 5)).isEmpty();
+	}
+
+	@Test
+	public void testUserRemoved_ShouldNoLongerBeSuggestedNorSuggest() {
+		FollowGraph graph = graph(new long[][] { { 1, 2 }, { 2, 3 }, { 2, 4 } });
+		stubSummaries();
+
+		graph.removeUser(3L);
+		assertThat(idsOf(followSuggestionService.getSuggestions(1L, 5))).containsExactly(4L);
+
+		graph.removeUser(2L);
+		assertThat(followSuggestionService.getSuggestions(1L, 5)).isEmpty();
+	}
+
+	@Test
+	public void testGetSuggestions_UsersMissingFromRepository_ShouldBeSkipped() {
+		graph(new long[][] { { 1, 2 }, { 2, 3 }, { 2, 4 } });
+		when(userRepository.findSummariesByIdIn(asList(3L, 4L))).thenReturn(asList(new UserSummaryDTO(4L, "user4")));
+
+		assertThat(idsOf(followSuggestionService.getSuggestions(1L, 5))).containsExactly(4L);
+	}
+
+	private FollowGraph graph(long[][] edges) {
+		FollowGraph.Edges part = new FollowGraph.Edges();
+		for (long[] edge : edges)
+			part.add(edge[0], edge[1]);
+		FollowGraph graph = FollowGraph.of(asList(part));
+		when(followGraphService.getGraph()).thenReturn(graph);
+		return graph;
+	}
+
+	private void stubSummaries() {
+		when(userRepository.findSummariesByIdIn(anyCollection())).thenAnswer(invocation -> {
+			Collection<Long> ids = invocation.getArgument(0);
+			return ids.stream().sorted().map(id -> new UserSummaryDTO(id, "user" + id)).collect(Collectors.toList());
+		});
+	}
+
+	private static List<Long> idsOf(List<FollowSuggestionDTO> suggestions) {
+		return suggestions.stream().map(FollowSuggestionDTO::getId).collect(Collectors.toList());
+	}
+
+}
@@ -0,0 +1,96 @@
+package com.maurosalani.project.attsd.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Date;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.maurosalani.project.attsd.cache_config.CacheConfig;
+import com.maurosalani.project.attsd.model.Game;
+import com.maurosalani.project.attsd.repository.GameRepository;
+import com.maurosalani.project.attsd.repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest
+@RunWith(SpringRunner.class)
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ GameCacheService.class, CacheConfig.class })
+public class GameCacheServiceTest {
+
+	@Autowired
+	private GameCacheService gameCacheService;
+
+	@Autowired
+	private GameRepository gameRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@Before
+	public void setup() {
+		userRepository.deleteAll();
+		gameRepository.deleteAll();
+		entityManagerFactory.getCache().evictAll();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	public void testGameChanged_ShouldEvictCachedGame() {
+		Game saved = gameRepository.save(new Game(null, "game", "description", new Date(0)));
+		gameRepository.findById(saved.getId());
+		assertThat(entityManagerFactory.getCache().contains(Game.class, saved.getId())).isTrue();
+
+		gameCacheService.gameChanged(saved.getId());
+
+		assertThat(entityManagerFactory.getCache().contains(Game.class, saved.getId())).isFalse();
+	}
+
+	@Test
+	public void testFindByName_ShouldBeServedFromQueryCacheUntilGamesInserted() {
+		gameRepository.save(new Game(null, "game", "description", new Date(0)));
+
+		gameRepository.findByName("game");
+		gameRepository.findByName("game");
+		assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+
+		gameCacheService.gamesInserted();
+		gameRepository.findByName("game");
+		assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+		assertThat(statistics.getQueryCacheMissCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void testBindTo_ShouldRegisterMetersForGameRegions() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+		gameCacheService.bindTo(registry);
+
+		assertThat(registry.find("cache.gets").tag("cache", Game.CACHE_REGION).meters()).isNotEmpty();
+		assertThat(registry.find("cache.evictions").tag("cache", Game.QUERY_CACHE_REGION).meters()).isNotEmpty();
+	}
+
+}
@@ -0,0 +1,160 @@
+package com.maurosalani.project.attsd.service;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maurosalani.project.attsd.dto.GameImportResultDTO;
+import com.maurosalani.project.attsd.model.Game;
+import com.maurosalani.project.attsd.repository.GameRepository;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GameImportServiceTest {
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	@Mock
+	private GameRepository gameRepository;
+
+	@Mock
+	private GameService gameService;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	private GameImportService gameImportService;
+
+	@Before
+	public void setup() {
+		gameImportService = new GameImportService(jdbcTemplate, gameRepository, gameService, new ObjectMapper(),
+				transactionManager);
+		ReflectionTestUtils.setField(gameImportService, "batchSize", 2);
+	}
+
+	@Test
+	public void testCheckBatchSize_NotPositive_ShouldRefuseToStart() {
+		gameImportService.checkBatchSize();
+
+		ReflectionTestUtils.setField(gameImportService, "batchSize", 0);
+		assertThatExceptionOfType(IllegalStateException.class)
+				.isThrownBy(() -> gameImportService.checkBatchSize())
+				.withMessageContaining("attsd.import.batch-size");
+	}
+
+	@Test
+	public void testImportGames_JsonArray_ShouldInsertInBatches() throws Exception {
+		Game saved1 = new Game(1L, "game1", "description1", new Date(0));
+		Game saved2 = new Game(2L, "game2", "description2", new Date(0));
+		Game saved3 = new Game(3L, "game3", "description3", new Date(0));
+		when(gameRepository.findByNameIn(asList("game1", "game2"))).thenReturn(Collections.emptyList(),
+				asList(saved1, saved2));
+		when(gameRepository.findByNameIn(asList("game3"))).thenReturn(Collections.emptyList(), asList(saved3));
+
+		List<GameImportResultDTO> results = gameImportService.importGames(input("[{\"name\":\"game1\",\"description\":\"description1\",\"releaseDate\":0},"
+				+ "{\"name\":\"game2\",\"description\":\"description2\",\"releaseDate\":0},"
+				+ "{\"name\":\"game3\",\"description\":\"description3\",\"releaseDate\":0}]"));
+
+		assertThat(results).containsExactly(new GameImportResultDTO(0, "game1", 1L, null),
+				new GameImportResultDTO(1, "game2", 2L, null), new GameImportResultDTO(2, "game3", 3L, null));
+		verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+		InOrder inOrder = inOrder(gameService, transactionManager);
+		inOrder.verify(gameService).gamesImported(asList(saved1, saved2));
+		inOrder.verify(transactionManager).commit(null);
+		inOrder.verify(gameService).gamesImported(asList(saved3));
+		inOrder.verify(transactionManager).commit(null);
+	}
+
+	@Test
+	public void testImportGames_Ndjson_ShouldReportInvalidAndDuplicateRows() throws Exception {
+		when(gameRepository.findByNameIn(asList("existing"))).thenReturn(asList(new Game(9L, "existing", null, null)));
+
+		List<GameImportResultDTO> results = gameImportService.importGames(input("{\"name\":\"existing\"}\n"
+				+ "{\"name\":\" \"}\n" + "{\"name\":\"" + StringUtils.repeat('x', 41) + "\"}\n"
+				+ "{\"name\":\"long\",\"description\":\"" + StringUtils.repeat('x', 256) + "\"}\n"
+				+ "{\"name\":\"existing\"}\n" + "{}\n"));
+
+		assertThat(results).containsExactly(new GameImportResultDTO(0, "existing", null, GameImportService.DUPLICATE_NAME),
+				new GameImportResultDTO(1, " ", null, GameImportService.NAME_REQUIRED),
+				new GameImportResultDTO(2, StringUtils.repeat('x', 41), null, GameImportService.NAME_TOO_LONG),
+				new GameImportResultDTO(3, "long", null, GameImportService.DESCRIPTION_TOO_LONG),
+				new GameImportResultDTO(4, "existing", null, GameImportService.DUPLICATE_NAME),
+				new GameImportResultDTO(5, null, null, GameImportService.NAME_REQUIRED));
+		verifyZeroInteractions(jdbcTemplate, gameService);
+	}
+
+	@Test
+	public void testImportGames_NullOrScalarElements_ShouldBeRejectedRows() throws Exception {
+		Game saved1 = new Game(1L, "game1", null, null);
+		when(gameRepository.findByNameIn(asList("game1"))).thenReturn(Collections.emptyList(), asList(saved1));
+
+		List<GameImportResultDTO> results = gameImportService.importGames(input("[null,{\"name\":\"game1\"},42]"));
+
+		assertThat(results).containsExactly(new GameImportResultDTO(0, null, null, GameImportService.GAME_REQUIRED),
+				new GameImportResultDTO(1, "game1", 1L, null),
+				new GameImportResultDTO(2, null, null, GameImportService.GAME_REQUIRED));
+	}
+
+	@Test
+	public void testImportGames_BatchFailure_ShouldRetryRowByRow() throws Exception {
+		Game saved1 = new Game(1L, "game1", null, null);
+		when(gameRepository.findByNameIn(asList("game1", "game2"))).thenReturn(Collections.emptyList(),
+				asList(saved1, new Game(2L, "game2", null, null)));
+		when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new DuplicateKeyException("duplicate"));
+		when(jdbcTemplate.update(anyString(), eq("game2"), eq(null), eq(null)))
+				.thenThrow(new DuplicateKeyException("duplicate"));
+
+		List<GameImportResultDTO> results = gameImportService
+				.importGames(input("[{\"name\":\"game1\"},{\"name\":\"game2\"}]"));
+
+		assertThat(results).containsExactly(new GameImportResultDTO(0, "game1", 1L, null),
+				new GameImportResultDTO(1, "game2", null, GameImportService.INSERT_FAILED));
+		verify(jdbcTemplate).update(anyString(), eq("game1"), eq(null), eq(null));
+		verify(transactionManager).rollback(null);
+		verify(gameService).gamesImported(asList(saved1));
+	}
+
+	@Test
+	public void testImportGames_MalformedInput_ShouldKeepRowsReadSoFar() throws Exception {
+		Game saved1 = new Game(1L, "game1", null, null);
+		when(gameRepository.findByNameIn(asList("game1"))).thenReturn(Collections.emptyList(), asList(saved1));
+
+		List<GameImportResultDTO> results = gameImportService.importGames(input("[{\"name\":\"game1\"},{\"name\":"));
+
+		assertThat(results).containsExactly(new GameImportResultDTO(0, "game1", 1L, null),
+				new GameImportResultDTO(1, null, null, GameImportService.MALFORMED_INPUT));
+	}
+
+	private static InputStream input(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
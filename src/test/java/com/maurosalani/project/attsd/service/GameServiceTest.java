@@ -9,10 +9,12 @@ import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.ignoreStubs;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.Collections;
@@ -26,10 +28,20 @@ import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
-
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.maurosalani.project.attsd.dto.GameSummaryDTO;
+import com.maurosalani.project.attsd.dto.LeaderboardEntryDTO;
+import com.maurosalani.project.attsd.dto.PageDTO;
+import com.maurosalani.project.attsd.dto.UserSummaryDTO;
+import com.maurosalani.project.attsd.event.GameDeletedEvent;
+import com.maurosalani.project.attsd.event.GameSavedEvent;
 import com.maurosalani.project.attsd.exception.GameNotFoundException;
 import com.maurosalani.project.attsd.model.Game;
+import com.maurosalani.project.attsd.model.User;
 import com.maurosalani.project.attsd.repository.GameRepository;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -38,6 +50,24 @@ public class GameServiceTest {
 	@Mock
 	private GameRepository gameRepository;
 
+	@Mock
+	private GameCacheService gameCacheService;
+
+	@Mock
+	private TrendingService trendingService;
+
+	@Mock
+	private SimilarGamesService similarGamesService;
+
+	@Mock
+	private LeaderboardService leaderboardService;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
 	@InjectMocks
 	private GameService gameService;
 
@@ -55,6 +85,33 @@ public class GameServiceTest {
 		assertThat(gameService.getAllGames()).containsExactly(game1, game2);
 	}
 
+	@Test
+	public void testGetGamesPage_FromStart_WithMoreRows_ShouldReturnNextAfter() {
+		GameSummaryDTO game1 = new GameSummaryDTO(1L, "game1", new Date(0));
+		GameSummaryDTO game2 = new GameSummaryDTO(2L, "game2", new Date(0));
+		GameSummaryDTO game3 = new GameSummaryDTO(3L, "game3", new Date(0));
+		when(gameRepository.findPageAfter(0L, PageRequest.of(0, 3))).thenReturn(asList(game1, game2, game3));
+
+		assertThat(gameService.getGamesPage(null, 2)).isEqualTo(new PageDTO<>(asList(game1, game2), 2L));
+	}
+
+	@Test
+	public void testGetGamesPage_LastPage_ShouldNotReturnNextAfter() {
+		GameSummaryDTO game3 = new GameSummaryDTO(3L, "game3", new Date(0));
+		when(gameRepository.findPageAfter(2L, PageRequest.of(0, 3))).thenReturn(asList(game3));
+
+		assertThat(gameService.getGamesPage(2L, 2)).isEqualTo(new PageDTO<>(asList(game3), null));
+	}
+
+	@Test
+	public void testGetGamesPage_LimitOutOfRange_ShouldBeBounded() {
+		gameService.getGamesPage(null, 0);
+		gameService.getGamesPage(null, 100000);
+
+		verify(gameRepository).findPageAfter(0L, PageRequest.of(0, 2));
+		verify(gameRepository).findPageAfter(0L, PageRequest.of(0, PageDTO.MAX_LIMIT + 1));
+	}
+
 	@Test
 	public void testGetGameByIdWhenGameDoesNotExist_ShouldThrowException() {
 		when(gameRepository.findById(anyLong())).thenReturn(Optional.empty());
@@ -79,6 +136,24 @@ public class GameServiceTest {
 		assertThatExceptionOfType(GameNotFoundException.class).isThrownBy(() -> gameService.getGameByName("game"));
 	}
 
+	@Test
+	public void testGetLikersPage() throws Exception {
+		UserSummaryDTO liker1 = new UserSummaryDTO(2L, "liker1");
+		UserSummaryDTO liker2 = new UserSummaryDTO(3L, "liker2");
+		when(gameRepository.findById(1L)).thenReturn(Optional.of(new Game(1L, "game", "description", new Date(0))));
+		when(gameRepository.findLikersPageAfter(1L, 0L, PageRequest.of(0, 2))).thenReturn(asList(liker1, liker2));
+
+		assertThat(gameService.getLikersPage(1L, null, 1)).isEqualTo(new PageDTO<>(asList(liker1), 2L));
+	}
+
+	@Test
+	public void testGetLikersPage_GameNotFound_ShouldThrowException() {
+		when(gameRepository.findById(1L)).thenReturn(Optional.empty());
+
+		assertThatExceptionOfType(GameNotFoundException.class).isThrownBy(() -> gameService.getLikersPage(1L, null, 10));
+		verify(gameRepository, never()).findLikersPageAfter(any(), any(), any());
+	}
+
 	@Test
 	public void testGetGameByNameWithExistingGame() throws Exception {
 		Game game = new Game(1L, "game", "description", new Date(0));
@@ -92,27 +167,86 @@ public class GameServiceTest {
 	}
 
 	@Test
-	public void testGetGamesByNameLikeWhenGameDoesNotExist() {
-		when(gameRepository.findByNameLike(anyString())).thenReturn(null);
-		assertThat(gameService.getGamesByNameLike("name")).isNull();
+	public void testGetGamesByNameLikeWhenGameDoesNotExist_ShouldNotQueryDatabase() {
+		assertThat(gameService.getGamesByNameLike("name")).isEmpty();
+		verifyNoMoreInteractions(gameRepository);
 	}
 
 	@Test
 	public void testGetGamesByNameLikeWithExistingGames() {
-		Game game1 = new Game(1L, "game1", "description1", new Date(0));
-		Game game2 = new Game(2L, "game2", "description2", new Date(0));
-		when(gameRepository.findByNameLike("%name%")).thenReturn(asList(game1, game2));
-		assertThat(gameService.getGamesByNameLike("name")).containsExactly(game1, game2);
+		Game game1 = new Game(1L, "game name1", "description1", new Date(0));
+		Game game2 = new Game(2L, "game name2", "description2", new Date(0));
+		Game game3 = new Game(3L, "another", "description3", new Date(0));
+		when(gameRepository.findAll()).thenReturn(asList(game1, game2, game3));
+		gameService.buildNameIndex();
+		List<GameSummaryDTO> found = asList(new GameSummaryDTO(1L, "game name1", new Date(0)),
+				new GameSummaryDTO(2L, "game name2", new Date(0)));
+		when(gameRepository.findSummariesByIdIn(asList(1L, 2L))).thenReturn(found);
+
+		assertThat(gameService.getGamesByNameLike("name")).isEqualTo(found);
 	}
 
 	@Test
-	public void testGetGamesByNameLike_verifyNameIsTrimmedAndWithWildcards() {
-		String content = " someName ";
-		gameService.getGamesByNameLike(content);
-		
-		verify(gameRepository).findByNameLike("%someName%");
+	public void testGetGamesByNameLikeWithLimit_ShouldOnlyQueryTheFirstIds() {
+		Game game1 = new Game(1L, "game name1", "description1", new Date(0));
+		Game game2 = new Game(2L, "game name2", "description2", new Date(0));
+		Game game3 = new Game(3L, "game name3", "description3", new Date(0));
+		when(gameRepository.findAll()).thenReturn(asList(game3, game1, game2));
+		gameService.buildNameIndex();
+
+		gameService.getGamesByNameLike("name", 2);
+
+		verify(gameRepository).findSummariesByIdIn(asList(1L, 2L));
+		assertThatExceptionOfType(IllegalArgumentException.class)
+				.isThrownBy(() -> gameService.getGamesByNameLike("name", 0));
 	}
-	
+
+	@Test
+	public void testGetGamesByNameLike_verifyNameIsTrimmedAndCaseInsensitive() {
+		Game game = new Game(1L, "someName", "description", new Date(0));
+		when(gameRepository.findAll()).thenReturn(asList(game));
+		gameService.buildNameIndex();
+
+		gameService.getGamesByNameLike(" SOMENAME ");
+
+		verify(gameRepository).findSummariesByIdIn(asList(1L));
+	}
+
+	@Test
+	public void testGetGamesByNameLike_ShouldSeeInsertedUpdatedAndDeletedGames() throws Exception {
+		Game saved = new Game(1L, "firstName", "description", new Date(0));
+		when(gameRepository.save(any(Game.class))).thenReturn(saved);
+		gameService.insertNewGame(new Game(null, "firstName", "description", new Date(0)));
+		gameService.getGamesByNameLike("first");
+		verify(gameRepository).findSummariesByIdIn(asList(1L));
+
+		Game renamed = new Game(1L, "secondName", "description", new Date(0));
+		when(gameRepository.findById(1L)).thenReturn(Optional.of(saved));
+		when(gameRepository.save(any(Game.class))).thenReturn(renamed);
+		gameService.updateGameById(1L, new Game(null, "secondName", "description", new Date(0)));
+		assertThat(gameService.getGamesByNameLike("first")).isEmpty();
+		gameService.getGamesByNameLike("second");
+		verify(gameRepository, times(2)).findSummariesByIdIn(asList(1L));
+
+		gameService.deleteById(1L);
+		assertThat(gameService.getGamesByNameLike("second")).isEmpty();
+		verify(gameRepository, times(2)).findSummariesByIdIn(asList(1L));
+	}
+
+	@Test
+	public void testGamesImported_ShouldIndexGamesForSearchAndPublishThem() {
+		Game imported = new Game(7L, "importedGame", "description", new Date(0));
+
+		gameService.gamesImported(asList(imported));
+		gameService.getGamesByNameLike("imported");
+
+		verify(gameRepository).findSummariesByIdIn(asList(7L));
+		InOrder inOrder = inOrder(eventPublisher, transactionManager);
+		inOrder.verify(eventPublisher).publishEvent(new GameSavedEvent(imported));
+		inOrder.verify(transactionManager).commit(null);
+		verify(gameCacheService).gamesInserted();
+	}
+
 	@Test
 	public void testGetGamesByNameLikeWithNameNull() {
 		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> gameService.getGamesByNameLike(null));
@@ -128,9 +262,12 @@ public class GameServiceTest {
 		Game result = gameService.insertNewGame(toSave);
 
 		assertThat(result).isEqualTo(saved);
-		InOrder inOrder = inOrder(toSave, gameRepository);
+		InOrder inOrder = inOrder(toSave, gameRepository, eventPublisher, transactionManager);
 		inOrder.verify(toSave).setId(null);
 		inOrder.verify(gameRepository).save(toSave);
+		inOrder.verify(eventPublisher).publishEvent(new GameSavedEvent(saved));
+		inOrder.verify(transactionManager).commit(null);
+		verify(gameCacheService).gamesInserted();
 	}
 
 	@Test
@@ -150,9 +287,12 @@ public class GameServiceTest {
 		Game result = gameService.updateGameById(1L, replacement);
 
 		assertThat(result).isEqualTo(replaced);
-		InOrder inOrder = inOrder(replacement, gameRepository);
+		InOrder inOrder = inOrder(replacement, gameRepository, eventPublisher, transactionManager);
 		inOrder.verify(replacement).setId(1L);
 		inOrder.verify(gameRepository).save(replacement);
+		inOrder.verify(eventPublisher).publishEvent(new GameSavedEvent(replaced));
+		inOrder.verify(transactionManager).commit(null);
+		verify(gameCacheService).gameChanged(1L);
 	}
 
 	@Test
@@ -189,6 +329,7 @@ public class GameServiceTest {
 		when(gameRepository.findById(1L)).thenReturn(Optional.empty());
 		assertThatExceptionOfType(GameNotFoundException.class).isThrownBy(() -> gameService.deleteById(1L));
 		verifyNoMoreInteractions(ignoreStubs(gameRepository));
+		verifyZeroInteractions(gameCacheService, eventPublisher);
 	}
 
 	@Test
@@ -196,9 +337,65 @@ public class GameServiceTest {
 		Game game = new Game(1L, "name", "description", new Date(0));
 		when(gameRepository.findById(1L)).thenReturn(Optional.of(game));
 		assertThatCode(() -> gameService.deleteById(1L)).doesNotThrowAnyException();
-		verify(gameRepository, times(1)).deleteById(1L);
+		InOrder inOrder = inOrder(gameRepository, eventPublisher, transactionManager);
+		inOrder.verify(gameRepository).deleteById(1L);
+		inOrder.verify(eventPublisher).publishEvent(new GameDeletedEvent(1L));
+		inOrder.verify(transactionManager).commit(null);
+		verify(gameCacheService).gameChanged(1L);
+		verifyZeroInteractions(trendingService, similarGamesService, leaderboardService);
+	}
+
+	@Test
+	public void testGetTrendingGames_ShouldReturnRanking() {
+		List<GameSummaryDTO> trending = asList(new GameSummaryDTO(2L, "game2", new Date(0)));
+		when(trendingService.getTrendingGames()).thenReturn(trending);
+
+		assertThat(gameService.getTrendingGames()).isEqualTo(trending);
 	}
 	
+	@Test
+	public void testGetSimilarGames_ShouldReturnNeighbours() throws Exception {
+		List<GameSummaryDTO> similar = asList(new GameSummaryDTO(2L, "game2", new Date(0)));
+		when(gameRepository.findById(1L)).thenReturn(Optional.of(new Game(1L, "game1", "description", new Date(0))));
+		when(similarGamesService.getSimilarGames(1L)).thenReturn(similar);
+
+		assertThat(gameService.getSimilarGames(1L)).isEqualTo(similar);
+	}
+
+	@Test
+	public void testGetSimilarGames_GameNotFound_ShouldThrowException() {
+		when(gameRepository.findById(1L)).thenReturn(Optional.empty());
+
+		assertThatExceptionOfType(GameNotFoundException.class).isThrownBy(() -> gameService.getSimilarGames(1L));
+		verifyZeroInteractions(similarGamesService);
+	}
+
+	@Test
+	public void testGetMostLikedGames() {
+		List<LeaderboardEntryDTO> top = asList(new LeaderboardEntryDTO(1, 2L, "game2", 5));
+		when(leaderboardService.getMostLikedGames(10)).thenReturn(top);
+
+		assertThat(gameService.getMostLikedGames(10)).isEqualTo(top);
+	}
+
+	@Test
+	public void testGetLeaderboardAround_ShouldReturnNeighbours() throws Exception {
+		List<LeaderboardEntryDTO> around = asList(new LeaderboardEntryDTO(3, 1L, "game1", 2));
+		when(gameRepository.findById(1L)).thenReturn(Optional.of(new Game(1L, "game1", "description", new Date(0))));
+		when(leaderboardService.getGamesAround(1L, 2)).thenReturn(around);
+
+		assertThat(gameService.getLeaderboardAround(1L, 2)).isEqualTo(around);
+	}
+
+	@Test
+	public void testGetLeaderboardAround_GameNotFound_ShouldThrowException() {
+		when(gameRepository.findById(1L)).thenReturn(Optional.empty());
+
+		assertThatExceptionOfType(GameNotFoundException.class)
+				.isThrownBy(() -> gameService.getLeaderboardAround(1L, 2));
+		verifyZeroInteractions(leaderboardService);
+	}
+
 	@Test
 	public void testFindTop3LatestReleaseGames() {
 		Game game1 = new Game(1L, "game1", "description1", new Date(100));
@@ -210,4 +407,33 @@ public class GameServiceTest {
 		assertThat(latest3Release.size()).isEqualTo(3);
 		assertThat(latest3Release).containsExactly(game3, game2, game1);
 	}
-}
+
+	@Test
+	public void testGetLatestReleases_ShouldQueryOnlyOnce() {
+		Game game = new Game(1L, "game", "description", new Date(100));
+		when(gameRepository.findFirstNOrderByReleaseDate(PageRequest.of(0, GameService.LATEST_RELEASES_COUNT)))
+				.thenReturn(asList(game));
+
+		List<Game> first = gameService.getLatestReleases();
+		List<Game> second = gameService.getLatestReleases();
+
+		assertThat(first).containsExactly(game);
+		assertThat(second).isSameAs(first);
+		verify(gameRepository, times(1)).findFirstNOrderByReleaseDate(any(Pageable.class));
+	}
+
+	@Test
+	public void testGetLatestReleases_AfterInsert_ShouldReturnNewList() {
+		Game oldGame = new Game(1L, "oldGame", "description", new Date(100));
+		Game newGame = new Game(2L, "newGame", "description", new Date(200));
+		when(gameRepository.findFirstNOrderByReleaseDate(PageRequest.of(0, GameService.LATEST_RELEASES_COUNT)))
+				.thenReturn(asList(oldGame), asList(newGame, oldGame));
+		when(gameRepository.save(any(Game.class))).thenReturn(newGame);
+
+		List<Game> before = gameService.getLatestReleases();
+		gameService.insertNewGame(new Game(null, "newGame", "description", new Date(200)));
+
+		assertThat(before).containsExactly(oldGame);
+		assertThat(gameService.getLatestReleases()).containsExactly(newGame, oldGame);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,163 @@
+package com.maurosalani.project.attsd.service;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.sql.Date;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.maurosalani.project.attsd.dto.GameSummaryDTO;
+import com.maurosalani.project.attsd.dto.LeaderboardEntryDTO;
+import com.maurosalani.project.attsd.dto.UserSummaryDTO;
+import com.maurosalani.project.attsd.repository.GameRepository;
+import com.maurosalani.project.attsd.repository.UserRelationRepository;
+import com.maurosalani.project.attsd.repository.UserRelationRepository.CountHandler;
+import com.maurosalani.project.attsd.repository.UserRepository;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LeaderboardServiceTest {
+
+	@Mock
+	private UserRelationRepository userRelationRepository;
+
+	@Mock
+	private UserRepository userRepository;
+
+	@Mock
+	private GameRepository gameRepository;
+
+	private LeaderboardService leaderboardService;
+
+	@Before
+	public void setup() {
+		leaderboardService = new LeaderboardService(userRelationRepository, userRepository, gameRepository);
+		doAnswer(invocation -> {
+			CountHandler handler = invocation.getArgument(0);
+			handler.handle(10, 3);
+			handler.handle(20, 7);
+			handler.handle(30, 3);
+			return null;
+		}).when(userRelationRepository).forEachLikeCount(any());
+		doAnswer(invocation -> {
+			CountHandler handler = invocation.getArgument(0);
+			handler.handle(1, 2);
+			handler.handle(2, 4);
+			return null;
+		}).when(userRelationRepository).forEachFollowerCount(any());
+		leaderboardService.seed();
+	}
+
+	@Test
+	public void testGetMostLikedGames_ShouldRankSeededCounts() {
+		stubGameSummaries();
+
+		assertThat(leaderboardService.getMostLikedGames(2)).containsExactly(
+				new LeaderboardEntryDTO(1, 20L, "game20", 7), new LeaderboardEntryDTO(2, 10L, "game10", 3));
+	}
+
+	@Test
+	public void testGameLiked_ShouldMoveGameUp() {
+		stubGameSummaries();
+
+		leaderboardService.gameLiked(30L);
+
+		assertThat(idsOf(leaderboardService.getMostLikedGames(10))).containsExactly(20L, 30L, 10L);
+	}
+
+	@Test
+	public void testGetGamesAround() {
+		stubGameSummaries();
+
+		assertThat(idsOf(leaderboardService.getGamesAround(30L, 1))).containsExactly(10L, 30L);
+		assertThat(leaderboardService.getGamesAround(99L, 1)).isEmpty();
+		assertThatExceptionOfType(IllegalArgumentException.class)
+				.isThrownBy(() -> leaderboardService.getGamesAround(null, 1));
+	}
+
+	@Test
+	public void testGameDeleted_ShouldLeaveRanking() {
+		stubGameSummaries();
+
+		leaderboardService.gameDeleted(20L);
+
+		assertThat(idsOf(leaderboardService.getMostLikedGames(10))).containsExactly(10L, 30L);
+	}
+
+	@Test
+	public void testUserFollowedAndAround() {
+		stubUserSummaries();
+
+		leaderboardService.userFollowed(1L);
+		leaderboardService.userFollowed(3L);
+
+		assertThat(leaderboardService.getUsersAround(1L, 1)).containsExactly(
+				new LeaderboardEntryDTO(1, 2L, "user2", 4), new LeaderboardEntryDTO(2, 1L, "user1", 3),
+				new LeaderboardEntryDTO(3, 3L, "user3", 1));
+	}
+
+	@Test
+	public void testUserDeleted_ShouldTakeBackItsFollowsAndLikes() {
+		stubUserSummaries();
+		stubGameSummaries();
+
+		leaderboardService.userDeleted(2L, asList(1L), asList(20L, 10L));
+
+		assertThat(leaderboardService.getMostFollowedUsers(10))
+				.containsExactly(new LeaderboardEntryDTO(1, 1L, "user1", 1));
+		assertThat(leaderboardService.getMostLikedGames(10)).containsExactly(
+				new LeaderboardEntryDTO(1, 20L, "game20", 6), new LeaderboardEntryDTO(2, 30L, "game30", 3),
+				new LeaderboardEntryDTO(3, 10L, "game10", 2));
+	}
+
+	@Test
+	public void testEntriesMissingFromRepository_ShouldBeSkipped() {
+		when(userRepository.findSummariesByIdIn(asList(2L, 1L))).thenReturn(asList(new UserSummaryDTO(1L, "user1")));
+
+		assertThat(leaderboardService.getMostFollowedUsers(10))
+				.containsExactly(new LeaderboardEntryDTO(2, 1L, "user1", 2));
+	}
+
+	@Test
+	public void testEmptyRanking_ShouldNotQuery() {
+		leaderboardService.userDeleted(1L, Collections.emptyList(), Collections.emptyList());
+		leaderboardService.userDeleted(2L, Collections.emptyList(), Collections.emptyList());
+
+		assertThat(leaderboardService.getMostFollowedUsers(10)).isEmpty();
+		verifyZeroInteractions(userRepository);
+	}
+
+	private void stubGameSummaries() {
+		when(gameRepository.findSummariesByIdIn(anyCollection())).thenAnswer(invocation -> {
+			Collection<Long> ids = invocation.getArgument(0);
+			return ids.stream().map(id -> new GameSummaryDTO(id, "game" + id, new Date(0)))
+					.collect(Collectors.toList());
+		});
+	}
+
+	private void stubUserSummaries() {
+		when(userRepository.findSummariesByIdIn(anyCollection())).thenAnswer(invocation -> {
+			Collection<Long> ids = invocation.getArgument(0);
+			return ids.stream().map(id -> new UserSummaryDTO(id, "user" + id)).collect(Collectors.toList());
+		});
+	}
+
+	private static List<Long> idsOf(List<LeaderboardEntryDTO> entries) {
+		return entries.stream().map(LeaderboardEntryDTO::getId).collect(Collectors.toList());
+	}
+
+}
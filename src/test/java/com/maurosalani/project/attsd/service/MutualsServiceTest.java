@@ -0,0 +1,80 @@
+package com.maurosalani.project.attsd.service;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.maurosalani.project.attsd.dto.MutualsDTO;
+import com.maurosalani.project.attsd.dto.UserSummaryDTO;
+import com.maurosalani.project.attsd.repository.UserRelationRepository;
+import com.maurosalani.project.attsd.repository.UserRepository;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MutualsServiceTest {
+
+	@Mock
+	private UserRelationRepository userRelationRepository;
+
+	@Mock
+	private UserRepository userRepository;
+
+	private FollowGraphService followGraphService;
+
+	private MutualsService mutualsService;
+
+	@Before
+	public void setup() {
+		followGraphService = new FollowGraphService(userRelationRepository);
+		mutualsService = new MutualsService(followGraphService, userRepository);
+	}
+
+	@Test
+	public void testGetMutuals_NullIds_ShouldThrowException() {
+		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> mutualsService.getMutuals(null, 1L));
+		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> mutualsService.getMutuals(1L, null));
+	}
+
+	@Test
+	public void testGetMutuals_WithoutKnownFollowers_ShouldNotQuery() {
+		followGraphService.userFollowed(1L, 2L);
+		followGraphService.userFollowed(3L, 4L);
+
+		assertThat(mutualsService.getMutuals(1L, 4L)).isEqualTo(new MutualsDTO(0, asList()));
+		verifyZeroInteractions(userRepository);
+	}
+
+	@Test
+	public void testGetMutuals_ShouldCountAllAndSampleTheFirst() {
+		for (long known = 2; known <= 6; known++) {
+			followGraphService.userFollowed(1L, known);
+			followGraphService.userFollowed(known, 10L);
+		}
+		followGraphService.userFollowed(7L, 10L);
+		when(userRepository.findSummariesByIdIn(asList(2L, 3L, 4L))).thenReturn(
+				asList(new UserSummaryDTO(4L, "user4"), new UserSummaryDTO(2L, "user2"), new UserSummaryDTO(3L, "user3")));
+
+		assertThat(mutualsService.getMutuals(1L, 10L)).isEqualTo(new MutualsDTO(5, asList(
+				new UserSummaryDTO(2L, "user2"), new UserSummaryDTO(3L, "user3"), new UserSummaryDTO(4L, "user4"))));
+	}
+
+	@Test
+	public void testGetMutuals_UsersMissingFromRepository_ShouldBeLeftOutOfSample() {
+		followGraphService.userFollowed(1L, 2L);
+		followGraphService.userFollowed(1L, 3L);
+		followGraphService.userFollowed(2L, 10L);
+		followGraphService.userFollowed(3L, 10L);
+		when(userRepository.findSummariesByIdIn(asList(2L, 3L))).thenReturn(asList(new UserSummaryDTO(3L, "user3")));
+
+		assertThat(mutualsService.getMutuals(1L, 10L))
+				.isEqualTo(new MutualsDTO(2, asList(new UserSummaryDTO(3L, "user3"))));
+	}
+
+}
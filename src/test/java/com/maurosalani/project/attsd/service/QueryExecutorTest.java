@@ -0,0 +1,128 @@
+package com.maurosalani.project.attsd.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import com.maurosalani.project.attsd.exception.UserNotFoundException;
+
+public class QueryExecutorTest {
+
+	private QueryExecutor queryExecutor;
+
+	@Before
+	public void setup() {
+		queryExecutor = new QueryExecutor();
+		ReflectionTestUtils.setField(queryExecutor, "workers", 1);
+		ReflectionTestUtils.setField(queryExecutor, "queue", 1);
+		ReflectionTestUtils.setField(queryExecutor, "timeoutMillis", 2000L);
+		queryExecutor.start();
+	}
+
+	@After
+	public void tearDown() {
+		queryExecutor.stop();
+	}
+
+	@Test
+	public void testSubmit_ShouldCompleteWithTheResultOfTheQuery() throws Exception {
+		assertThat(resultOf(queryExecutor.submit("query", () -> "value"))).isEqualTo("value");
+	}
+
+	@Test
+	public void testSubmit_FailingQuery_ShouldCompleteWithTheException() {
+		UserNotFoundException exception = new UserNotFoundException("User not found");
+
+		assertThatExceptionOfType(UserNotFoundException.class)
+				.isThrownBy(() -> resultOf(queryExecutor.submit("query", () -> {
+					throw exception;
+				}))).isSameAs(exception);
+	}
+
+	@Test
+	public void testSubmit_ShouldUseTheTimeoutConfiguredForTheName() {
+		ReflectionTestUtils.setField(queryExecutor, "environment",
+				new MockEnvironment().withProperty("attsd.query.timeout-millis.slow", "10000"));
+
+		assertThat(queryExecutor.submit("slow", () -> null).getTimeout()).isEqualTo(10000L);
+		assertThat(queryExecutor.submit("other", () -> null).getTimeout()).isEqualTo(2000L);
+	}
+
+	@Test
+	public void testSubmit_WhenWorkersAreSaturated_ShouldBeRejected() throws Exception {
+		WebAsyncTask<Object> running = queryExecutor.submit("running", () -> null);
+		queryExecutor.submit("queued", () -> null);
+
+		assertThatExceptionOfType(RejectedExecutionException.class)
+				.isThrownBy(() -> queryExecutor.submit("rejected", () -> null));
+
+		resultOf(running);
+		queryExecutor.submit("admitted", () -> null);
+	}
+
+	@Test
+	public void testSubmit_TaskCompletedBeforeRunning_ShouldFreeItsPlaceAndNotRun() throws Exception {
+		WebAsyncTask<Object> timedOut = queryExecutor.submit("timed-out", () -> "value");
+		queryExecutor.submit("queued", () -> null);
+
+		((Runnable) ReflectionTestUtils.getField(timedOut, "completionCallback")).run();
+		queryExecutor.submit("admitted", () -> null);
+
+		assertThat(resultOf(timedOut)).isNull();
+	}
+
+	@Test
+	public void testSubmit_ShouldRunTheQueryInAReadOnlyTransactionTimingOutWithTheRequest() throws Exception {
+		PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+		ReflectionTestUtils.setField(queryExecutor, "transactionManager", transactionManager);
+		ReflectionTestUtils.setField(queryExecutor, "environment",
+				new MockEnvironment().withProperty("attsd.query.timeout-millis.slow", "10500"));
+
+		assertThat(resultOf(queryExecutor.submit("slow", () -> "value"))).isEqualTo("value");
+
+		ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+		verify(transactionManager).getTransaction(definition.capture());
+		assertThat(definition.getValue().isReadOnly()).isTrue();
+		assertThat(definition.getValue().getTimeout()).isEqualTo(11);
+	}
+
+	@Test
+	public void testSubmit_QueryThrowingCheckedException_ShouldRollBackAndCompleteWithTheException() {
+		PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+		TransactionStatus status = mock(TransactionStatus.class);
+		when(transactionManager.getTransaction(any())).thenReturn(status);
+		ReflectionTestUtils.setField(queryExecutor, "transactionManager", transactionManager);
+		IOException exception = new IOException();
+
+		assertThatExceptionOfType(IOException.class)
+				.isThrownBy(() -> resultOf(queryExecutor.submit("query", () -> {
+					throw exception;
+				}))).isSameAs(exception);
+		verify(transactionManager).rollback(status);
+	}
+
+	private Object resultOf(WebAsyncTask<?> task) throws Exception {
+		Callable<?> callable = task.getCallable();
+		return callable.call();
+	}
+
+}
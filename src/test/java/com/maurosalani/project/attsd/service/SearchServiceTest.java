@@ -0,0 +1,122 @@
+package com.maurosalani.project.attsd.service;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.sql.Date;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.maurosalani.project.attsd.dto.GameSummaryDTO;
+import com.maurosalani.project.attsd.dto.SearchResultDTO;
+import com.maurosalani.project.attsd.dto.UserSummaryDTO;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SearchServiceTest {
+
+	@Mock
+	private UserService userService;
+
+	@Mock
+	private GameService gameService;
+
+	private SearchService searchService;
+
+	private SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private CountDownLatch release = new CountDownLatch(1);
+
+	@Before
+	public void setup() {
+		searchService = new SearchService(userService, gameService);
+		ReflectionTestUtils.setField(searchService, "workers", 2);
+		ReflectionTestUtils.setField(searchService, "queue", 1);
+		ReflectionTestUtils.setField(searchService, "deadlineMillis", 200L);
+		ReflectionTestUtils.setField(searchService, "maxResults", 5);
+		searchService.start();
+		searchService.bindTo(registry);
+	}
+
+	@After
+	public void tearDown() {
+		release.countDown();
+		searchService.stop();
+	}
+
+	@Test
+	public void testSearch_ShouldReturnUsersAndGamesUpToTheMaximum() {
+		UserSummaryDTO user = new UserSummaryDTO(1L, "name");
+		GameSummaryDTO game = new GameSummaryDTO(1L, "name", new Date(0));
+		when(userService.getUsersByUsernameLike("name", 5)).thenReturn(asList(user));
+		when(gameService.getGamesByNameLike("name", 5)).thenReturn(asList(game));
+
+		assertThat(searchService.search("name")).isEqualTo(new SearchResultDTO(asList(user), asList(game), false));
+		assertThat(registry.get("attsd.search.lookup").tags("source", "users", "outcome", "success").timer()
+				.count()).isEqualTo(1);
+		assertThat(registry.get("attsd.search.lookup").tags("source", "games", "outcome", "success").timer()
+				.count()).isEqualTo(1);
+	}
+
+	@Test
+	public void testSearch_WhenALookupMissesTheDeadline_ShouldReturnPartialResults() {
+		UserSummaryDTO user = new UserSummaryDTO(1L, "name");
+		when(userService.getUsersByUsernameLike("name", 5)).thenReturn(asList(user));
+		when(gameService.getGamesByNameLike("name", 5)).thenAnswer(invocation -> {
+			release.await();
+			return Collections.emptyList();
+		});
+
+		assertThat(searchService.search("name"))
+				.isEqualTo(new SearchResultDTO(asList(user), Collections.emptyList(), true));
+		assertThat(registry.get("attsd.search.skipped").tags("source", "games", "reason", "timeout").counter()
+				.count()).isEqualTo(1);
+	}
+
+	@Test
+	public void testSearch_WhenWorkersAreSaturated_ShouldReturnPartialResults() throws Exception {
+		ExecutorService executor = (ExecutorService) ReflectionTestUtils.getField(searchService, "executor");
+		CountDownLatch started = new CountDownLatch(2);
+		for (int i = 0; i < 2; i++)
+			executor.submit(() -> {
+				started.countDown();
+				release.await();
+				return null;
+			});
+		started.await();
+
+		SearchResultDTO result = searchService.search("name");
+
+		assertThat(result.isPartial()).isTrue();
+		assertThat(registry.get("attsd.search.skipped").tags("source", "games", "reason", "rejected").counter()
+				.count()).isEqualTo(1);
+		verifyNoMoreInteractions(gameService);
+	}
+
+	@Test
+	public void testSearch_WhenALookupFails_ShouldThrowException() {
+		when(gameService.getGamesByNameLike("name", 5)).thenThrow(new IllegalArgumentException());
+
+		assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() -> searchService.search("name"))
+				.withCauseInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testSearch_WithNullContent_ShouldThrowException() {
+		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> searchService.search(null));
+	}
+
+}
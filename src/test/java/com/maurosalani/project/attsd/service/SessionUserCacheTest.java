@@ -0,0 +1,119 @@
+package com.maurosalani.project.attsd.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.maurosalani.project.attsd.dto.LoggedUserDTO;
+import com.maurosalani.project.attsd.event.CredentialsChangedEvent;
+import com.maurosalani.project.attsd.event.GameLikedEvent;
+import com.maurosalani.project.attsd.event.UserFollowedEvent;
+
+public class SessionUserCacheTest {
+
+	private SessionUserCache sessionUserCache;
+
+	@Before
+	public void setup() {
+		sessionUserCache = new SessionUserCache();
+	}
+
+	@Test
+	public void testPut_ShouldStoreUserForSession() {
+		LoggedUserDTO user = loggedUser(1L, "user");
+
+		sessionUserCache.put("session", user, sessionUserCache.beginLoad());
+
+		assertThat(sessionUserCache.get("session")).isSameAs(user);
+		assertThat(sessionUserCache.get("other")).isNull();
+	}
+
+	@Test
+	public void testPut_WhenUserChangedDuringLoad_ShouldNotStore() {
+		long stamp = sessionUserCache.beginLoad();
+		sessionUserCache.userChanged(2L);
+
+		sessionUserCache.put("session", loggedUser(1L, "user"), stamp);
+
+		assertThat(sessionUserCache.get("session")).isNull();
+	}
+
+	@Test
+	public void testUserChanged_ShouldRemoveOnlyEntriesOfThatUser() {
+		LoggedUserDTO other = loggedUser(2L, "other");
+		sessionUserCache.put("session1", loggedUser(1L, "user"), sessionUserCache.beginLoad());
+		sessionUserCache.put("session2", loggedUser(1L, "user"), sessionUserCache.beginLoad());
+		sessionUserCache.put("session3", other, sessionUserCache.beginLoad());
+
+		sessionUserCache.userChanged(1L);
+
+		assertThat(sessionUserCache.get("session1")).isNull();
+		assertThat(sessionUserCache.get("session2")).isNull();
+		assertThat(sessionUserCache.get("session3")).isSameAs(other);
+	}
+
+	@Test
+	public void testRelationEvents_ShouldRemoveEntriesOfTheUserActing() {
+		LoggedUserDTO followed = loggedUser(2L, "followed");
+		sessionUserCache.put("session1", loggedUser(1L, "user"), sessionUserCache.beginLoad());
+		sessionUserCache.put("session2", followed, sessionUserCache.beginLoad());
+
+		sessionUserCache.userFollowed(new UserFollowedEvent(1L, 2L));
+
+		assertThat(sessionUserCache.get("session1")).isNull();
+		assertThat(sessionUserCache.get("session2")).isSameAs(followed);
+
+		sessionUserCache.gameLiked(new GameLikedEvent(2L, 3L));
+
+		assertThat(sessionUserCache.get("session2")).isNull();
+	}
+
+	@Test
+	public void testCredentialsChanged_ShouldRemoveEntriesOfTheUser() {
+		sessionUserCache.put("session", loggedUser(1L, "user"), sessionUserCache.beginLoad());
+
+		sessionUserCache.credentialsChanged(new CredentialsChangedEvent(1L));
+
+		assertThat(sessionUserCache.get("session")).isNull();
+	}
+
+	@Test
+	public void testSessionEnded_ShouldRemoveEntry() {
+		sessionUserCache.put("session", loggedUser(1L, "user"), sessionUserCache.beginLoad());
+
+		sessionUserCache.sessionEnded("session");
+
+		assertThat(sessionUserCache.get("session")).isNull();
+	}
+
+	@Test
+	public void testUserChanged_AfterSessionChangedUser_ShouldRemoveOnlyTheCurrentUser() {
+		LoggedUserDTO other = loggedUser(2L, "other");
+		sessionUserCache.put("session", loggedUser(1L, "user"), sessionUserCache.beginLoad());
+		sessionUserCache.put("session", other, sessionUserCache.beginLoad());
+
+		sessionUserCache.userChanged(1L);
+		assertThat(sessionUserCache.get("session")).isSameAs(other);
+
+		sessionUserCache.userChanged(2L);
+		assertThat(sessionUserCache.get("session")).isNull();
+	}
+
+	@Test
+	public void testSessionEnded_ShouldDropItFromTheIndexOfItsUser() {
+		sessionUserCache.put("session", loggedUser(1L, "user"), sessionUserCache.beginLoad());
+
+		sessionUserCache.sessionEnded("session");
+
+		assertThat(ReflectionTestUtils.getField(sessionUserCache, "sessionsByUser")).isEqualTo(Collections.emptyMap());
+	}
+
+	private static LoggedUserDTO loggedUser(Long id, String username) {
+		return new LoggedUserDTO(id, username, Collections.emptySet(), Collections.emptySet());
+	}
+
+}
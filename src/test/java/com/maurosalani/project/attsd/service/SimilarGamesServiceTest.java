@@ -0,0 +1,189 @@
+package com.maurosalani.project.attsd.service;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.sql.Date;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.maurosalani.project.attsd.dto.GameSummaryDTO;
+import com.maurosalani.project.attsd.repository.GameRepository;
+import com.maurosalani.project.attsd.repository.UserRelationRepository;
+import com.maurosalani.project.attsd.repository.UserRelationRepository.RelationHandler;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SimilarGamesServiceTest {
+
+	@Mock
+	private UserRelationRepository userRelationRepository;
+
+	@Mock
+	private GameRepository gameRepository;
+
+	private SimilarGamesService similarGamesService;
+
+	@Before
+	public void setup() {
+		similarGamesService = new SimilarGamesService(userRelationRepository, gameRepository);
+		similarGamesService.start();
+	}
+
+	@After
+	public void tearDown() {
+		similarGamesService.stop();
+	}
+
+	@Test
+	public void testGetSimilarGames_NullId_ShouldThrowException() {
+		assertThatExceptionOfType(IllegalArgumentException.class)
+				.isThrownBy(() -> similarGamesService.getSimilarGames(null));
+	}
+
+	@Test
+	public void testGetSimilarGames_BeforeRefresh_ShouldNotQuery() {
+		likes(new long[][] { { 1, 10 }, { 1, 20 } });
+
+		assertThat(similarGamesService.getSimilarGames(10L)).isEmpty();
+		verifyZeroInteractions(gameRepository);
+	}
+
+	@Test
+	public void testRefresh_ShouldRankByCosineSimilarity() {
+		likes(new long[][] { { 1, 10 }, { 1, 20 }, { 1, 30 }, { 2, 10 }, { 2, 20 }, { 3, 10 }, { 3, 30 }, { 4, 30 },
+				{ 5, 30 }, { 6, 40 } });
+		stubSummaries();
+
+		similarGamesService.refresh();
+
+		assertThat(idsOf(similarGamesService.getSimilarGames(10L))).containsExactly(20L, 30L);
+		assertThat(idsOf(similarGamesService.getSimilarGames(20L))).containsExactly(10L, 30L);
+		assertThat(similarGamesService.getSimilarGames(40L)).isEmpty();
+	}
+
+	@Test
+	public void testRefresh_ShouldKeepOnlyTopNeighbours() {
+		long[][] edges = LongStream.rangeClosed(1, SimilarGamesService.TOP_K + 5)
+				.mapToObj(game -> new long[] { 1, game }).toArray(long[][]::new);
+		likes(edges);
+		stubSummaries();
+
+		similarGamesService.refresh();
+
+		assertThat(similarGamesService.getSimilarGames(1L)).hasSize(SimilarGamesService.TOP_K);
+	}
+
+	@Test
+	public void testGameLiked_ShouldBeReflectedAfterRefresh() {
+		likes(new long[][] { { 1, 10 }, { 2, 20 } });
+		stubSummaries();
+		similarGamesService.refresh();
+		assertThat(similarGamesService.getSimilarGames(10L)).isEmpty();
+
+		similarGamesService.gameLiked(1L, 20L);
+		similarGamesService.refresh();
+
+		assertThat(idsOf(similarGamesService.getSimilarGames(10L))).containsExactly(20L);
+		assertThat(idsOf(similarGamesService.getSimilarGames(20L))).containsExactly(10L);
+	}
+
+	@Test
+	public void testGameLiked_ShouldReorderTheGamesListingIt() {
+		likes(new long[][] { { 1, 10 }, { 1, 20 }, { 2, 10 }, { 2, 30 } });
+		stubSummaries();
+		similarGamesService.refresh();
+		assertThat(idsOf(similarGamesService.getSimilarGames(10L))).containsExactly(20L, 30L);
+
+		similarGamesService.gameLiked(3L, 20L);
+		similarGamesService.refresh();
+
+		assertThat(idsOf(similarGamesService.getSimilarGames(10L))).containsExactly(30L, 20L);
+	}
+
+	@Test
+	public void testRefresh_GameWithManyFans_ShouldCountASampleOfThem() {
+		ReflectionTestUtils.setField(similarGamesService, "maxFans", 2);
+		likes(new long[][] { { 1, 10 }, { 1, 20 }, { 2, 10 }, { 2, 30 }, { 3, 10 }, { 3, 40 }, { 4, 10 },
+				{ 4, 50 } });
+		stubSummaries();
+
+		similarGamesService.refresh();
+
+		assertThat(idsOf(similarGamesService.getSimilarGames(10L))).containsExactly(20L, 40L);
+	}
+
+	@Test
+	public void testGameDeleted_ShouldDropItsNeighboursAndItFromOthers() {
+		likes(new long[][] { { 1, 10 }, { 1, 20 }, { 1, 30 } });
+		stubSummaries();
+		similarGamesService.refresh();
+
+		similarGamesService.gameDeleted(20L);
+		similarGamesService.refresh();
+
+		assertThat(similarGamesService.getSimilarGames(20L)).isEmpty();
+		assertThat(idsOf(similarGamesService.getSimilarGames(10L))).containsExactly(30L);
+	}
+
+	@Test
+	public void testUserDeleted_ShouldForgetItsLikes() {
+		likes(new long[][] { { 1, 10 }, { 1, 20 }, { 2, 10 } });
+		stubSummaries();
+		similarGamesService.refresh();
+
+		similarGamesService.userDeleted(1L);
+		similarGamesService.refresh();
+
+		assertThat(similarGamesService.getSimilarGames(10L)).isEmpty();
+		assertThat(similarGamesService.getSimilarGames(20L)).isEmpty();
+	}
+
+	@Test
+	public void testGetSimilarGames_GamesMissingFromRepository_ShouldBeSkipped() {
+		likes(new long[][] { { 1, 10 }, { 1, 20 }, { 1, 30 } });
+		similarGamesService.refresh();
+		when(gameRepository.findSummariesByIdIn(asList(20L, 30L)))
+				.thenReturn(asList(new GameSummaryDTO(30L, "game30", new Date(0))));
+
+		assertThat(idsOf(similarGamesService.getSimilarGames(10L))).containsExactly(30L);
+	}
+
+	private void likes(long[][] edges) {
+		doAnswer(invocation -> {
+			RelationHandler handler = invocation.getArgument(0);
+			for (long[] edge : edges)
+				handler.handle(edge[0], edge[1]);
+			return null;
+		}).when(userRelationRepository).forEachGame(any());
+		similarGamesService.buildGraph();
+	}
+
+	private void stubSummaries() {
+		when(gameRepository.findSummariesByIdIn(anyCollection())).thenAnswer(invocation -> {
+			Collection<Long> ids = invocation.getArgument(0);
+			return ids.stream().sorted().map(id -> new GameSummaryDTO(id, "game" + id, new Date(0)))
+					.collect(Collectors.toList());
+		});
+	}
+
+	private static List<Long> idsOf(List<GameSummaryDTO> games) {
+		return games.stream().map(GameSummaryDTO::getId).collect(Collectors.toList());
+	}
+
+}
@@ -0,0 +1,74 @@
+package com.maurosalani.project.attsd.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.maurosalani.project.attsd.dto.TokenDTO;
+
+public class TokenServiceTest {
+
+	private TokenService tokenService;
+
+	@Before
+	public void setup() {
+		tokenService = newTokenService("secret");
+		setTime(tokenService, 1000);
+	}
+
+	@Test
+	public void testIssue_ShouldAuthenticateUntilExpired() {
+		TokenDTO issued = tokenService.issue(1L);
+
+		assertThat(issued.getUserId()).isEqualTo(1L);
+		assertThat(issued.getExpiresAt()).isEqualTo(1000 + 3600);
+		assertThat(tokenService.authenticate(issued.getToken())).isEqualTo(1L);
+
+		setTime(tokenService, 1000 + 3600);
+		assertThat(tokenService.authenticate(issued.getToken())).isNull();
+	}
+
+	@Test
+	public void testAuthenticate_SharedSecret_ShouldAcceptTokensOfOtherNodes() {
+		TokenService otherNode = newTokenService("secret");
+		setTime(otherNode, 1000);
+
+		assertThat(otherNode.authenticate(tokenService.issue(1L).getToken())).isEqualTo(1L);
+	}
+
+	@Test
+	public void testAuthenticate_WithoutSecret_ShouldUseRandomKeyPerNode() {
+		TokenService first = newTokenService("");
+		TokenService second = newTokenService("");
+
+		String token = first.issue(1L).getToken();
+
+		assertThat(first.authenticate(token)).isEqualTo(1L);
+		assertThat(second.authenticate(token)).isNull();
+	}
+
+	@Test
+	public void testIssue_NullId_ShouldThrowException() {
+		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> tokenService.issue(null));
+		assertThat(tokenService.authenticate("garbage")).isNull();
+	}
+
+	private static TokenService newTokenService(String secret) {
+		TokenService service = new TokenService();
+		ReflectionTestUtils.setField(service, "secret", secret);
+		service.start();
+		return service;
+	}
+
+	private static void setTime(TokenService service, long seconds) {
+		ReflectionTestUtils.setField(service, "clock", Clock.fixed(Instant.ofEpochSecond(seconds), ZoneOffset.UTC));
+	}
+
+}
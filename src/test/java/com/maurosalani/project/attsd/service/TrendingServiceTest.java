@@ -0,0 +1,201 @@
+package com.maurosalani.project.attsd.service;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.sql.Date;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.maurosalani.project.attsd.dto.GameSummaryDTO;
+import com.maurosalani.project.attsd.repository.GameRepository;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TrendingServiceTest {
+
+	private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+	private static final long NOW = 1000 * HOUR;
+
+	@Mock
+	private GameRepository gameRepository;
+
+	private TrendingService trendingService;
+
+	@Before
+	public void setup() {
+		trendingService = new TrendingService(gameRepository);
+		at(NOW);
+	}
+
+	@Test
+	public void testRefresh_WithoutLikes_ShouldNotQuery() {
+		trendingService.refresh();
+
+		assertThat(trendingService.getTrendingGames()).isEmpty();
+		verifyZeroInteractions(gameRepository);
+	}
+
+	@Test
+	public void testRefresh_ShouldRankByLikes() {
+		stubSummaries();
+		like(1L, 1);
+		like(2L, 3);
+		like(3L, 2);
+
+		trendingService.refresh();
+
+		assertThat(idsOf(trendingService.getTrendingGames())).containsExactly(2L, 3L, 1L);
+	}
+
+	@Test
+	public void testRefresh_OlderLikesShouldWeighLess() {
+		stubSummaries();
+		like(1L, 3);
+		at(NOW + TrendingService.HALF_LIFE_HOURS * HOUR * 2);
+		like(2L, 1);
+
+		trendingService.refresh();
+
+		assertThat(idsOf(trendingService.getTrendingGames())).containsExactly(2L, 1L);
+	}
+
+	@Test
+	public void testRefresh_LikesOutsideTheWindowShouldBeForgotten() {
+		stubSummaries();
+		like(1L, 5);
+		like(2L, 1);
+		at(NOW + TrendingService.BUCKETS * HOUR);
+		like(2L, 1);
+
+		trendingService.refresh();
+
+		assertThat(idsOf(trendingService.getTrendingGames())).containsExactly(2L);
+	}
+
+	@Test
+	public void testRefresh_ShouldKeepTopK() {
+		stubSummaries();
+		for (long id = 1; id <= TrendingService.TOP_K + 5; id++)
+			like(id, (int) id);
+
+		trendingService.refresh();
+
+		assertThat(trendingService.getTrendingGames()).hasSize(TrendingService.TOP_K);
+		assertThat(trendingService.getTrendingGames().get(0).getId()).isEqualTo(TrendingService.TOP_K + 5L);
+	}
+
+	@Test
+	public void testRefresh_ShouldSkipDeletedGames() {
+		when(gameRepository.findSummariesByIdIn(anyCollection())).thenReturn(asList(summary(2L)));
+		like(1L, 2);
+		like(2L, 1);
+
+		trendingService.refresh();
+
+		assertThat(idsOf(trendingService.getTrendingGames())).containsExactly(2L);
+	}
+
+	@Test
+	public void testGameDeleted_ShouldForgetLikes() {
+		stubSummaries();
+		like(1L, 2);
+		like(2L, 1);
+		trendingService.gameDeleted(1L);
+
+		trendingService.refresh();
+
+		assertThat(idsOf(trendingService.getTrendingGames())).containsExactly(2L);
+	}
+
+	@Test
+	public void testGameLiked_ConcurrentLikesShouldNotBeLost() throws Exception {
+		stubSummaries();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		for (int i = 0; i < 1000; i++) {
+			Long gameId = i % 2 == 0 ? 1L : 2L;
+			executor.execute(() -> trendingService.gameLiked(gameId));
+		}
+		executor.shutdown();
+		assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+		like(2L, 1);
+
+		trendingService.refresh();
+
+		assertThat(idsOf(trendingService.getTrendingGames())).containsExactly(2L, 1L);
+	}
+
+	@Test
+	public void testRefresh_DroppingEmptyBucketsShouldNotLoseLikeCountedMeanwhile() {
+		stubSummaries();
+		AtomicBoolean refreshed = new AtomicBoolean();
+		ReflectionTestUtils.setField(trendingService, "likes", new ConcurrentHashMap<Long, AtomicLongArray>() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public AtomicLongArray computeIfAbsent(Long key,
+					Function<? super Long, ? extends AtomicLongArray> mappingFunction) {
+				AtomicLongArray buckets = super.computeIfAbsent(key, mappingFunction);
+				if (refreshed.compareAndSet(false, true))
+					trendingService.refresh();
+				return buckets;
+			}
+
+		});
+
+		trendingService.gameLiked(1L);
+		trendingService.refresh();
+
+		assertThat(idsOf(trendingService.getTrendingGames())).containsExactly(1L);
+	}
+
+	private void like(Long gameId, int times) {
+		for (int i = 0; i < times; i++)
+			trendingService.gameLiked(gameId);
+	}
+
+	private void at(long millis) {
+		ReflectionTestUtils.setField(trendingService, "clock", Clock.fixed(Instant.ofEpochMilli(millis), ZoneOffset.UTC));
+	}
+
+	@SuppressWarnings("unchecked")
+	private void stubSummaries() {
+		when(gameRepository.findSummariesByIdIn(anyCollection())).thenAnswer(invocation -> {
+			List<GameSummaryDTO> summaries = new ArrayList<>();
+			((Collection<Long>) invocation.getArgument(0)).forEach(id -> summaries.add(summary(id)));
+			return summaries;
+		});
+	}
+
+	private static GameSummaryDTO summary(Long id) {
+		return new GameSummaryDTO(id, "game" + id, new Date(0));
+	}
+
+	private static List<Long> idsOf(List<GameSummaryDTO> games) {
+		return games.stream().map(GameSummaryDTO::getId).collect(Collectors.toList());
+	}
+
+}
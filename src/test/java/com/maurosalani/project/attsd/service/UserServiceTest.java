@@ -9,14 +9,18 @@ import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.ignoreStubs;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.Collections;
+import java.util.HashSet;
 import java.sql.Date;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.Test;
@@ -25,9 +29,27 @@ import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import com.maurosalani.project.attsd.dto.CredentialsDTO;
+import com.maurosalani.project.attsd.dto.FeedEventDTO;
+import com.maurosalani.project.attsd.dto.FeedEventDTO.Activity;
+import com.maurosalani.project.attsd.dto.FollowSuggestionDTO;
+import com.maurosalani.project.attsd.dto.GameSummaryDTO;
+import com.maurosalani.project.attsd.dto.LeaderboardEntryDTO;
+import com.maurosalani.project.attsd.dto.LoggedUserDTO;
+import com.maurosalani.project.attsd.dto.MutualsDTO;
+import com.maurosalani.project.attsd.dto.PageDTO;
+import com.maurosalani.project.attsd.dto.RelationDTO;
+import com.maurosalani.project.attsd.dto.UserSummaryDTO;
+import com.maurosalani.project.attsd.event.CredentialsChangedEvent;
+import com.maurosalani.project.attsd.event.GameLikedEvent;
+import com.maurosalani.project.attsd.event.UserDeletedEvent;
+import com.maurosalani.project.attsd.event.UserFollowedEvent;
+import com.maurosalani.project.attsd.event.UserSavedEvent;
 import com.maurosalani.project.attsd.exception.GameNotFoundException;
 import com.maurosalani.project.attsd.exception.LoginFailedException;
 import com.maurosalani.project.attsd.exception.PasswordRequiredException;
@@ -35,7 +57,7 @@ import com.maurosalani.project.attsd.exception.UserNotFoundException;
 import com.maurosalani.project.attsd.exception.UsernameAlreadyExistingException;
 import com.maurosalani.project.attsd.model.Game;
 import com.maurosalani.project.attsd.model.User;
-import com.maurosalani.project.attsd.repository.GameRepository;
+import com.maurosalani.project.attsd.repository.UserRelationRepository;
 import com.maurosalani.project.attsd.repository.UserRepository;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -45,7 +67,31 @@ public class UserServiceTest {
 	private UserRepository userRepository;
 	
 	@Mock
-	private GameRepository gameRepository;
+	private UserRelationRepository userRelationRepository;
+
+	@Mock
+	private FollowSuggestionService followSuggestionService;
+
+	@Mock
+	private MutualsService mutualsService;
+
+	@Mock
+	private FeedService feedService;
+
+	@Mock
+	private LeaderboardService leaderboardService;
+
+	@Mock
+	private CredentialService credentialService;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@Mock
+	private SessionUserCache sessionUserCache;
 
 	@InjectMocks
 	private UserService userService;
@@ -64,6 +110,189 @@ public class UserServiceTest {
 		assertThat(userService.getAllUsers()).containsExactly(user1, user2);
 	}
 
+	@Test
+	public void testGetUsersPage_ShouldSeekAfterIdAndReturnNextAfter() {
+		UserSummaryDTO user2 = new UserSummaryDTO(2L, "username2");
+		UserSummaryDTO user3 = new UserSummaryDTO(3L, "username3");
+		when(userRepository.findPageAfter(1L, PageRequest.of(0, 2))).thenReturn(asList(user2, user3));
+
+		assertThat(userService.getUsersPage(1L, 1)).isEqualTo(new PageDTO<>(asList(user2), 2L));
+	}
+
+	@Test
+	public void testGetUsersPage_FromStart_LastPage() {
+		UserSummaryDTO user1 = new UserSummaryDTO(1L, "username1");
+		when(userRepository.findPageAfter(0L, PageRequest.of(0, 51))).thenReturn(asList(user1));
+
+		assertThat(userService.getUsersPage(null, 50)).isEqualTo(new PageDTO<>(asList(user1), null));
+	}
+
+	@Test
+	public void testGetFollowedUsersPage() throws Exception {
+		UserSummaryDTO followed = new UserSummaryDTO(2L, "followed");
+		when(userRepository.existsById(1L)).thenReturn(true);
+		when(userRepository.findFollowedPageAfter(1L, 0L, PageRequest.of(0, 11))).thenReturn(asList(followed));
+
+		assertThat(userService.getFollowedUsersPage(1L, null, 10)).isEqualTo(new PageDTO<>(asList(followed), null));
+	}
+
+	@Test
+	public void testGetFollowerUsersPage() throws Exception {
+		UserSummaryDTO follower1 = new UserSummaryDTO(2L, "follower1");
+		UserSummaryDTO follower2 = new UserSummaryDTO(3L, "follower2");
+		when(userRepository.existsById(1L)).thenReturn(true);
+		when(userRepository.findFollowerPageAfter(1L, 1L, PageRequest.of(0, 2)))
+			.thenReturn(asList(follower1, follower2));
+
+		assertThat(userService.getFollowerUsersPage(1L, 1L, 1)).isEqualTo(new PageDTO<>(asList(follower1), 2L));
+	}
+
+	@Test
+	public void testGetGamesPage() throws Exception {
+		GameSummaryDTO game = new GameSummaryDTO(5L, "game", new Date(0));
+		when(userRepository.existsById(1L)).thenReturn(true);
+		when(userRepository.findGamesPageAfter(1L, 4L, PageRequest.of(0, 11))).thenReturn(asList(game));
+
+		assertThat(userService.getGamesPage(1L, 4L, 10)).isEqualTo(new PageDTO<>(asList(game), null));
+	}
+
+	@Test
+	public void testRelationPages_UserNotFound_ShouldThrowException() {
+		when(userRepository.existsById(1L)).thenReturn(false);
+
+		assertThatExceptionOfType(UserNotFoundException.class)
+			.isThrownBy(() -> userService.getFollowedUsersPage(1L, null, 10));
+		assertThatExceptionOfType(UserNotFoundException.class)
+			.isThrownBy(() -> userService.getFollowerUsersPage(1L, null, 10));
+		assertThatExceptionOfType(UserNotFoundException.class)
+			.isThrownBy(() -> userService.getGamesPage(1L, null, 10));
+		verifyNoMoreInteractions(ignoreStubs(userRepository));
+	}
+
+	@Test
+	public void testGetFeedPage() throws Exception {
+		PageDTO<FeedEventDTO> page = new PageDTO<>(asList(new FeedEventDTO(7L, Activity.LIKED, 2L, "friend", 3L,
+				"game", new Date(0))), 7L);
+		when(userRepository.existsById(1L)).thenReturn(true);
+		when(feedService.getFeed(1L, 9L, 1)).thenReturn(page);
+
+		assertThat(userService.getFeedPage(1L, 9L, 1)).isEqualTo(page);
+	}
+
+	@Test
+	public void testGetFeedPage_UserNotFound_ShouldThrowException() {
+		when(userRepository.existsById(1L)).thenReturn(false);
+
+		assertThatExceptionOfType(UserNotFoundException.class).isThrownBy(() -> userService.getFeedPage(1L, null, 10));
+		verifyZeroInteractions(feedService);
+	}
+
+	@Test
+	public void testGetRecentFeed_ShouldNotCheckUser() {
+		FeedEventDTO event = new FeedEventDTO(7L, Activity.FOLLOWED, 2L, "friend", 3L, "other", new Date(0));
+		when(feedService.getFeed(1L, null, 10)).thenReturn(new PageDTO<>(asList(event), null));
+
+		assertThat(userService.getRecentFeed(1L, 10)).containsExactly(event);
+		verifyZeroInteractions(userRepository);
+	}
+
+	@Test
+	public void testGetFollowSuggestions() throws Exception {
+		FollowSuggestionDTO suggestion = new FollowSuggestionDTO(3L, "suggested", 2);
+		when(userRepository.existsById(1L)).thenReturn(true);
+		when(followSuggestionService.getSuggestions(1L, 5)).thenReturn(asList(suggestion));
+
+		assertThat(userService.getFollowSuggestions(1L, 5)).containsExactly(suggestion);
+	}
+
+	@Test
+	public void testGetFollowSuggestions_UserNotFound_ShouldThrowException() {
+		when(userRepository.existsById(1L)).thenReturn(false);
+
+		assertThatExceptionOfType(UserNotFoundException.class)
+			.isThrownBy(() -> userService.getFollowSuggestions(1L, 5));
+		verifyZeroInteractions(followSuggestionService);
+	}
+
+	@Test
+	public void testGetMutuals() throws Exception {
+		MutualsDTO mutuals = new MutualsDTO(1, asList(new UserSummaryDTO(3L, "known")));
+		when(userRepository.existsById(1L)).thenReturn(true);
+		when(userRepository.existsById(2L)).thenReturn(true);
+		when(mutualsService.getMutuals(1L, 2L)).thenReturn(mutuals);
+
+		assertThat(userService.getMutuals(1L, 2L)).isEqualTo(mutuals);
+	}
+
+	@Test
+	public void testGetMutuals_OtherUserNotFound_ShouldThrowException() {
+		when(userRepository.existsById(1L)).thenReturn(true);
+		when(userRepository.existsById(2L)).thenReturn(false);
+
+		assertThatExceptionOfType(UserNotFoundException.class)
+			.isThrownBy(() -> userService.getMutuals(1L, 2L));
+		verifyZeroInteractions(mutualsService);
+	}
+
+	@Test
+	public void testGetMostFollowedUsers() {
+		List<LeaderboardEntryDTO> top = asList(new LeaderboardEntryDTO(1, 2L, "user2", 5));
+		when(leaderboardService.getMostFollowedUsers(10)).thenReturn(top);
+
+		assertThat(userService.getMostFollowedUsers(10)).isEqualTo(top);
+	}
+
+	@Test
+	public void testGetLeaderboardAround() throws Exception {
+		List<LeaderboardEntryDTO> around = asList(new LeaderboardEntryDTO(4, 1L, "user1", 1));
+		when(userRepository.existsById(1L)).thenReturn(true);
+		when(leaderboardService.getUsersAround(1L, 2)).thenReturn(around);
+
+		assertThat(userService.getLeaderboardAround(1L, 2)).isEqualTo(around);
+	}
+
+	@Test
+	public void testGetLeaderboardAround_UserNotFound_ShouldThrowException() {
+		when(userRepository.existsById(1L)).thenReturn(false);
+
+		assertThatExceptionOfType(UserNotFoundException.class)
+			.isThrownBy(() -> userService.getLeaderboardAround(1L, 2));
+		verifyZeroInteractions(leaderboardService);
+	}
+
+	@Test
+	public void testRelationPages_IdNull_ShouldThrowException() {
+		assertThatExceptionOfType(IllegalArgumentException.class)
+			.isThrownBy(() -> userService.getFollowedUsersPage(null, null, 10));
+		verifyNoMoreInteractions(userRepository);
+	}
+
+	@Test
+	public void testIsFollowing_ShouldAskRepository() {
+		when(userRepository.isFollowing(1L, 2L)).thenReturn(true);
+
+		assertThat(userService.isFollowing(1L, 2L)).isTrue();
+	}
+
+	@Test
+	public void testIsFollowingWithNullIds() {
+		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> userService.isFollowing(null, 2L));
+		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> userService.isFollowing(1L, null));
+	}
+
+	@Test
+	public void testHasLiked_ShouldAskRepository() {
+		when(userRepository.hasLiked(1L, 3L)).thenReturn(false);
+
+		assertThat(userService.hasLiked(1L, 3L)).isFalse();
+	}
+
+	@Test
+	public void testHasLikedWithNullIds() {
+		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> userService.hasLiked(null, 3L));
+		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> userService.hasLiked(1L, null));
+	}
+
 	@Test
 	public void testGetUserByIdWhenUserDoesNotExist_ShouldThrowException() throws Exception {
 		when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
@@ -103,7 +332,15 @@ public class UserServiceTest {
 
 	@Test
 	public void testGetUserByUsernameAndPassword_WhenUserDoesNotExist() {
-		when(userRepository.findByUsernameAndPassword(anyString(), anyString())).thenReturn(Optional.empty());
+		when(userRepository.findByUsername(anyString())).thenReturn(Optional.empty());
+		assertThatExceptionOfType(UserNotFoundException.class)
+			.isThrownBy(() -> userService.getUserByUsernameAndPassword("username", "password"));
+	}
+
+	@Test
+	public void testGetUserByUsernameAndPassword_WhenPasswordDoesNotMatch() {
+		when(userRepository.findByUsername("username")).thenReturn(Optional.of(new User(1L, "username", "hash")));
+		when(credentialService.matches("password", "hash")).thenReturn(false);
 		assertThatExceptionOfType(UserNotFoundException.class)
 			.isThrownBy(() -> userService.getUserByUsernameAndPassword("username", "password"));
 	}
@@ -119,30 +356,76 @@ public class UserServiceTest {
 	@Test
 	public void testGetUserByUsernameAndPassworWithExistingUser() throws Exception {
 		User user = new User(1L, "username", "pwd");
-		when(userRepository.findByUsernameAndPassword("username", "password")).thenReturn(Optional.of(user));
+		when(userRepository.findByUsername("username")).thenReturn(Optional.of(user));
+		when(credentialService.matches("password", "pwd")).thenReturn(true);
 		assertThat(userService.getUserByUsernameAndPassword("username", "password")).isEqualTo(user);
 	}
 
 	@Test
-	public void testGetUsersByUsernameLikeWhenUserDoesNotExist() {
-		when(userRepository.findByUsernameLike(anyString())).thenReturn(Collections.emptyList());
+	public void testGetUsersByUsernameLikeWhenUserDoesNotExist_ShouldNotQueryDatabase() {
 		assertThat(userService.getUsersByUsernameLike("username")).isEmpty();
+		verifyNoMoreInteractions(userRepository);
 	}
 
 	@Test
 	public void testGetUsersByUsernameLikeWithExistingUsers() {
 		User user1 = new User(1L, "username1", "pwd1");
 		User user2 = new User(2L, "username2", "pwd2");
-		when(userRepository.findByUsernameLike("%username%")).thenReturn(asList(user1, user2));
-		assertThat(userService.getUsersByUsernameLike("username")).containsExactly(user1, user2);
+		User user3 = new User(3L, "another", "pwd3");
+		when(userRepository.findAll()).thenReturn(asList(user1, user2, user3));
+		userService.buildUsernameIndex();
+		List<UserSummaryDTO> found = asList(new UserSummaryDTO(1L, "username1"), new UserSummaryDTO(2L, "username2"));
+		when(userRepository.findSummariesByIdIn(asList(1L, 2L))).thenReturn(found);
+
+		assertThat(userService.getUsersByUsernameLike("username")).isEqualTo(found);
 	}
-	
+
 	@Test
-	public void testGetUsersByUsernameLike_verifyUsernameIsTrimmedAndWithWildcards() {
-		String content = " someName ";
-		userService.getUsersByUsernameLike(content);
-		
-		verify(userRepository).findByUsernameLike("%someName%");
+	public void testGetUsersByUsernameLikeWithLimit_ShouldOnlyQueryTheFirstIds() {
+		User user1 = new User(1L, "username1", "pwd1");
+		User user2 = new User(2L, "username2", "pwd2");
+		User user3 = new User(3L, "username3", "pwd3");
+		when(userRepository.findAll()).thenReturn(asList(user3, user1, user2));
+		userService.buildUsernameIndex();
+
+		userService.getUsersByUsernameLike("username", 2);
+
+		verify(userRepository).findSummariesByIdIn(asList(1L, 2L));
+		assertThatExceptionOfType(IllegalArgumentException.class)
+			.isThrownBy(() -> userService.getUsersByUsernameLike("username", 0));
+	}
+
+	@Test
+	public void testGetUsersByUsernameLike_verifyUsernameIsTrimmedAndCaseInsensitive() {
+		User user = new User(1L, "someName", "pwd");
+		when(userRepository.findAll()).thenReturn(asList(user));
+		userService.buildUsernameIndex();
+
+		userService.getUsersByUsernameLike(" SOMENAME ");
+
+		verify(userRepository).findSummariesByIdIn(asList(1L));
+	}
+
+	@Test
+	public void testGetUsersByUsernameLike_ShouldSeeInsertedUpdatedAndDeletedUsers() throws Exception {
+		User saved = new User(1L, "firstName", "pwd");
+		when(userRepository.findByUsername(anyString())).thenReturn(Optional.empty());
+		when(userRepository.save(any(User.class))).thenReturn(saved);
+		userService.insertNewUser(new User(null, "firstName", "pwd"));
+		userService.getUsersByUsernameLike("first");
+		verify(userRepository).findSummariesByIdIn(asList(1L));
+
+		User renamed = new User(1L, "secondName", "pwd");
+		when(userRepository.findById(1L)).thenReturn(Optional.of(saved));
+		when(userRepository.save(any(User.class))).thenReturn(renamed);
+		userService.updateUserById(1L, new User(null, "secondName", "pwd"));
+		assertThat(userService.getUsersByUsernameLike("first")).isEmpty();
+		userService.getUsersByUsernameLike("second");
+		verify(userRepository, times(2)).findSummariesByIdIn(asList(1L));
+
+		userService.deleteById(1L);
+		assertThat(userService.getUsersByUsernameLike("second")).isEmpty();
+		verify(userRepository, times(2)).findSummariesByIdIn(asList(1L));
 	}
 
 	@Test
@@ -158,13 +441,17 @@ public class UserServiceTest {
 
 		when(userRepository.findByUsername(anyString())).thenReturn(Optional.empty());
 		when(userRepository.save(any(User.class))).thenReturn(saved);
+		when(credentialService.hash("toSavePwd")).thenReturn("hashedPwd");
 
 		User result = userService.insertNewUser(toSave);
 
 		assertThat(result).isEqualTo(saved);
 		InOrder inOrder = inOrder(toSave, userRepository);
 		inOrder.verify(toSave).setId(null);
+		inOrder.verify(toSave).setPassword("hashedPwd");
 		inOrder.verify(userRepository).save(toSave);
+		verify(eventPublisher).publishEvent(new UserSavedEvent(saved));
+		verify(transactionManager).commit(null);
 	}
 
 	@Test
@@ -221,13 +508,19 @@ public class UserServiceTest {
 		User replaced = new User(1L, "replaced_user", "replaced_user");
 		when(userRepository.save(any(User.class))).thenReturn(replaced);
 		when(userRepository.findById(1L)).thenReturn(Optional.of(replaced));
+		when(credentialService.hash("replacement_pwd")).thenReturn("hashedPwd");
 
 		User result = userService.updateUserById(1L, replacement);
 
 		assertThat(result).isEqualTo(replaced);
-		InOrder inOrder = inOrder(replacement, userRepository);
+		InOrder inOrder = inOrder(replacement, userRepository, eventPublisher, transactionManager);
 		inOrder.verify(replacement).setId(1L);
+		inOrder.verify(replacement).setPassword("hashedPwd");
 		inOrder.verify(userRepository).save(replacement);
+		inOrder.verify(eventPublisher).publishEvent(new UserSavedEvent(replaced));
+		inOrder.verify(eventPublisher).publishEvent(new CredentialsChangedEvent(1L));
+		inOrder.verify(transactionManager).commit(null);
+		verifyZeroInteractions(sessionUserCache);
 	}
 
 	@Test
@@ -289,112 +582,103 @@ public class UserServiceTest {
 	public void testDeleteById_IdFound() {
 		User user = new User(1L, "username", "pwd");
 		when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+		when(userRepository.findFollowedIdsById(1L)).thenReturn(Collections.singleton(2L));
+		when(userRepository.findFollowerIdsById(1L)).thenReturn(Collections.singleton(4L));
+		when(userRepository.findGameIdsById(1L)).thenReturn(Collections.singleton(3L));
 		assertThatCode(() -> userService.deleteById(1L)).doesNotThrowAnyException();
-		verify(userRepository, times(1)).deleteById(1L);
+		InOrder inOrder = inOrder(userRepository, eventPublisher, transactionManager);
+		inOrder.verify(transactionManager).getTransaction(any());
+		inOrder.verify(userRepository).findFollowedIdsById(1L);
+		inOrder.verify(userRepository).deleteById(1L);
+		inOrder.verify(eventPublisher).publishEvent(new UserDeletedEvent(1L, Collections.singleton(2L),
+				Collections.singleton(4L), Collections.singleton(3L)));
+		inOrder.verify(transactionManager).commit(null);
+		verifyZeroInteractions(sessionUserCache, credentialService, feedService, leaderboardService);
 	}
 
 	@Test
-	public void testAddUserToFollowedUsersList_UserIsNull_ShouldThrowException() {
-		User user = new User(1L, "username", "pwd");
+	public void testAddFollowedUser_NullIds_ShouldThrowException() {
 		assertThatExceptionOfType(IllegalArgumentException.class)
-			.isThrownBy(() -> userService.addFollowedUser(null, user));
-	}
-
-	@Test
-	public void testAddUserToFollowedUsersList_ToAddUserIsNull_ShouldThrowException() {
-		User user = new User(1L, "username", "pwd");
+			.isThrownBy(() -> userService.addFollowedUser(null, 2L));
 		assertThatExceptionOfType(IllegalArgumentException.class)
-			.isThrownBy(() -> userService.addFollowedUser(user, null));
+			.isThrownBy(() -> userService.addFollowedUser(1L, null));
+		verifyZeroInteractions(userRelationRepository);
 	}
 
 	@Test
-	public void testAddUserToFollowedUsersList_UserNotExist_ShouldThrowException() {
-		User user1 = new User(1L, "username1", "pwd1");
-		User user2 = new User(2L, "username2", "pwd2");
+	public void testAddFollowedUser_MissingUser_ShouldThrowException() {
+		when(userRelationRepository.insertFollowed(1L, 2L)).thenThrow(new DataIntegrityViolationException("fk"));
 
-		when(userRepository.findById(user1.getId())).thenReturn(Optional.empty());
 		assertThatExceptionOfType(UserNotFoundException.class)
-			.isThrownBy(() -> userService.addFollowedUser(user1, user2));
+			.isThrownBy(() -> userService.addFollowedUser(1L, 2L));
+		verify(transactionManager).rollback(null);
+		verifyZeroInteractions(eventPublisher);
 	}
 
 	@Test
-	public void testAddUserToFollowedUsersList_FollowedNotExist_ShouldThrowException() {
-		User user1 = new User(1L, "username1", "pwd1");
-		User user2 = new User(2L, "username2", "pwd2");
+	public void testAddFollowedUser_ShouldInsertRelation() throws Exception {
+		when(userRelationRepository.insertFollowed(1L, 2L)).thenReturn(true);
 
-		when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
-		when(userRepository.findById(user2.getId())).thenReturn(Optional.empty());
-		assertThatExceptionOfType(UserNotFoundException.class)
-			.isThrownBy(() -> userService.addFollowedUser(user1, user2));
+		assertThat(userService.addFollowedUser(1L, 2L)).isEqualTo(new RelationDTO(1L, 2L, true));
+		InOrder inOrder = inOrder(userRelationRepository, eventPublisher, transactionManager);
+		inOrder.verify(userRelationRepository).insertFollowed(1L, 2L);
+		inOrder.verify(eventPublisher).publishEvent(new UserFollowedEvent(1L, 2L));
+		inOrder.verify(transactionManager).commit(null);
+		verifyZeroInteractions(userRepository, sessionUserCache, feedService, leaderboardService);
 	}
 
 	@Test
-	public void testAddUserToFollowedUsersList_ShouldReturnModifiedUser() throws Exception {
-		User user1 = spy(new User(1L, "username", "pwd"));
-		User user2 = spy(new User(2L, "username", "pwd"));
-		User resulted = new User(1L, "username", "pwd");
-		resulted.addFollowedUser(user2);
-		when(userRepository.save(any(User.class))).thenReturn(resulted);
-		when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
-		when(userRepository.findById(2L)).thenReturn(Optional.of(user2));
+	public void testAddFollowedUser_AlreadyFollowed_ShouldChangeNothing() throws Exception {
+		when(userRelationRepository.insertFollowed(1L, 2L)).thenReturn(false);
 
-		User saved = userService.addFollowedUser(user1, user2);
-		assertThat(saved).isEqualTo(resulted);
-		InOrder inOrder = inOrder(user1, user2, userRepository);
-		inOrder.verify(userRepository).findById(1L);
-		inOrder.verify(userRepository).findById(2L);
-		inOrder.verify(user1).addFollowedUser(user2);
-		inOrder.verify(user2).addFollowerUser(user1);
-		inOrder.verify(userRepository).save(user1);
+		assertThat(userService.addFollowedUser(1L, 2L)).isEqualTo(new RelationDTO(1L, 2L, false));
+		verifyZeroInteractions(eventPublisher);
 	}
 
 	@Test
-	public void testAddGameToGamesList_UserIsNull_ShouldThrowException() {
-		Game game = new Game(1L, "game name", "game description", new Date(1000));
-		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> userService.addGame(null, game));
+	public void testAddGame_NullIds_ShouldThrowException() {
+		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> userService.addGame(null, 2L));
+		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> userService.addGame(1L, null));
+		verifyZeroInteractions(userRelationRepository);
 	}
 
 	@Test
-	public void testAddGameToGamesList_GameIsNull_ShouldThrowException() {
-		User user = new User(1L, "username", "pwd");
-		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> userService.addGame(user, null));
+	public void testAddGame_UserNotFound_ShouldThrowException() {
+		when(userRelationRepository.insertGame(1L, 2L)).thenThrow(new DataIntegrityViolationException("fk"));
+		when(userRepository.existsById(1L)).thenReturn(false);
+
+		assertThatExceptionOfType(UserNotFoundException.class).isThrownBy(() -> userService.addGame(1L, 2L));
 	}
-	
+
 	@Test
-	public void testAddGameToGamesList_UserNotFound_ShouldThrowException() {
-		User user = new User(1L, "username", "pwd");
-		Game game = new Game(2L, "game name", "game description", new Date(1000));
-		when(userRepository.findById(user.getId())).thenReturn(Optional.empty());
-		assertThatExceptionOfType(UserNotFoundException.class).isThrownBy(() -> userService.addGame(user, game));
+	public void testAddGame_GameNotFound_ShouldThrowException() {
+		when(userRelationRepository.insertGame(1L, 2L)).thenThrow(new DataIntegrityViolationException("fk"));
+		when(userRepository.existsById(1L)).thenReturn(true);
+
+		assertThatExceptionOfType(GameNotFoundException.class).isThrownBy(() -> userService.addGame(1L, 2L));
+		verifyZeroInteractions(eventPublisher);
 	}
-	
+
 	@Test
-	public void testAddGameToGamesList_GameNotFound_ShouldThrowException() {
-		User user = new User(1L, "username", "pwd");
-		Game game = new Game(2L, "game name", "game description", new Date(1000));
-		when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-		when(gameRepository.findById(game.getId())).thenReturn(Optional.empty());
-		assertThatExceptionOfType(GameNotFoundException.class).isThrownBy(() -> userService.addGame(user, game));
+	public void testAddGame_ShouldInsertRelation() throws Exception {
+		when(userRelationRepository.insertGame(1L, 2L)).thenReturn(true);
+
+		assertThat(userService.addGame(1L, 2L)).isEqualTo(new RelationDTO(1L, 2L, true));
+		InOrder inOrder = inOrder(userRelationRepository, eventPublisher, transactionManager);
+		inOrder.verify(userRelationRepository).insertGame(1L, 2L);
+		inOrder.verify(eventPublisher).publishEvent(new GameLikedEvent(1L, 2L));
+		inOrder.verify(transactionManager).commit(null);
+		verifyZeroInteractions(userRepository, sessionUserCache, feedService, leaderboardService);
 	}
 
 	@Test
-	public void testAddGameToGamesList_ShouldReturnModifiedUser() throws Exception {
-		User user = spy(new User(1L, "username", "pwd"));
-		Game game = spy(new Game(2L, "game name", "game description", new Date(1000)));
-		User resulted = new User(1L, "username", "pwd");
-		resulted.addGame(game);
-		when(userRepository.save(any(User.class))).thenReturn(resulted);
-		when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-		when(gameRepository.findById(game.getId())).thenReturn(Optional.of(game));
-		
-		User saved = userService.addGame(user, game);
-		assertThat(saved).isEqualTo(resulted);
-		InOrder inOrder = inOrder(user, game, userRepository);
-		inOrder.verify(user).addGame(game);
-		inOrder.verify(game).addUser(user);
-		inOrder.verify(userRepository).save(user);
+	public void testAddGame_AlreadyLiked_ShouldChangeNothing() throws Exception {
+		when(userRelationRepository.insertGame(1L, 2L)).thenReturn(false);
+
+		assertThat(userService.addGame(1L, 2L)).isEqualTo(new RelationDTO(1L, 2L, false));
+		verifyZeroInteractions(eventPublisher);
 	}
-	
+
 	@Test
 	public void testChangePassword_ShouldReturnModifiedUser() throws Exception {
 		User user = spy(new User(1L, "username", "pwd"));
@@ -402,12 +686,16 @@ public class UserServiceTest {
 		User resulted = new User(1L, "username", "newPwd");
 		when(userRepository.save(any(User.class))).thenReturn(resulted);
 		when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+		when(credentialService.hash(newPassword)).thenReturn("hashedPwd");
 		
 		User saved = userService.changePassword(user, newPassword);
 		assertThat(saved).isEqualTo(resulted);
-		InOrder inOrder = inOrder(user, userRepository);
-		inOrder.verify(user).setPassword(newPassword);
+		InOrder inOrder = inOrder(user, userRepository, eventPublisher, transactionManager);
+		inOrder.verify(user).setPassword("hashedPwd");
 		inOrder.verify(userRepository).save(user);
+		inOrder.verify(eventPublisher).publishEvent(new CredentialsChangedEvent(1L));
+		inOrder.verify(transactionManager).commit(null);
+		verifyZeroInteractions(sessionUserCache);
 	}
 	
 	@Test
@@ -443,19 +731,127 @@ public class UserServiceTest {
 	
 	@Test
 	public void testVerifyLogin_UserSucceed() throws Exception {
-		User userToLog = new User(1L,"username","password");
+		User userToLog = new User(1L,"username","hash");
 		CredentialsDTO credentialsDTO = new CredentialsDTO("username", "password"); 
-		when(userRepository.findByUsernameAndPassword("username", "password"))
+		when(credentialService.beginVerification()).thenReturn(3L);
+		when(userRepository.findByUsername("username"))
 			.thenReturn(Optional.of(userToLog));
+		when(credentialService.matches("password", "hash")).thenReturn(true);
 		User userLogged = userService.verifyLogin(credentialsDTO);
 		assertThat(userLogged).isEqualTo(userToLog);
+		verify(credentialService).verified("username", "password", userToLog, 3L);
+		verify(userRepository, never()).updatePassword(anyLong(), anyString(), anyString());
+	}
+
+	@Test
+	public void testVerifyLogin_VerifiedRecently_ShouldNotQuery() throws Exception {
+		User verified = new User(1L, "username", "hash");
+		when(credentialService.getVerified("username", "password")).thenReturn(verified);
+
+		assertThat(userService.verifyLogin(new CredentialsDTO("username", "password"))).isSameAs(verified);
+		verifyZeroInteractions(userRepository);
+		verify(credentialService, never()).matches(anyString(), anyString());
+	}
+
+	@Test
+	public void testVerifyLogin_OutdatedHash_ShouldRehashUnlessChanged() throws Exception {
+		User userToLog = new User(1L, "username", "password");
+		when(userRepository.findByUsername("username")).thenReturn(Optional.of(userToLog));
+		when(credentialService.matches("password", "password")).thenReturn(true);
+		when(credentialService.needsRehash("password")).thenReturn(true);
+		when(credentialService.hash("password")).thenReturn("hash");
+		when(userRepository.updatePassword(1L, "password", "hash")).thenReturn(1);
+
+		assertThat(userService.verifyLogin(new CredentialsDTO("username", "password")).getPassword())
+			.isEqualTo("hash");
+
+		User changed = new User(2L, "other", "password");
+		when(userRepository.findByUsername("other")).thenReturn(Optional.of(changed));
+		when(userRepository.updatePassword(2L, "password", "hash")).thenReturn(0);
+
+		assertThat(userService.verifyLogin(new CredentialsDTO("other", "password")).getPassword())
+			.isEqualTo("password");
+	}
+
+	@Test
+	public void testVerifyLogin_WrongPassword_ShouldThrowException() throws Exception {
+		when(userRepository.findByUsername("username")).thenReturn(Optional.of(new User(1L, "username", "hash")));
+		when(credentialService.matches("wrong", "hash")).thenReturn(false);
+
+		assertThatExceptionOfType(LoginFailedException.class)
+			.isThrownBy(() -> userService.verifyLogin(new CredentialsDTO("username", "wrong")));
+		verify(credentialService, never()).verified(anyString(), anyString(), any(), anyLong());
+	}
+
+	@Test
+	public void testVerifyLogin_NullCredentials_ShouldThrowException() throws Exception {
+		assertThatExceptionOfType(LoginFailedException.class)
+			.isThrownBy(() -> userService.verifyLogin(new CredentialsDTO("username", null)));
+		assertThatExceptionOfType(LoginFailedException.class)
+			.isThrownBy(() -> userService.verifyLogin(null));
+		verifyZeroInteractions(userRepository, credentialService);
 	}
 	
 	@Test
 	public void testVerifyLogin_UserDoesNotExist_ShouldThrowException() throws Exception {
 		CredentialsDTO credentialsDTO = new CredentialsDTO("username_not_existing", "password"); 
-		when(userRepository.findByUsernameAndPassword("username_not_existing", "password"))
+		when(userRepository.findByUsername("username_not_existing"))
 			.thenReturn(Optional.empty());
 		assertThatExceptionOfType(LoginFailedException.class).isThrownBy(() -> userService.verifyLogin(credentialsDTO));
 	}
-}
+
+	@Test
+	public void testPasswordMatches_ShouldCheckStoredHash() {
+		User user = new User(1L, "username", "hash");
+		when(credentialService.matches("password", "hash")).thenReturn(true);
+
+		assertThat(userService.passwordMatches(user, "password")).isTrue();
+		assertThat(userService.passwordMatches(user, "wrong")).isFalse();
+		assertThatExceptionOfType(IllegalArgumentException.class)
+			.isThrownBy(() -> userService.passwordMatches(null, "password"));
+	}
+
+	@Test
+	public void testGetLoggedUser_CachedForSession_ShouldNotQuery() throws Exception {
+		LoggedUserDTO cached = new LoggedUserDTO(1L, "username", Collections.emptySet(), Collections.emptySet());
+		when(sessionUserCache.get("session")).thenReturn(cached);
+
+		assertThat(userService.getLoggedUser("session", "username")).isSameAs(cached);
+		verifyZeroInteractions(userRepository);
+	}
+
+	@Test
+	public void testGetLoggedUser_NotCached_ShouldLoadAndCacheIdsOfFollowedUsersAndGames() throws Exception {
+		when(sessionUserCache.beginLoad()).thenReturn(7L);
+		when(userRepository.findByUsername("username")).thenReturn(Optional.of(new User(1L, "username", "pwd")));
+		when(userRepository.findFollowedIdsById(1L)).thenReturn(new HashSet<>(asList(2L, 3L)));
+		when(userRepository.findGameIdsById(1L)).thenReturn(new HashSet<>(asList(4L)));
+
+		LoggedUserDTO loggedUser = userService.getLoggedUser("session", "username");
+
+		LoggedUserDTO expected = new LoggedUserDTO(1L, "username", new HashSet<>(asList(2L, 3L)),
+				new HashSet<>(asList(4L)));
+		assertThat(loggedUser).isEqualTo(expected);
+		verify(sessionUserCache).put("session", expected, 7L);
+	}
+
+	@Test
+	public void testGetLoggedUser_CachedForAnotherUsername_ShouldReload() throws Exception {
+		when(sessionUserCache.get("session"))
+				.thenReturn(new LoggedUserDTO(1L, "previous", Collections.emptySet(), Collections.emptySet()));
+		when(userRepository.findByUsername("username")).thenReturn(Optional.of(new User(2L, "username", "pwd")));
+		when(userRepository.findFollowedIdsById(2L)).thenReturn(Collections.emptySet());
+		when(userRepository.findGameIdsById(2L)).thenReturn(Collections.emptySet());
+
+		assertThat(userService.getLoggedUser("session", "username").getId()).isEqualTo(2L);
+	}
+
+	@Test
+	public void testGetLoggedUser_UserNotFound_ShouldThrowException() {
+		when(userRepository.findByUsername("username")).thenReturn(Optional.empty());
+
+		assertThatExceptionOfType(UserNotFoundException.class)
+				.isThrownBy(() -> userService.getLoggedUser("session", "username"));
+		verify(sessionUserCache, never()).put(anyString(), any(LoggedUserDTO.class), anyLong());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,153 @@
+package com.maurosalani.project.attsd.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedFileSessionRepositoryTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path file;
+
+	private MappedFileSessionRepository repository;
+
+	@Before
+	public void setup() throws IOException {
+		file = folder.getRoot().toPath().resolve("sessions.bin");
+		repository = new MappedFileSessionRepository(file, 0);
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		repository.close();
+	}
+
+	@Test
+	public void testSave_ShouldBeFoundBeforeAndAfterFlush() {
+		repository.save(session("id", 1000, 60));
+
+		assertSession(repository.find("id"));
+		repository.flush();
+		assertSession(repository.find("id"));
+		assertThat(repository.find("other")).isNull();
+	}
+
+	@Test
+	public void testSave_ShouldSurviveReopeningTheFile() throws IOException {
+		repository.save(session("id", 1000, 60));
+		repository.close();
+
+		repository = new MappedFileSessionRepository(file, 0);
+
+		assertSession(repository.find("id"));
+	}
+
+	@Test
+	public void testDelete_ShouldRemoveStoredAndPendingSessions() throws IOException {
+		repository.save(session("stored", 1000, 60));
+		repository.flush();
+		repository.save(session("pending", 1000, 60));
+
+		repository.delete("stored");
+		repository.delete("pending");
+
+		assertThat(repository.find("stored")).isNull();
+		assertThat(repository.find("pending")).isNull();
+		repository.close();
+		repository = new MappedFileSessionRepository(file, 0);
+		assertThat(repository.find("stored")).isNull();
+		assertThat(repository.find("pending")).isNull();
+	}
+
+	@Test
+	public void testSave_MoreSessionsThanSlots_ShouldGrowTheFile() throws IOException {
+		for (int i = 0; i < 600; i++)
+			repository.save(session("id" + i, i, 60));
+		repository.close();
+
+		repository = new MappedFileSessionRepository(file, 0);
+
+		for (int i = 0; i < 600; i++)
+			assertThat(repository.find("id" + i).getCreationTime()).isEqualTo(i);
+	}
+
+	@Test
+	public void testSave_ShouldReuseSlotsOfDeletedSessions() throws IOException {
+		repository.save(session("first", 1000, 60));
+		repository.flush();
+		repository.delete("first");
+		repository.flush();
+		long size = file.toFile().length();
+
+		for (int i = 0; i < 256; i++)
+			repository.save(session("id" + i, i, 60));
+		repository.flush();
+
+		assertThat(file.toFile().length()).isEqualTo(size);
+	}
+
+	@Test
+	public void testDeleteExpired_ShouldRemoveAndReturnOnlyExpiredSessions() {
+		repository.save(session("expired", 1000, 60));
+		repository.flush();
+		repository.save(session("pendingExpired", 1000, 30));
+		repository.save(session("alive", 1000, 120));
+		repository.save(session("eternal", 1000, 0));
+
+		assertThat(repository.deleteExpired(61_000)).extracting(SessionRecord::getId)
+				.containsExactlyInAnyOrder("expired", "pendingExpired");
+
+		assertThat(repository.find("expired")).isNull();
+		assertThat(repository.find("pendingExpired")).isNull();
+		assertThat(repository.find("alive")).isNotNull();
+		assertThat(repository.find("eternal")).isNotNull();
+	}
+
+	@Test
+	public void testSave_TooLargeSession_ShouldThrowException() {
+		SessionRecord session = session("id", 1000, 60);
+		session.getAttributes().put("large", StringUtils.repeat('x', MappedFileSessionRepository.SLOT_BYTES));
+
+		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> repository.save(session));
+		assertThat(repository.find("id")).isNull();
+	}
+
+	@Test
+	public void testSave_UnsupportedAttribute_ShouldThrowException() {
+		SessionRecord session = session("id", 1000, 60);
+		session.getAttributes().put("list", new Object());
+
+		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> repository.save(session));
+	}
+
+	private SessionRecord session(String id, long creationTime, int maxInactiveInterval) {
+		SessionRecord session = new SessionRecord(id, creationTime, maxInactiveInterval);
+		session.getAttributes().put("username", "user");
+		session.getAttributes().put("count", 3L);
+		session.getAttributes().put("page", 2);
+		session.getAttributes().put("admin", false);
+		return session;
+	}
+
+	private void assertSession(SessionRecord session) {
+		assertThat(session.getId()).isEqualTo("id");
+		assertThat(session.getCreationTime()).isEqualTo(1000);
+		assertThat(session.getLastAccessedTime()).isEqualTo(1000);
+		assertThat(session.getMaxInactiveInterval()).isEqualTo(60);
+		assertThat(session.getAttributes()).containsExactly(entry("username", "user"), entry("count", 3L),
+				entry("page", 2), entry("admin", false));
+	}
+
+}
@@ -0,0 +1,195 @@
+package com.maurosalani.project.attsd.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpSessionEvent;
+import javax.servlet.http.HttpSessionListener;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@RunWith(MockitoJUnitRunner.class)
+public class StoredSessionFilterTest {
+
+	@Mock
+	private SessionRepository repository;
+
+	@Mock
+	private HttpSessionListener listener;
+
+	private StoredSessionFilter filter;
+
+	private MockHttpServletRequest request;
+
+	private MockHttpServletResponse response;
+
+	@Before
+	public void setup() {
+		filter = new StoredSessionFilter(repository, Collections.singletonList(listener), 60);
+		request = new MockHttpServletRequest();
+		response = new MockHttpServletResponse();
+		setTime(100_000);
+	}
+
+	@Test
+	public void testRequestWithoutSession_ShouldNotStoreAnything() throws Exception {
+		filter.doFilter(request, response, (req, res) -> {
+			HttpServletRequest wrapped = (HttpServletRequest) req;
+			assertThat(wrapped.getSession(false)).isNull();
+			assertThat(wrapped.getSession().isNew()).isTrue();
+		});
+
+		verify(repository, never()).save(any());
+		assertThat(response.getCookie(StoredSessionFilter.COOKIE)).isNull();
+	}
+
+	@Test
+	public void testNewSessionWithAttribute_ShouldBeStoredAndSendCookieBeforeCommit() throws Exception {
+		filter.doFilter(request, response, (req, res) -> {
+			((HttpServletRequest) req).getSession().setAttribute("username", "user");
+			((HttpServletResponse) res).sendRedirect("/");
+		});
+
+		ArgumentCaptor<SessionRecord> saved = ArgumentCaptor.forClass(SessionRecord.class);
+		verify(repository).save(saved.capture());
+		assertThat(saved.getValue().getAttributes()).containsEntry("username", "user");
+		assertThat(saved.getValue().getCreationTime()).isEqualTo(100_000);
+		assertThat(saved.getValue().getMaxInactiveInterval()).isEqualTo(60);
+		Cookie cookie = response.getCookie(StoredSessionFilter.COOKIE);
+		assertThat(cookie.getValue()).isEqualTo(saved.getValue().getId()).hasSize(43);
+		assertThat(cookie.isHttpOnly()).isTrue();
+		assertThat(cookie.getPath()).isEqualTo("/");
+		assertThat(cookie.getMaxAge()).isEqualTo(-1);
+	}
+
+	@Test
+	public void testStoredSession_ShouldBeLoadedAndOnlyTouchedAfterInterval() throws Exception {
+		SessionRecord record = storedSession(90_000);
+
+		filter.doFilter(request, response, (req, res) -> {
+			HttpServletRequest wrapped = (HttpServletRequest) req;
+			HttpSession session = wrapped.getSession(false);
+			assertThat(session.getId()).isEqualTo("id");
+			assertThat(session.isNew()).isFalse();
+			assertThat(session.getAttribute("username")).isEqualTo("user");
+			assertThat(wrapped.isRequestedSessionIdValid()).isTrue();
+		});
+
+		verify(repository, never()).save(any());
+		assertThat(record.getLastAccessedTime()).isEqualTo(100_000);
+
+		record.setLastAccessedTime(100_000 - StoredSessionFilter.TOUCH_INTERVAL_MILLIS);
+		filter.doFilter(request, new MockHttpServletResponse(),
+				(req, res) -> ((HttpServletRequest) req).getSession(false));
+
+		verify(repository).save(record);
+		assertThat(response.getCookie(StoredSessionFilter.COOKIE)).isNull();
+	}
+
+	@Test
+	public void testExpiredSession_ShouldBeIgnored() throws Exception {
+		storedSession(40_000);
+
+		filter.doFilter(request, response, (req, res) -> {
+			HttpServletRequest wrapped = (HttpServletRequest) req;
+			assertThat(wrapped.getSession(false)).isNull();
+			assertThat(wrapped.isRequestedSessionIdValid()).isFalse();
+		});
+	}
+
+	@Test
+	public void testInvalidate_ShouldDeleteSessionAndNotifyListeners() throws Exception {
+		storedSession(90_000);
+
+		filter.doFilter(request, response, (req, res) -> ((HttpServletRequest) req).getSession().invalidate());
+
+		verify(repository).delete("id");
+		verify(repository, never()).save(any());
+		ArgumentCaptor<HttpSessionEvent> event = ArgumentCaptor.forClass(HttpSessionEvent.class);
+		verify(listener).sessionDestroyed(event.capture());
+		assertThat(event.getValue().getSession().getId()).isEqualTo("id");
+		assertThat(response.getCookie(StoredSessionFilter.COOKIE).getMaxAge()).isZero();
+	}
+
+	@Test
+	public void testChangeSessionId_ShouldMoveTheSessionToANewId() throws Exception {
+		storedSession(90_000);
+
+		filter.doFilter(request, response, (req, res) -> {
+			String newId = ((HttpServletRequest) req).changeSessionId();
+			assertThat(newId).isNotEqualTo("id");
+		});
+
+		ArgumentCaptor<SessionRecord> saved = ArgumentCaptor.forClass(SessionRecord.class);
+		verify(repository).delete("id");
+		verify(repository).save(saved.capture());
+		assertThat(saved.getValue().getId()).isNotEqualTo("id");
+		assertThat(saved.getValue().getAttributes()).containsEntry("username", "user");
+		assertThat(response.getCookie(StoredSessionFilter.COOKIE).getValue()).isEqualTo(saved.getValue().getId());
+	}
+
+	@Test
+	public void testSetAttribute_UnsupportedType_ShouldThrowException() throws Exception {
+		FilterChain chain = (req, res) -> {
+			try {
+				((HttpServletRequest) req).getSession().setAttribute("list", Arrays.asList(1));
+			} catch (IllegalArgumentException e) {
+				req.setAttribute("rejected", true);
+			}
+		};
+
+		filter.doFilter(request, response, chain);
+
+		assertThat(request.getAttribute("rejected")).isEqualTo(true);
+		verify(repository, never()).save(any());
+	}
+
+	@Test
+	public void testPurgeExpired_ShouldNotifyListeners() {
+		when(repository.deleteExpired(100_000)).thenReturn(Collections.singletonList(new SessionRecord("id", 0, 60)));
+
+		filter.purgeExpired();
+
+		ArgumentCaptor<HttpSessionEvent> event = ArgumentCaptor.forClass(HttpSessionEvent.class);
+		verify(listener).sessionDestroyed(event.capture());
+		assertThat(event.getValue().getSession().getId()).isEqualTo("id");
+		verify(repository, never()).delete(anyString());
+	}
+
+	private SessionRecord storedSession(long lastAccessedTime) {
+		SessionRecord record = new SessionRecord("id", 0, 60);
+		record.setLastAccessedTime(lastAccessedTime);
+		record.getAttributes().put("username", "user");
+		when(repository.find("id")).thenReturn(record);
+		request.setCookies(new Cookie(StoredSessionFilter.COOKIE, "id"));
+		return record;
+	}
+
+	private void setTime(long millis) {
+		ReflectionTestUtils.setField(filter, "clock", Clock.fixed(Instant.ofEpochMilli(millis), ZoneOffset.UTC));
+	}
+
+}
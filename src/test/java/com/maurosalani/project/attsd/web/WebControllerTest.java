@@ -2,8 +2,11 @@ package com.maurosalani.project.attsd.web;
 
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.allOf;
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.equalTo;
-import static org.mockito.ArgumentMatchers.anyInt;
+import static org.hamcrest.CoreMatchers.not;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -14,6 +17,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import java.sql.Date;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -29,6 +35,17 @@ import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilde
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import com.maurosalani.project.attsd.dto.CredentialsDTO;
+import com.maurosalani.project.attsd.dto.FeedEventDTO;
+import com.maurosalani.project.attsd.dto.FeedEventDTO.Activity;
+import com.maurosalani.project.attsd.dto.FollowSuggestionDTO;
+import com.maurosalani.project.attsd.dto.MutualsDTO;
+import com.maurosalani.project.attsd.dto.GameSummaryDTO;
+import com.maurosalani.project.attsd.dto.LeaderboardEntryDTO;
+import com.maurosalani.project.attsd.dto.LoggedUserDTO;
+import com.maurosalani.project.attsd.dto.PageDTO;
+import com.maurosalani.project.attsd.dto.SearchResultDTO;
+import com.maurosalani.project.attsd.dto.UserSummaryDTO;
+import com.maurosalani.project.attsd.exception.CredentialServiceBusyException;
 import com.maurosalani.project.attsd.exception.GameNotFoundException;
 import com.maurosalani.project.attsd.exception.LoginFailedException;
 import com.maurosalani.project.attsd.exception.UserNotFoundException;
@@ -36,13 +53,14 @@ import com.maurosalani.project.attsd.exception.UsernameAlreadyExistingException;
 import com.maurosalani.project.attsd.model.Game;
 import com.maurosalani.project.attsd.model.User;
 import com.maurosalani.project.attsd.service.GameService;
+import com.maurosalani.project.attsd.service.SearchService;
 import com.maurosalani.project.attsd.service.UserService;
 
 @RunWith(SpringRunner.class)
 @WebMvcTest(controllers = WebController.class)
 public class WebControllerTest {
 
-	private static final String LATEST_RELEASES = "latestReleases";
+	private static final String LATEST_RELEASES_FRAGMENT = "latestReleasesFragment";
 
 	private static final String GAMES_LIST = "gamesList";
 
@@ -50,6 +68,8 @@ public class WebControllerTest {
 
 	private static final String MESSAGE = "message";
 
+	private static final String PARTIAL_RESULTS_FLAG = "partialResults";
+
 	private static final String DISABLE_INPUT_FLAG = "disableInput";
 
 	@Autowired
@@ -61,6 +81,9 @@ public class WebControllerTest {
 	@MockBean
 	private GameService gameService;
 
+	@MockBean
+	private SearchService searchService;
+
 	@Test
 	public void testAccessIndex_ShouldReturnSuccess() throws Exception {
 		mvc.perform(get("/")).andExpect(status().is2xxSuccessful());
@@ -69,17 +92,66 @@ public class WebControllerTest {
 	@Test
 	public void testAccessIndex_ShouldHaveLatestReleasesAttribute() throws Exception {
 		mvc.perform(get("/"))
-			.andExpect(model().attributeExists(LATEST_RELEASES));
+			.andExpect(model().attributeExists(LATEST_RELEASES_FRAGMENT));
 	}
 	
 	@Test
 	public void testAccessIndex_ShouldShowLatestReleasesGames() throws Exception {
 		Game game1 = new Game(1L, "Game1", "Description1", new Date(1));
 		Game game2 = new Game(2L, "Game2", "Description2", new Date(2));
-		when(gameService.getLatestReleasesGames(anyInt())).thenReturn(asList(game1, game2));
+		when(gameService.getLatestReleases()).thenReturn(asList(game1, game2));
 		
 		mvc.perform(get("/"))
-			.andExpect(model().attribute(LATEST_RELEASES, equalTo(asList(game1, game2))));
+			.andExpect(model().attribute(LATEST_RELEASES_FRAGMENT,
+					allOf(containsString("Game1"), containsString("Description1"), containsString("/game/Game2"))));
+	}
+
+	@Test
+	public void testAccessIndex_WhenLatestReleasesChange_ShouldRenderNewGames() throws Exception {
+		Game game1 = new Game(1L, "Game1", "Description1", new Date(1));
+		Game game2 = new Game(2L, "Game2", "Description2", new Date(2));
+		when(gameService.getLatestReleases()).thenReturn(asList(game1), asList(game2));
+
+		mvc.perform(get("/"))
+			.andExpect(model().attribute(LATEST_RELEASES_FRAGMENT, containsString("Game1")));
+		mvc.perform(get("/"))
+			.andExpect(model().attribute(LATEST_RELEASES_FRAGMENT,
+					allOf(containsString("Game2"), not(containsString("Game1")))));
+	}
+
+	@Test
+	public void testAccessIndex_ShouldHaveTrendingGames() throws Exception {
+		List<GameSummaryDTO> trending = asList(new GameSummaryDTO(2L, "Game2", new Date(2)));
+		when(gameService.getTrendingGames()).thenReturn(trending);
+
+		mvc.perform(get("/"))
+			.andExpect(model().attribute("trendingGames", trending));
+	}
+
+	@Test
+	public void testLeaderboard_UserNotLogged_ShouldShowRankings() throws Exception {
+		List<LeaderboardEntryDTO> games = asList(new LeaderboardEntryDTO(1, 2L, "Game2", 5));
+		List<LeaderboardEntryDTO> users = asList(new LeaderboardEntryDTO(1, 3L, "user3", 4));
+		when(gameService.getMostLikedGames(10)).thenReturn(games);
+		when(userService.getMostFollowedUsers(10)).thenReturn(users);
+
+		mvc.perform(get("/leaderboard"))
+			.andExpect(model().attribute("mostLikedGames", games))
+			.andExpect(model().attribute("mostFollowedUsers", users))
+			.andExpect(model().attributeDoesNotExist("usersAroundMe"))
+			.andExpect(view().name("leaderboard"));
+	}
+
+	@Test
+	public void testLeaderboard_UserLogged_ShouldShowUsersAroundHim() throws Exception {
+		User user = new User(1L, "usernameTest", "pwdTest");
+		List<LeaderboardEntryDTO> around = asList(new LeaderboardEntryDTO(7, 1L, "usernameTest", 1));
+		when(userService.getLeaderboardAround(1L, 2)).thenReturn(around);
+
+		mvc.perform(addUserToSessionAndReturnGetRequest(user, "/leaderboard"))
+			.andExpect(model().attribute("usersAroundMe", around))
+			.andExpect(model().attribute("username", "usernameTest"))
+			.andExpect(view().name("leaderboard"));
 	}
 
 	@Test
@@ -101,6 +173,17 @@ public class WebControllerTest {
 			.andExpect(model().attributeExists("username"));
 	}
 
+	@Test
+	public void testAccessIndex_UserLoggedIn_ShouldHaveFeed() throws Exception {
+		User user = new User(1L, "usernameTest", "pwdTest");
+		List<FeedEventDTO> feed = asList(new FeedEventDTO(3L, Activity.LIKED, 2L, "friend", 4L, "Game4", new Date(0)));
+		MockHttpServletRequestBuilder requestToPerform = addUserToSessionAndReturnGetRequest(user, "/");
+		when(userService.getRecentFeed(1L, 10)).thenReturn(feed);
+
+		mvc.perform(requestToPerform)
+			.andExpect(model().attribute("feed", feed));
+	}
+
 	@Test
 	public void testAccessLogin() throws Exception {
 		mvc.perform(get("/login"))
@@ -154,6 +237,20 @@ public class WebControllerTest {
 			.andExpect(view().name("login"));
 	}
 
+	@Test
+	public void testVerifyLoginUser_VerificationSaturated_ShouldBeUnavailable() throws Exception {
+		CredentialsDTO credentials = new CredentialsDTO("username", "password");
+		when(userService.verifyLogin(credentials)).thenThrow(new CredentialServiceBusyException(null));
+
+		mvc.perform(post("/verifyLogin")
+				.param("username", credentials.getUsername())
+				.param("password", credentials.getPassword()))
+			.andExpect(status().is(HttpStatus.SERVICE_UNAVAILABLE.value()))
+			.andExpect(model().attribute(MESSAGE, "Too many logins right now, please retry."))
+			.andExpect(request().sessionAttribute("username", equalTo(null)))
+			.andExpect(view().name("login"));
+	}
+
 	@Test
 	public void testLogoutUser_UserNotLoggedYet__ShouldVerifyNoSessionIsPresent() throws Exception {
 		mvc.perform(get("/logout"))
@@ -225,6 +322,21 @@ public class WebControllerTest {
 			.andExpect(view().name("registration"));
 	}
 
+	@Test
+	public void testSave_HashingSaturated_ShouldShowRegistrationAsUnavailable() throws Exception {
+		User userToInsert = new User(null, "usernameTest", "pwdTest");
+		when(userService.insertNewUser(userToInsert)).thenThrow(new CredentialServiceBusyException(null));
+
+		mvc.perform(post("/save")
+				.param("username", userToInsert.getUsername())
+				.param("password", userToInsert.getPassword())
+				.param("confirmPassword", userToInsert.getPassword()))
+			.andExpect(status().is(HttpStatus.SERVICE_UNAVAILABLE.value()))
+			.andExpect(model().attribute(MESSAGE, "Too many registrations right now, please retry."))
+			.andExpect(model().attributeExists("registrationForm"))
+			.andExpect(view().name("registration"));
+	}
+
 	@Test
 	public void testSave_PasswordIsEmpty_ShouldBeBadRequest() throws Exception {
 
@@ -277,8 +389,8 @@ public class WebControllerTest {
 	@Test
 	public void testSearch_ResultListsAreEmpty() throws Exception {
 		String content = "content";
-		when(userService.getUsersByUsernameLike(content)).thenReturn(Collections.emptyList());
-		when(gameService.getGamesByNameLike(content)).thenReturn(Collections.emptyList());
+		when(searchService.search(content))
+				.thenReturn(new SearchResultDTO(Collections.emptyList(), Collections.emptyList(), false));
 
 		mvc.perform(get("/search")
 				.param("content_search", content))
@@ -306,27 +418,27 @@ public class WebControllerTest {
 	@Test
 	public void testSearch_ResultListsNotEmpty_ShouldShowUsersAndGames() throws Exception {
 		String content = "content";
-		User user1 = new User(1L, "username1", "pwd1");
-		User user2 = new User(2L, "username2", "pwd2");
-		when(userService.getUsersByUsernameLike(content)).thenReturn(asList(user1, user2));
-
-		Game game1 = new Game(1L, "name1", "description1", new Date(1000));
-		Game game2 = new Game(2L, "name2", "description2", new Date(2000));
-		when(gameService.getGamesByNameLike(content)).thenReturn(asList(game1, game2));
+		UserSummaryDTO user1 = new UserSummaryDTO(1L, "username1");
+		UserSummaryDTO user2 = new UserSummaryDTO(2L, "username2");
+		GameSummaryDTO game1 = new GameSummaryDTO(1L, "name1", new Date(1000));
+		GameSummaryDTO game2 = new GameSummaryDTO(2L, "name2", new Date(2000));
+		when(searchService.search(content))
+				.thenReturn(new SearchResultDTO(asList(user1, user2), asList(game1, game2), false));
 
 		mvc.perform(get("/search").param("content_search", content))
 			.andExpect(model().attribute(USERS_LIST, asList(user1, user2)))
 			.andExpect(model().attribute(GAMES_LIST, asList(game1, game2)))
+			.andExpect(model().attribute(PARTIAL_RESULTS_FLAG, false))
 			.andExpect(view().name("search"));
 	}
 
 	@Test
 	public void testSearch_UsersFoundListIsEmpty_ShouldShowOnlyGames() throws Exception {
 		String content = "content";
-		when(userService.getUsersByUsernameLike(content)).thenReturn(Collections.emptyList());
-		Game game1 = new Game(1L, "name1", "description1", new Date(1000));
-		Game game2 = new Game(2L, "name2", "description2", new Date(2000));
-		when(gameService.getGamesByNameLike(content)).thenReturn(asList(game1, game2));
+		GameSummaryDTO game1 = new GameSummaryDTO(1L, "name1", new Date(1000));
+		GameSummaryDTO game2 = new GameSummaryDTO(2L, "name2", new Date(2000));
+		when(searchService.search(content))
+				.thenReturn(new SearchResultDTO(Collections.emptyList(), asList(game1, game2), false));
 
 		mvc.perform(get("/search").param("content_search", content))
 			.andExpect(model().attribute(USERS_LIST, Collections.emptyList()))
@@ -337,11 +449,10 @@ public class WebControllerTest {
 	@Test
 	public void testSearch_GamesFoundListIsEmpty_ShouldShowOnlyUsers() throws Exception {
 		String content = "content";
-		User user1 = new User(1L, "username1", "pwd1");
-		User user2 = new User(2L, "username2", "pwd2");
-		when(userService.getUsersByUsernameLike(content)).thenReturn(asList(user1, user2));
-
-		when(gameService.getGamesByNameLike(content)).thenReturn(Collections.emptyList());
+		UserSummaryDTO user1 = new UserSummaryDTO(1L, "username1");
+		UserSummaryDTO user2 = new UserSummaryDTO(2L, "username2");
+		when(searchService.search(content))
+				.thenReturn(new SearchResultDTO(asList(user1, user2), Collections.emptyList(), false));
 
 		mvc.perform(get("/search").param("content_search", content))
 			.andExpect(model().attribute(USERS_LIST, asList(user1, user2)))
@@ -349,6 +460,20 @@ public class WebControllerTest {
 			.andExpect(view().name("search"));
 	}
 			
+	@Test
+	public void testSearch_PartialResults_ShouldBeFlagged() throws Exception {
+		String content = "content";
+		UserSummaryDTO user1 = new UserSummaryDTO(1L, "username1");
+		when(searchService.search(content))
+				.thenReturn(new SearchResultDTO(asList(user1), Collections.emptyList(), true));
+
+		mvc.perform(get("/search").param("content_search", content))
+			.andExpect(model().attribute(USERS_LIST, asList(user1)))
+			.andExpect(model().attribute(GAMES_LIST, Collections.emptyList()))
+			.andExpect(model().attribute(PARTIAL_RESULTS_FLAG, true))
+			.andExpect(view().name("search"));
+	}
+
 	@Test
 	public void testProfile_NoUserLogged() throws Exception {
 		User user = new User(1L, "usernameTest", "password");
@@ -362,6 +487,21 @@ public class WebControllerTest {
 			.andExpect(view().name("profile"));
 	}
 	
+	@Test
+	public void testProfile_ShouldShowFirstPagesOfFollowedUsersAndGames() throws Exception {
+		User user = new User(1L, "usernameTest", "password");
+		PageDTO<UserSummaryDTO> followed = new PageDTO<>(asList(new UserSummaryDTO(2L, "followed")), 2L);
+		PageDTO<GameSummaryDTO> games = new PageDTO<>(asList(new GameSummaryDTO(3L, "game", new Date(1000))), null);
+		when(userService.getUserByUsername("usernameTest")).thenReturn(user);
+		when(userService.getFollowedUsersPage(1L, null, 20)).thenReturn(followed);
+		when(userService.getGamesPage(1L, null, 20)).thenReturn(games);
+
+		mvc.perform(get("/profile/usernameTest"))
+			.andExpect(model().attribute("followedUsers", followed))
+			.andExpect(model().attribute("likedGames", games))
+			.andExpect(view().name("profile"));
+	}
+
 	@Test
 	public void testProfile_UserLoggedRequestHisProfile() throws Exception {
 		User user = new User(1L, "usernameTest", "password");
@@ -376,13 +516,39 @@ public class WebControllerTest {
 			.andExpect(view().name("profile"));
 	}
 	
+	@Test
+	public void testProfile_UserLoggedRequestHisProfile_ShouldShowFollowSuggestions() throws Exception {
+		User user = new User(1L, "usernameTest", "password");
+		List<FollowSuggestionDTO> suggestions = asList(new FollowSuggestionDTO(3L, "suggested", 2));
+		MockHttpServletRequestBuilder requestToPerform = addUserToSessionAndReturnGetRequest(user, "/profile/usernameTest");
+		when(userService.getUserByUsername("usernameTest")).thenReturn(user);
+		when(userService.getFollowSuggestions(1L, 5)).thenReturn(suggestions);
+
+		mvc.perform(requestToPerform)
+			.andExpect(model().attribute("followSuggestions", suggestions))
+			.andExpect(view().name("profile"));
+	}
+
+	@Test
+	public void testProfile_UserLoggedRequestAnotherProfile_ShouldShowMutuals() throws Exception {
+		User user = new User(1L, "usernameTest", "password");
+		User anotherUser = new User(2L, "anotherUsername", "anotherPassword");
+		MutualsDTO mutuals = new MutualsDTO(1, asList(new UserSummaryDTO(3L, "known")));
+		MockHttpServletRequestBuilder requestToPerform = addUserToSessionAndReturnGetRequest(user, "/profile/anotherUsername");
+		when(userService.getUserByUsername("anotherUsername")).thenReturn(anotherUser);
+		when(userService.getMutuals(1L, 2L)).thenReturn(mutuals);
+
+		mvc.perform(requestToPerform)
+			.andExpect(model().attribute("mutuals", mutuals))
+			.andExpect(view().name("profile"));
+	}
+
 	@Test
 	public void testProfile_UserLoggedRequestAnotherProfile() throws Exception {
 		User user = new User(1L, "usernameTest", "password");
 		User anotherUser = new User(2L, "anotherUsername", "anotherPassword");
 		MockHttpServletRequestBuilder requestToPerform = addUserToSessionAndReturnGetRequest(user, "/profile/anotherUsername");
 		when(userService.getUserByUsername("anotherUsername")).thenReturn(anotherUser);
-		when(userService.getUserByUsername("usernameTest")).thenReturn(user);
 
 		mvc.perform(requestToPerform)
 			.andExpect(model().attribute("user", anotherUser))
@@ -399,7 +565,6 @@ public class WebControllerTest {
 		user.addFollowedUser(anotherUser);
 		MockHttpServletRequestBuilder requestToPerform = addUserToSessionAndReturnGetRequest(user, "/profile/anotherUsername");
 		when(userService.getUserByUsername("anotherUsername")).thenReturn(anotherUser);
-		when(userService.getUserByUsername("usernameTest")).thenReturn(user);
 
 		mvc.perform(requestToPerform)
 			.andExpect(model().attribute("user", anotherUser))
@@ -431,6 +596,30 @@ public class WebControllerTest {
 			.andExpect(view().name("game"));
 	}
 	
+	@Test
+	public void testGame_ShouldShowSimilarGames() throws Exception {
+		Game game = new Game(1L, "gamenameTest", "gamedescription", new Date(1000));
+		List<GameSummaryDTO> similar = asList(new GameSummaryDTO(2L, "similar", new Date(1000)));
+		when(gameService.getGameByName("gamenameTest")).thenReturn(game);
+		when(gameService.getSimilarGames(1L)).thenReturn(similar);
+
+		mvc.perform(get("/game/gamenameTest"))
+			.andExpect(model().attribute("similarGames", similar))
+			.andExpect(view().name("game"));
+	}
+
+	@Test
+	public void testGame_ShouldShowFirstPageOfLikers() throws Exception {
+		Game game = new Game(1L, "gamenameTest", "gamedescription", new Date(1000));
+		PageDTO<UserSummaryDTO> likers = new PageDTO<>(asList(new UserSummaryDTO(2L, "liker")), 2L);
+		when(gameService.getGameByName("gamenameTest")).thenReturn(game);
+		when(gameService.getLikersPage(1L, null, 20)).thenReturn(likers);
+
+		mvc.perform(get("/game/gamenameTest"))
+			.andExpect(model().attribute("likers", likers))
+			.andExpect(view().name("game"));
+	}
+
 	@Test
 	public void testGame_GameNotFound_ShouldRedirectToPage404() throws Exception {
 		when(gameService.getGameByName("wrong_name")).thenThrow(GameNotFoundException.class);
@@ -461,6 +650,7 @@ public class WebControllerTest {
 		User user = new User(1L, "usernameTest", "password");
 		Game game = new Game(2L, "gamenameTest", "gamedescription", new Date(1000));
 		game.addUser(user);
+		user.addGame(game);
 		MockHttpServletRequestBuilder requestToPerform = addUserToSessionAndReturnGetRequest(user, "/game/gamenameTest");
 		when(gameService.getGameByName("gamenameTest")).thenReturn(game);
 		when(userService.getUserByUsername("usernameTest")).thenReturn(user);
@@ -476,23 +666,14 @@ public class WebControllerTest {
 	public void testAddFollowedUser_FollowedAddedSuccessfully_ShouldRedirectToProfileOfFollowed() throws Exception {
 		User user = new User(1L, "username", "password");
 		User followedToAdd = new User(2L, "followedToAdd", "password");
-		User userResult = new User(1L, "username", "password");
-		userResult.addFollowedUser(followedToAdd);
-		followedToAdd.addFollowerUser(userResult);
-		
 		when(userService.getUserByUsername("followedToAdd")).thenReturn(followedToAdd);
-		when(userService.getUserByUsername("username")).thenReturn(userResult);
-		when(userService.addFollowedUser(user, followedToAdd)).thenReturn(userResult);
-		
-		MockHttpSession session = new MockHttpSession();
-		session.setAttribute("username", user.getUsername());
-		MockHttpServletRequestBuilder requestToPerform = MockMvcRequestBuilders.post("/addUser").session(session);
 		
+		MockHttpServletRequestBuilder requestToPerform = addUserToSessionAndReturnPostRequest(user, "/addUser");
 		mvc.perform(requestToPerform.param("followedToAdd", followedToAdd.getUsername()))
 			.andExpect(status().is3xxRedirection())
 			.andExpect(view().name("redirect:/profile/" + followedToAdd.getUsername()));
 		
-		assertThat(session.getAttribute("username")).isEqualTo(userResult.getUsername());
+		verify(userService).addFollowedUser(1L, 2L);
 	}
 	
 	@Test
@@ -521,25 +702,14 @@ public class WebControllerTest {
 	public void testAddGameToUser_GameAddedSuccessfully() throws Exception {
 		User user = new User(1L,"username", "password");
 		Game toAdd = new Game(2L,"nameToAdd", "descriptionToAdd", new Date(1000));
-  
-		User userResult = new User(1L,"username", "password");
-		userResult.addGame(toAdd);
-		toAdd.addUser(userResult);
-  
 		when(gameService.getGameByName("nameToAdd")).thenReturn(toAdd);
-		when(userService.addGame(user, toAdd)).thenReturn(userResult);
-		when(userService.getUserByUsername("username")).thenReturn(userResult);
 		
-		MockHttpSession session = new MockHttpSession();
-		session.setAttribute("username", user.getUsername());
-		MockHttpServletRequestBuilder requestToPerform = MockMvcRequestBuilders.post("/addGame").session(session);
-	    
-	    mvc.perform(requestToPerform
-	    		.param("gameToAdd", toAdd.getName()))
-	          	.andExpect(status().is3xxRedirection())
-	          	.andExpect(view().name("redirect:/game/" + toAdd.getName()));
-	    
-	    assertThat(session.getAttribute("username")).isEqualTo(userResult.getUsername());
+		MockHttpServletRequestBuilder requestToPerform = addUserToSessionAndReturnPostRequest(user, "/addGame");
+		mvc.perform(requestToPerform.param("gameToAdd", toAdd.getName()))
+			.andExpect(status().is3xxRedirection())
+			.andExpect(view().name("redirect:/game/" + toAdd.getName()));
+		
+		verify(userService).addGame(1L, 2L);
 	}
 	
 	@Test
@@ -580,6 +750,7 @@ public class WebControllerTest {
 	    
 	    when(userService.changePassword(user, "newPassword")).thenReturn(userResult);
 	    when(userService.getUserByUsername("username")).thenReturn(user);
+	    when(userService.passwordMatches(user, "oldPassword")).thenReturn(true);
 
 	    
 	    MockHttpSession session = new MockHttpSession();
@@ -595,6 +766,24 @@ public class WebControllerTest {
 	    assertThat(session.getAttribute("username")).isEqualTo(userResult.getUsername());
 	}
 	
+	@Test
+	public void testChangePassword_HashingSaturated_ShouldShowPasswordErrorAsUnavailable() throws Exception {
+	    User user = new User(1L,"username", "oldPassword");
+	    when(userService.getUserByUsername("username")).thenReturn(user);
+	    when(userService.passwordMatches(user, "oldPassword")).thenThrow(new CredentialServiceBusyException(null));
+
+	    MockHttpSession session = new MockHttpSession();
+	    session.setAttribute("username", user.getUsername());
+	    MockHttpServletRequestBuilder requestToPerform = MockMvcRequestBuilders.post("/changePassword").session(session);
+
+	    mvc.perform(requestToPerform
+	      .param("oldPassword", "oldPassword")
+	      .param("newPassword", "newPassword"))
+	      .andExpect(status().is(HttpStatus.SERVICE_UNAVAILABLE.value()))
+	      .andExpect(model().attribute(MESSAGE, "Too many password changes right now, please retry."))
+	      .andExpect(view().name("passwordError"));
+	}
+
 	@Test
 	public void testChangePassword_OldPasswordError() throws Exception {
 	    User user = new User(1L,"username", "oldPassword");
@@ -624,6 +813,7 @@ public class WebControllerTest {
 	    session.setAttribute("username", user.getUsername());
 	    MockHttpServletRequestBuilder requestToPerform = MockMvcRequestBuilders.post("/changePassword").session(session);
 	    when(userService.getUserByUsername("username")).thenReturn(user);
+	    when(userService.passwordMatches(user, "oldPassword")).thenReturn(true);
 	    
 	    mvc.perform(requestToPerform
 		      .param("oldPassword", "oldPassword")
@@ -638,6 +828,7 @@ public class WebControllerTest {
 	private MockHttpServletRequestBuilder addUserToSessionAndReturnPostRequest(User user, String url) throws UserNotFoundException {
 		MockHttpSession session = new MockHttpSession();
 		when(userService.getUserByUsername(user.getUsername())).thenReturn(user);
+		when(userService.getLoggedUser(session.getId(), user.getUsername())).thenReturn(loggedUserOf(user));
 		session.setAttribute("username", user.getUsername());
 		MockHttpServletRequestBuilder requestToPerform = MockMvcRequestBuilders.post(url).session(session);
 		return requestToPerform;
@@ -646,8 +837,19 @@ public class WebControllerTest {
 	private MockHttpServletRequestBuilder addUserToSessionAndReturnGetRequest(User user, String url) throws UserNotFoundException {
 		MockHttpSession session = new MockHttpSession();
 		when(userService.getUserByUsername(user.getUsername())).thenReturn(user);
+		when(userService.getLoggedUser(session.getId(), user.getUsername())).thenReturn(loggedUserOf(user));
 		session.setAttribute("username", user.getUsername());
 		MockHttpServletRequestBuilder requestToPerform = MockMvcRequestBuilders.get(url).session(session);
 		return requestToPerform;
 	}
-}
+
+	private static LoggedUserDTO loggedUserOf(User user) {
+		Set<Long> followedUserIds = new HashSet<>();
+		if (user.getFollowedUsers() != null)
+			user.getFollowedUsers().forEach(followed -> followedUserIds.add(followed.getId()));
+		Set<Long> gameIds = new HashSet<>();
+		if (user.getGames() != null)
+			user.getGames().forEach(game -> gameIds.add(game.getId()));
+		return new LoggedUserDTO(user.getId(), user.getUsername(), followedUserIds, gameIds);
+	}
+}
\ No newline at end of file
@@ -11,8 +11,8 @@ import static com.gargoylesoftware.htmlunit.WebAssert.assertTitleEquals;
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertTrue;
-import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -22,6 +22,8 @@ import java.sql.Date;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -39,6 +41,17 @@ import com.gargoylesoftware.htmlunit.html.HtmlForm;
 import com.gargoylesoftware.htmlunit.html.HtmlPage;
 import com.gargoylesoftware.htmlunit.util.NameValuePair;
 import com.maurosalani.project.attsd.dto.CredentialsDTO;
+import com.maurosalani.project.attsd.dto.FeedEventDTO;
+import com.maurosalani.project.attsd.dto.FeedEventDTO.Activity;
+import com.maurosalani.project.attsd.dto.FollowSuggestionDTO;
+import com.maurosalani.project.attsd.dto.MutualsDTO;
+import com.maurosalani.project.attsd.dto.GameSummaryDTO;
+import com.maurosalani.project.attsd.dto.LeaderboardEntryDTO;
+import com.maurosalani.project.attsd.dto.LoggedUserDTO;
+import com.maurosalani.project.attsd.dto.PageDTO;
+import com.maurosalani.project.attsd.dto.RelationDTO;
+import com.maurosalani.project.attsd.dto.SearchResultDTO;
+import com.maurosalani.project.attsd.dto.UserSummaryDTO;
 import com.maurosalani.project.attsd.exception.GameNotFoundException;
 import com.maurosalani.project.attsd.exception.LoginFailedException;
 import com.maurosalani.project.attsd.exception.PasswordRequiredException;
@@ -47,6 +60,7 @@ import com.maurosalani.project.attsd.exception.UsernameAlreadyExistingException;
 import com.maurosalani.project.attsd.model.Game;
 import com.maurosalani.project.attsd.model.User;
 import com.maurosalani.project.attsd.service.GameService;
+import com.maurosalani.project.attsd.service.SearchService;
 import com.maurosalani.project.attsd.service.UserService;
 
 @RunWith(SpringRunner.class)
@@ -70,13 +84,18 @@ public class WebViewTest {
 	@MockBean
 	private GameService gameService;
 
+	@MockBean
+	private SearchService searchService;
+
 	@Before
 	/**
 	 * Necessary to clear session
 	 */
-	public void clearSessionOfWebClient() {
+	public void clearSessionOfWebClient() throws Exception {
 		webClient.getOptions().setThrowExceptionOnFailingStatusCode(true);
 		webClient.getCookieManager().clearCookies();
+		when(userService.getLoggedUser(anyString(), anyString()))
+				.thenAnswer(invocation -> loggedUserOf(userService.getUserByUsername(invocation.getArgument(1))));
 	}
 
 	@Test
@@ -110,7 +129,7 @@ public class WebViewTest {
 		Game game2 = new Game(2L, "Game2", "Description2", new Date(2));
 		Game game3 = new Game(3L, "Game3", "Description3", new Date(3));
 		Game game4 = new Game(4L, "Game4", "Description4", new Date(4));
-		when(gameService.getLatestReleasesGames(anyInt())).thenReturn(asList(game1, game2, game3, game4));
+		when(gameService.getLatestReleases()).thenReturn(asList(game1, game2, game3, game4));
 		HtmlPage page = webClient.getPage("/");
 
 		String pattern = "dd-MM-yyyy";
@@ -128,6 +147,110 @@ public class WebViewTest {
 		assertTextNotPresent(page, NO_LATEST_RELEASES_MESSAGE);
 	}
 
+	@Test
+	public void testHomePage_ShouldShowTrendingGames() throws Exception {
+		when(gameService.getTrendingGames()).thenReturn(
+				asList(new GameSummaryDTO(2L, "Game2", new Date(2)), new GameSummaryDTO(1L, "Game1", new Date(1))));
+		HtmlPage page = webClient.getPage("/");
+
+		assertThat(page.getElementById("trendingGames").getTextContent()).contains("Trending now", "Game2", "Game1");
+		assertLinkPresentWithText(page, "Game2");
+		assertTextNotPresent(page, "No trending games...");
+	}
+
+	@Test
+	public void testHomePage_WithNoTrendingGames() throws Exception {
+		HtmlPage page = webClient.getPage("/");
+
+		assertTextPresent(page, "No trending games...");
+	}
+
+	@Test
+	public void testHomePage_ShouldLinkLeaderboard() throws Exception {
+		when(gameService.getMostLikedGames(10)).thenReturn(asList(new LeaderboardEntryDTO(1, 2L, "Game2", 5)));
+		when(userService.getMostFollowedUsers(10)).thenReturn(asList(new LeaderboardEntryDTO(1, 3L, "user3", 4)));
+		HtmlPage page = webClient.getPage("/");
+
+		page = page.getAnchorByText("All-time leaderboard").click();
+
+		assertThat(page.getTitleText()).isEqualTo("Leaderboard");
+		assertThat(page.getElementById("mostLikedGames").asText()).contains("Most liked games", "#1 Game2 5 likes");
+		assertThat(page.getElementById("mostFollowedUsers").asText()).contains("Most followed users",
+				"#1 user3 4 followers");
+		assertThat(page.getAnchorByText("Game2").getHrefAttribute()).isEqualTo("/game/Game2");
+		assertThat(page.getElementById("usersAroundMe")).isNull();
+	}
+
+	@Test
+	public void testLeaderboard_WhenEmpty() throws Exception {
+		HtmlPage page = webClient.getPage("/leaderboard");
+
+		assertThat(page.getElementById("mostLikedGames").asText()).contains("No Games");
+		assertThat(page.getElementById("mostFollowedUsers").asText()).contains("No Users");
+	}
+
+	@Test
+	public void testLeaderboard_UserLogged_ShouldShowPosition() throws Exception {
+		CredentialsDTO credentials = new CredentialsDTO("username", "pwd");
+		when(userService.getUserByUsername(credentials.getUsername()))
+				.thenReturn(new User(1L, credentials.getUsername(), credentials.getPassword()));
+		webClient.getPage(createWebRequestToLogin(credentials, true));
+		when(userService.getLeaderboardAround(1L, 2)).thenReturn(asList(new LeaderboardEntryDTO(3, 4L, "above", 2),
+				new LeaderboardEntryDTO(4, 1L, "username", 1)));
+
+		HtmlPage page = webClient.getPage("/leaderboard");
+
+		assertThat(page.getElementById("usersAroundMe").asText()).contains("Your position", "#3 above 2 followers",
+				"#4 username 1 followers");
+	}
+
+	@Test
+	public void testLeaderboard_UserLoggedNotRanked() throws Exception {
+		CredentialsDTO credentials = new CredentialsDTO("username", "pwd");
+		when(userService.getUserByUsername(credentials.getUsername()))
+				.thenReturn(new User(1L, credentials.getUsername(), credentials.getPassword()));
+		webClient.getPage(createWebRequestToLogin(credentials, true));
+
+		HtmlPage page = webClient.getPage("/leaderboard");
+
+		assertThat(page.getElementById("usersAroundMe").asText()).contains("Not ranked yet: nobody follows you");
+	}
+
+	@Test
+	public void testHomePage_UserLogged_ShouldShowFeed() throws Exception {
+		CredentialsDTO credentials = new CredentialsDTO("username", "pwd");
+		when(userService.getUserByUsername(credentials.getUsername()))
+				.thenReturn(new User(1L, credentials.getUsername(), credentials.getPassword()));
+		when(userService.getRecentFeed(1L, 10)).thenReturn(asList(
+				new FeedEventDTO(2L, Activity.LIKED, 2L, "friend", 5L, "Game5", new Date(0)),
+				new FeedEventDTO(1L, Activity.FOLLOWED, 2L, "friend", 3L, "other", new Date(0))));
+
+		HtmlPage page = webClient.getPage(createWebRequestToLogin(credentials, true));
+
+		assertThat(page.getElementById("feed").asText()).contains("From people you follow", "friend liked Game5",
+				"friend followed other");
+		assertThat(page.getAnchorByText("Game5").getHrefAttribute()).isEqualTo("/game/Game5");
+		assertThat(page.getAnchorByText("other").getHrefAttribute()).isEqualTo("/profile/other");
+	}
+
+	@Test
+	public void testHomePage_UserLoggedWithEmptyFeed() throws Exception {
+		CredentialsDTO credentials = new CredentialsDTO("username", "pwd");
+		when(userService.getUserByUsername(credentials.getUsername()))
+				.thenReturn(new User(1L, credentials.getUsername(), credentials.getPassword()));
+
+		HtmlPage page = webClient.getPage(createWebRequestToLogin(credentials, true));
+
+		assertThat(page.getElementById("feed").asText()).contains("Nothing new yet...");
+	}
+
+	@Test
+	public void testHomePage_UserNotLogged_ShouldNotShowFeed() throws Exception {
+		HtmlPage page = webClient.getPage("/");
+
+		assertThat(page.getElementById("feed")).isNull();
+	}
+
 	@Test
 	public void testHomePageWithNoLatestReleases() throws Exception {
 		HtmlPage page = webClient.getPage("/");
@@ -349,12 +472,12 @@ public class WebViewTest {
 	@Test
 	public void testSearchBar_WhenUserAndGameExist_ShouldShowLists() throws Exception {
 		String content = "nameToSearch";
-		User user1 = new User(1L, "user1_nameTest", "pwd");
-		User user2 = new User(2L, "user2_nameTest", "pwd");
-		Game game1 = new Game(1L, "game1_nameTest", "description", new Date(1));
-		Game game2 = new Game(2L, "game2_nameTest", "description", new Date(1));
-		when(userService.getUsersByUsernameLike(content)).thenReturn(asList(user1, user2));
-		when(gameService.getGamesByNameLike(content)).thenReturn(asList(game1, game2));
+		UserSummaryDTO user1 = new UserSummaryDTO(1L, "user1_nameTest");
+		UserSummaryDTO user2 = new UserSummaryDTO(2L, "user2_nameTest");
+		GameSummaryDTO game1 = new GameSummaryDTO(1L, "game1_nameTest", new Date(1));
+		GameSummaryDTO game2 = new GameSummaryDTO(2L, "game2_nameTest", new Date(1));
+		when(searchService.search(content))
+				.thenReturn(new SearchResultDTO(asList(user1, user2), asList(game1, game2), false));
 
 		HtmlPage page = webClient.getPage("/");
 		final HtmlForm searchForm = page.getFormByName("search_form");
@@ -375,10 +498,23 @@ public class WebViewTest {
 		assertLinkPresentWithText(searchPage, "game2_nameTest");
 	}
 
+	@Test
+	public void testSearchBar_WhenResultsArePartial_ShouldSayIt() throws Exception {
+		GameSummaryDTO game1 = new GameSummaryDTO(1L, "game1_nameTest", new Date(1));
+		when(searchService.search("nameToSearch"))
+				.thenReturn(new SearchResultDTO(Collections.emptyList(), asList(game1), true));
+
+		HtmlPage searchPage = webClient.getPage("/search?content_search=nameToSearch");
+
+		assertThat(searchPage.getElementById("partialResults").getTextContent())
+				.contains("Some results took too long and are not shown.");
+		assertLinkPresentWithText(searchPage, "game1_nameTest");
+	}
+
 	@Test
 	public void testSearchBar_WhenNoResults_ShouldShowMessage() throws Exception {
-		when(userService.getUsersByUsernameLike(anyString())).thenReturn(Collections.emptyList());
-		when(gameService.getGamesByNameLike(anyString())).thenReturn(Collections.emptyList());
+		when(searchService.search(anyString()))
+				.thenReturn(new SearchResultDTO(Collections.emptyList(), Collections.emptyList(), false));
 
 		HtmlPage page = webClient.getPage("/");
 		final HtmlForm searchForm = page.getFormByName("search_form");
@@ -389,6 +525,7 @@ public class WebViewTest {
 
 		assertTextPresent(searchPage, "No Users");
 		assertTextPresent(searchPage, "No Games");
+		assertThat(searchPage.getElementById("partialResults")).isNull();
 	}
 
 	@Test
@@ -429,22 +566,22 @@ public class WebViewTest {
 
 	@Test
 	public void testProfile_ProfileFound_ShouldShowCorrectly() throws Exception {
-		User user1 = new User(1L, "user1_nameTest", "pwd");
-		User user2 = new User(2L, "user2_nameTest", "pwd");
-		Game game1 = new Game(1L, "game1_nameTest", "description", new Date(1));
-		Game game2 = new Game(2L, "game2_nameTest", "description", new Date(1));
-
 		User user = new User(3L, "username", "pwd");
-		user.addFollowedUser(user1);
-		user.addFollowedUser(user2);
-		user.addGame(game1);
-		user.addGame(game2);
+		user.setFollowerCount(7);
+		user.setFollowedCount(2);
 
 		when(userService.getUserByUsername("username")).thenReturn(user);
+		when(userService.getFollowedUsersPage(3L, null, 20)).thenReturn(new PageDTO<>(
+				asList(new UserSummaryDTO(1L, "user1_nameTest"), new UserSummaryDTO(2L, "user2_nameTest")), null));
+		when(userService.getGamesPage(3L, null, 20)).thenReturn(new PageDTO<>(
+				asList(new GameSummaryDTO(1L, "game1_nameTest", new Date(1)),
+						new GameSummaryDTO(2L, "game2_nameTest", new Date(1))), null));
 
 		HtmlPage page = webClient.getPage("/profile/username");
 
 		assertTextPresent(page, user.getUsername());
+		assertThat(page.getElementById("followerCount").getTextContent()).isEqualTo("7");
+		assertThat(page.getElementById("followedCount").getTextContent()).isEqualTo("2");
 
 		assertThat(page.getElementById("userFollowed").getTextContent()).contains("Users followed", "user1_nameTest",
 				"user2_nameTest");
@@ -469,6 +606,8 @@ public class WebViewTest {
 
 		User user = new User(2L, "someUser", "pwd");
 		when(userService.getUserByUsername("someUser")).thenReturn(user);
+		when(userService.getLoggedUser(anyString(), eq(credentials.getUsername())))
+				.thenReturn(loggedUserOf(new User(1L, credentials.getUsername(), credentials.getPassword())));
 
 		HtmlPage page = webClient.getPage("/profile/someUser");
 
@@ -496,6 +635,7 @@ public class WebViewTest {
 		webClient.getPage(requestToLogin);
 
 		when(userService.getUserByUsername("usernameFollowed")).thenReturn(userFollowed);
+		when(userService.getLoggedUser(anyString(), eq(credentials.getUsername()))).thenReturn(loggedUserOf(userLogged));
 		HtmlPage page = webClient.getPage("/profile/usernameFollowed");
 
 		assertTextPresent(page, userFollowed.getUsername());
@@ -516,6 +656,8 @@ public class WebViewTest {
 		webClient.getPage(requestToLogin);
 
 		when(userService.getUserByUsername("usernameLogged")).thenReturn(userLogged);
+		when(userService.getUserByUsername("usernameLogged")).thenReturn(userLogged);
+		when(userService.getLoggedUser(anyString(), eq("usernameLogged"))).thenReturn(loggedUserOf(userLogged));
 		HtmlPage page = webClient.getPage("/profile/usernameLogged");
 
 		assertTextPresent(page, userLogged.getUsername());
@@ -531,6 +673,76 @@ public class WebViewTest {
 		assertThat(addToFollowedForm.getButtonByName("btn_change").getDisabledAttribute()).isEqualTo("");
 	}
 
+	@Test
+	public void testProfile_WhenLoggedUserAccessHisPersonalProfile_ShouldShowFollowSuggestions() throws Exception {
+		CredentialsDTO credentials = new CredentialsDTO("usernameLogged", "pwdLogged");
+		User userLogged = new User(1L, credentials.getUsername(), credentials.getPassword());
+		when(userService.getUserByUsername(credentials.getUsername())).thenReturn(userLogged);
+		webClient.getPage(createWebRequestToLogin(credentials, true));
+
+		when(userService.getUserByUsername("usernameLogged")).thenReturn(userLogged);
+		when(userService.getLoggedUser(anyString(), eq("usernameLogged"))).thenReturn(loggedUserOf(userLogged));
+		when(userService.getFollowSuggestions(1L, 5)).thenReturn(asList(new FollowSuggestionDTO(3L, "suggested", 2)));
+		HtmlPage page = webClient.getPage("/profile/usernameLogged");
+
+		assertThat(page.getElementById("followSuggestions").asText()).contains("Who to follow", "suggested",
+				"followed by 2 you follow");
+		assertLinkPresentWithText(page, "suggested");
+	}
+
+	@Test
+	public void testProfile_WhenAnotherUserProfile_ShouldNotShowFollowSuggestions() throws Exception {
+		CredentialsDTO credentials = new CredentialsDTO("usernameLogged", "pwdLogged");
+		User userLogged = new User(1L, credentials.getUsername(), credentials.getPassword());
+		when(userService.getUserByUsername(credentials.getUsername())).thenReturn(userLogged);
+		webClient.getPage(createWebRequestToLogin(credentials, true));
+
+		when(userService.getUserByUsername("someUser")).thenReturn(new User(2L, "someUser", "pwd"));
+		when(userService.getLoggedUser(anyString(), eq("usernameLogged"))).thenReturn(loggedUserOf(userLogged));
+		HtmlPage page = webClient.getPage("/profile/someUser");
+
+		assertThat(page.getElementById("followSuggestions")).isNull();
+	}
+
+	@Test
+	public void testProfile_WhenAnotherUserProfile_ShouldShowKnownFollowers() throws Exception {
+		CredentialsDTO credentials = new CredentialsDTO("usernameLogged", "pwdLogged");
+		User userLogged = new User(1L, credentials.getUsername(), credentials.getPassword());
+		when(userService.getUserByUsername(credentials.getUsername())).thenReturn(userLogged);
+		webClient.getPage(createWebRequestToLogin(credentials, true));
+
+		when(userService.getUserByUsername("someUser")).thenReturn(new User(2L, "someUser", "pwd"));
+		when(userService.getLoggedUser(anyString(), eq("usernameLogged"))).thenReturn(loggedUserOf(userLogged));
+		when(userService.getMutuals(1L, 2L)).thenReturn(new MutualsDTO(5,
+				asList(new UserSummaryDTO(3L, "first"), new UserSummaryDTO(4L, "second"), new UserSummaryDTO(5L, "third"))));
+		HtmlPage page = webClient.getPage("/profile/someUser");
+
+		assertThat(page.getElementById("mutuals").asText())
+				.isEqualTo("Followed by first, second, third and 2 others you follow");
+		assertLinkPresentWithText(page, "second");
+
+		when(userService.getMutuals(1L, 2L)).thenReturn(new MutualsDTO(2,
+				asList(new UserSummaryDTO(3L, "first"), new UserSummaryDTO(4L, "second"))));
+		page = webClient.getPage("/profile/someUser");
+
+		assertThat(page.getElementById("mutuals").asText()).isEqualTo("Followed by first and second you follow");
+	}
+
+	@Test
+	public void testProfile_WhenNoKnownFollowers_ShouldNotShowThem() throws Exception {
+		CredentialsDTO credentials = new CredentialsDTO("usernameLogged", "pwdLogged");
+		User userLogged = new User(1L, credentials.getUsername(), credentials.getPassword());
+		when(userService.getUserByUsername(credentials.getUsername())).thenReturn(userLogged);
+		webClient.getPage(createWebRequestToLogin(credentials, true));
+
+		when(userService.getUserByUsername("someUser")).thenReturn(new User(2L, "someUser", "pwd"));
+		when(userService.getLoggedUser(anyString(), eq("usernameLogged"))).thenReturn(loggedUserOf(userLogged));
+		when(userService.getMutuals(1L, 2L)).thenReturn(new MutualsDTO(0, asList()));
+		HtmlPage page = webClient.getPage("/profile/someUser");
+
+		assertThat(page.getElementById("mutuals")).isNull();
+	}
+
 	@Test
 	public void testProfile_UserLoggedAndPressAddFollowed_ShouldRedirectToFollowedProfile() throws Exception {
 		CredentialsDTO credentials = new CredentialsDTO("usernameLogged", "pwdLogged");
@@ -542,11 +754,10 @@ public class WebViewTest {
 
 		User userFollowed = new User(2L, "userFollowed", "pwd");
 		when(userService.getUserByUsername("userFollowed")).thenReturn(userFollowed);
+		when(userService.getUserByUsername("userFollowed")).thenReturn(userFollowed);
+		when(userService.getLoggedUser(anyString(), eq(credentials.getUsername()))).thenReturn(loggedUserOf(userLogged));
 		
-		User userLoggedResult = new User(1L, credentials.getUsername(), credentials.getPassword());
-
-		userLoggedResult.addFollowedUser(userFollowed);
-		when(userService.addFollowedUser(userLogged, userFollowed)).thenReturn(userLogged);
+		when(userService.addFollowedUser(1L, 2L)).thenReturn(new RelationDTO(1L, 2L, true));
 
 		HtmlPage page = webClient.getPage("/profile/userFollowed");
 		final HtmlForm addToFollowedForm = page.getFormByName("addToFollowed_form");
@@ -569,8 +780,12 @@ public class WebViewTest {
 		webClient.getPage(requestToLogin);
 
 		when(userService.getUserByUsername("usernameLogged")).thenReturn(userLogged);
+		when(userService.getUserByUsername("usernameLogged")).thenReturn(userLogged);
+		when(userService.getLoggedUser(anyString(), eq("usernameLogged"))).thenReturn(loggedUserOf(userLogged));
 		webClient.getOptions().setThrowExceptionOnFailingStatusCode(false);
 
+		when(userService.passwordMatches(userLogged, "pwd")).thenReturn(true);
+
 		HtmlPage page = webClient.getPage("/profile/usernameLogged");
 		final HtmlForm changePasswordForm = page.getFormByName("changePassword_form");
 		changePasswordForm.getInputByName("oldPassword").setValueAttribute("pwd");
@@ -592,6 +807,8 @@ public class WebViewTest {
 		webClient.getPage(requestToLogin);
 
 		when(userService.getUserByUsername("usernameLogged")).thenReturn(userLogged);
+		when(userService.getUserByUsername("usernameLogged")).thenReturn(userLogged);
+		when(userService.getLoggedUser(anyString(), eq("usernameLogged"))).thenReturn(loggedUserOf(userLogged));
 		webClient.getOptions().setThrowExceptionOnFailingStatusCode(false);
 
 		HtmlPage page = webClient.getPage("/profile/usernameLogged");
@@ -630,12 +847,15 @@ public class WebViewTest {
 		webClient.getPage(requestToLogin);
 
 		when(userService.getUserByUsername("usernameLogged")).thenReturn(userLogged);
+		when(userService.getUserByUsername("usernameLogged")).thenReturn(userLogged);
+		when(userService.getLoggedUser(anyString(), eq("usernameLogged"))).thenReturn(loggedUserOf(userLogged));
 		webClient.getOptions().setThrowExceptionOnFailingStatusCode(false);
 
 		HtmlPage page = webClient.getPage("/profile/usernameLogged");
 		User userLoggedResult = new User(1L, credentials.getUsername(), "newPassword");
 
 		when(userService.changePassword(userLogged, "newPassword")).thenReturn(userLoggedResult);
+		when(userService.passwordMatches(userLogged, "pwd")).thenReturn(true);
 		final HtmlForm changePasswordForm = page.getFormByName("changePassword_form");
 		changePasswordForm.getInputByName("oldPassword").setValueAttribute("pwd");
 		changePasswordForm.getInputByName("newPassword").setValueAttribute("newPassword");
@@ -649,14 +869,15 @@ public class WebViewTest {
 	@Test
 	public void testProfileGame_ProfileGameFound_ShouldShowCorrectly() throws Exception {
 		Game game = new Game(1L, "game_nameTest", "description", new Date(1));
-		User user1 = new User(1L, "user1_nameTest", "pwd");
-		User user2 = new User(2L, "user2_nameTest", "pwd");
-		game.addUser(user1);
-		game.addUser(user2);
+		game.setLikeCount(2);
 
 		when(gameService.getGameByName("game_nameTest")).thenReturn(game);
+		when(gameService.getLikersPage(1L, null, 20)).thenReturn(new PageDTO<>(
+				asList(new UserSummaryDTO(1L, "user1_nameTest"), new UserSummaryDTO(2L, "user2_nameTest")), null));
 		HtmlPage page = webClient.getPage("/game/game_nameTest");
 
+		assertThat(page.getElementById("likeCount").getTextContent()).isEqualTo("2");
+
 		assertThat(page.getElementById("usersFans").getTextContent()).contains("user1_nameTest", "user2_nameTest");
 
 		String pattern = "dd-mm-yyyy";
@@ -672,6 +893,29 @@ public class WebViewTest {
 		assertLinkPresentWithText(page, "Go back to homepage");
 	}
 
+	@Test
+	public void testProfileGame_WithSimilarGames_ShouldLinkThem() throws Exception {
+		Game game = new Game(1L, "game_nameTest", "description", new Date(1));
+		when(gameService.getGameByName("game_nameTest")).thenReturn(game);
+		when(gameService.getSimilarGames(1L)).thenReturn(asList(new GameSummaryDTO(2L, "similar_game", new Date(1))));
+
+		HtmlPage page = webClient.getPage("/game/game_nameTest");
+
+		assertThat(page.getElementById("similarGames").asText()).contains("Users who liked this also liked",
+				"similar_game");
+		assertLinkPresentWithText(page, "similar_game");
+	}
+
+	@Test
+	public void testProfileGame_WithoutSimilarGames_ShouldHideSection() throws Exception {
+		Game game = new Game(1L, "game_nameTest", "description", new Date(1));
+		when(gameService.getGameByName("game_nameTest")).thenReturn(game);
+
+		HtmlPage page = webClient.getPage("/game/game_nameTest");
+
+		assertThat(page.getElementById("similarGames")).isNull();
+	}
+
 	@Test
 	public void testProfileGame_LoggedUserShouldSeeLikeButton() throws Exception {
 		CredentialsDTO credentials = new CredentialsDTO("username", "pwd");
@@ -701,11 +945,12 @@ public class WebViewTest {
 		when(gameService.getGameByName("game_nameTest")).thenReturn(game);
 		User loggedUserResult = new User(1L, credentials.getUsername(), credentials.getPassword());
 		loggedUserResult.addGame(game);
-		when(userService.addGame(loggedUser, game)).thenReturn(loggedUserResult);
+		when(userService.addGame(1L, 1L)).thenReturn(new RelationDTO(1L, 1L, true));
 
 		HtmlPage page = webClient.getPage("/game/game_nameTest");
 		game.addUser(loggedUser);
-		when(gameService.getGameByName("game_nameTest")).thenReturn(game);
+		when(userService.getLoggedUser(anyString(), eq(credentials.getUsername())))
+				.thenReturn(loggedUserOf(loggedUserResult));
 		HtmlPage pageGameAfterUserPutLike = page.getFormByName("like_form").getButtonByName("btn_like").click();
 
 		assertFormNotPresent(pageGameAfterUserPutLike, "like_form");
@@ -752,4 +997,15 @@ public class WebViewTest {
 		return requestSettings;
 	}
 
-}
+	private static LoggedUserDTO loggedUserOf(User user) throws UserNotFoundException {
+		if (user == null)
+			throw new UserNotFoundException("User not found");
+		Set<Long> followedUserIds = new HashSet<>();
+		if (user.getFollowedUsers() != null)
+			user.getFollowedUsers().forEach(followed -> followedUserIds.add(followed.getId()));
+		Set<Long> gameIds = new HashSet<>();
+		if (user.getGames() != null)
+			user.getGames().forEach(game -> gameIds.add(game.getId()));
+		return new LoggedUserDTO(user.getId(), user.getUsername(), followedUserIds, gameIds);
+	}
+}
\ No newline at end of file